@@ -0,0 +1,87 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files and flag regressions.
+
+Usage:
+    python3 scripts/compare_results.py baseline.json candidate.json [--threshold 10]
+
+Exits with status 1 when any benchmark is slower than the baseline by more
+than the threshold (percent), taking the reported error margins into account.
+"""
+import argparse
+import json
+import math
+import sys
+
+# Modes where a bigger score means a faster benchmark
+THROUGHPUT_MODES = {"thrpt"}
+
+
+def load(path):
+    with open(path) as f:
+        results = json.load(f)
+    scores = {}
+    for result in results:
+        params = result.get("params") or {}
+        suffix = ",".join(f"{k}={v}" for k, v in sorted(params.items()))
+        key = result["benchmark"] + (f"({suffix})" if suffix else "")
+        metric = result["primaryMetric"]
+        # JMH reports "NaN" as the error when only one iteration ran
+        error = float(metric.get("scoreError") or 0.0)
+        scores[key] = {
+            "mode": result["mode"],
+            "score": metric["score"],
+            "error": 0.0 if math.isnan(error) else error,
+            "unit": metric["scoreUnit"],
+        }
+    return scores
+
+
+def change_percent(base, candidate):
+    """Positive values are regressions regardless of the benchmark mode."""
+    if base["score"] == 0:
+        return 0.0
+    delta = (candidate["score"] - base["score"]) / base["score"] * 100.0
+    return -delta if base["mode"] in THROUGHPUT_MODES else delta
+
+
+def within_noise(base, candidate):
+    return abs(candidate["score"] - base["score"]) <= base["error"] + candidate["error"]
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("candidate")
+    parser.add_argument("--threshold", type=float, default=10.0,
+                        help="allowed slowdown in percent before failing (default: 10)")
+    args = parser.parse_args()
+
+    baseline = load(args.baseline)
+    candidate = load(args.candidate)
+
+    regressions = []
+    print(f"{'benchmark':<80} {'baseline':>14} {'candidate':>14} {'change':>9}")
+    for key in sorted(baseline.keys() | candidate.keys()):
+        base = baseline.get(key)
+        cand = candidate.get(key)
+        if base is None or cand is None:
+            status = "new" if base is None else "removed"
+            print(f"{key:<80} {'-':>14} {'-':>14} {status:>9}")
+            continue
+        change = change_percent(base, cand)
+        flag = ""
+        if change > args.threshold and not within_noise(base, cand):
+            flag = "  REGRESSION"
+            regressions.append(key)
+        print(f"{key:<80} {base['score']:>10.3f} {base['unit']:<3} {cand['score']:>10.3f} {cand['unit']:<3}"
+              f" {change:>+8.1f}%{flag}")
+
+    if regressions:
+        print(f"\n{len(regressions)} benchmark(s) regressed by more than {args.threshold}%")
+        return 1
+    print("\nNo regressions above threshold")
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
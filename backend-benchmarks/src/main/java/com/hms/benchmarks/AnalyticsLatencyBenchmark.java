@@ -0,0 +1,119 @@
+package com.hms.benchmarks;
+
+import com.hms.model.Booking;
+import com.hms.model.Guest;
+import com.hms.model.Payment;
+import com.hms.model.Room;
+import com.hms.repository.BookingRepository;
+import com.hms.repository.PaymentRepository;
+import com.hms.repository.RoomRepository;
+import com.hms.service.AnalyticsCache;
+import com.hms.service.AnalyticsQueryExecutor;
+import com.hms.service.AnalyticsService;
+import com.hms.service.HotelMetricsService;
+import com.hms.service.OccupancyEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock latency of AnalyticsService.getMonthlyComparison with the
+ * sub-queries run one after another versus concurrently.
+ *
+ * Repositories are stubs that wait queryLatencyMicros before answering, so
+ * the result reflects how many round trips sit on the critical path (eight
+ * sequentially, one per month in parallel) rather than database speed. The
+ * result cache is cleared before every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyticsLatencyBenchmark {
+
+    @Param({ "sequential", "parallel" })
+    private String mode;
+
+    @Param({ "2000" })
+    private long queryLatencyMicros;
+
+    private AnalyticsService analyticsService;
+    private AnalyticsCache analyticsCache;
+    private AnalyticsQueryExecutor queryExecutor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Room room = new Room(1L, "101", Room.RoomType.DOUBLE, new BigDecimal("150.00"), Room.RoomStatus.AVAILABLE,
+                "Double");
+        Guest guest = new Guest();
+        guest.setId(1L);
+
+        List<Booking> bookings = new ArrayList<>();
+        List<Payment> payments = new ArrayList<>();
+        LocalDate monthStart = LocalDate.of(2024, 6, 1);
+        for (long id = 1; id <= 300; id++) {
+            LocalDate checkIn = monthStart.plusDays(random.nextInt(30));
+            Booking booking = new Booking(id, room, guest, checkIn, checkIn.plusDays(1 + random.nextInt(4)),
+                    new BigDecimal("450.00"), Booking.BookingStatus.CONFIRMED, null);
+            bookings.add(booking);
+
+            Payment payment = new Payment();
+            payment.setBooking(booking);
+            payment.setSubtotal(new BigDecimal("450.00"));
+            payment.setAmount(new BigDecimal("533.25"));
+            payment.setStateTax(new BigDecimal("18.00"));
+            payment.setCountyTax(new BigDecimal("25.88"));
+            payment.setCityTax(new BigDecimal("16.88"));
+            payments.add(payment);
+        }
+
+        analyticsCache = new AnalyticsCache();
+        queryExecutor = new AnalyticsQueryExecutor();
+        ReflectionTestUtils.setField(queryExecutor, "parallel", mode.equals("parallel"));
+
+        analyticsService = new AnalyticsService();
+        ReflectionTestUtils.setField(analyticsService, "roomRepository", Fixtures.repositoryWithLatency(
+                RoomRepository.class, queryLatencyMicros,
+                Map.of("countRoomsByType", List.<Object[]>of(new Object[] { Room.RoomType.DOUBLE, 120L }))));
+        ReflectionTestUtils.setField(analyticsService, "bookingRepository", Fixtures.repositoryWithLatency(
+                BookingRepository.class, queryLatencyMicros,
+                Map.of("findByCheckInDateBetween", bookings, "findStaysOverlapping", bookings)));
+        ReflectionTestUtils.setField(analyticsService, "paymentRepository", Fixtures.repositoryWithLatency(
+                PaymentRepository.class, queryLatencyMicros, Map.of("findByBookingCheckInDateBetween", payments)));
+        ReflectionTestUtils.setField(analyticsService, "metricsService", new HotelMetricsService());
+        ReflectionTestUtils.setField(analyticsService, "analyticsCache", analyticsCache);
+        ReflectionTestUtils.setField(analyticsService, "queryExecutor", queryExecutor);
+        ReflectionTestUtils.setField(analyticsService, "occupancyEngine", new OccupancyEngine());
+    }
+
+    @TearDown
+    public void tearDown() {
+        queryExecutor.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Object> monthlyComparison() {
+        analyticsCache.invalidateAll();
+        return analyticsService.getMonthlyComparison(2024, 6);
+    }
+}
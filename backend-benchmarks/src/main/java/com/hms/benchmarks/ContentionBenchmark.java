@@ -0,0 +1,159 @@
+package com.hms.benchmarks;
+
+import com.hms.config.RetryOnConflict;
+import com.hms.config.RetryOnConflictAspect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent read-modify-write updates (e.g. flipping Room.status) from 8
+ * threads, comparing @Version checks retried through RetryOnConflictAspect
+ * with holding a row lock for the whole transaction (SELECT ... FOR UPDATE).
+ *
+ * The database is simulated: a transaction is a read, a park of
+ * transactionMicros standing in for the round trips, and a version-checked
+ * write. rows=1 is a single hot room; larger values spread the writers out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ContentionBenchmark {
+
+    @Param({ "1", "8", "64" })
+    private int rows;
+
+    @Param({ "optimistic", "pessimistic" })
+    private String strategy;
+
+    @Param({ "200" })
+    private long transactionMicros;
+
+    private VersionedTable table;
+    private Updater updater;
+
+    @Setup
+    public void setUp() {
+        table = new VersionedTable(rows, transactionMicros * 1000);
+        if (strategy.equals("optimistic")) {
+            // Same proxy the Spring context would build around a service
+            AspectJProxyFactory factory = new AspectJProxyFactory(new OptimisticUpdater(table));
+            factory.setProxyTargetClass(true);
+            factory.addAspect(new RetryOnConflictAspect());
+            updater = factory.getProxy();
+        } else {
+            updater = new PessimisticUpdater(table);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (table.conflicts.sum() > 0) {
+            System.out.printf("%n%d version conflicts retried%n", table.conflicts.sum());
+        }
+    }
+
+    @Benchmark
+    public void update() {
+        updater.update(ThreadLocalRandom.current().nextInt(rows));
+    }
+
+    /** Rows with a value and a version, like an entity table with @Version. */
+    static final class VersionedTable {
+        final AtomicLongArray versions;
+        final long[] values;
+        final ReentrantLock[] locks;
+        final long transactionNanos;
+        final LongAdder conflicts = new LongAdder();
+        final AtomicLong committed = new AtomicLong();
+
+        VersionedTable(int rows, long transactionNanos) {
+            this.versions = new AtomicLongArray(rows);
+            this.values = new long[rows];
+            this.locks = new ReentrantLock[rows];
+            for (int i = 0; i < rows; i++) {
+                locks[i] = new ReentrantLock();
+            }
+            this.transactionNanos = transactionNanos;
+        }
+
+        /** UPDATE ... SET version = version + 1 WHERE id = ? AND version = ? */
+        boolean write(int row, long expectedVersion, long value) {
+            if (!versions.compareAndSet(row, expectedVersion, expectedVersion + 1)) {
+                conflicts.increment();
+                return false;
+            }
+            values[row] = value;
+            committed.incrementAndGet();
+            return true;
+        }
+    }
+
+    public abstract static class Updater {
+        public abstract void update(int row);
+    }
+
+    public static class OptimisticUpdater extends Updater {
+        private final VersionedTable table;
+
+        OptimisticUpdater(VersionedTable table) {
+            this.table = table;
+        }
+
+        @Override
+        @RetryOnConflict(maxAttempts = 1000, backoffMillis = 1, maxBackoffMillis = 16)
+        public void update(int row) {
+            long version = table.versions.get(row);
+            long value = table.values[row];
+            LockSupport.parkNanos(table.transactionNanos);
+            if (!table.write(row, version, value + 1)) {
+                throw new ObjectOptimisticLockingFailureException("Room", row);
+            }
+        }
+    }
+
+    public static class PessimisticUpdater extends Updater {
+        private final VersionedTable table;
+
+        PessimisticUpdater(VersionedTable table) {
+            this.table = table;
+        }
+
+        @Override
+        public void update(int row) {
+            ReentrantLock lock = table.locks[row];
+            lock.lock();
+            try {
+                long version = table.versions.get(row);
+                long value = table.values[row];
+                LockSupport.parkNanos(table.transactionNanos);
+                table.write(row, version, value + 1);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
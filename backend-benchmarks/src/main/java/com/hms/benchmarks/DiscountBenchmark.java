@@ -0,0 +1,58 @@
+package com.hms.benchmarks;
+
+import com.hms.model.PromoCode;
+import com.hms.service.EnhancedPaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EnhancedPaymentService.calculateDiscount for both promo code types.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiscountBenchmark {
+
+    private EnhancedPaymentService paymentService;
+    private PromoCode percentage;
+    private PromoCode fixedAmount;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        paymentService = new EnhancedPaymentService();
+
+        percentage = new PromoCode();
+        percentage.setDiscountType(PromoCode.DiscountType.PERCENTAGE);
+        percentage.setDiscountValue(new BigDecimal("15"));
+
+        fixedAmount = new PromoCode();
+        fixedAmount.setDiscountType(PromoCode.DiscountType.FIXED_AMOUNT);
+        fixedAmount.setDiscountValue(new BigDecimal("50"));
+
+        amount = new BigDecimal("749.97");
+    }
+
+    @Benchmark
+    public BigDecimal percentageDiscount() {
+        return paymentService.calculateDiscount(amount, percentage);
+    }
+
+    @Benchmark
+    public BigDecimal fixedAmountDiscount() {
+        return paymentService.calculateDiscount(amount, fixedAmount);
+    }
+}
@@ -0,0 +1,72 @@
+package com.hms.benchmarks;
+
+import com.hms.model.Room;
+import com.hms.service.BookingService;
+import com.hms.model.RateCalendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingService.calculateDynamicPrice for stays from a single night up to a
+ * full year, with and without a rate calendar season covering the stay.
+ * Without overrides the time should be flat across nights.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicPricingBenchmark {
+
+    @Param({ "1", "3", "7", "30", "90", "365" })
+    private int nights;
+
+    @Param({ "false", "true" })
+    private boolean seasonalRates;
+
+    private BookingService bookingService;
+    private Room room;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    @Setup
+    public void setUp() {
+        // Wednesday, so short stays do not start on a weekend night
+        checkIn = LocalDate.of(2025, 1, 1);
+        checkOut = checkIn.plusDays(nights);
+
+        List<RateCalendar> rates = new ArrayList<>();
+        if (seasonalRates) {
+            for (LocalDate date = checkIn.minusDays(30); date.isBefore(checkOut.plusDays(30)); date = date.plusDays(1)) {
+                RateCalendar rate = new RateCalendar();
+                rate.setRoomType(Room.RoomType.DOUBLE);
+                rate.setStayDate(date);
+                rate.setPrice(new BigDecimal("189.00"));
+                rates.add(rate);
+            }
+        }
+        bookingService = Fixtures.bookingService(rates);
+        room = new Room(1L, "101", Room.RoomType.DOUBLE, new BigDecimal("149.99"), Room.RoomStatus.AVAILABLE,
+                "Double Room");
+    }
+
+    @Benchmark
+    public BigDecimal calculateDynamicPrice() {
+        return bookingService.calculateDynamicPrice(room, checkIn, checkOut);
+    }
+}
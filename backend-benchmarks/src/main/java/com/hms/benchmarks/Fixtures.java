@@ -0,0 +1,116 @@
+package com.hms.benchmarks;
+
+import com.hms.config.JwtUtils;
+import com.hms.model.RateCalendar;
+import com.hms.model.TaxConfiguration;
+import com.hms.repository.RateCalendarRepository;
+import com.hms.repository.TaxConfigurationRepository;
+import com.hms.service.BookingService;
+import com.hms.service.RateCalendarService;
+import com.hms.service.StayPricingEngine;
+import com.hms.service.TaxCalculationService;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Builds backend services outside of the Spring context so the benchmarks
+ * measure the computation itself rather than container or database overhead.
+ */
+public final class Fixtures {
+
+    // Same key as application.properties
+    public static final String JWT_SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private Fixtures() {
+    }
+
+    /**
+     * New York City configuration from TaxDataSeeder
+     */
+    public static TaxConfiguration nycTaxConfiguration() {
+        TaxConfiguration nyc = new TaxConfiguration("NY", "New York", "New York");
+        nyc.setStateSalesTaxRate(new BigDecimal("0.0400"));
+        nyc.setCountyOccupancyTaxRate(new BigDecimal("0.0575"));
+        nyc.setCityOccupancyTaxRate(new BigDecimal("0.0375"));
+        nyc.setResortFeeRate(new BigDecimal("0.0200"));
+        return nyc;
+    }
+
+    /**
+     * Repository stub that answers the named query method with a fixed result
+     */
+    public static <T> T repositoryReturning(Class<T> repositoryType, String methodName, Object result) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] { repositoryType },
+                (instance, method, args) -> {
+                    if (method.getName().equals(methodName)) {
+                        return result;
+                    }
+                    if (method.getName().equals("toString")) {
+                        return "Stub" + repositoryType.getSimpleName();
+                    }
+                    throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+                });
+        return repositoryType.cast(proxy);
+    }
+
+    /**
+     * Repository stub that answers the named query methods after a fixed
+     * delay, standing in for a database round trip
+     */
+    public static <T> T repositoryWithLatency(Class<T> repositoryType, long latencyMicros,
+            Map<String, Object> results) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] { repositoryType },
+                (instance, method, args) -> {
+                    if (results.containsKey(method.getName())) {
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+                        return results.get(method.getName());
+                    }
+                    if (method.getName().equals("toString")) {
+                        return "Stub" + repositoryType.getSimpleName();
+                    }
+                    throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+                });
+        return repositoryType.cast(proxy);
+    }
+
+    public static TaxCalculationService taxCalculationService(TaxConfiguration config) {
+        TaxCalculationService service = new TaxCalculationService();
+        ReflectionTestUtils.setField(service, "taxConfigRepository",
+                repositoryReturning(TaxConfigurationRepository.class, "findActiveConfiguration",
+                        Optional.of(config)));
+        return service;
+    }
+
+    /**
+     * Rate calendar loaded from the given rows instead of the database
+     */
+    public static RateCalendarService rateCalendarService(List<RateCalendar> rates) {
+        RateCalendarService service = new RateCalendarService();
+        ReflectionTestUtils.setField(service, "rateCalendarRepository",
+                repositoryReturning(RateCalendarRepository.class, "findAll", rates));
+        return service;
+    }
+
+    /**
+     * BookingService with only its pricing collaborators wired
+     */
+    public static BookingService bookingService(List<RateCalendar> rates) {
+        BookingService service = new BookingService();
+        ReflectionTestUtils.setField(service, "stayPricingEngine", new StayPricingEngine());
+        ReflectionTestUtils.setField(service, "rateCalendarService", rateCalendarService(rates));
+        return service;
+    }
+
+    public static JwtUtils jwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 86400000L);
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,103 @@
+package com.hms.benchmarks;
+
+import com.hms.service.HotelMetricsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every HotelMetricsService calculation, using the inputs of a 120 room hotel
+ * over a 30 day period.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotelMetricsBenchmark {
+
+    private HotelMetricsService metricsService;
+
+    private BigDecimal roomRevenue;
+    private BigDecimal totalRevenue;
+    private BigDecimal grossOperatingProfit;
+    private BigDecimal hotelOccupancy;
+    private BigDecimal marketOccupancy;
+    private BigDecimal hotelRevPAR;
+    private BigDecimal marketRevPAR;
+    private int roomsSold;
+    private int availableRooms;
+    private int roomNights;
+    private int reservations;
+
+    @Setup
+    public void setUp() {
+        metricsService = new HotelMetricsService();
+        roomRevenue = new BigDecimal("412875.50");
+        totalRevenue = new BigDecimal("538120.25");
+        grossOperatingProfit = new BigDecimal("161436.08");
+        hotelOccupancy = new BigDecimal("76.39");
+        marketOccupancy = new BigDecimal("71.80");
+        hotelRevPAR = new BigDecimal("114.69");
+        marketRevPAR = new BigDecimal("102.35");
+        roomsSold = 2750;
+        availableRooms = 3600;
+        roomNights = 2750;
+        reservations = 1013;
+    }
+
+    @Benchmark
+    public BigDecimal adr() {
+        return metricsService.calculateADR(roomRevenue, roomsSold);
+    }
+
+    @Benchmark
+    public BigDecimal revPAR() {
+        return metricsService.calculateRevPAR(roomRevenue, availableRooms);
+    }
+
+    @Benchmark
+    public BigDecimal revPOR() {
+        return metricsService.calculateRevPOR(totalRevenue, roomsSold);
+    }
+
+    @Benchmark
+    public BigDecimal occupancyRate() {
+        return metricsService.calculateOccupancyRate(roomsSold, availableRooms);
+    }
+
+    @Benchmark
+    public BigDecimal goppar() {
+        return metricsService.calculateGOPPAR(grossOperatingProfit, availableRooms);
+    }
+
+    @Benchmark
+    public BigDecimal tRevPAR() {
+        return metricsService.calculateTRevPAR(totalRevenue, availableRooms);
+    }
+
+    @Benchmark
+    public BigDecimal alos() {
+        return metricsService.calculateALOS(roomNights, reservations);
+    }
+
+    @Benchmark
+    public BigDecimal mpi() {
+        return metricsService.calculateMPI(hotelOccupancy, marketOccupancy);
+    }
+
+    @Benchmark
+    public BigDecimal rgi() {
+        return metricsService.calculateRGI(hotelRevPAR, marketRevPAR);
+    }
+}
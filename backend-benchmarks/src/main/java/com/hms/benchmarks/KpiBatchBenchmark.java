@@ -0,0 +1,88 @@
+package com.hms.benchmarks;
+
+import com.hms.service.FixedPointKpiCalculator;
+import com.hms.service.HotelMetricsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ADR, RevPAR and occupancy for every row of a daily per-room-type report
+ * (365 days x 4 room types), through HotelMetricsService's BigDecimal methods
+ * versus FixedPointKpiCalculator's array methods.
+ *
+ * Run with -prof gc to compare the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KpiBatchBenchmark {
+
+    @Param({ "1460" })
+    private int rows;
+
+    private HotelMetricsService metricsService;
+    private FixedPointKpiCalculator calculator;
+
+    private long[] revenueCents;
+    private BigDecimal[] revenue;
+    private int[] roomsSold;
+    private int[] availableRooms;
+    private long[] adr;
+    private long[] revPar;
+    private long[] occupancy;
+
+    @Setup
+    public void setUp() {
+        metricsService = new HotelMetricsService();
+        calculator = new FixedPointKpiCalculator();
+        Random random = new Random(42);
+        revenueCents = new long[rows];
+        revenue = new BigDecimal[rows];
+        roomsSold = new int[rows];
+        availableRooms = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            availableRooms[i] = 20 + random.nextInt(40);
+            roomsSold[i] = random.nextInt(availableRooms[i] + 1);
+            revenueCents[i] = roomsSold[i] * (9_000L + random.nextInt(30_000));
+            revenue[i] = BigDecimal.valueOf(revenueCents[i], 2);
+        }
+        adr = new long[rows];
+        revPar = new long[rows];
+        occupancy = new long[rows];
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < rows; i++) {
+            blackhole.consume(metricsService.calculateADR(revenue[i], roomsSold[i]));
+            blackhole.consume(metricsService.calculateRevPAR(revenue[i], availableRooms[i]));
+            blackhole.consume(metricsService.calculateOccupancyRate(roomsSold[i], availableRooms[i]));
+        }
+    }
+
+    @Benchmark
+    public void fixedPoint(Blackhole blackhole) {
+        calculator.adr(revenueCents, roomsSold, adr);
+        calculator.revPar(revenueCents, availableRooms, revPar);
+        calculator.occupancyRate(roomsSold, availableRooms, occupancy);
+        blackhole.consume(adr);
+        blackhole.consume(revPar);
+        blackhole.consume(occupancy);
+    }
+}
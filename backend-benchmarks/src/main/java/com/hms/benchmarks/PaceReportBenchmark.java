@@ -0,0 +1,78 @@
+package com.hms.benchmarks;
+
+import com.hms.model.Booking;
+import com.hms.repository.BookingRepository;
+import com.hms.service.BookingPaceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BookingPaceService: a 365-day forward pace report read from the matrix,
+ * and the cost of applying one booking change to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaceReportBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int bookings;
+
+    private BookingPaceService paceService;
+    private LocalDate today;
+    private BookingPaceService.StayNights change;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        today = LocalDate.now();
+        List<Booking> stays = new ArrayList<>(bookings);
+        for (int i = 0; i < bookings; i++) {
+            // Stays spread over last year and next year, booked up to 180 days ahead
+            LocalDate checkIn = today.minusDays(380).plusDays(random.nextInt(745));
+            Booking booking = new Booking();
+            booking.setCheckInDate(checkIn);
+            booking.setCheckOutDate(checkIn.plusDays(1 + random.nextInt(5)));
+            booking.setCreatedAt(checkIn.minusDays(random.nextInt(181)).atStartOfDay());
+            booking.setStatus(Booking.BookingStatus.CONFIRMED);
+            stays.add(booking);
+        }
+
+        paceService = new BookingPaceService();
+        ReflectionTestUtils.setField(paceService, "bookingRepository",
+                Fixtures.repositoryWithLatency(BookingRepository.class, 0, Map.of("findStaysOverlapping", stays)));
+        paceService.rebuild();
+        change = BookingPaceService.nightsOf(Booking.BookingStatus.CONFIRMED, today.plusDays(30),
+                today.plusDays(33), today);
+    }
+
+    @Benchmark
+    public Map<String, Object> forwardReport() {
+        return paceService.getPaceReport(today, today, 365, 7);
+    }
+
+    @Benchmark
+    public void applyBookingAndCancellation() {
+        paceService.applyChange(null, change);
+        paceService.applyChange(change, null);
+    }
+}
@@ -0,0 +1,47 @@
+package com.hms.benchmarks;
+
+import com.hms.service.TaxCalculationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaxCalculationService.calculateTaxes with the jurisdiction lookup stubbed
+ * out, so only the tax arithmetic and result map are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxCalculationBenchmark {
+
+    @Param({ "89.00", "1249.99", "48250.75" })
+    private String subtotal;
+
+    private TaxCalculationService taxCalculationService;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() {
+        taxCalculationService = Fixtures.taxCalculationService(Fixtures.nycTaxConfiguration());
+        amount = new BigDecimal(subtotal);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> calculateTaxes() {
+        return taxCalculationService.calculateTaxes(amount, "NY", "New York", "New York");
+    }
+}
@@ -0,0 +1,69 @@
+package com.hms.benchmarks;
+
+import com.hms.model.TaxQuote;
+import com.hms.model.TaxQuoteRequest;
+import com.hms.service.TaxCalculationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quotes per second for a 500-stay request spread over 20 jurisdictions:
+ * TaxCalculationService.quoteBatch versus one calculateTaxes call (and map)
+ * per stay. The jurisdiction lookup is stubbed; the target is 100k quotes/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaxQuoteBatchBenchmark {
+
+    private static final int QUOTES = 500;
+
+    private TaxCalculationService taxCalculationService;
+    private List<TaxQuoteRequest> requests;
+
+    @Setup
+    public void setUp() {
+        taxCalculationService = Fixtures.taxCalculationService(Fixtures.nycTaxConfiguration());
+        Random random = new Random(42);
+        LocalDate date = LocalDate.of(2024, 6, 1);
+        requests = new ArrayList<>(QUOTES);
+        for (int i = 0; i < QUOTES; i++) {
+            BigDecimal subtotal = BigDecimal.valueOf(8_900 + random.nextInt(200_000), 2);
+            requests.add(new TaxQuoteRequest(subtotal, "NY", "County " + (i % 20), "City " + (i % 20), date));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public List<TaxQuote> quoteBatch() {
+        return taxCalculationService.quoteBatch(requests);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUOTES)
+    public void calculateTaxesPerStay(Blackhole blackhole) {
+        for (TaxQuoteRequest request : requests) {
+            blackhole.consume(taxCalculationService.calculateTaxes(request.subtotal(), request.stateCode(),
+                    request.county(), request.city()));
+        }
+    }
+}
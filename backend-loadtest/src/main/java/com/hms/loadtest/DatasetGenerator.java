@@ -0,0 +1,364 @@
+package com.hms.loadtest;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Seeds the backend database with a realistic, multi-year dataset: rooms of
+ * every type, guests, non-overlapping bookings per room, a payment for every
+ * past stay and a stream of activity log entries.
+ *
+ * The schema is the one Hibernate creates, so the backend has to be started
+ * once against the database before seeding.
+ */
+public class DatasetGenerator {
+
+    static final String ROOM_DESCRIPTION = "Synthetic load-test room";
+    static final String GUEST_EMAIL_DOMAIN = "@loadtest.example";
+
+    private static final String[] ROOM_TYPES = { "SINGLE", "DOUBLE", "SUITE", "DORMITORY" };
+    // Share of each room type, in percent
+    private static final int[] ROOM_TYPE_MIX = { 35, 45, 12, 8 };
+    private static final BigDecimal[] ROOM_TYPE_PRICE = { new BigDecimal("89.00"), new BigDecimal("139.00"),
+            new BigDecimal("329.00"), new BigDecimal("39.00") };
+    private static final String[] ACTIONS = { "LOGIN", "CREATE_BOOKING", "CANCEL_BOOKING", "PROCESS_PAYMENT",
+            "UPDATE_ROOM", "CREATE_USER", "UPDATE_USER", "UPDATE_STOCK" };
+
+    // NYC rates from TaxDataSeeder
+    private static final String STATE_TAX = "0.0400";
+    private static final String COUNTY_TAX = "0.0575";
+    private static final String CITY_TAX = "0.0375";
+    private static final String RESORT_FEE = "0.0200";
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final LoadTestOptions options;
+    private final SplittableRandom random;
+
+    public DatasetGenerator(LoadTestOptions options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.getLong("seed", 42L));
+    }
+
+    public void generate() throws SQLException {
+        int roomCount = options.getInt("rooms", 500);
+        int guestCount = options.getInt("guests", 100_000);
+        long bookingCount = options.getLong("bookings", 2_000_000L);
+        long activityLogCount = options.getLong("activity-logs", 2_000_000L);
+        int years = options.getInt("years", 3);
+
+        try (Connection connection = DriverManager.getConnection(options.jdbcUrl(), options.dbUser(),
+                options.dbPassword())) {
+            connection.setAutoCommit(false);
+            checkSchema(connection);
+
+            long started = System.nanoTime();
+            List<long[]> rooms = seedRooms(connection, roomCount);
+            log("rooms", rooms.size(), started);
+
+            started = System.nanoTime();
+            long[] guestIds = seedGuests(connection, guestCount);
+            log("guests", guestIds.length, started);
+
+            started = System.nanoTime();
+            long firstBookingId = maxId(connection, "bookings") + 1;
+            long bookings = seedBookings(connection, rooms, guestIds, bookingCount, years);
+            log("bookings", bookings, started);
+
+            started = System.nanoTime();
+            long payments = seedPayments(connection, firstBookingId);
+            log("payments", payments, started);
+
+            started = System.nanoTime();
+            long logs = seedActivityLogs(connection, activityLogCount, years);
+            log("activity logs", logs, started);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+            connection.commit();
+        }
+    }
+
+    private void checkSchema(Connection connection) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(null, null, "payments", null)) {
+            if (!tables.next()) {
+                throw new IllegalStateException(
+                        "Schema not found. Start the backend once against this database so Hibernate creates it.");
+            }
+        }
+    }
+
+    /**
+     * @return one {id, typeIndex, priceCents} triple per generated room
+     */
+    private List<long[]> seedRooms(Connection connection, int count) throws SQLException {
+        String sql = "INSERT INTO rooms (room_number, type, price, status, description) VALUES (?, ?, ?, 'AVAILABLE', ?) "
+                + "ON CONFLICT (room_number) DO NOTHING";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                int type = pickRoomType();
+                // 40 rooms per floor starting at floor 1: 101..140, 201..240, ...
+                String roomNumber = String.format("%d%02d", i / 40 + 1, i % 40 + 1);
+                BigDecimal price = ROOM_TYPE_PRICE[type]
+                        .multiply(BigDecimal.valueOf(90 + random.nextInt(21)))
+                        .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+                insert.setString(1, roomNumber);
+                insert.setString(2, ROOM_TYPES[type]);
+                insert.setBigDecimal(3, price);
+                insert.setString(4, ROOM_DESCRIPTION);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        List<long[]> rooms = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, type, price FROM rooms WHERE description = ? ORDER BY id")) {
+            select.setString(1, ROOM_DESCRIPTION);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    int type = indexOf(ROOM_TYPES, rs.getString(2));
+                    long cents = rs.getBigDecimal(3).movePointRight(2).longValueExact();
+                    rooms.add(new long[] { rs.getLong(1), type, cents });
+                }
+            }
+        }
+        return rooms;
+    }
+
+    private long[] seedGuests(Connection connection, int count) throws SQLException {
+        long offset = maxId(connection, "guests");
+        String sql = "INSERT INTO guests (name, phone, email, address, created_at) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                long n = offset + i + 1;
+                insert.setString(1, "Guest " + n);
+                insert.setString(2, String.format("+1-555-%07d", n % 10_000_000));
+                insert.setString(3, "guest" + n + GUEST_EMAIL_DOMAIN);
+                insert.setString(4, (100 + random.nextInt(9900)) + " Main Street");
+                insert.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now().minusDays(random.nextInt(1500))));
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id FROM guests WHERE email LIKE ? ORDER BY id")) {
+            select.setString(1, "%" + GUEST_EMAIL_DOMAIN);
+            try (ResultSet rs = select.executeQuery()) {
+                List<Long> ids = new ArrayList<>();
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+                return ids.stream().mapToLong(Long::longValue).toArray();
+            }
+        }
+    }
+
+    /**
+     * Walks each room's timeline from the start of the history window to six
+     * months ahead, laying down back-to-back stays with short gaps so rooms
+     * never double-book.
+     */
+    private long seedBookings(Connection connection, List<long[]> rooms, long[] guestIds, long target, int years)
+            throws SQLException {
+        if (rooms.isEmpty() || guestIds.length == 0) {
+            return 0;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = today.minusYears(years);
+        LocalDate windowEnd = today.plusMonths(6);
+        long perRoom = Math.max(1, target / rooms.size());
+
+        String sql = "INSERT INTO bookings (room_id, guest_id, check_in_date, check_out_date, total_amount, status, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        long inserted = 0;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long[] room : rooms) {
+                LocalDate checkIn = windowStart.plusDays(random.nextInt(7));
+                for (long n = 0; n < perRoom && checkIn.isBefore(windowEnd); n++) {
+                    int nights = pickNights();
+                    LocalDate checkOut = checkIn.plusDays(nights);
+                    long leadDays = random.nextInt(120);
+                    LocalDateTime createdAt = checkIn.minusDays(leadDays).atTime(8 + random.nextInt(12),
+                            random.nextInt(60));
+                    if (createdAt.isAfter(LocalDateTime.now())) {
+                        createdAt = LocalDateTime.now().minusMinutes(random.nextInt(10_000));
+                    }
+
+                    insert.setLong(1, room[0]);
+                    insert.setLong(2, guestIds[random.nextInt(guestIds.length)]);
+                    insert.setObject(3, checkIn);
+                    insert.setObject(4, checkOut);
+                    insert.setBigDecimal(5, stayTotal(room[2], checkIn, checkOut));
+                    insert.setString(6, random.nextInt(100) < 5 ? "CANCELLED" : "CONFIRMED");
+                    insert.setTimestamp(7, Timestamp.valueOf(createdAt));
+                    insert.addBatch();
+
+                    if (++inserted % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                    checkIn = checkOut.plusDays(pickGap());
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return inserted;
+    }
+
+    /**
+     * One payment per past, non-cancelled booking, generated set-based in the
+     * database rather than row by row.
+     */
+    private long seedPayments(Connection connection, long firstBookingId) throws SQLException {
+        String subtotal = "b.total_amount";
+        String sql = "INSERT INTO payments (booking_id, amount, subtotal, state_tax, county_tax, city_tax, resort_fee, "
+                + "service_charge, discount_amount, refund_amount, invoice_number, payment_date, method, status) "
+                + "SELECT b.id, "
+                + subtotal + " + round(" + subtotal + " * " + STATE_TAX + ", 2) + round(" + subtotal + " * " + COUNTY_TAX
+                + ", 2) + round(" + subtotal + " * " + CITY_TAX + ", 2) + round(" + subtotal + " * " + RESORT_FEE + ", 2), "
+                + subtotal + ", "
+                + "round(" + subtotal + " * " + STATE_TAX + ", 2), "
+                + "round(" + subtotal + " * " + COUNTY_TAX + ", 2), "
+                + "round(" + subtotal + " * " + CITY_TAX + ", 2), "
+                + "round(" + subtotal + " * " + RESORT_FEE + ", 2), "
+                + "0, 0, 0, "
+                + "'LT-' || b.id, "
+                + "b.check_in_date + time '15:00' + (b.id % 360) * interval '1 minute', "
+                + "CASE b.id % 4 WHEN 0 THEN 'CASH' WHEN 1 THEN 'UPI' ELSE 'CARD' END, "
+                + "'PAID' "
+                + "FROM bookings b WHERE b.id >= ? AND b.status <> 'CANCELLED' AND b.check_in_date <= CURRENT_DATE";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            insert.setLong(1, firstBookingId);
+            int rows = insert.executeUpdate();
+            connection.commit();
+            return rows;
+        }
+    }
+
+    private long seedActivityLogs(Connection connection, long count, int years) throws SQLException {
+        List<Long> userIds = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT id FROM users")) {
+            while (rs.next()) {
+                userIds.add(rs.getLong(1));
+            }
+        }
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+
+        long windowSeconds = years * 365L * 24 * 3600;
+        LocalDateTime windowStart = LocalDateTime.now().minusYears(years);
+        String sql = "INSERT INTO activity_logs (user_id, action, details, timestamp) VALUES (?, ?, ?, ?)";
+        long inserted = 0;
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (long i = 0; i < count; i++) {
+                String action = ACTIONS[random.nextInt(ACTIONS.length)];
+                insert.setLong(1, userIds.get(random.nextInt(userIds.size())));
+                insert.setString(2, action);
+                insert.setString(3, "Synthetic " + action.toLowerCase().replace('_', ' ') + " #" + i);
+                insert.setTimestamp(4, Timestamp.valueOf(windowStart.plusSeconds(random.nextLong(windowSeconds))));
+                insert.addBatch();
+                if (++inserted % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return inserted;
+    }
+
+    /**
+     * Same rule as BookingService.calculateDynamicPrice: +20% on Friday and
+     * Saturday nights.
+     */
+    private static BigDecimal stayTotal(long priceCents, LocalDate checkIn, LocalDate checkOut) {
+        // Tenths of a cent keep the weekend surcharge exact
+        long total = 0;
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+            DayOfWeek day = night.getDayOfWeek();
+            boolean weekend = day == DayOfWeek.FRIDAY || day == DayOfWeek.SATURDAY;
+            total += priceCents * (weekend ? 12 : 10);
+        }
+        return BigDecimal.valueOf(total, 3).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private int pickRoomType() {
+        int roll = random.nextInt(100);
+        for (int i = 0; i < ROOM_TYPE_MIX.length; i++) {
+            roll -= ROOM_TYPE_MIX[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    // Mostly short stays with a long tail
+    private int pickNights() {
+        int roll = random.nextInt(100);
+        if (roll < 40) {
+            return 1 + random.nextInt(2);
+        }
+        if (roll < 85) {
+            return 3 + random.nextInt(3);
+        }
+        if (roll < 98) {
+            return 6 + random.nextInt(9);
+        }
+        return 15 + random.nextInt(30);
+    }
+
+    // Around 70-80% occupancy
+    private int pickGap() {
+        int roll = random.nextInt(100);
+        return roll < 45 ? 0 : roll < 80 ? 1 : 2 + random.nextInt(4);
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static void log(String what, long rows, long startedNanos) {
+        long millis = (System.nanoTime() - startedNanos) / 1_000_000;
+        System.out.printf("Seeded %,d %s in %,d ms%n", rows, what, millis);
+    }
+}
@@ -0,0 +1,28 @@
+package com.hms.loadtest;
+
+/**
+ * Entry point. Commands:
+ * <ul>
+ * <li>seed - generate the synthetic dataset</li>
+ * <li>run - drive mixed traffic against a running backend</li>
+ * <li>all - seed, then run (default)</li>
+ * </ul>
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions(args);
+        String command = options.getCommand();
+
+        if (command.equals("seed") || command.equals("all")) {
+            new DatasetGenerator(options).generate();
+        }
+        if (command.equals("run") || command.equals("all")) {
+            new TrafficDriver(options).run();
+        }
+        if (!command.matches("seed|run|all")) {
+            System.err.println("Unknown command '" + command + "'. Use seed, run or all.");
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.hms.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options in --name=value form. Every option has a default so
+ * the tool runs against a local install without arguments.
+ */
+public class LoadTestOptions {
+
+    private final String command;
+    private final Map<String, String> values = new HashMap<>();
+
+    public LoadTestOptions(String[] args) {
+        String cmd = "all";
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    values.put(arg.substring(2), "true");
+                } else {
+                    values.put(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            } else {
+                cmd = arg;
+            }
+        }
+        this.command = cmd;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    public int getInt(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    public long getLong(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    /**
+     * Durations accept ISO-8601 (PT30S) or a plain number of seconds
+     */
+    public Duration getDuration(String name, Duration defaultValue) {
+        String value = values.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    /**
+     * Parses a weight list such as availability:50,booking:20
+     */
+    public Map<String, Integer> getWeights(String name, String defaultValue) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : get(name, defaultValue).split(",")) {
+            String[] pair = part.trim().split(":");
+            weights.put(pair[0], Integer.parseInt(pair[1]));
+        }
+        return weights;
+    }
+
+    // Database
+    public String jdbcUrl() {
+        return get("jdbc-url", "jdbc:postgresql://localhost:5432/HMSP?reWriteBatchedInserts=true");
+    }
+
+    public String dbUser() {
+        return get("db-user", "postgres");
+    }
+
+    public String dbPassword() {
+        return get("db-password", "1234");
+    }
+
+    // API
+    public String baseUrl() {
+        return get("base-url", "http://localhost:8080/api");
+    }
+
+    public String email() {
+        return get("email", "reception@hms.com");
+    }
+
+    public String password() {
+        return get("password", "reception123");
+    }
+}
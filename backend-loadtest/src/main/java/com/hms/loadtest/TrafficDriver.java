@@ -0,0 +1,270 @@
+package com.hms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drives a weighted mix of availability searches, booking creation, payment
+ * processing and dashboard reads against a running backend from a fixed
+ * number of closed-loop workers, then reports throughput and latency
+ * percentiles per endpoint.
+ */
+public class TrafficDriver {
+
+    static final String AVAILABILITY = "availability";
+    static final String BOOKING = "booking";
+    static final String PAYMENT = "payment";
+    static final String DASHBOARD = "dashboard";
+
+    private final LoadTestOptions options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    // Bookings created during the run, waiting for a payment
+    private final BlockingQueue<Long> unpaidBookings = new ArrayBlockingQueue<>(100_000);
+
+    private String token;
+    private long[] roomIds;
+    private long[] guestIds;
+    private volatile boolean measuring;
+
+    public TrafficDriver(LoadTestOptions options) {
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (String endpoint : List.of(AVAILABILITY, BOOKING, PAYMENT, DASHBOARD)) {
+            histograms.put(endpoint, new LatencyHistogram());
+        }
+    }
+
+    public void run() throws Exception {
+        int threads = options.getInt("threads", 16);
+        Duration warmup = options.getDuration("warmup", Duration.ofSeconds(15));
+        Duration duration = options.getDuration("duration", Duration.ofSeconds(60));
+        Map<String, Integer> weights = options.getWeights("mix", "availability:50,booking:20,payment:15,dashboard:15");
+
+        token = login();
+        loadTargets();
+        System.out.printf("Driving %s with %d workers: %s warmup, %s measured, mix %s%n", options.baseUrl(), threads,
+                warmup, duration, weights);
+
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < end) {
+                        execute(pick(weights));
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        Thread.sleep(Math.max(0, (warmupEnd - System.nanoTime()) / 1_000_000));
+        measuring = true;
+        long measureStart = System.nanoTime();
+        done.await();
+        double seconds = (System.nanoTime() - measureStart) / 1e9;
+
+        report(seconds);
+    }
+
+    private void execute(String endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request;
+        switch (endpoint) {
+            case BOOKING -> {
+                // Spread far into the future so most attempts find the room free
+                LocalDate checkIn = LocalDate.now().plusDays(30 + random.nextInt(1000));
+                String body = String.format(
+                        "{\"room\":{\"id\":%d},\"guest\":{\"id\":%d},\"checkInDate\":\"%s\",\"checkOutDate\":\"%s\"}",
+                        roomIds[random.nextInt(roomIds.length)], guestIds[random.nextInt(guestIds.length)], checkIn,
+                        checkIn.plusDays(1 + random.nextInt(4)));
+                request = post("/bookings", body);
+            }
+            case PAYMENT -> {
+                Long bookingId = unpaidBookings.poll();
+                if (bookingId == null) {
+                    execute(BOOKING);
+                    return;
+                }
+                String body = String.format("{\"bookingId\":%d,\"stateCode\":\"NY\",\"county\":\"New York\","
+                        + "\"city\":\"New York\",\"paymentMethod\":\"CARD\"}", bookingId);
+                request = post("/payments/process", body);
+            }
+            case DASHBOARD -> request = get("/analytics/summary");
+            default -> {
+                LocalDate checkIn = LocalDate.now().plusDays(random.nextInt(365));
+                request = get("/rooms/available?checkIn=" + checkIn + "&checkOut="
+                        + checkIn.plusDays(1 + random.nextInt(5)));
+            }
+        }
+
+        long started = System.nanoTime();
+        boolean error;
+        String responseBody = null;
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            error = response.statusCode() >= 400;
+            responseBody = response.body();
+        } catch (IOException e) {
+            error = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long micros = (System.nanoTime() - started) / 1000;
+
+        if (measuring) {
+            histograms.get(endpoint).record(micros, error);
+        }
+        if (endpoint.equals(BOOKING) && !error) {
+            rememberBooking(responseBody);
+        }
+    }
+
+    private void rememberBooking(String responseBody) {
+        try {
+            JsonNode id = objectMapper.readTree(responseBody).get("id");
+            if (id != null) {
+                unpaidBookings.offer(id.asLong());
+            }
+        } catch (IOException ignored) {
+            // Not a booking body; nothing to pay for
+        }
+    }
+
+    private String login() throws IOException, InterruptedException {
+        String body = objectMapper.writeValueAsString(Map.of("email", options.email(), "password", options.password()));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(options.baseUrl() + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed for " + options.email() + ": " + response.body());
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    /**
+     * Picks the rooms and guests to book from the database directly, since
+     * listing every guest over the API would dominate the warmup.
+     */
+    private void loadTargets() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(options.jdbcUrl(), options.dbUser(),
+                options.dbPassword());
+                Statement statement = connection.createStatement()) {
+            roomIds = ids(statement, "SELECT id FROM rooms");
+            guestIds = ids(statement, "SELECT id FROM guests ORDER BY random() LIMIT 10000");
+        }
+        if (roomIds.length == 0 || guestIds.length == 0) {
+            throw new IllegalStateException("No rooms or guests found. Run the seed command first.");
+        }
+    }
+
+    private static long[] ids(Statement statement, String sql) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(options.baseUrl() + path))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String pick(Map<String, Integer> weights) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        return AVAILABILITY;
+    }
+
+    private void report(double seconds) throws IOException {
+        System.out.printf("%n%-14s %10s %8s %10s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        long totalRequests = 0;
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            totalRequests += h.count();
+            System.out.printf("%-14s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), h.count(),
+                    h.errors(), h.count() / seconds, h.percentileMicros(50) / 1000.0, h.percentileMicros(90) / 1000.0,
+                    h.percentileMicros(99) / 1000.0, h.percentileMicros(99.9) / 1000.0, h.maxMicros() / 1000.0);
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", entry.getKey());
+            row.put("requests", h.count());
+            row.put("errors", h.errors());
+            row.put("throughput", h.count() / seconds);
+            row.put("p50Micros", h.percentileMicros(50));
+            row.put("p90Micros", h.percentileMicros(90));
+            row.put("p99Micros", h.percentileMicros(99));
+            row.put("p999Micros", h.percentileMicros(99.9));
+            row.put("maxMicros", h.maxMicros());
+            rows.add(row);
+        }
+        System.out.printf("%-14s %10d %8s %10.1f%n", "total", totalRequests, "", totalRequests / seconds);
+
+        String reportPath = options.get("report", null);
+        if (reportPath != null) {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("seconds", seconds);
+            report.put("threads", options.getInt("threads", 16));
+            report.put("endpoints", rows);
+            Files.writeString(Path.of(reportPath),
+                    objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+            System.out.println("Report written to " + reportPath);
+        }
+    }
+}
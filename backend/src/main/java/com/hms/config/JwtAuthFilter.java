@@ -17,6 +17,8 @@ import java.io.IOException;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final String EVENT_STREAM_PATH = "/api/events/stream";
+
     @Autowired
     private JwtUtils jwtUtils;
 
@@ -29,12 +31,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         final String jwt;
         final String userEmail;
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            jwt = authHeader.substring(7);
+        } else if (EVENT_STREAM_PATH.equals(request.getServletPath()) && request.getParameter("access_token") != null) {
+            // EventSource cannot set headers, so the live feed takes the token as a query parameter
+            jwt = request.getParameter("access_token");
+        } else {
             filterChain.doFilter(request, response);
             return;
         }
 
-        jwt = authHeader.substring(7);
         userEmail = jwtUtils.extractUsername(jwt);
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
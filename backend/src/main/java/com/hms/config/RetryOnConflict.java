@@ -0,0 +1,29 @@
+package com.hms.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs the annotated service method when it fails with an optimistic
+ * locking conflict. The retry wraps the method's transaction, so each
+ * attempt re-reads current data in a fresh transaction.
+ *
+ * Only use on methods that are safe to repeat: a failed attempt must have
+ * no side effects outside the rolled-back transaction.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RetryOnConflict {
+
+    /** Total attempts, including the first. */
+    int maxAttempts() default 4;
+
+    /** Delay before the first retry; doubles on each further retry. */
+    long backoffMillis() default 10;
+
+    long maxBackoffMillis() default 200;
+}
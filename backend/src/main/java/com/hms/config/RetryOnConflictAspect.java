@@ -0,0 +1,41 @@
+package com.hms.config;
+
+import jakarta.persistence.OptimisticLockException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Implements {@link RetryOnConflict}. Ordered ahead of the transaction
+ * interceptor (which runs at lowest precedence) so every attempt gets its own
+ * transaction rather than retrying inside one that is already marked for
+ * rollback.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class RetryOnConflictAspect {
+
+    @Around("@annotation(retryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint, RetryOnConflict retryOnConflict) throws Throwable {
+        long backoff = retryOnConflict.backoffMillis();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= retryOnConflict.maxAttempts()) {
+                    throw e;
+                }
+                // Jitter so competing writers do not retry in lockstep
+                Thread.sleep(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+                backoff = Math.min(backoff * 2, retryOnConflict.maxBackoffMillis());
+            }
+        }
+    }
+}
@@ -45,5 +45,44 @@ public class SchemaFixer implements CommandLineRunner {
             System.out.println(
                     "Failed to drop rooms_type_check constraint (might not exist or other error): " + e.getMessage());
         }
+
+        try {
+            // The old constraint doesn't include the CHECKED_IN, CHECKED_OUT and NO_SHOW statuses.
+            jdbcTemplate.execute("ALTER TABLE bookings DROP CONSTRAINT IF EXISTS bookings_status_check");
+            System.out.println("Successfully dropped bookings_status_check constraint.");
+        } catch (Exception e) {
+            System.out.println(
+                    "Failed to drop bookings_status_check constraint (might not exist or other error): " + e.getMessage());
+        }
+
+        try {
+            // payments.booking_id was unique while Payment was @OneToOne; a booking
+            // can now have several payments. The constraint name is generated.
+            jdbcTemplate.execute("DO $$ DECLARE c record; BEGIN "
+                    + "FOR c IN SELECT con.conname FROM pg_constraint con "
+                    + "JOIN pg_class rel ON rel.oid = con.conrelid "
+                    + "JOIN pg_attribute att ON att.attrelid = rel.oid AND att.attnum = con.conkey[1] "
+                    + "WHERE rel.relname = 'payments' AND con.contype = 'u' "
+                    + "AND array_length(con.conkey, 1) = 1 AND att.attname = 'booking_id' "
+                    + "LOOP EXECUTE 'ALTER TABLE payments DROP CONSTRAINT ' || quote_ident(c.conname); END LOOP; END $$");
+            System.out.println("Successfully dropped unique constraint on payments.booking_id.");
+        } catch (Exception e) {
+            System.out.println(
+                    "Failed to drop unique constraint on payments.booking_id (might not exist or other error): "
+                            + e.getMessage());
+        }
+
+        // Rows created before the @Version columns were added have a null
+        // version, which Spring Data would treat as a new entity on save.
+        for (String table : new String[] { "rooms", "bookings", "inventory_items", "promo_codes" }) {
+            try {
+                int updated = jdbcTemplate.update("UPDATE " + table + " SET version = 0 WHERE version IS NULL");
+                if (updated > 0) {
+                    System.out.println("Initialized version on " + updated + " rows in " + table + ".");
+                }
+            } catch (Exception e) {
+                System.out.println("Failed to initialize version column on " + table + ": " + e.getMessage());
+            }
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.hms.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,11 +29,19 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (e.g. a finished SSE stream) were authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/users/**").hasRole("ADMIN")
+                        .requestMatchers("/api/rates/**").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/api/night-audit/**").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/api/reconciliation/**").hasAnyRole("ADMIN", "MANAGER")
+                        .requestMatchers("/api/reports/**").hasAnyRole("ADMIN", "MANAGER")
                         .requestMatchers("/api/payments/**").hasAnyRole("ADMIN", "MANAGER", "RECEPTIONIST")
                         .requestMatchers("/api/bookings/**").hasAnyRole("ADMIN", "MANAGER", "RECEPTIONIST")
                         .requestMatchers("/api/guests/**").hasAnyRole("ADMIN", "MANAGER", "RECEPTIONIST")
+                        .requestMatchers("/api/housekeeping/tasks/auto-assign", "/api/housekeeping/staff/**")
+                        .hasAnyRole("ADMIN", "MANAGER")
                         .requestMatchers("/api/housekeeping/**").hasAnyRole("ADMIN", "MANAGER", "HOUSEKEEPING")
                         .requestMatchers("/api/inventory/**").hasAnyRole("ADMIN", "MANAGER", "HOUSEKEEPING")
                         .requestMatchers("/api/rooms/**").authenticated() // All staff can view/update rooms (e.g.
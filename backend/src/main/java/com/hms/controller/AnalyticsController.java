@@ -1,7 +1,9 @@
 package com.hms.controller;
 
 import com.hms.service.DashboardService;
+import com.hms.service.AnalyticsCache;
 import com.hms.service.AnalyticsService;
+import com.hms.service.BookingPaceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +22,12 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsService analyticsService;
 
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private BookingPaceService bookingPaceService;
+
     @GetMapping("/summary")
     public ResponseEntity<Map<String, Object>> getSummary() {
         return ResponseEntity.ok(dashboardService.getAnalytics());
@@ -57,6 +65,41 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Get rooms occupied per night, in total and per room type
+     * GET /api/analytics/occupancy?startDate=2024-01-01&endDate=2024-01-31
+     */
+    @GetMapping("/occupancy")
+    public ResponseEntity<Map<String, Object>> getOccupancy(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(analyticsService.getOccupancy(startDate, endDate));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Get booking pace: room nights on the books per stay date against the
+     * same time last year, with pickup and lead-time buckets
+     * GET /api/analytics/pace?days=365&pickupDays=7
+     */
+    @GetMapping("/pace")
+    public ResponseEntity<Map<String, Object>> getPace(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(defaultValue = "365") int days,
+            @RequestParam(defaultValue = "7") int pickupDays) {
+        try {
+            LocalDate reportDate = asOf != null ? asOf : LocalDate.now();
+            return ResponseEntity.ok(bookingPaceService.getPaceReport(reportDate,
+                    startDate != null ? startDate : reportDate, days, pickupDays));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Get room type performance
      * GET /api/analytics/room-performance
@@ -71,6 +114,15 @@ public class AnalyticsController {
         }
     }
 
+    /**
+     * Analytics cache hit rates and recompute times
+     * GET /api/analytics/cache-stats
+     */
+    @GetMapping("/cache-stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(analyticsCache.getStats());
+    }
+
     /**
      * Get monthly comparison
      * GET /api/analytics/monthly-comparison?year=2024&month=1
@@ -2,12 +2,15 @@ package com.hms.controller;
 
 import com.hms.model.Booking;
 import com.hms.service.BookingService;
+import com.hms.service.IdempotencyService;
+import com.hms.service.LedgerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import java.util.List;
@@ -19,17 +22,46 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
     @GetMapping
     public List<Booking> getAllBookings() {
         return bookingService.getAllBookings();
     }
 
     @PostMapping
-    public ResponseEntity<?> createBooking(@RequestBody Booking booking) {
+    public ResponseEntity<?> createBooking(@RequestBody Booking booking,
+            @org.springframework.web.bind.annotation.RequestParam(value = "holdId", required = false) String holdId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings", booking, () -> {
+            try {
+                return ResponseEntity.ok(bookingService.createBooking(booking, holdId));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    /** Every charge, payment and refund posted to the booking, with its balance. */
+    @GetMapping("/{id}/folio")
+    public ResponseEntity<?> getFolio(@PathVariable Long id) {
         try {
-            return ResponseEntity.ok(bookingService.createBooking(booking));
+            return ResponseEntity.ok(ledgerService.getFolio(id));
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<?> getBalance(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ledgerService.getBalance(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
         }
     }
 
@@ -43,6 +75,24 @@ public class BookingController {
         }
     }
 
+    @PostMapping("/{id}/check-in")
+    public ResponseEntity<?> checkIn(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(bookingService.checkIn(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/check-out")
+    public ResponseEntity<?> checkOut(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(bookingService.checkOut(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @org.springframework.web.bind.annotation.PutMapping("/{id}")
     public ResponseEntity<Booking> updateBooking(@PathVariable Long id, @RequestBody Booking booking) {
         try {
@@ -1,13 +1,26 @@
 package com.hms.controller;
 
 import com.hms.model.Payment;
+import com.hms.model.TaxQuoteRequest;
 import com.hms.service.EnhancedPaymentService;
+import com.hms.service.IdempotencyService;
+import com.hms.service.InvoiceService;
+import com.hms.service.PaymentCaptureService;
+import com.hms.service.TaxCalculationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -16,6 +29,18 @@ public class EnhancedPaymentController {
     @Autowired
     private EnhancedPaymentService paymentService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private TaxCalculationService taxCalculationService;
+
+    @Autowired
+    private PaymentCaptureService paymentCaptureService;
+
     /**
      * Create a simple payment (without tax calculation)
      */
@@ -33,19 +58,36 @@ public class EnhancedPaymentController {
      * Process payment with tax calculation
      */
     @PostMapping("/process")
-    public ResponseEntity<?> processPayment(@RequestBody Map<String, Object> request) {
-        try {
-            Long bookingId = Long.valueOf(request.get("bookingId").toString());
-            String promoCode = (String) request.get("promoCode");
-            String stateCode = (String) request.get("stateCode");
-            String county = (String) request.get("county");
-            String city = (String) request.get("city");
-            String paymentMethod = (String) request.get("paymentMethod");
+    public ResponseEntity<?> processPayment(@RequestBody Map<String, Object> request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/payments/process", request, () -> {
+            try {
+                Long bookingId = Long.valueOf(request.get("bookingId").toString());
+                String promoCode = (String) request.get("promoCode");
+                String stateCode = (String) request.get("stateCode");
+                String county = (String) request.get("county");
+                String city = (String) request.get("city");
+                String paymentMethod = (String) request.get("paymentMethod");
 
-            Payment payment = paymentService.processPaymentWithTaxes(
-                    bookingId, promoCode, stateCode, county, city, paymentMethod);
+                Payment payment = paymentService.processPaymentWithTaxes(
+                        bookingId, promoCode, stateCode, county, city, paymentMethod);
 
-            return ResponseEntity.ok(payment);
+                return ResponseEntity.ok(payment);
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Tax-inclusive quotes for many stays in one call
+     * POST /api/payments/quote/batch
+     * [{"subtotal": 450.00, "stateCode": "NY", "county": "New York", "city": "New York", "date": "2024-06-01"}, ...]
+     */
+    @PostMapping("/quote/batch")
+    public ResponseEntity<?> quoteBatch(@RequestBody List<TaxQuoteRequest> requests) {
+        try {
+            return ResponseEntity.ok(Map.of("quotes", taxCalculationService.quoteBatch(requests)));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
@@ -85,6 +127,38 @@ public class EnhancedPaymentController {
         }
     }
 
+    /**
+     * Download the invoice PDF. Supports Range requests and If-None-Match;
+     * returns 202 while the invoice is still being rendered.
+     */
+    @GetMapping("/{id}/invoice")
+    public ResponseEntity<?> downloadInvoice(@PathVariable Long id) {
+        try {
+            Path file = invoiceService.getInvoiceFile(id);
+            if (file == null) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(Map.of("message", "Invoice is being generated, try again shortly"));
+            }
+            // Files are named by content hash, so the name is a strong ETag
+            String hash = file.getFileName().toString().replace(".pdf", "");
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .eTag(hash)
+                    .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            ContentDisposition.inline().filename("invoice-" + id + ".pdf").build().toString())
+                    .body(new FileSystemResource(file));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /** Progress of the background capture of authorized card payments. */
+    @GetMapping("/capture-stats")
+    public Map<String, Object> getCaptureStats() {
+        return paymentCaptureService.getStats();
+    }
+
     /**
      * Get payments by booking
      */
@@ -0,0 +1,33 @@
+package com.hms.controller;
+
+import com.hms.service.LiveEventBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/events")
+public class EventStreamController {
+
+    @Autowired
+    private LiveEventBroadcaster liveEventBroadcaster;
+
+    /**
+     * Live feed of room status, booking and low-stock events. Browsers
+     * reconnect automatically and resume from the Last-Event-ID they saw.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return liveEventBroadcaster.subscribe(lastEventId);
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return Map.of("connectedClients", liveEventBroadcaster.getConnectedClients());
+    }
+}
@@ -3,9 +3,12 @@ package com.hms.controller;
 import com.hms.model.HousekeepingTask;
 import com.hms.model.MaintenanceLog;
 import com.hms.service.HousekeepingService;
+import com.hms.service.HousekeepingBoardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +19,22 @@ public class HousekeepingController {
     @Autowired
     private HousekeepingService housekeepingService;
 
+    @Autowired
+    private HousekeepingBoardService boardService;
+
+    // Board
+    @GetMapping("/board")
+    public Map<String, Object> getBoard(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Long staffId) {
+        return boardService.getBoard(date != null ? date : LocalDate.now(), staffId);
+    }
+
+    @GetMapping("/board/changes")
+    public Map<String, Object> getBoardChanges(@RequestParam String since) {
+        return boardService.getChangesSince(since);
+    }
+
     // Tasks
     @GetMapping("/tasks")
     public List<HousekeepingTask> getAllTasks() {
@@ -41,6 +60,28 @@ public class HousekeepingController {
         }
     }
 
+    @PostMapping("/tasks/auto-assign")
+    public ResponseEntity<?> autoAssignTasks() {
+        try {
+            return ResponseEntity.ok(housekeepingService.autoAssignPendingTasks());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PutMapping("/staff/{id}/shift")
+    public ResponseEntity<?> setOnShift(@PathVariable Long id, @RequestBody Map<String, Boolean> payload) {
+        try {
+            Boolean onShift = payload.get("onShift");
+            if (onShift == null) {
+                return ResponseEntity.badRequest().body(Map.of("error", "onShift is required"));
+            }
+            return ResponseEntity.ok(housekeepingService.setOnShift(id, onShift));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     // Maintenance
     @GetMapping("/maintenance")
     public List<MaintenanceLog> getAllMaintenanceLogs() {
@@ -0,0 +1,51 @@
+package com.hms.controller;
+
+import com.hms.model.NightAuditRun;
+import com.hms.service.NightAuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/night-audit")
+public class NightAuditController {
+
+    @Autowired
+    private NightAuditService nightAuditService;
+
+    @GetMapping("/runs")
+    public List<NightAuditRun> getRecentRuns() {
+        return nightAuditService.getRecentRuns();
+    }
+
+    @GetMapping("/runs/{date}")
+    public ResponseEntity<NightAuditRun> getRun(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(nightAuditService.getRun(date));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Runs or resumes the audit for a business date (yesterday by default).
+     */
+    @PostMapping("/run")
+    public ResponseEntity<?> runAudit(
+            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(nightAuditService.runAudit(date != null ? date : LocalDate.now().minusDays(1)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
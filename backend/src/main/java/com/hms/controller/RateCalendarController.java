@@ -0,0 +1,72 @@
+package com.hms.controller;
+
+import com.hms.model.Room;
+import com.hms.service.RateCalendarService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/rates")
+public class RateCalendarController {
+
+    @Autowired
+    private RateCalendarService rateCalendarService;
+
+    @GetMapping
+    public ResponseEntity<?> getRates(
+            @RequestParam(required = false) Room.RoomType roomType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(rateCalendarService.getRates(roomType, startDate, endDate));
+    }
+
+    /**
+     * Sets a price and/or minimum stay for a single date (stayDate) or a
+     * season (startDate to endDate inclusive).
+     */
+    @PutMapping
+    public ResponseEntity<?> upsertRates(@RequestBody Map<String, Object> request) {
+        try {
+            Room.RoomType roomType = Room.RoomType.valueOf(request.get("roomType").toString());
+            LocalDate startDate = LocalDate.parse(
+                    (String) (request.containsKey("stayDate") ? request.get("stayDate") : request.get("startDate")));
+            LocalDate endDate = request.containsKey("endDate") ? LocalDate.parse((String) request.get("endDate"))
+                    : startDate;
+            BigDecimal price = request.get("price") != null ? new BigDecimal(request.get("price").toString()) : null;
+            Integer minStayNights = request.get("minStayNights") != null
+                    ? Integer.valueOf(request.get("minStayNights").toString())
+                    : null;
+            String label = (String) request.get("label");
+
+            return ResponseEntity.ok(
+                    rateCalendarService.upsertRates(roomType, startDate, endDate, price, minStayNights, label));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping
+    public ResponseEntity<?> deleteRates(
+            @RequestParam Room.RoomType roomType,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            rateCalendarService.deleteRates(roomType, startDate, endDate);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /** Re-reads the calendar from the database, e.g. after a direct SQL import. */
+    @PostMapping("/reload")
+    public ResponseEntity<?> reload() {
+        rateCalendarService.reload();
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.hms.controller;
+
+import com.hms.model.ReconciliationException;
+import com.hms.model.ReconciliationRun;
+import com.hms.service.ReconciliationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reconciliation")
+public class ReconciliationController {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @GetMapping("/runs")
+    public List<ReconciliationRun> getRecentRuns() {
+        return reconciliationService.getRecentRuns();
+    }
+
+    @GetMapping("/runs/{id}/exceptions")
+    public ResponseEntity<List<ReconciliationException>> getExceptions(@PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            return ResponseEntity.ok(reconciliationService.getExceptions(id, page, size));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /** Reconciles the settlement files waiting in the incoming directory now. */
+    @PostMapping("/run")
+    public ResponseEntity<?> run() {
+        try {
+            return ResponseEntity.ok(reconciliationService.processIncoming());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
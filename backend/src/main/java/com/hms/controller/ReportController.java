@@ -0,0 +1,78 @@
+package com.hms.controller;
+
+import com.hms.service.RevenueBreakdownService;
+import com.hms.service.TaxLiabilityReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    @Autowired
+    private TaxLiabilityReportService taxLiabilityReportService;
+
+    @Autowired
+    private RevenueBreakdownService revenueBreakdownService;
+
+    /**
+     * Revenue, refunds and net per payment method and day, week or month, with
+     * period, method and overall subtotals. The range is widened to whole periods.
+     */
+    @GetMapping("/revenue-by-method")
+    public ResponseEntity<?> getRevenueByMethod(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") String granularity) {
+        try {
+            RevenueBreakdownService.Granularity unit = RevenueBreakdownService.Granularity
+                    .valueOf(granularity.toUpperCase());
+            return ResponseEntity.ok(revenueBreakdownService.getBreakdown(from, to, unit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Granularity must be DAY, WEEK or MONTH"));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/cache-stats")
+    public Map<String, Object> getCacheStats() {
+        return revenueBreakdownService.getCacheStats();
+    }
+
+    /**
+     * Taxes collected per jurisdiction and month, net of refunds, from and to
+     * inclusive. Streamed as JSON, or CSV with format=csv.
+     */
+    @GetMapping("/tax-liability")
+    public ResponseEntity<?> getTaxLiability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "json") String format) {
+        try {
+            taxLiabilityReportService.validateRange(from, to);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            StreamingResponseBody body = out -> taxLiabilityReportService.writeCsv(from, to, out);
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"tax-liability-" + from + "-to-" + to + ".csv\"")
+                    .body(body);
+        }
+        StreamingResponseBody body = out -> taxLiabilityReportService.writeJson(from, to, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
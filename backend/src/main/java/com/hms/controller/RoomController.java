@@ -1,6 +1,7 @@
 package com.hms.controller;
 
 import com.hms.model.Room;
+import com.hms.service.RoomHoldService;
 import com.hms.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/rooms")
@@ -21,6 +23,9 @@ public class RoomController {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private RoomHoldService roomHoldService;
+
     @GetMapping
     public List<Room> getAllRooms() {
         return roomService.getAllRooms();
@@ -34,6 +39,62 @@ public class RoomController {
         return roomService.findAvailableRooms(checkIn, checkOut, type);
     }
 
+    /**
+     * Same search as /available, with each room's stay total, nightly
+     * breakdown and tax estimate included.
+     */
+    @GetMapping("/available/priced")
+    public ResponseEntity<?> getAvailableRoomsPriced(
+            @org.springframework.web.bind.annotation.RequestParam("checkIn") java.time.LocalDate checkIn,
+            @org.springframework.web.bind.annotation.RequestParam("checkOut") java.time.LocalDate checkOut,
+            @org.springframework.web.bind.annotation.RequestParam(value = "type", required = false) Room.RoomType type,
+            @org.springframework.web.bind.annotation.RequestParam(value = "stateCode", required = false) String stateCode,
+            @org.springframework.web.bind.annotation.RequestParam(value = "county", required = false) String county,
+            @org.springframework.web.bind.annotation.RequestParam(value = "city", required = false) String city) {
+        try {
+            return ResponseEntity.ok(roomService.findAvailableRoomsPriced(checkIn, checkOut, type, stateCode, county,
+                    city));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Holds the room for the dates while the booking is completed. Pass the
+     * returned holdId to POST /api/bookings?holdId=...
+     */
+    @PostMapping("/{id}/hold")
+    public ResponseEntity<?> holdRoom(@PathVariable Long id, @RequestBody Map<String, Object> request,
+            java.security.Principal principal) {
+        try {
+            java.time.LocalDate checkIn = java.time.LocalDate.parse(request.get("checkIn").toString());
+            java.time.LocalDate checkOut = java.time.LocalDate.parse(request.get("checkOut").toString());
+            return ResponseEntity.ok(roomHoldService.placeHold(id, checkIn, checkOut,
+                    principal != null ? principal.getName() : null));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<?> getHold(@PathVariable String holdId) {
+        try {
+            return ResponseEntity.ok(roomHoldService.getHold(holdId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        try {
+            roomHoldService.releaseHold(holdId);
+            return ResponseEntity.ok().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Room> getRoomById(@PathVariable Long id) {
         try {
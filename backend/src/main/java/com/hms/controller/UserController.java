@@ -1,12 +1,16 @@
 package com.hms.controller;
 
 import com.hms.model.User;
+import com.hms.service.ActivityLogService;
 import com.hms.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -15,6 +19,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ActivityLogService activityLogService;
+
     @GetMapping
     public List<User> getAllUsers() {
         return userService.getAllUsers();
@@ -47,4 +54,19 @@ public class UserController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /** Audit trail for the admin UI; defaults to the last 24 hours. */
+    @GetMapping("/activity-log")
+    public ResponseEntity<?> getActivityLog(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "200") int limit) {
+        try {
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : end.minusDays(1);
+            return ResponseEntity.ok(activityLogService.getLogs(start, end, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
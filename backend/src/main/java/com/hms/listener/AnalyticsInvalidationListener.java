@@ -0,0 +1,111 @@
+package com.hms.listener;
+
+import com.hms.model.Booking;
+import com.hms.model.Payment;
+import com.hms.model.Room;
+import com.hms.service.AnalyticsCache;
+import com.hms.service.RevenueBreakdownService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+/**
+ * JPA listener on bookings, payments and rooms that evicts the analytics
+ * results a change can affect. Evicts immediately and again after commit, so
+ * a report computed from the pre-commit data is not left in the cache.
+ */
+@Component
+public class AnalyticsInvalidationListener {
+
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private RevenueBreakdownService revenueBreakdownService;
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof Room) {
+            // Room count feeds every report's available room nights
+            invalidate(() -> analyticsCache.invalidateAll());
+        } else {
+            onChange(entity);
+        }
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof Room room) {
+            if (room.getType() != room.getLoadedType()) {
+                invalidate(() -> analyticsCache.invalidateUnbounded());
+            }
+        } else {
+            onChange(entity);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        onPersist(entity);
+    }
+
+    private void onChange(Object entity) {
+        if (entity instanceof Booking booking) {
+            // Occupancy counts every night of the stay, not just the check-in date
+            LocalDate checkIn = booking.getCheckInDate();
+            LocalDate lastNight = lastNight(checkIn, booking.getCheckOutDate());
+            LocalDate previousCheckIn = booking.getLoadedCheckInDate();
+            LocalDate previousLastNight = lastNight(previousCheckIn, booking.getLoadedCheckOutDate());
+            boolean moved = previousCheckIn != null
+                    && (!previousCheckIn.equals(checkIn) || !previousLastNight.equals(lastNight));
+            invalidate(() -> {
+                analyticsCache.invalidate(checkIn, lastNight);
+                if (moved) {
+                    analyticsCache.invalidate(previousCheckIn, previousLastNight);
+                }
+                analyticsCache.invalidateUnbounded();
+            });
+        } else if (entity instanceof Payment payment) {
+            LocalDate checkInDate = payment.getBooking() != null ? payment.getBooking().getCheckInDate() : null;
+            LocalDate paymentDate = payment.getPaymentDate() != null ? payment.getPaymentDate().toLocalDate() : null;
+            LocalDate refundDate = payment.getRefundDate() != null ? payment.getRefundDate().toLocalDate() : null;
+            invalidate(() -> {
+                if (checkInDate != null) {
+                    analyticsCache.invalidate(checkInDate);
+                }
+                analyticsCache.invalidateUnbounded();
+                if (revenueBreakdownService != null) {
+                    revenueBreakdownService.evict(paymentDate, refundDate);
+                }
+            });
+        }
+    }
+
+    private static LocalDate lastNight(LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            return checkIn;
+        }
+        return checkOut.minusDays(1);
+    }
+
+    private void invalidate(Runnable invalidation) {
+        if (analyticsCache == null) {
+            return;
+        }
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.hms.listener;
+
+import com.hms.model.Booking;
+import com.hms.service.BookingPaceService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+/**
+ * JPA listener on bookings that moves their nights in the booking pace
+ * matrix once the change commits. A rolled-back change never reaches it.
+ */
+@Component
+public class BookingPaceListener {
+
+    @Autowired
+    private BookingPaceService paceService;
+
+    @PostPersist
+    public void onPersist(Booking booking) {
+        apply(null, current(booking));
+    }
+
+    @PostUpdate
+    public void onUpdate(Booking booking) {
+        BookingPaceService.StayNights before = BookingPaceService.nightsOf(booking.getLoadedStatus(),
+                booking.getLoadedCheckInDate(), booking.getLoadedCheckOutDate(), bookedOn(booking));
+        BookingPaceService.StayNights after = current(booking);
+        if (before == null ? after != null : !before.sameAs(after)) {
+            apply(before, after);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Booking booking) {
+        BookingPaceService.StayNights before = BookingPaceService.nightsOf(booking.getLoadedStatus(),
+                booking.getLoadedCheckInDate(), booking.getLoadedCheckOutDate(), bookedOn(booking));
+        apply(before, null);
+    }
+
+    private BookingPaceService.StayNights current(Booking booking) {
+        return BookingPaceService.nightsOf(booking.getStatus(), booking.getCheckInDate(), booking.getCheckOutDate(),
+                bookedOn(booking));
+    }
+
+    private static LocalDate bookedOn(Booking booking) {
+        return booking.getCreatedAt() != null ? booking.getCreatedAt().toLocalDate() : null;
+    }
+
+    private void apply(BookingPaceService.StayNights before, BookingPaceService.StayNights after) {
+        if (paceService == null || (before == null && after == null)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    paceService.applyChange(before, after);
+                }
+            });
+        } else {
+            paceService.applyChange(before, after);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.hms.listener;
+
+import com.hms.model.HousekeepingTask;
+import com.hms.model.MaintenanceLog;
+import com.hms.service.HousekeepingBoardService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** JPA listener on tasks and maintenance logs that feeds the board's change log. */
+@Component
+public class HousekeepingBoardListener {
+
+    @Autowired
+    private HousekeepingBoardService boardService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (boardService == null) {
+            return;
+        }
+        if (entity instanceof HousekeepingTask task) {
+            boardService.recordAfterCommit(HousekeepingBoardService.Kind.TASK, List.of(task.getId()));
+        } else if (entity instanceof MaintenanceLog log) {
+            boardService.recordAfterCommit(HousekeepingBoardService.Kind.MAINTENANCE, List.of(log.getId()));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.hms.model;
+
+import java.time.LocalDateTime;
+
+/** One audit trail entry as read back from whichever activity log store is active. */
+public record ActivityEvent(
+        LocalDateTime timestamp,
+        String userEmail,
+        String action,
+        String details) {
+}
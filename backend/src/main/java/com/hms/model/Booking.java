@@ -1,5 +1,8 @@
 package com.hms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hms.listener.AnalyticsInvalidationListener;
+import com.hms.listener.BookingPaceListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -8,11 +11,15 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "bookings")
+@EntityListeners({ AnalyticsInvalidationListener.class, BookingPaceListener.class })
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "room_id", nullable = false)
     private Room room;
@@ -30,13 +37,48 @@ public class Booking {
 
     private LocalDateTime createdAt;
 
+    // Stay dates as loaded, so moving a booking also invalidates its old nights
+    @Transient
+    @JsonIgnore
+    private LocalDate loadedCheckInDate;
+
+    @Transient
+    @JsonIgnore
+    private LocalDate loadedCheckOutDate;
+
+    @Transient
+    @JsonIgnore
+    private BookingStatus loadedStatus;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
 
+    // Entity listeners run first, so they still see the previous values on update
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    protected void onLoad() {
+        loadedCheckInDate = checkInDate;
+        loadedCheckOutDate = checkOutDate;
+        loadedStatus = status;
+    }
+
+    public LocalDate getLoadedCheckInDate() {
+        return loadedCheckInDate;
+    }
+
+    public LocalDate getLoadedCheckOutDate() {
+        return loadedCheckOutDate;
+    }
+
+    public BookingStatus getLoadedStatus() {
+        return loadedStatus;
+    }
+
     public enum BookingStatus {
-        PENDING, CONFIRMED, CANCELLED
+        PENDING, CONFIRMED, CHECKED_IN, CHECKED_OUT, CANCELLED, NO_SHOW
     }
 
     public Booking() {
@@ -62,6 +104,14 @@ public class Booking {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public Room getRoom() {
         return room;
     }
@@ -0,0 +1,110 @@
+package com.hms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of a booking's {@link LedgerEntry} rows, updated in the same
+ * transaction as each entry so the balance never has to be summed.
+ *
+ * Discounts and payments are kept as positive totals; balanceDue is
+ * roomCharges + taxes - discounts - payments + refunds.
+ */
+@Entity
+@Table(name = "booking_balances")
+public class BookingBalance {
+    @Id
+    @Column(name = "booking_id")
+    private Long bookingId;
+
+    // Concurrent postings to one booking conflict here instead of losing an update
+    @Version
+    private Long version;
+
+    @Column(name = "room_charges", precision = 12, scale = 2)
+    private BigDecimal roomCharges = BigDecimal.ZERO;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal taxes = BigDecimal.ZERO;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal discounts = BigDecimal.ZERO;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal payments = BigDecimal.ZERO;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal refunds = BigDecimal.ZERO;
+
+    @Column(name = "balance_due", precision = 12, scale = 2)
+    private BigDecimal balanceDue = BigDecimal.ZERO;
+
+    @Column(name = "entry_count")
+    private int entryCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public BookingBalance() {
+    }
+
+    public BookingBalance(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    /** Adds one entry's amount to the totals and returns the new balance due. */
+    public BigDecimal apply(LedgerEntry.EntryType type, BigDecimal amount) {
+        switch (type) {
+            case CHARGE, ADJUSTMENT -> roomCharges = roomCharges.add(amount);
+            case TAX -> taxes = taxes.add(amount);
+            case DISCOUNT -> discounts = discounts.subtract(amount);
+            case PAYMENT -> payments = payments.subtract(amount);
+            case REFUND -> refunds = refunds.add(amount);
+        }
+        balanceDue = balanceDue.add(amount);
+        entryCount++;
+        updatedAt = LocalDateTime.now();
+        return balanceDue;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public BigDecimal getRoomCharges() {
+        return roomCharges;
+    }
+
+    public BigDecimal getTaxes() {
+        return taxes;
+    }
+
+    public BigDecimal getDiscounts() {
+        return discounts;
+    }
+
+    public BigDecimal getPayments() {
+        return payments;
+    }
+
+    public BigDecimal getRefunds() {
+        return refunds;
+    }
+
+    public BigDecimal getBalanceDue() {
+        return balanceDue;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hms.model;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Change notification pushed to connected screens over /api/events/stream.
+ * Carries just enough for a page to patch its state without refetching;
+ * the sequence number is assigned when the event is broadcast.
+ */
+public class HotelEvent {
+
+    public enum EventType {
+        ROOM_STATUS_CHANGED, BOOKING_CREATED, BOOKING_CANCELLED, LOW_STOCK
+    }
+
+    private long sequence;
+    private final EventType type;
+    private final Long entityId;
+    private final Map<String, Object> data;
+    private final LocalDateTime occurredAt;
+
+    public HotelEvent(EventType type, Long entityId, Map<String, Object> data) {
+        this.type = type;
+        this.entityId = entityId;
+        this.data = data;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public static HotelEvent roomStatusChanged(Room room, Room.RoomStatus previousStatus) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("roomNumber", room.getRoomNumber());
+        data.put("status", room.getStatus());
+        data.put("previousStatus", previousStatus);
+        return new HotelEvent(EventType.ROOM_STATUS_CHANGED, room.getId(), data);
+    }
+
+    public static HotelEvent bookingCreated(Booking booking) {
+        return bookingEvent(EventType.BOOKING_CREATED, booking);
+    }
+
+    public static HotelEvent bookingCancelled(Booking booking) {
+        return bookingEvent(EventType.BOOKING_CANCELLED, booking);
+    }
+
+    public static HotelEvent lowStock(InventoryItem item) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("name", item.getName());
+        data.put("quantity", item.getQuantity());
+        data.put("reorderLevel", item.getReorderLevel());
+        return new HotelEvent(EventType.LOW_STOCK, item.getId(), data);
+    }
+
+    private static HotelEvent bookingEvent(EventType type, Booking booking) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("roomId", booking.getRoom() != null ? booking.getRoom().getId() : null);
+        data.put("roomNumber", booking.getRoom() != null ? booking.getRoom().getRoomNumber() : null);
+        data.put("guestName", booking.getGuest() != null ? booking.getGuest().getName() : null);
+        data.put("checkInDate", booking.getCheckInDate());
+        data.put("checkOutDate", booking.getCheckOutDate());
+        data.put("totalAmount", booking.getTotalAmount());
+        data.put("status", booking.getStatus());
+        return new HotelEvent(type, booking.getId(), data);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -1,11 +1,14 @@
 package com.hms.model;
 
+import com.hms.listener.HousekeepingBoardListener;
 import jakarta.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "housekeeping_tasks")
+@Table(name = "housekeeping_tasks", indexes = @Index(name = "idx_housekeeping_tasks_board",
+        columnList = "scheduled_date, status, assigned_staff_id"))
+@EntityListeners(HousekeepingBoardListener.class)
 public class HousekeepingTask {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
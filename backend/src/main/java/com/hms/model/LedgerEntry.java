@@ -0,0 +1,103 @@
+package com.hms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One posting on a booking's folio. Entries are only ever appended: a
+ * correction is a new entry with the opposite sign, never an edit.
+ *
+ * A positive amount raises the balance due (charges, taxes, refunds), a
+ * negative one lowers it (discounts, payments).
+ */
+@Entity
+@Table(name = "ledger_entries", indexes = @Index(name = "idx_ledger_entries_booking", columnList = "booking_id, id"))
+public class LedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "booking_id", nullable = false, updatable = false)
+    private Long bookingId;
+
+    @Column(name = "payment_id", updatable = false)
+    private Long paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private EntryType type;
+
+    @Column(nullable = false, updatable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    // Balance due on the booking right after this entry
+    @Column(name = "balance_after", nullable = false, updatable = false, precision = 12, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(updatable = false)
+    private String description;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum EntryType {
+        CHARGE, ADJUSTMENT, DISCOUNT, TAX, PAYMENT, REFUND
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    @PreRemove
+    protected void preventChange() {
+        throw new IllegalStateException("Ledger entries are append-only");
+    }
+
+    public LedgerEntry() {
+    }
+
+    public LedgerEntry(Long bookingId, Long paymentId, EntryType type, BigDecimal amount, BigDecimal balanceAfter,
+            String description) {
+        this.bookingId = bookingId;
+        this.paymentId = paymentId;
+        this.type = type;
+        this.amount = amount;
+        this.balanceAfter = balanceAfter;
+        this.description = description;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public EntryType getType() {
+        return type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getBalanceAfter() {
+        return balanceAfter;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
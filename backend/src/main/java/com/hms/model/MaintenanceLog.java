@@ -1,10 +1,13 @@
 package com.hms.model;
 
+import com.hms.listener.HousekeepingBoardListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "maintenance_logs")
+@Table(name = "maintenance_logs", indexes = @Index(name = "idx_maintenance_logs_status_reported",
+        columnList = "status, reported_at"))
+@EntityListeners(HousekeepingBoardListener.class)
 public class MaintenanceLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
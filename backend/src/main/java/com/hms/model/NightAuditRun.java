@@ -0,0 +1,234 @@
+package com.hms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress and results of the night audit for one business date. The phase
+ * and last processed booking id are committed with each chunk, so an
+ * interrupted audit resumes where it stopped instead of starting over.
+ */
+@Entity
+@Table(name = "night_audit_runs")
+public class NightAuditRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    private Long version;
+
+    @Column(name = "business_date", nullable = false, unique = true)
+    private LocalDate businessDate;
+
+    @Enumerated(EnumType.STRING)
+    private RunStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private Phase phase;
+
+    // Keyset cursor within the current phase
+    @Column(name = "last_processed_id")
+    private Long lastProcessedId;
+
+    private int noShows;
+    private int departures;
+    private int arrivals;
+    private int housekeepingTasks;
+
+    // KPI snapshot for the night of businessDate
+    private int roomsAvailable;
+    private int roomsSold;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal roomRevenue;
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal occupancyRate;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal adr;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal revpar;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    public enum RunStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    // Processed in this order
+    public enum Phase {
+        NO_SHOWS, DEPARTURES, ARRIVALS, KPIS, DONE
+    }
+
+    public NightAuditRun() {
+    }
+
+    public NightAuditRun(LocalDate businessDate) {
+        this.businessDate = businessDate;
+        this.status = RunStatus.RUNNING;
+        this.phase = Phase.NO_SHOWS;
+        this.lastProcessedId = 0L;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDate getBusinessDate() {
+        return businessDate;
+    }
+
+    public void setBusinessDate(LocalDate businessDate) {
+        this.businessDate = businessDate;
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RunStatus status) {
+        this.status = status;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public void setPhase(Phase phase) {
+        this.phase = phase;
+    }
+
+    public Long getLastProcessedId() {
+        return lastProcessedId;
+    }
+
+    public void setLastProcessedId(Long lastProcessedId) {
+        this.lastProcessedId = lastProcessedId;
+    }
+
+    public int getNoShows() {
+        return noShows;
+    }
+
+    public void setNoShows(int noShows) {
+        this.noShows = noShows;
+    }
+
+    public int getDepartures() {
+        return departures;
+    }
+
+    public void setDepartures(int departures) {
+        this.departures = departures;
+    }
+
+    public int getArrivals() {
+        return arrivals;
+    }
+
+    public void setArrivals(int arrivals) {
+        this.arrivals = arrivals;
+    }
+
+    public int getHousekeepingTasks() {
+        return housekeepingTasks;
+    }
+
+    public void setHousekeepingTasks(int housekeepingTasks) {
+        this.housekeepingTasks = housekeepingTasks;
+    }
+
+    public int getRoomsAvailable() {
+        return roomsAvailable;
+    }
+
+    public void setRoomsAvailable(int roomsAvailable) {
+        this.roomsAvailable = roomsAvailable;
+    }
+
+    public int getRoomsSold() {
+        return roomsSold;
+    }
+
+    public void setRoomsSold(int roomsSold) {
+        this.roomsSold = roomsSold;
+    }
+
+    public BigDecimal getRoomRevenue() {
+        return roomRevenue;
+    }
+
+    public void setRoomRevenue(BigDecimal roomRevenue) {
+        this.roomRevenue = roomRevenue;
+    }
+
+    public BigDecimal getOccupancyRate() {
+        return occupancyRate;
+    }
+
+    public void setOccupancyRate(BigDecimal occupancyRate) {
+        this.occupancyRate = occupancyRate;
+    }
+
+    public BigDecimal getAdr() {
+        return adr;
+    }
+
+    public void setAdr(BigDecimal adr) {
+        this.adr = adr;
+    }
+
+    public BigDecimal getRevpar() {
+        return revpar;
+    }
+
+    public void setRevpar(BigDecimal revpar) {
+        this.revpar = revpar;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+}
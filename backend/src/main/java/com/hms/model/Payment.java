@@ -1,18 +1,23 @@
 package com.hms.model;
 
+import com.hms.listener.AnalyticsInvalidationListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_payment_date_method", columnList = "payment_date, method"),
+        @Index(name = "idx_payments_refund_date", columnList = "refund_date") })
+@EntityListeners(AnalyticsInvalidationListener.class)
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    // A booking can be paid in several payments; see LedgerService for its balance
+    @ManyToOne
     @JoinColumn(name = "booking_id", nullable = false)
     private Booking booking;
 
@@ -43,6 +48,10 @@ public class Payment {
     @Column(name = "promo_code")
     private String promoCode;
 
+    // Jurisdiction the taxes were calculated for; null if no configuration matched
+    @Column(name = "tax_configuration_id")
+    private Long taxConfigurationId;
+
     // Invoice & Payment Tracking
     @Column(name = "invoice_number", unique = true)
     private String invoiceNumber;
@@ -65,6 +74,19 @@ public class Payment {
     @Column(name = "refund_reason")
     private String refundReason;
 
+    // Capture of AUTHORIZED payments (see PaymentCaptureService)
+    @Column(name = "capture_attempts")
+    private Integer captureAttempts = 0;
+
+    @Column(name = "next_capture_at")
+    private LocalDateTime nextCaptureAt;
+
+    @Column(name = "captured_at")
+    private LocalDateTime capturedAt;
+
+    @Column(name = "capture_error")
+    private String captureError;
+
     @Enumerated(EnumType.STRING)
     private PaymentMethod method;
 
@@ -260,6 +282,46 @@ public class Payment {
         this.refundReason = refundReason;
     }
 
+    public Long getTaxConfigurationId() {
+        return taxConfigurationId;
+    }
+
+    public void setTaxConfigurationId(Long taxConfigurationId) {
+        this.taxConfigurationId = taxConfigurationId;
+    }
+
+    public Integer getCaptureAttempts() {
+        return captureAttempts;
+    }
+
+    public void setCaptureAttempts(Integer captureAttempts) {
+        this.captureAttempts = captureAttempts;
+    }
+
+    public LocalDateTime getNextCaptureAt() {
+        return nextCaptureAt;
+    }
+
+    public void setNextCaptureAt(LocalDateTime nextCaptureAt) {
+        this.nextCaptureAt = nextCaptureAt;
+    }
+
+    public LocalDateTime getCapturedAt() {
+        return capturedAt;
+    }
+
+    public void setCapturedAt(LocalDateTime capturedAt) {
+        this.capturedAt = capturedAt;
+    }
+
+    public String getCaptureError() {
+        return captureError;
+    }
+
+    public void setCaptureError(String captureError) {
+        this.captureError = captureError;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -0,0 +1,85 @@
+package com.hms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Nightly rate override for one room type on one date. Nights without an
+ * entry use the room's base price and the weekend surcharge.
+ */
+@Entity
+@Table(name = "rate_calendar", uniqueConstraints = @UniqueConstraint(columnNames = { "room_type", "stay_date" }))
+public class RateCalendar {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "room_type", nullable = false)
+    private Room.RoomType roomType;
+
+    @Column(name = "stay_date", nullable = false)
+    private LocalDate stayDate;
+
+    // Replaces the base rate for the night; null keeps the base rate
+    @Column(precision = 10, scale = 2)
+    private BigDecimal price;
+
+    // Minimum nights for stays arriving on this date
+    @Column(name = "min_stay_nights")
+    private Integer minStayNights;
+
+    private String label;
+
+    public RateCalendar() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Room.RoomType getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(Room.RoomType roomType) {
+        this.roomType = roomType;
+    }
+
+    public LocalDate getStayDate() {
+        return stayDate;
+    }
+
+    public void setStayDate(LocalDate stayDate) {
+        this.stayDate = stayDate;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Integer getMinStayNights() {
+        return minStayNights;
+    }
+
+    public void setMinStayNights(Integer minStayNights) {
+        this.minStayNights = minStayNights;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,107 @@
+package com.hms.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A settlement line or payment that did not reconcile. Written in batches
+ * by {@code ReconciliationService} through JDBC; mapped here for reading.
+ */
+@Entity
+@Table(name = "reconciliation_exceptions", indexes = @Index(name = "idx_reconciliation_exceptions_run", columnList = "run_id, id"))
+public class ReconciliationException {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "run_id", nullable = false)
+    private Long runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ExceptionType type;
+
+    private String reference;
+
+    @Column(name = "invoice_number")
+    private String invoiceNumber;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    // Line in the settlement file, 1-based with the header as line 1
+    @Column(name = "line_number")
+    private Long lineNumber;
+
+    @Column(name = "expected_amount", precision = 12, scale = 2)
+    private BigDecimal expectedAmount;
+
+    @Column(name = "settled_amount", precision = 12, scale = 2)
+    private BigDecimal settledAmount;
+
+    private String detail;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    public enum ExceptionType {
+        // Settled by the gateway but no such payment here
+        UNKNOWN_PAYMENT,
+        // Captured or refunded here but missing from the file
+        NOT_SETTLED,
+        AMOUNT_MISMATCH,
+        // Settled by the gateway but not captured here
+        STATUS_MISMATCH,
+        DUPLICATE_SETTLEMENT,
+        DUPLICATE_PAYMENT,
+        INVALID_LINE
+    }
+
+    public ReconciliationException() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public ExceptionType getType() {
+        return type;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public Long getLineNumber() {
+        return lineNumber;
+    }
+
+    public BigDecimal getExpectedAmount() {
+        return expectedAmount;
+    }
+
+    public BigDecimal getSettledAmount() {
+        return settledAmount;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,119 @@
+package com.hms.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** One settlement file matched against the payments table. */
+@Entity
+@Table(name = "reconciliation_runs")
+public class ReconciliationRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "settlement_date")
+    private LocalDate settlementDate;
+
+    @Enumerated(EnumType.STRING)
+    private RunStatus status;
+
+    private long lines;
+    private long payments;
+    private long matched;
+    private long exceptions;
+
+    private String error;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public enum RunStatus {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public ReconciliationRun() {
+    }
+
+    public ReconciliationRun(String fileName, LocalDate settlementDate) {
+        this.fileName = fileName;
+        this.settlementDate = settlementDate;
+        this.status = RunStatus.RUNNING;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public LocalDate getSettlementDate() {
+        return settlementDate;
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RunStatus status) {
+        this.status = status;
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public void setLines(long lines) {
+        this.lines = lines;
+    }
+
+    public long getPayments() {
+        return payments;
+    }
+
+    public void setPayments(long payments) {
+        this.payments = payments;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public void setMatched(long matched) {
+        this.matched = matched;
+    }
+
+    public long getExceptions() {
+        return exceptions;
+    }
+
+    public void setExceptions(long exceptions) {
+        this.exceptions = exceptions;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -1,16 +1,22 @@
 package com.hms.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hms.listener.AnalyticsInvalidationListener;
 import jakarta.persistence.*;
 import java.math.BigDecimal;
 import java.util.Objects;
 
 @Entity
 @Table(name = "rooms")
+@EntityListeners(AnalyticsInvalidationListener.class)
 public class Room {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     @Column(unique = true, nullable = false)
     private String roomNumber;
 
@@ -24,6 +30,20 @@ public class Room {
 
     private String description;
 
+    // Type as loaded; only type changes affect the per-type analytics
+    @Transient
+    @JsonIgnore
+    private RoomType loadedType;
+
+    @PostLoad
+    protected void onLoad() {
+        loadedType = type;
+    }
+
+    public RoomType getLoadedType() {
+        return loadedType;
+    }
+
     // Enum for different room categories
     public enum RoomType {
         SINGLE, DOUBLE, SUITE, DORMITORY
@@ -57,6 +77,14 @@ public class Room {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getRoomNumber() {
         return roomNumber;
     }
@@ -0,0 +1,113 @@
+package com.hms.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hms.util.HashedTimingWheel;
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Short-lived reservation of a room for a date range while a booking is
+ * being completed. Holds live in memory in RoomHoldService; the table is
+ * only written when the optional database mirror is enabled.
+ */
+@Entity
+@Table(name = "room_holds")
+public class RoomHold {
+    @Id
+    @Column(name = "hold_id", length = 36)
+    private String holdId;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(name = "check_in_date", nullable = false)
+    private LocalDate checkInDate;
+
+    @Column(name = "check_out_date", nullable = false)
+    private LocalDate checkOutDate;
+
+    @Column(name = "held_by")
+    private String heldBy;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Transient
+    @JsonIgnore
+    private HashedTimingWheel.Timeout expiry;
+
+    public RoomHold() {
+    }
+
+    public RoomHold(String holdId, Long roomId, LocalDate checkInDate, LocalDate checkOutDate, String heldBy,
+            LocalDateTime expiresAt) {
+        this.holdId = holdId;
+        this.roomId = roomId;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.heldBy = heldBy;
+        this.expiresAt = expiresAt;
+    }
+
+    /** True if this hold covers any night between checkIn and checkOut. */
+    public boolean overlaps(LocalDate checkIn, LocalDate checkOut) {
+        return checkInDate.isBefore(checkOut) && checkOutDate.isAfter(checkIn);
+    }
+
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(String holdId) {
+        this.holdId = holdId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public LocalDate getCheckInDate() {
+        return checkInDate;
+    }
+
+    public void setCheckInDate(LocalDate checkInDate) {
+        this.checkInDate = checkInDate;
+    }
+
+    public LocalDate getCheckOutDate() {
+        return checkOutDate;
+    }
+
+    public void setCheckOutDate(LocalDate checkOutDate) {
+        this.checkOutDate = checkOutDate;
+    }
+
+    public String getHeldBy() {
+        return heldBy;
+    }
+
+    public void setHeldBy(String heldBy) {
+        this.heldBy = heldBy;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public HashedTimingWheel.Timeout getExpiry() {
+        return expiry;
+    }
+
+    public void setExpiry(HashedTimingWheel.Timeout expiry) {
+        this.expiry = expiry;
+    }
+}
@@ -0,0 +1,27 @@
+package com.hms.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Taxes collected for one jurisdiction in one month, net of refunds issued
+ * that month.
+ *
+ * @param taxConfigurationId null for payments with no matching jurisdiction
+ *                           or taken before the jurisdiction was recorded
+ * @param month              yyyy-MM
+ */
+public record TaxLiabilityRow(
+        Long taxConfigurationId,
+        String stateCode,
+        String county,
+        String city,
+        String month,
+        long payments,
+        long refunds,
+        BigDecimal taxableAmount,
+        BigDecimal stateTax,
+        BigDecimal countyTax,
+        BigDecimal cityTax,
+        BigDecimal resortFee,
+        BigDecimal totalTax) {
+}
@@ -0,0 +1,21 @@
+package com.hms.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Tax-inclusive quote for one stay. Amounts are rounded the same way as
+ * TaxCalculationService.calculateTaxes.
+ *
+ * @param taxConfigurationId the jurisdiction's tax configuration, or null if
+ *                           none applied (zero taxes)
+ */
+public record TaxQuote(
+        BigDecimal subtotal,
+        BigDecimal stateTax,
+        BigDecimal countyTax,
+        BigDecimal cityTax,
+        BigDecimal resortFee,
+        BigDecimal totalTax,
+        BigDecimal grandTotal,
+        Long taxConfigurationId) {
+}
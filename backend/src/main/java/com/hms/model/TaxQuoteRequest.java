@@ -0,0 +1,17 @@
+package com.hms.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One stay to quote: the room subtotal and where and when it is taxed.
+ *
+ * @param date the date whose tax rates apply; today if null
+ */
+public record TaxQuoteRequest(
+        BigDecimal subtotal,
+        String stateCode,
+        String county,
+        String city,
+        LocalDate date) {
+}
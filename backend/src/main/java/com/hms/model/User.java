@@ -22,6 +22,10 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // Null for staff added before shifts were tracked; counts as on shift
+    @Column(name = "on_shift")
+    private Boolean onShift;
+
     private LocalDateTime createdAt;
 
     @PrePersist
@@ -85,6 +89,14 @@ public class User {
         this.role = role;
     }
 
+    public Boolean getOnShift() {
+        return onShift;
+    }
+
+    public void setOnShift(Boolean onShift) {
+        this.onShift = onShift;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
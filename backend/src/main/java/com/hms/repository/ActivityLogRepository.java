@@ -1,11 +1,15 @@
 package com.hms.repository;
 
 import com.hms.model.ActivityLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ActivityLogRepository extends JpaRepository<ActivityLog, Long> {
     List<ActivityLog> findByUserIdOrderByTimestampDesc(Long userId);
 
     List<ActivityLog> findAllByOrderByTimestampDesc();
+
+    List<ActivityLog> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime from, LocalDateTime to, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.hms.repository;
+
+import com.hms.model.BookingBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface BookingBalanceRepository extends JpaRepository<BookingBalance, Long> {
+    // Bookings created before the ledger existed
+    @Query("SELECT b.id FROM Booking b WHERE NOT EXISTS (SELECT 1 FROM BookingBalance x WHERE x.bookingId = b.id) ORDER BY b.id")
+    List<Long> findBookingIdsWithoutBalance();
+}
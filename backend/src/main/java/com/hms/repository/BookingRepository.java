@@ -15,10 +15,36 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     // Find bookings that overlap with the given date range for a specific room
     // Overlap logic: (StartA < EndB) and (EndA > StartB)
-    @org.springframework.data.jpa.repository.Query("SELECT b FROM Booking b WHERE b.room.id = :roomId AND b.status <> 'CANCELLED' AND b.checkInDate < :checkOutDate AND b.checkOutDate > :checkInDate")
+    // Cancelled bookings and no-shows no longer hold the room
+    @org.springframework.data.jpa.repository.Query("SELECT b FROM Booking b WHERE b.room.id = :roomId AND b.status NOT IN ('CANCELLED', 'NO_SHOW') AND b.checkInDate < :checkOutDate AND b.checkOutDate > :checkInDate")
     List<Booking> findBookingsInDateRange(@org.springframework.data.repository.query.Param("roomId") Long roomId,
             @org.springframework.data.repository.query.Param("checkInDate") java.time.LocalDate checkInDate,
             @org.springframework.data.repository.query.Param("checkOutDate") java.time.LocalDate checkOutDate);
 
+    // Rooms with at least one overlapping booking, for checking many rooms in one query
+    @org.springframework.data.jpa.repository.Query("SELECT DISTINCT b.room.id FROM Booking b WHERE b.status NOT IN ('CANCELLED', 'NO_SHOW') AND b.checkInDate < :checkOutDate AND b.checkOutDate > :checkInDate")
+    List<Long> findBookedRoomIdsInDateRange(
+            @org.springframework.data.repository.query.Param("checkInDate") java.time.LocalDate checkInDate,
+            @org.springframework.data.repository.query.Param("checkOutDate") java.time.LocalDate checkOutDate);
+
     List<Booking> findByCheckInDateBetween(java.time.LocalDate startDate, java.time.LocalDate endDate);
+
+    // Night audit chunks: keyset pagination on id, with room and guest fetched in the same query
+    @org.springframework.data.jpa.repository.EntityGraph(attributePaths = { "room", "guest" })
+    List<Booking> findByStatusAndCheckInDateAndIdGreaterThanOrderByIdAsc(Booking.BookingStatus status,
+            java.time.LocalDate checkInDate, Long afterId, org.springframework.data.domain.Pageable pageable);
+
+    @org.springframework.data.jpa.repository.EntityGraph(attributePaths = { "room", "guest" })
+    List<Booking> findByStatusAndCheckOutDateAndIdGreaterThanOrderByIdAsc(Booking.BookingStatus status,
+            java.time.LocalDate checkOutDate, Long afterId, org.springframework.data.domain.Pageable pageable);
+
+    // Bookings occupying the night of the given date
+    @org.springframework.data.jpa.repository.Query("SELECT b FROM Booking b WHERE b.status IN ('CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT') AND b.checkInDate <= :date AND b.checkOutDate > :date")
+    List<Booking> findStaysOnNight(@org.springframework.data.repository.query.Param("date") java.time.LocalDate date);
+
+    // Stays with at least one night from startDate up to but excluding endDate, room included
+    @org.springframework.data.jpa.repository.Query("SELECT b FROM Booking b JOIN FETCH b.room WHERE b.status IN ('CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT') AND b.checkInDate < :endDate AND b.checkOutDate > :startDate")
+    List<Booking> findStaysOverlapping(
+            @org.springframework.data.repository.query.Param("startDate") java.time.LocalDate startDate,
+            @org.springframework.data.repository.query.Param("endDate") java.time.LocalDate endDate);
 }
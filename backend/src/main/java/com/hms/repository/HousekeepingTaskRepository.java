@@ -1,7 +1,12 @@
 package com.hms.repository;
 
 import com.hms.model.HousekeepingTask;
+import com.hms.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface HousekeepingTaskRepository extends JpaRepository<HousekeepingTask, Long> {
@@ -10,4 +15,27 @@ public interface HousekeepingTaskRepository extends JpaRepository<HousekeepingTa
     List<HousekeepingTask> findByStatus(HousekeepingTask.TaskStatus status);
 
     List<HousekeepingTask> findAllByOrderByScheduledDateDesc();
+
+    @Query("SELECT t FROM HousekeepingTask t JOIN FETCH t.room LEFT JOIN FETCH t.assignedStaff "
+            + "WHERE t.scheduledDate = :date ORDER BY t.id")
+    List<HousekeepingTask> findBoardTasks(@Param("date") LocalDate date);
+
+    @Query("SELECT t FROM HousekeepingTask t JOIN FETCH t.room LEFT JOIN FETCH t.assignedStaff s "
+            + "WHERE t.scheduledDate = :date AND s.id = :staffId ORDER BY t.id")
+    List<HousekeepingTask> findBoardTasksForStaff(@Param("date") LocalDate date, @Param("staffId") Long staffId);
+
+    @Query("SELECT t FROM HousekeepingTask t JOIN FETCH t.room LEFT JOIN FETCH t.assignedStaff WHERE t.id IN :ids")
+    List<HousekeepingTask> findWithRoomAndStaffByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Id and room number of each unassigned task in the status. */
+    @Query("SELECT t.id, r.roomNumber FROM HousekeepingTask t JOIN t.room r "
+            + "WHERE t.status = :status AND t.assignedStaff IS NULL")
+    List<Object[]> findUnassignedTaskRooms(@Param("status") HousekeepingTask.TaskStatus status);
+
+    /** Id and count of open tasks for each on-shift user with the role. */
+    @Query("SELECT u.id, COUNT(t.id) FROM User u "
+            + "LEFT JOIN HousekeepingTask t ON t.assignedStaff = u AND t.status IN :open "
+            + "WHERE u.role = :role AND (u.onShift IS NULL OR u.onShift = true) GROUP BY u.id")
+    List<Object[]> findOnShiftStaffLoads(@Param("role") User.Role role,
+            @Param("open") Collection<HousekeepingTask.TaskStatus> open);
 }
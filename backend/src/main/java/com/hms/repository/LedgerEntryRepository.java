@@ -0,0 +1,13 @@
+package com.hms.repository;
+
+import com.hms.model.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    List<LedgerEntry> findByBookingIdOrderByIdAsc(Long bookingId);
+
+    List<LedgerEntry> findByPaymentId(Long paymentId);
+}
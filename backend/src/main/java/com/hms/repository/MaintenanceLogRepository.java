@@ -2,10 +2,19 @@ package com.hms.repository;
 
 import com.hms.model.MaintenanceLog;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 public interface MaintenanceLogRepository extends JpaRepository<MaintenanceLog, Long> {
     List<MaintenanceLog> findByStatus(MaintenanceLog.MaintenanceStatus status);
 
     List<MaintenanceLog> findAllByOrderByReportedAtDesc();
+
+    @Query("SELECT m FROM MaintenanceLog m JOIN FETCH m.room WHERE m.status IN :statuses ORDER BY m.reportedAt DESC")
+    List<MaintenanceLog> findBoardIssues(@Param("statuses") Collection<MaintenanceLog.MaintenanceStatus> statuses);
+
+    @Query("SELECT m FROM MaintenanceLog m JOIN FETCH m.room WHERE m.id IN :ids")
+    List<MaintenanceLog> findWithRoomByIdIn(@Param("ids") Collection<Long> ids);
 }
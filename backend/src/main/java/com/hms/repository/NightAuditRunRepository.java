@@ -0,0 +1,17 @@
+package com.hms.repository;
+
+import com.hms.model.NightAuditRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface NightAuditRunRepository extends JpaRepository<NightAuditRun, Long> {
+    Optional<NightAuditRun> findByBusinessDate(LocalDate businessDate);
+
+    Optional<NightAuditRun> findFirstByStatusOrderByBusinessDateDesc(NightAuditRun.RunStatus status);
+
+    List<NightAuditRun> findTop30ByOrderByBusinessDateDesc();
+}
@@ -1,11 +1,56 @@
 package com.hms.repository;
 
 import com.hms.model.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByBookingId(Long bookingId);
+
+    // Payments for bookings checking in within the range, in one query
+    List<Payment> findByBookingCheckInDateBetween(LocalDate startDate, LocalDate endDate);
+
+    List<Payment> findTop100ByInvoicePdfPathIsNullAndInvoiceNumberIsNotNullOrderByIdAsc();
+
+    // Only the path, so a concurrent edit to the payment is not overwritten
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.invoicePdfPath = :path WHERE p.id = :id")
+    int updateInvoicePdfPath(@Param("id") Long id, @Param("path") String path);
+
+    @Query("SELECT p FROM Payment p WHERE p.status = :status AND (p.nextCaptureAt IS NULL OR p.nextCaptureAt <= :now) ORDER BY p.id")
+    List<Payment> findDueCaptures(@Param("status") Payment.PaymentStatus status, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    // The capture updates below only apply while the payment is still
+    // AUTHORIZED, so they never overwrite an edit or refund made meanwhile
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = :captured, p.stripePaymentIntentId = :reference, p.capturedAt = :now, "
+            + "p.captureAttempts = :attempts, p.captureError = NULL WHERE p.id = :id AND p.status = :authorized")
+    int markCaptured(@Param("id") Long id, @Param("reference") String reference, @Param("now") LocalDateTime now,
+            @Param("attempts") int attempts, @Param("captured") Payment.PaymentStatus captured,
+            @Param("authorized") Payment.PaymentStatus authorized);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.captureAttempts = :attempts, p.nextCaptureAt = :next, p.captureError = :error "
+            + "WHERE p.id = :id AND p.status = :authorized")
+    int scheduleCaptureRetry(@Param("id") Long id, @Param("attempts") int attempts, @Param("next") LocalDateTime next,
+            @Param("error") String error, @Param("authorized") Payment.PaymentStatus authorized);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = :failed, p.captureAttempts = :attempts, p.captureError = :error "
+            + "WHERE p.id = :id AND p.status = :authorized")
+    int markCaptureFailed(@Param("id") Long id, @Param("attempts") int attempts, @Param("error") String error,
+            @Param("failed") Payment.PaymentStatus failed, @Param("authorized") Payment.PaymentStatus authorized);
 }
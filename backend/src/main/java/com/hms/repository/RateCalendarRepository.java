@@ -0,0 +1,16 @@
+package com.hms.repository;
+
+import com.hms.model.RateCalendar;
+import com.hms.model.Room;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RateCalendarRepository extends JpaRepository<RateCalendar, Long> {
+    List<RateCalendar> findByRoomTypeAndStayDateBetweenOrderByStayDate(Room.RoomType roomType, LocalDate startDate,
+            LocalDate endDate);
+
+    List<RateCalendar> findByStayDateBetweenOrderByStayDate(LocalDate startDate, LocalDate endDate);
+}
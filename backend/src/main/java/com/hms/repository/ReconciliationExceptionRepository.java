@@ -0,0 +1,12 @@
+package com.hms.repository;
+
+import com.hms.model.ReconciliationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ReconciliationExceptionRepository extends JpaRepository<ReconciliationException, Long> {
+    List<ReconciliationException> findByRunIdOrderByIdAsc(Long runId, Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.hms.repository;
+
+import com.hms.model.ReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface ReconciliationRunRepository extends JpaRepository<ReconciliationRun, Long> {
+    List<ReconciliationRun> findTop30ByOrderByIdDesc();
+}
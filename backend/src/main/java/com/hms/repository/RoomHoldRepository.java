@@ -0,0 +1,15 @@
+package com.hms.repository;
+
+import com.hms.model.RoomHold;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RoomHoldRepository extends JpaRepository<RoomHold, String> {
+    List<RoomHold> findByExpiresAtAfter(LocalDateTime now);
+
+    @org.springframework.transaction.annotation.Transactional
+    void deleteByExpiresAtBefore(LocalDateTime now);
+}
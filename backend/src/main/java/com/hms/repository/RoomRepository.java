@@ -1,9 +1,14 @@
 package com.hms.repository;
 
 import com.hms.model.Room;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
@@ -12,4 +17,13 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     List<Room> findByType(Room.RoomType type);
 
     boolean existsByRoomNumber(String roomNumber);
+
+    // Held until the transaction ends; serializes bookings and holds on one room
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id = :id")
+    Optional<Room> findByIdForUpdate(@Param("id") Long id);
+
+    // Each row is [RoomType, Long]
+    @Query("SELECT r.type, COUNT(r) FROM Room r GROUP BY r.type")
+    List<Object[]> countRoomsByType();
 }
@@ -0,0 +1,135 @@
+package com.hms.service;
+
+import com.hms.model.ActivityEvent;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * The record format of activity log segment files.
+ *
+ * A record is an int body length, an int CRC32 of the body, then the body:
+ * long epoch millis, then email, action and details as UTF-8 with a short,
+ * short and int length prefix. Segments are preallocated with zeros, so a
+ * zero length marks the end of the data; a record whose length or CRC is
+ * wrong marks where a crash cut off the last write.
+ */
+final class ActivityLogSegments {
+
+    static final int HEADER_BYTES = 8;
+    static final int MAX_FIELD_BYTES = Short.MAX_VALUE;
+    static final int MAX_DETAILS_BYTES = 64 * 1024;
+
+    private ActivityLogSegments() {
+    }
+
+    /** The encoded body; over-long fields are cut to their limits. */
+    static byte[] encode(long epochMillis, String email, String action, String details) {
+        byte[] emailBytes = limit(email, MAX_FIELD_BYTES);
+        byte[] actionBytes = limit(action, MAX_FIELD_BYTES);
+        byte[] detailsBytes = limit(details, MAX_DETAILS_BYTES);
+        ByteBuffer body = ByteBuffer.allocate(8 + 2 + emailBytes.length + 2 + actionBytes.length + 4
+                + detailsBytes.length);
+        body.putLong(epochMillis);
+        body.putShort((short) emailBytes.length).put(emailBytes);
+        body.putShort((short) actionBytes.length).put(actionBytes);
+        body.putInt(detailsBytes.length).put(detailsBytes);
+        return body.array();
+    }
+
+    /** Writes one record at the buffer's position. The caller checks it fits. */
+    static void write(ByteBuffer segment, byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        segment.putInt(body.length);
+        segment.putInt((int) crc.getValue());
+        segment.put(body);
+    }
+
+    /**
+     * Reads the record at the buffer's position, up to limit, and advances
+     * past it. Returns null at the end of the data or at a damaged record,
+     * leaving the position there.
+     */
+    static byte[] next(ByteBuffer segment, int limit) {
+        int start = segment.position();
+        if (limit - start < HEADER_BYTES) {
+            return null;
+        }
+        int length = segment.getInt(start);
+        if (length <= 0 || length > limit - start - HEADER_BYTES) {
+            return null;
+        }
+        byte[] body = new byte[length];
+        segment.get(start + HEADER_BYTES, body);
+        if (!crcMatches(body, segment.getInt(start + 4))) {
+            return null;
+        }
+        segment.position(start + HEADER_BYTES + length);
+        return body;
+    }
+
+    /** Reads the next record from a stream, or null at the end or a damaged record. */
+    static byte[] next(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length <= 0 || length > 8 + 2 + MAX_FIELD_BYTES * 2 + 2 + 4 + MAX_DETAILS_BYTES) {
+            return null;
+        }
+        int crc = in.readInt();
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return crcMatches(body, crc) ? body : null;
+    }
+
+    static long timestamp(byte[] body) {
+        return ByteBuffer.wrap(body).getLong();
+    }
+
+    static ActivityEvent decode(byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        long millis = buffer.getLong();
+        String email = string(buffer, buffer.getShort() & 0xFFFF);
+        String action = string(buffer, buffer.getShort() & 0xFFFF);
+        String details = string(buffer, buffer.getInt());
+        return new ActivityEvent(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()),
+                email, action, details);
+    }
+
+    private static boolean crcMatches(byte[] body, int expected) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue() == expected;
+    }
+
+    private static String string(ByteBuffer buffer, int length) {
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static byte[] limit(String value, int maxBytes) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= maxBytes) {
+            return bytes;
+        }
+        // Cut on a character boundary
+        int end = maxBytes;
+        while (end > 0 && (bytes[end] & 0xC0) == 0x80) {
+            end--;
+        }
+        return Arrays.copyOf(bytes, end);
+    }
+}
@@ -1,23 +1,21 @@
 package com.hms.service;
 
-import com.hms.model.ActivityLog;
-import com.hms.model.User;
-import com.hms.repository.ActivityLogRepository;
-import com.hms.repository.UserRepository;
+import com.hms.model.ActivityEvent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class ActivityLogService {
 
-    @Autowired
-    private ActivityLogRepository activityLogRepository;
+    private static final int MAX_LIMIT = 1000;
 
     @Autowired
-    private UserRepository userRepository;
+    private ActivityLogStore activityLogStore;
 
     public void logActivity(String action, String details) {
         try {
@@ -29,18 +27,26 @@ public class ActivityLogService {
                 email = principal.toString();
             }
 
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            ActivityLog log = new ActivityLog(user, action, details);
-            activityLogRepository.save(log);
+            activityLogStore.append(email, action, details);
         } catch (Exception e) {
             // Silently fail logging if user not found or system action
             System.err.println("Failed to log activity: " + e.getMessage());
         }
     }
 
-    public List<ActivityLog> getAllLogs() {
-        return activityLogRepository.findAllByOrderByTimestampDesc();
+    /** The newest entries in the configured store, up to the most getLogs returns at once. */
+    public List<ActivityEvent> getAllLogs() {
+        return getLogs(LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.now(), MAX_LIMIT);
+    }
+
+    /** Audit trail entries in the range, newest first, from the configured store. */
+    public List<ActivityEvent> getLogs(LocalDateTime from, LocalDateTime to, int limit) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("From must not be after to");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new RuntimeException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return activityLogStore.find(from, to, limit);
     }
 }
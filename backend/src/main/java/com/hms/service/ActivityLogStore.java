@@ -0,0 +1,20 @@
+package com.hms.service;
+
+import com.hms.model.ActivityEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Where {@link ActivityLogService} keeps the audit trail, chosen with
+ * hms.activity-log.store: jpa (the activity_logs table) or segment (local
+ * append-only files, see {@link SegmentActivityLogStore}).
+ */
+public interface ActivityLogStore {
+
+    /** Records an action by the user with the given email; may throw if it cannot. */
+    void append(String userEmail, String action, String details);
+
+    /** Entries from from to to inclusive, newest first, at most limit of them. */
+    List<ActivityEvent> find(LocalDateTime from, LocalDateTime to, int limit);
+}
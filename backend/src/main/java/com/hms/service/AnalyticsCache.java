@@ -0,0 +1,274 @@
+package com.hms.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of analytics results.
+ *
+ * Each entry records the date range its result was computed from (or none,
+ * for results over all bookings). A booking or payment change evicts only
+ * the entries whose range overlaps the affected dates, so editing a booking
+ * in March leaves cached January reports alone.
+ * Concurrent requests for the same key share one computation, and a result
+ * computed while a covering change was made is returned but not stored.
+ */
+@Service
+public class AnalyticsCache {
+
+    @Value("${hms.analytics.cache-size:256}")
+    private int maxEntries = 256;
+
+    @Value("${hms.analytics.cache-ttl-minutes:60}")
+    private long ttlMinutes = 60;
+
+    // Access-ordered LRU; guarded by its own monitor
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Computation> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param endpoint  groups the metrics, e.g. "analytics"
+     * @param key       identifies the parameters within the endpoint
+     * @param startDate first check-in date the result depends on, or null if
+     *                  it depends on every booking
+     * @param endDate   last check-in date the result depends on
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String endpoint, String key, LocalDate startDate, LocalDate endDate, Supplier<T> loader) {
+        String fullKey = endpoint + ":" + key;
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, e -> new EndpointStats());
+
+        synchronized (entries) {
+            Entry entry = entries.get(fullKey);
+            if (entry != null && !entry.isExpired(ttlMinutes)) {
+                endpointStats.hits.increment();
+                return (T) entry.value;
+            }
+        }
+
+        Computation mine = new Computation(startDate, endDate);
+        Computation running = inFlight.putIfAbsent(fullKey, mine);
+        if (running != null) {
+            endpointStats.coalesced.increment();
+            try {
+                return (T) running.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            // Another computation may have finished between the lookup and registering
+            synchronized (entries) {
+                Entry entry = entries.get(fullKey);
+                if (entry != null && !entry.isExpired(ttlMinutes)) {
+                    endpointStats.hits.increment();
+                    mine.result.complete(entry.value);
+                    return (T) entry.value;
+                }
+            }
+
+            endpointStats.misses.increment();
+            long started = System.nanoTime();
+            T value = loader.get();
+            endpointStats.recordCompute(System.nanoTime() - started);
+            store(fullKey, mine, new Entry(startDate, endDate, value));
+            mine.result.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(fullKey, mine);
+        }
+    }
+
+    /** Drops results that depend on bookings checking in on the given date. */
+    public void invalidate(LocalDate checkInDate) {
+        invalidate(checkInDate, checkInDate);
+    }
+
+    /**
+     * Drops results whose range overlaps any date from first to last
+     * inclusive, e.g. every night of a changed stay.
+     */
+    public void invalidate(LocalDate first, LocalDate last) {
+        if (first == null || last == null) {
+            invalidateAll();
+            return;
+        }
+        synchronized (entries) {
+            for (Computation computation : inFlight.values()) {
+                if (computation.overlaps(first, last)) {
+                    computation.stale = true;
+                }
+            }
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().overlaps(first, last)) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    /** Drops results computed over all bookings (those without a date range). */
+    public void invalidateUnbounded() {
+        synchronized (entries) {
+            for (Computation computation : inFlight.values()) {
+                if (computation.startDate == null) {
+                    computation.stale = true;
+                }
+            }
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().startDate == null) {
+                    iterator.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            for (Computation computation : inFlight.values()) {
+                computation.stale = true;
+            }
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    /**
+     * Hit rate and recompute times per endpoint, plus cache-wide counters.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> endpoints = new TreeMap<>();
+        stats.forEach((endpoint, endpointStats) -> endpoints.put(endpoint, endpointStats.toMap()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        synchronized (entries) {
+            result.put("entries", entries.size());
+        }
+        result.put("maxEntries", maxEntries);
+        result.put("inFlight", inFlight.size());
+        result.put("invalidations", invalidations.sum());
+        result.put("evictions", evictions.sum());
+        result.put("endpoints", endpoints);
+        return result;
+    }
+
+    /**
+     * Stores the result unless a covering change was made while it was being
+     * computed. Checked under the same lock invalidations take, so a change
+     * either marks the computation first or removes the stored entry after.
+     */
+    private void store(String key, Computation computation, Entry entry) {
+        synchronized (entries) {
+            if (computation.stale) {
+                return;
+            }
+            entries.put(key, entry);
+            while (entries.size() > maxEntries) {
+                Iterator<String> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private static boolean overlaps(LocalDate startDate, LocalDate endDate, LocalDate first, LocalDate last) {
+        return startDate == null || (!last.isBefore(startDate) && !first.isAfter(endDate));
+    }
+
+    private static final class Entry {
+        final LocalDate startDate;
+        final LocalDate endDate;
+        final Object value;
+        final long storedAtNanos = System.nanoTime();
+
+        Entry(LocalDate startDate, LocalDate endDate, Object value) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.value = value;
+        }
+
+        boolean overlaps(LocalDate first, LocalDate last) {
+            return AnalyticsCache.overlaps(startDate, endDate, first, last);
+        }
+
+        boolean isExpired(long ttlMinutes) {
+            return System.nanoTime() - storedAtNanos > TimeUnit.MINUTES.toNanos(ttlMinutes);
+        }
+    }
+
+    private static final class Computation {
+        final LocalDate startDate;
+        final LocalDate endDate;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        volatile boolean stale;
+
+        Computation(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        boolean overlaps(LocalDate first, LocalDate last) {
+            return AnalyticsCache.overlaps(startDate, endDate, first, last);
+        }
+    }
+
+    private static final class EndpointStats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+        final LongAdder computeNanos = new LongAdder();
+        volatile long maxComputeNanos;
+
+        void recordCompute(long nanos) {
+            computeNanos.add(nanos);
+            if (nanos > maxComputeNanos) {
+                synchronized (this) {
+                    maxComputeNanos = Math.max(maxComputeNanos, nanos);
+                }
+            }
+        }
+
+        Map<String, Object> toMap() {
+            long hitCount = hits.sum();
+            long missCount = misses.sum();
+            long coalescedCount = coalesced.sum();
+            long requests = hitCount + missCount + coalescedCount;
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("hits", hitCount);
+            map.put("misses", missCount);
+            map.put("coalesced", coalescedCount);
+            // Coalesced requests were served without their own computation
+            map.put("hitRate", requests > 0 ? (double) (hitCount + coalescedCount) / requests : 0.0);
+            map.put("recomputes", missCount);
+            map.put("avgRecomputeMillis", missCount > 0 ? computeNanos.sum() / missCount / 1_000_000.0 : 0.0);
+            map.put("maxRecomputeMillis", maxComputeNanos / 1_000_000.0);
+            return map;
+        }
+    }
+}
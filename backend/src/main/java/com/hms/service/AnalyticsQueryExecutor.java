@@ -0,0 +1,172 @@
+package com.hms.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries behind an analytics request concurrently on a
+ * bounded pool, with a deadline per request.
+ *
+ * Queries are forked inside a {@link Scope} and joined together; the first
+ * failure, in whatever order queries finish, or a missed deadline cancels
+ * the rest, and closing the scope cancels anything
+ * left running, so no query outlives its request. A query still queued when
+ * its scope joins is run by the joining thread itself, which keeps nested
+ * scopes (a monthly comparison forking two monthly reports) from deadlocking
+ * a full pool; no such query is started once the deadline has passed. With
+ * hms.analytics.parallel=false every query runs inline at join, in fork
+ * order.
+ */
+@Service
+public class AnalyticsQueryExecutor {
+
+    @Value("${hms.analytics.parallel:true}")
+    private boolean parallel = true;
+
+    @Value("${hms.analytics.query-threads:8}")
+    private int threads = 8;
+
+    @Value("${hms.analytics.deadline-ms:10000}")
+    private long deadlineMillis = 10000;
+
+    private volatile ThreadPoolExecutor pool;
+
+    public Scope open() {
+        return new Scope(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private ThreadPoolExecutor pool() {
+        ThreadPoolExecutor current = pool;
+        if (current == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    AtomicInteger count = new AtomicInteger();
+                    ThreadPoolExecutor created = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(threads * 32), r -> {
+                                Thread thread = new Thread(r, "hms-analytics-" + count.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            });
+                    created.allowCoreThreadTimeOut(true);
+                    pool = created;
+                }
+                current = pool;
+            }
+        }
+        return current;
+    }
+
+    /** A group of queries that are forked together and joined together. */
+    public final class Scope implements AutoCloseable {
+        private final long deadlineNanos;
+        private final List<FutureTask<?>> tasks = new ArrayList<>();
+        private final BlockingQueue<FutureTask<?>> finished = new LinkedBlockingQueue<>();
+
+        private Scope(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Starts a query. The returned supplier gives its result after
+         * {@link #join()}.
+         */
+        public <T> Supplier<T> fork(Callable<T> query) {
+            FutureTask<T> task = new FutureTask<>(query) {
+                @Override
+                protected void done() {
+                    finished.add(this);
+                }
+            };
+            tasks.add(task);
+            if (parallel) {
+                try {
+                    pool().execute(task);
+                } catch (RejectedExecutionException e) {
+                    // Pool saturated; join() runs it on the caller
+                }
+            }
+            return () -> {
+                if (!task.isDone()) {
+                    throw new IllegalStateException("Scope has not been joined");
+                }
+                try {
+                    return task.get();
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+
+        /**
+         * Waits for every forked query.
+         *
+         * @throws RuntimeException if a query failed or the deadline passed;
+         *                          the remaining queries are cancelled
+         */
+        public void join() {
+            try {
+                // No-op for tasks the pool has already started; the rest run here, but none starts late
+                for (FutureTask<?> task : tasks) {
+                    if (!task.isDone() && deadlineNanos - System.nanoTime() <= 0) {
+                        throw new TimeoutException();
+                    }
+                    task.run();
+                }
+                // In completion order, so a failure is seen while slower siblings are still running
+                for (int remaining = tasks.size(); remaining > 0; remaining--) {
+                    FutureTask<?> task = finished.poll(Math.max(0, deadlineNanos - System.nanoTime()),
+                            TimeUnit.NANOSECONDS);
+                    if (task == null) {
+                        throw new TimeoutException();
+                    }
+                    task.get();
+                }
+            } catch (TimeoutException e) {
+                cancelAll();
+                throw new RuntimeException("Analytics query exceeded the " + deadlineMillis + " ms deadline");
+            } catch (ExecutionException e) {
+                cancelAll();
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause
+                        : new RuntimeException("Analytics query failed: " + cause.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll();
+                throw new RuntimeException("Interrupted while waiting for analytics queries");
+            }
+        }
+
+        @Override
+        public void close() {
+            cancelAll();
+        }
+
+        private void cancelAll() {
+            for (FutureTask<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Supplier;
 
 @Service
 public class AnalyticsService {
@@ -29,26 +30,51 @@ public class AnalyticsService {
     @Autowired
     private HotelMetricsService metricsService;
 
+    @Autowired
+    private AnalyticsCache analyticsCache;
+
+    @Autowired
+    private AnalyticsQueryExecutor queryExecutor;
+
+    @Autowired
+    private OccupancyEngine occupancyEngine;
+
     /**
      * Get comprehensive hotel analytics for a date range
      */
     public Map<String, Object> getHotelAnalytics(LocalDate startDate, LocalDate endDate) {
-        Map<String, Object> analytics = new HashMap<>();
+        return analyticsCache.get("analytics", startDate + ":" + endDate, startDate, endDate,
+                () -> Collections.unmodifiableMap(computeHotelAnalytics(startDate, endDate)));
+    }
 
-        // Get all bookings in range
-        List<Booking> bookings = bookingRepository.findByCheckInDateBetween(startDate, endDate);
+    private Map<String, Object> computeHotelAnalytics(LocalDate startDate, LocalDate endDate) {
+        Map<String, Object> analytics = new HashMap<>();
 
-        // Get all payments
-        List<Payment> payments = new ArrayList<>();
-        for (Booking booking : bookings) {
-            payments.addAll(paymentRepository.findByBookingId(booking.getId()));
+        // Room inventory, stays, bookings in range and their payments don't depend on each other
+        List<Booking> bookings;
+        List<Payment> payments;
+        OccupancyEngine.Occupancy occupancy;
+        try (AnalyticsQueryExecutor.Scope scope = queryExecutor.open()) {
+            Supplier<Map<Room.RoomType, Integer>> roomsByType = scope.fork(this::countRoomsByType);
+            Supplier<List<Booking>> stays = scope
+                    .fork(() -> bookingRepository.findStaysOverlapping(startDate, endDate.plusDays(1)));
+            Supplier<List<Booking>> bookingsInRange = scope
+                    .fork(() -> bookingRepository.findByCheckInDateBetween(startDate, endDate));
+            Supplier<List<Payment>> paymentsInRange = scope
+                    .fork(() -> paymentRepository.findByBookingCheckInDateBetween(startDate, endDate));
+            scope.join();
+            bookings = bookingsInRange.get();
+            payments = paymentsInRange.get();
+            occupancy = occupancyEngine.compute(startDate, endDate, stays.get(), roomsByType.get());
         }
 
         // Calculate basic metrics
-        int totalRooms = (int) roomRepository.count();
-        int daysInPeriod = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
-        int totalAvailableRooms = totalRooms * daysInPeriod;
-        int roomsSold = bookings.size();
+        int daysInPeriod = occupancy.getDays();
+        int totalRooms = occupancy.getTotalRooms();
+        int totalAvailableRooms = occupancy.getRoomNightsAvailable();
+        // Occupied room nights inside the range, including stays that began before it
+        int roomsSold = occupancy.getRoomNightsSold();
+        int totalBookings = bookings.size();
 
         // Calculate revenue with null safety
         BigDecimal totalRoomRevenue = BigDecimal.ZERO;
@@ -68,9 +94,10 @@ public class AnalyticsService {
             totalTaxes = totalTaxes.add(stateTax).add(countyTax).add(cityTax);
         }
 
-        // Calculate U.S. Hotel Metrics
-        BigDecimal adr = metricsService.calculateADR(totalRoomRevenue, roomsSold);
-        BigDecimal revpar = metricsService.calculateRevPAR(totalRoomRevenue, totalAvailableRooms);
+        // Calculate U.S. Hotel Metrics on room revenue earned on the nights in range
+        BigDecimal roomRevenueEarned = occupancy.getRoomRevenue();
+        BigDecimal adr = metricsService.calculateADR(roomRevenueEarned, roomsSold);
+        BigDecimal revpar = metricsService.calculateRevPAR(roomRevenueEarned, totalAvailableRooms);
         BigDecimal revpor = metricsService.calculateRevPOR(totalRevenue, roomsSold);
         BigDecimal occupancyRate = metricsService.calculateOccupancyRate(roomsSold, totalAvailableRooms);
 
@@ -78,7 +105,7 @@ public class AnalyticsService {
         int totalNights = bookings.stream()
                 .mapToInt(b -> (int) ChronoUnit.DAYS.between(b.getCheckInDate(), b.getCheckOutDate()))
                 .sum();
-        BigDecimal alos = metricsService.calculateALOS(totalNights, roomsSold);
+        BigDecimal alos = metricsService.calculateALOS(totalNights, totalBookings);
 
         // Populate analytics
         analytics.put("period", Map.of(
@@ -89,16 +116,18 @@ public class AnalyticsService {
         analytics.put("revenue", Map.of(
                 "totalRevenue", totalRevenue,
                 "totalRoomRevenue", totalRoomRevenue,
+                "roomRevenueEarned", roomRevenueEarned,
                 "totalTaxes", totalTaxes,
                 "averageBookingValue",
-                roomsSold > 0 ? totalRevenue.divide(new BigDecimal(roomsSold), 2, RoundingMode.HALF_UP)
+                totalBookings > 0 ? totalRevenue.divide(new BigDecimal(totalBookings), 2, RoundingMode.HALF_UP)
                         : BigDecimal.ZERO));
 
         analytics.put("occupancy", Map.of(
                 "totalRooms", totalRooms,
                 "totalAvailableRooms", totalAvailableRooms,
                 "roomsSold", roomsSold,
-                "occupancyRate", occupancyRate));
+                "occupancyRate", occupancyRate,
+                "byRoomType", occupancyByRoomType(occupancy)));
 
         analytics.put("usHotelMetrics", Map.of(
                 "adr", adr,
@@ -107,12 +136,54 @@ public class AnalyticsService {
                 "alos", alos));
 
         analytics.put("bookings", Map.of(
-                "totalBookings", roomsSold,
+                "totalBookings", totalBookings,
                 "averageLengthOfStay", alos));
 
         return analytics;
     }
 
+    /**
+     * Rooms occupied each night of the range, in total and per room type
+     */
+    public Map<String, Object> getOccupancy(LocalDate startDate, LocalDate endDate) {
+        return analyticsCache.get("occupancy", startDate + ":" + endDate, startDate, endDate, () -> {
+            OccupancyEngine.Occupancy occupancy = occupancyEngine.compute(startDate, endDate,
+                    bookingRepository.findStaysOverlapping(startDate, endDate.plusDays(1)), countRoomsByType());
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("startDate", startDate.toString());
+            result.put("endDate", endDate.toString());
+            result.put("roomNightsSold", occupancy.getRoomNightsSold());
+            result.put("roomNightsAvailable", occupancy.getRoomNightsAvailable());
+            result.put("occupancyRate", metricsService.calculateOccupancyRate(occupancy.getRoomNightsSold(),
+                    occupancy.getRoomNightsAvailable()));
+            result.put("byRoomType", occupancyByRoomType(occupancy));
+            result.put("daily", occupancy.toDaily());
+            return Collections.unmodifiableMap(result);
+        });
+    }
+
+    private Map<Room.RoomType, Integer> countRoomsByType() {
+        Map<Room.RoomType, Integer> rooms = new EnumMap<>(Room.RoomType.class);
+        for (Object[] row : roomRepository.countRoomsByType()) {
+            rooms.put((Room.RoomType) row[0], ((Number) row[1]).intValue());
+        }
+        return rooms;
+    }
+
+    private Map<String, Object> occupancyByRoomType(OccupancyEngine.Occupancy occupancy) {
+        Map<String, Object> byType = new LinkedHashMap<>();
+        for (Room.RoomType type : Room.RoomType.values()) {
+            int sold = occupancy.getRoomNightsSold(type);
+            int available = occupancy.getRoomNightsAvailable(type);
+            byType.put(type.toString(), Map.of(
+                    "roomNightsSold", sold,
+                    "roomNightsAvailable", available,
+                    "occupancyRate", metricsService.calculateOccupancyRate(sold, available)));
+        }
+        return byType;
+    }
+
     /**
      * Get daily revenue breakdown for charts
      */
@@ -150,6 +221,12 @@ public class AnalyticsService {
      * Get room type performance
      */
     public List<Map<String, Object>> getRoomTypePerformance() {
+        // Covers every booking, so any booking or payment change invalidates it
+        return analyticsCache.get("room-performance", "all", null, null,
+                () -> Collections.unmodifiableList(computeRoomTypePerformance()));
+    }
+
+    private List<Map<String, Object>> computeRoomTypePerformance() {
         List<Map<String, Object>> performance = new ArrayList<>();
 
         for (Room.RoomType type : Room.RoomType.values()) {
@@ -197,8 +274,22 @@ public class AnalyticsService {
         LocalDate prevStartDate = startDate.minusMonths(1);
         LocalDate prevEndDate = prevStartDate.plusMonths(1).minusDays(1);
 
-        Map<String, Object> currentMonth = getHotelAnalytics(startDate, endDate);
-        Map<String, Object> previousMonth = getHotelAnalytics(prevStartDate, prevEndDate);
+        return analyticsCache.get("monthly-comparison", year + "-" + month, prevStartDate, endDate,
+                () -> Collections.unmodifiableMap(compareMonths(startDate, endDate, prevStartDate, prevEndDate)));
+    }
+
+    private Map<String, Object> compareMonths(LocalDate startDate, LocalDate endDate, LocalDate prevStartDate,
+            LocalDate prevEndDate) {
+        // Each month is cached on its own too, so the previous month is usually a hit
+        Map<String, Object> currentMonth;
+        Map<String, Object> previousMonth;
+        try (AnalyticsQueryExecutor.Scope scope = queryExecutor.open()) {
+            Supplier<Map<String, Object>> current = scope.fork(() -> getHotelAnalytics(startDate, endDate));
+            Supplier<Map<String, Object>> previous = scope.fork(() -> getHotelAnalytics(prevStartDate, prevEndDate));
+            scope.join();
+            currentMonth = current.get();
+            previousMonth = previous.get();
+        }
 
         Map<String, Object> comparison = new HashMap<>();
         comparison.put("currentMonth", currentMonth);
@@ -0,0 +1,244 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.repository.BookingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Booking pace and pickup: room nights on the books for future stay dates
+ * compared with the same time last year, bucketed by lead time.
+ *
+ * Backed by a {@link PaceMatrix} that is loaded once at startup and then kept
+ * current booking by booking (see
+ * {@link com.hms.listener.BookingPaceListener}), so a report reads the
+ * matrix instead of the bookings table. A nightly rebuild drops stay dates
+ * that have aged out and corrects any drift.
+ *
+ * Cancelled and no-show bookings are removed from the matrix, so pace is
+ * net of cancellations, last year included.
+ */
+@Service
+public class BookingPaceService {
+
+    /** Lead-time buckets, in days before the stay date (inclusive bounds). */
+    private static final int[][] LEAD_BUCKETS = { { 0, 7 }, { 8, 14 }, { 15, 30 }, { 31, 60 }, { 61, 90 },
+            { 91, 180 }, { 181, Integer.MAX_VALUE } };
+
+    // Same weekday last year
+    private static final int DAYS_IN_YEAR = 364;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${hms.analytics.pace.horizon-days:730}")
+    private int horizonDays = 730;
+
+    @Value("${hms.analytics.pace.retention-days:400}")
+    private int retentionDays = 400;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile PaceMatrix matrix;
+    private LocalDate windowStart;
+    private LocalDate windowEnd;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to load booking pace: " + e.getMessage());
+        }
+    }
+
+    /** Reloads the matrix from the bookings table. */
+    @Scheduled(cron = "${hms.analytics.pace.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        LocalDate first = today.minusDays(retentionDays);
+        LocalDate last = today.plusDays(horizonDays);
+
+        lock.writeLock().lock();
+        try {
+            // Changes committed while the query runs wait here, so one committed
+            // just before the query starts can be counted twice until the next rebuild
+            PaceMatrix rebuilt = new PaceMatrix(horizonDays);
+            for (Booking stay : bookingRepository.findStaysOverlapping(first, last.plusDays(1))) {
+                rebuilt.addStay(stay.getCheckInDate(), stay.getCheckOutDate(), bookedOn(stay), 1, first, last);
+            }
+            matrix = rebuilt;
+            windowStart = first;
+            windowEnd = last;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves a booking's nights in the matrix. Either side may be null, for a
+     * booking that did not (or no longer does) hold its room.
+     */
+    public void applyChange(StayNights before, StayNights after) {
+        lock.writeLock().lock();
+        try {
+            if (matrix == null) {
+                // Not loaded yet; the load will read the committed booking
+                return;
+            }
+            if (before != null) {
+                matrix.addStay(before.checkIn, before.checkOut, before.bookedOn, -1, windowStart, windowEnd);
+            }
+            if (after != null) {
+                matrix.addStay(after.checkIn, after.checkOut, after.bookedOn, 1, windowStart, windowEnd);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Pace for each stay date from startDate for the given number of days,
+     * as of the asOf date.
+     *
+     * Where the same date last year is older than the retained window there
+     * is no data to compare, so sameTimeLastYear and variance are null; the
+     * totals compare only the comparableDays that have it.
+     *
+     * @param pickupDays the pickup column counts nights booked in this many
+     *                   days up to and including asOf
+     */
+    public Map<String, Object> getPaceReport(LocalDate asOf, LocalDate startDate, int days, int pickupDays) {
+        if (days < 1 || days > horizonDays) {
+            throw new RuntimeException("Days must be between 1 and " + horizonDays);
+        }
+        if (pickupDays < 1) {
+            throw new RuntimeException("Pickup days must be at least 1");
+        }
+        if (matrix == null) {
+            rebuild();
+        }
+
+        List<Map<String, Object>> dates = new ArrayList<>(days);
+        long totalOnTheBooks = 0;
+        long totalLastYear = 0;
+        long comparableOnTheBooks = 0;
+        int comparableDays = 0;
+        long totalPickup = 0;
+        Map<String, Long> totalsByLead = new LinkedHashMap<>();
+
+        lock.readLock().lock();
+        try {
+            if (startDate.isBefore(windowStart) || startDate.plusDays(days - 1L).isAfter(windowEnd)) {
+                throw new RuntimeException("Pace is kept for stay dates from " + windowStart + " to " + windowEnd);
+            }
+            for (int day = 0; day < days; day++) {
+                LocalDate stayDate = startDate.plusDays(day);
+                int minLead = (int) Math.max(0, stayDate.toEpochDay() - asOf.toEpochDay());
+
+                int onTheBooks = matrix.onTheBooks(stayDate, asOf);
+                LocalDate lastYearDate = stayDate.minusDays(DAYS_IN_YEAR);
+                Integer lastYear = lastYearDate.isBefore(windowStart) ? null
+                        : matrix.onTheBooks(lastYearDate, asOf.minusDays(DAYS_IN_YEAR));
+                int pickup = matrix.count(stayDate, minLead, minLead + pickupDays - 1);
+
+                Map<String, Object> byLead = new LinkedHashMap<>();
+                for (int[] bucket : LEAD_BUCKETS) {
+                    int nights = matrix.count(stayDate, Math.max(bucket[0], minLead), bucket[1]);
+                    String label = bucketLabel(bucket);
+                    byLead.put(label, nights);
+                    totalsByLead.merge(label, (long) nights, Long::sum);
+                }
+
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("date", stayDate.toString());
+                row.put("onTheBooks", onTheBooks);
+                row.put("sameTimeLastYear", lastYear);
+                row.put("variance", lastYear != null ? onTheBooks - lastYear : null);
+                row.put("pickup", pickup);
+                row.put("byLeadTime", byLead);
+                dates.add(row);
+
+                totalOnTheBooks += onTheBooks;
+                if (lastYear != null) {
+                    comparableDays++;
+                    comparableOnTheBooks += onTheBooks;
+                    totalLastYear += lastYear;
+                }
+                totalPickup += pickup;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("onTheBooks", totalOnTheBooks);
+        totals.put("sameTimeLastYear", comparableDays > 0 ? totalLastYear : null);
+        totals.put("variance", comparableDays > 0 ? comparableOnTheBooks - totalLastYear : null);
+        totals.put("comparableDays", comparableDays);
+        totals.put("pickup", totalPickup);
+        totals.put("byLeadTime", totalsByLead);
+
+        Map<String, Object> report = new HashMap<>();
+        report.put("asOf", asOf.toString());
+        report.put("startDate", startDate.toString());
+        report.put("days", days);
+        report.put("pickupDays", pickupDays);
+        report.put("totals", totals);
+        report.put("dates", dates);
+        return report;
+    }
+
+    /**
+     * The nights a booking holds, or null if its status does not hold the
+     * room. Bookings without a creation time count as booked on check-in.
+     */
+    public static StayNights nightsOf(Booking.BookingStatus status, LocalDate checkIn, LocalDate checkOut,
+            LocalDate bookedOn) {
+        if (status != Booking.BookingStatus.CONFIRMED && status != Booking.BookingStatus.CHECKED_IN
+                && status != Booking.BookingStatus.CHECKED_OUT) {
+            return null;
+        }
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            return null;
+        }
+        return new StayNights(checkIn, checkOut, bookedOn != null ? bookedOn : checkIn);
+    }
+
+    private static LocalDate bookedOn(Booking booking) {
+        return booking.getCreatedAt() != null ? booking.getCreatedAt().toLocalDate() : booking.getCheckInDate();
+    }
+
+    private static String bucketLabel(int[] bucket) {
+        return bucket[1] == Integer.MAX_VALUE ? bucket[0] + "+" : bucket[0] + "-" + bucket[1];
+    }
+
+    /** The nights of one stay and the date it was booked. */
+    public static final class StayNights {
+        private final LocalDate checkIn;
+        private final LocalDate checkOut;
+        private final LocalDate bookedOn;
+
+        private StayNights(LocalDate checkIn, LocalDate checkOut, LocalDate bookedOn) {
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+            this.bookedOn = bookedOn;
+        }
+
+        public boolean sameAs(StayNights other) {
+            return other != null && checkIn.equals(other.checkIn) && checkOut.equals(other.checkOut)
+                    && bookedOn.equals(other.bookedOn);
+        }
+    }
+}
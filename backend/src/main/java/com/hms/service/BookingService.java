@@ -1,13 +1,19 @@
 package com.hms.service;
 
+import com.hms.config.RetryOnConflict;
 import com.hms.model.Booking;
+import com.hms.model.HotelEvent;
+import com.hms.model.HousekeepingTask;
 import com.hms.model.Room;
 import com.hms.model.Guest;
 import com.hms.repository.BookingRepository;
 import com.hms.repository.GuestRepository;
+import com.hms.repository.HousekeepingTaskRepository;
 import com.hms.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Service
@@ -22,16 +28,45 @@ public class BookingService {
     @Autowired
     private GuestRepository guestRepository;
 
+    @Autowired
+    private HousekeepingTaskRepository taskRepository;
+
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private StayPricingEngine stayPricingEngine;
+
+    @Autowired
+    private RateCalendarService rateCalendarService;
+
+    @Autowired
+    private RoomHoldService roomHoldService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LedgerService ledgerService;
+
     public List<Booking> getAllBookings() {
         return bookingRepository.findAll();
     }
 
+    @Transactional
     public Booking createBooking(Booking booking) {
-        // Check if room is available
-        Room room = roomRepository.findById(booking.getRoom().getId())
+        return createBooking(booking, null);
+    }
+
+    /**
+     * @param holdId hold placed on the room for these dates, or null; other
+     *               holds on the room always block the booking
+     */
+    @Transactional
+    public Booking createBooking(Booking booking, String holdId) {
+        // Check if room is available; the room stays locked until this commits, so a hold
+        // cannot be placed between the checks below and the booking becoming visible
+        Room room = roomRepository.findByIdForUpdate(booking.getRoom().getId())
                 .orElseThrow(() -> new RuntimeException("Room not found"));
 
         // Check for overlaps using the repository method
@@ -40,6 +75,15 @@ public class BookingService {
         if (!conflicts.isEmpty()) {
             throw new RuntimeException("Room is already booked for the selected dates");
         }
+        roomHoldService.checkNotHeld(room.getId(), booking.getCheckInDate(), booking.getCheckOutDate(), holdId);
+
+        // Enforce minimum-stay rules from the rate calendar
+        int minimumStay = rateCalendarService.getMinimumStay(room.getType(), booking.getCheckInDate());
+        long nights = java.time.temporal.ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate());
+        if (nights < minimumStay) {
+            throw new RuntimeException("Minimum stay for arrival on " + booking.getCheckInDate() + " is "
+                    + minimumStay + " nights");
+        }
 
         // Update Guest Email if provided
         if (booking.getGuest() != null && booking.getGuest().getId() != null) {
@@ -59,6 +103,7 @@ public class BookingService {
         booking.setTotalAmount(totalAmount);
 
         // Update room status ONLY if check-in is today
+        Room.RoomStatus previousStatus = room.getStatus();
         if (booking.getCheckInDate().equals(java.time.LocalDate.now())) {
             room.setStatus(Room.RoomStatus.BOOKED);
             roomRepository.save(room);
@@ -66,6 +111,15 @@ public class BookingService {
 
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
         Booking savedBooking = bookingRepository.save(booking);
+        ledgerService.setRoomCharges(savedBooking.getId(), totalAmount, "Room charges, " + nights
+                + (nights == 1 ? " night" : " nights"));
+        if (holdId != null) {
+            roomHoldService.redeemHold(holdId);
+        }
+        eventPublisher.publishEvent(HotelEvent.bookingCreated(savedBooking));
+        if (room.getStatus() != previousStatus) {
+            eventPublisher.publishEvent(HotelEvent.roomStatusChanged(room, previousStatus));
+        }
 
         // Send email confirmation
         if (savedBooking.getGuest() != null && savedBooking.getGuest().getEmail() != null) {
@@ -81,6 +135,7 @@ public class BookingService {
      * Logic:
      * - Base price per night
      * - +20% surcharge for Weekends (Friday, Saturday)
+     * - Nights with a rate calendar override use the override price instead
      * 
      * @param room     Room entity
      * @param checkIn  Check-in date
@@ -89,50 +144,85 @@ public class BookingService {
      */
     public java.math.BigDecimal calculateDynamicPrice(Room room, java.time.LocalDate checkIn,
             java.time.LocalDate checkOut) {
-        java.math.BigDecimal total = java.math.BigDecimal.ZERO;
-        java.math.BigDecimal basePrice = room.getPrice();
-
-        java.time.LocalDate current = checkIn;
-        while (current.isBefore(checkOut)) {
-            java.math.BigDecimal dailyPrice = basePrice;
-
-            // Check for Weekend (Friday = 6, Saturday = 7 in DayOfWeek enum? No,
-            // Monday=1... Sunday=7)
-            // java.time.DayOfWeek: MONDAY(1) ... SUNDAY(7)
-            // Let's assume Weekend is Friday and Saturday nights
-            java.time.DayOfWeek dayOfWeek = current.getDayOfWeek();
-            if (dayOfWeek == java.time.DayOfWeek.FRIDAY || dayOfWeek == java.time.DayOfWeek.SATURDAY) {
-                dailyPrice = dailyPrice.multiply(new java.math.BigDecimal("1.20"));
-            }
-
-            total = total.add(dailyPrice);
-            current = current.plusDays(1);
-        }
-
-        return total;
+        return stayPricingEngine.calculateStayPrice(room.getPrice(), checkIn, checkOut,
+                rateCalendarService.findOverrides(room.getType(), checkIn, checkOut));
     }
 
+    @RetryOnConflict
+    @Transactional
     public void cancelBooking(Long id) {
         Booking booking = bookingRepository.findById(id).orElseThrow(() -> new RuntimeException("Booking not found"));
         booking.setStatus(Booking.BookingStatus.CANCELLED);
 
         // Free up the room
         Room room = booking.getRoom();
+        Room.RoomStatus previousStatus = room.getStatus();
         room.setStatus(Room.RoomStatus.AVAILABLE);
         roomRepository.save(room);
 
         bookingRepository.save(booking);
+        ledgerService.setRoomCharges(booking.getId(), java.math.BigDecimal.ZERO, "Booking cancelled");
+        eventPublisher.publishEvent(HotelEvent.bookingCancelled(booking));
+        if (previousStatus != Room.RoomStatus.AVAILABLE) {
+            eventPublisher.publishEvent(HotelEvent.roomStatusChanged(room, previousStatus));
+        }
     }
 
+    @RetryOnConflict
+    @Transactional
     public Booking updateBooking(Long id, Booking bookingDetails) {
         Booking booking = bookingRepository.findById(id).orElseThrow(() -> new RuntimeException("Booking not found"));
         booking.setCheckInDate(bookingDetails.getCheckInDate());
         booking.setCheckOutDate(bookingDetails.getCheckOutDate());
         booking.setTotalAmount(bookingDetails.getTotalAmount());
         booking.setStatus(bookingDetails.getStatus());
+        Booking saved = bookingRepository.save(booking);
+        ledgerService.setRoomCharges(saved.getId(),
+                saved.getStatus() == Booking.BookingStatus.CANCELLED ? java.math.BigDecimal.ZERO : saved.getTotalAmount(),
+                "Booking updated");
+        return saved;
+    }
+
+    @RetryOnConflict
+    @Transactional
+    public Booking checkIn(Long id) {
+        Booking booking = bookingRepository.findById(id).orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
+            throw new RuntimeException("Only confirmed bookings can be checked in");
+        }
+        java.time.LocalDate today = java.time.LocalDate.now();
+        if (today.isBefore(booking.getCheckInDate()) || !today.isBefore(booking.getCheckOutDate())) {
+            throw new RuntimeException("Booking can only be checked in during its stay dates");
+        }
+        booking.setStatus(Booking.BookingStatus.CHECKED_IN);
+        setRoomStatus(booking.getRoom(), Room.RoomStatus.BOOKED);
         return bookingRepository.save(booking);
     }
 
+    /** Checks the guest out and queues a departure clean for the room. */
+    @RetryOnConflict
+    @Transactional
+    public Booking checkOut(Long id) {
+        Booking booking = bookingRepository.findById(id).orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (booking.getStatus() != Booking.BookingStatus.CHECKED_IN) {
+            throw new RuntimeException("Only checked-in bookings can be checked out");
+        }
+        booking.setStatus(Booking.BookingStatus.CHECKED_OUT);
+        setRoomStatus(booking.getRoom(), Room.RoomStatus.CLEANING);
+        taskRepository.save(new HousekeepingTask(booking.getRoom(), null,
+                "Departure clean after booking #" + booking.getId(), java.time.LocalDate.now()));
+        return bookingRepository.save(booking);
+    }
+
+    private void setRoomStatus(Room room, Room.RoomStatus status) {
+        Room.RoomStatus previous = room.getStatus();
+        if (previous != status) {
+            room.setStatus(status);
+            roomRepository.save(room);
+            eventPublisher.publishEvent(HotelEvent.roomStatusChanged(room, previous));
+        }
+    }
+
     public void deleteBooking(Long id) {
         Booking booking = bookingRepository.findById(id).orElseThrow(() -> new RuntimeException("Booking not found"));
         bookingRepository.delete(booking);
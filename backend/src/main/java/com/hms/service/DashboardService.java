@@ -31,7 +31,7 @@ public class DashboardService {
         long availableCount = availableRooms.size();
 
         BigDecimal totalRevenue = bookingRepository.findAll().stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED)
+                .filter(b -> isRevenueStatus(b.getStatus()))
                 .map(Booking::getTotalAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
@@ -52,7 +52,7 @@ public class DashboardService {
         for (int i = 6; i >= 0; i--) {
             LocalDate date = today.minusDays(i);
             BigDecimal dailyRevenue = bookingRepository.findAll().stream()
-                    .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED
+                    .filter(b -> isRevenueStatus(b.getStatus())
                             && b.getCreatedAt().toLocalDate().equals(date))
                     .map(Booking::getTotalAmount)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -87,4 +87,10 @@ public class DashboardService {
 
         return stats;
     }
+
+    // Checked-in and checked-out stays are still earned revenue
+    private static boolean isRevenueStatus(Booking.BookingStatus status) {
+        return status == Booking.BookingStatus.CONFIRMED || status == Booking.BookingStatus.CHECKED_IN
+                || status == Booking.BookingStatus.CHECKED_OUT;
+    }
 }
@@ -1,8 +1,10 @@
 package com.hms.service;
 
+import com.hms.config.RetryOnConflict;
 import com.hms.model.*;
 import com.hms.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
@@ -28,16 +30,30 @@ public class EnhancedPaymentService {
     @Autowired
     private PromoCodeRepository promoCodeRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private PaymentCaptureService paymentCaptureService;
+
     /**
      * Process payment with full U.S. tax calculation and promo code support
      */
+    @RetryOnConflict
     @Transactional
     public Payment processPaymentWithTaxes(Long bookingId, String promoCode,
             String stateCode, String county, String city, String paymentMethod) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
 
-        BigDecimal subtotal = booking.getTotalAmount();
+        // Only what earlier payments have not billed, so a repeated checkout cannot charge twice
+        BigDecimal subtotal = ledgerService.getUnbilledRoomCharges(booking);
+        if (subtotal.signum() <= 0) {
+            throw new RuntimeException("Nothing is due on this booking");
+        }
         BigDecimal discountAmount = BigDecimal.ZERO;
 
         // Apply promo code if provided
@@ -55,8 +71,8 @@ public class EnhancedPaymentService {
         }
 
         // Calculate taxes
-        Map<String, BigDecimal> taxes = taxCalculationService.calculateTaxes(
-                subtotal, stateCode, county, city);
+        TaxConfiguration taxConfiguration = taxCalculationService.resolveConfiguration(stateCode, county, city);
+        Map<String, BigDecimal> taxes = taxCalculationService.calculateTaxes(subtotal, taxConfiguration);
 
         // Create payment record
         Payment payment = new Payment();
@@ -66,40 +82,35 @@ public class EnhancedPaymentService {
         payment.setCountyTax(taxes.get("countyTax"));
         payment.setCityTax(taxes.get("cityTax"));
         payment.setResortFee(taxes.get("resortFee"));
+        payment.setTaxConfigurationId(taxConfiguration.getId());
         payment.setDiscountAmount(discountAmount);
         payment.setPromoCode(promoCode);
         payment.setAmount(taxes.get("grandTotal"));
-        payment.setStatus(Payment.PaymentStatus.PAID); // Assuming immediate payment for now, or PENDING if async
-        // If the user said "failing to process", maybe it's because status was PENDING
-        // and never updated?
-        // But usually processPayment implies it's done. Let's keep it PENDING if that's
-        // the flow, or PAID if it's a direct record.
-        // The original code had PENDING. Let's check if there is a capture step.
-        // The controller just calls this. If it's a manual entry (Cash/Card terminal),
-        // it should probably be PAID.
-        // If it's Stripe, it might be PENDING then CAPTURED.
-        // Given the context of "payment failing to process", maybe the status is the
-        // issue?
-        // Let's set it to PAID for now as it seems to be a direct recording of payment.
-        // Actually, let's stick to PENDING if we don't know, but add the method.
-        // Wait, if I look at the frontend, I might see what it expects.
-        // But for now, let's set the method.
         try {
             payment.setMethod(Payment.PaymentMethod.valueOf(paymentMethod));
         } catch (IllegalArgumentException | NullPointerException e) {
             payment.setMethod(Payment.PaymentMethod.CASH); // Default or handle error
         }
+        // Card payments are only authorized here; PaymentCaptureService captures
+        // them in the background so checkout does not wait on the gateway
+        payment.setStatus(paymentCaptureService.isCapturedLater(payment.getMethod())
+                ? Payment.PaymentStatus.AUTHORIZED
+                : Payment.PaymentStatus.PAID);
 
         payment.setPaymentDate(LocalDateTime.now());
         payment.setInvoiceNumber(generateInvoiceNumber());
 
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        ledgerService.postPayment(saved);
+        // Rendered in the background once this commits
+        eventPublisher.publishEvent(new InvoiceService.InvoiceRequested(saved.getId()));
+        return saved;
     }
 
     /**
      * Calculate discount based on promo code type
      */
-    private BigDecimal calculateDiscount(BigDecimal amount, PromoCode promo) {
+    public BigDecimal calculateDiscount(BigDecimal amount, PromoCode promo) {
         if (promo.getDiscountType() == PromoCode.DiscountType.PERCENTAGE) {
             return amount.multiply(promo.getDiscountValue())
                     .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
@@ -141,6 +152,7 @@ public class EnhancedPaymentService {
     /**
      * Process refund
      */
+    @RetryOnConflict
     @Transactional
     public Payment processRefund(Long paymentId, BigDecimal refundAmount, String reason) {
         Payment payment = paymentRepository.findById(paymentId)
@@ -156,7 +168,11 @@ public class EnhancedPaymentService {
         payment.setRefundReason(reason);
         payment.setStatus(Payment.PaymentStatus.REFUNDED);
 
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        ledgerService.postRefund(saved);
+        // The invoice shows the refund
+        eventPublisher.publishEvent(new InvoiceService.InvoiceRequested(saved.getId()));
+        return saved;
     }
 
     // Existing methods
@@ -164,26 +180,44 @@ public class EnhancedPaymentService {
         return paymentRepository.findByBookingId(bookingId);
     }
 
+    @RetryOnConflict
+    @Transactional
     public Payment updatePayment(Long id, Payment paymentDetails) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
+        BigDecimal previouslyCollected = LedgerService.collected(payment);
+        boolean wasFailed = payment.getStatus() == Payment.PaymentStatus.FAILED;
 
         payment.setAmount(paymentDetails.getAmount());
         payment.setMethod(paymentDetails.getMethod());
         payment.setStatus(paymentDetails.getStatus());
 
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        boolean failed = saved.getStatus() == Payment.PaymentStatus.FAILED;
+        if (failed && !wasFailed) {
+            // Its room charges become billable again, so its discount and taxes come off the folio too
+            ledgerService.reversePayment(saved);
+        } else if (wasFailed && !failed) {
+            ledgerService.postPayment(saved);
+        } else {
+            ledgerService.postPaymentCorrection(saved, previouslyCollected);
+        }
+        return saved;
     }
 
+    @RetryOnConflict
+    @Transactional
     public void deletePayment(Long id) {
         Payment payment = paymentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
+        ledgerService.reversePayment(payment);
         paymentRepository.delete(payment);
     }
 
     /**
      * Create a simple payment (without tax calculation)
      */
+    @RetryOnConflict
     @Transactional
     public Payment createPayment(Payment paymentRequest) {
         Booking booking = bookingRepository.findById(paymentRequest.getBooking().getId())
@@ -198,6 +232,9 @@ public class EnhancedPaymentService {
         payment.setPaymentDate(LocalDateTime.now());
         payment.setInvoiceNumber(generateInvoiceNumber());
 
-        return paymentRepository.save(payment);
+        Payment saved = paymentRepository.save(payment);
+        ledgerService.postPayment(saved);
+        eventPublisher.publishEvent(new InvoiceService.InvoiceRequested(saved.getId()));
+        return saved;
     }
 }
@@ -0,0 +1,134 @@
+package com.hms.service;
+
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The {@link HotelMetricsService} KPIs on primitive fixed-point values, for
+ * computing them per day, per room type or per segment without allocating.
+ *
+ * Money is in long cents. Occupancy, MPI and RGI are in hundredths of a
+ * percent (76.39% is 7639) and ALOS in hundredths of a night. Every result
+ * rounds HALF_UP to 2 decimal places exactly as the BigDecimal version does,
+ * for any input that has at most 2 decimal places; a zero divisor gives 0.
+ *
+ * The array methods fill an output array from parallel input arrays in one
+ * pass with no allocation.
+ */
+@Service
+public class FixedPointKpiCalculator {
+
+    /** ADR in cents: room revenue / rooms sold. */
+    public long adr(long roomRevenueCents, int roomsSold) {
+        return divideHalfUp(roomRevenueCents, roomsSold);
+    }
+
+    /** RevPAR in cents: room revenue / available rooms. */
+    public long revPar(long roomRevenueCents, int availableRooms) {
+        return divideHalfUp(roomRevenueCents, availableRooms);
+    }
+
+    /** RevPOR in cents: total revenue / rooms sold. */
+    public long revPor(long totalRevenueCents, int roomsSold) {
+        return divideHalfUp(totalRevenueCents, roomsSold);
+    }
+
+    /** GOPPAR in cents: gross operating profit / available rooms. */
+    public long gopPar(long grossOperatingProfitCents, int availableRooms) {
+        return divideHalfUp(grossOperatingProfitCents, availableRooms);
+    }
+
+    /** TRevPAR in cents: total property revenue / available rooms. */
+    public long tRevPar(long totalPropertyRevenueCents, int availableRooms) {
+        return divideHalfUp(totalPropertyRevenueCents, availableRooms);
+    }
+
+    /** Occupancy in hundredths of a percent: rooms sold / available rooms. */
+    public long occupancyRate(int roomsSold, int availableRooms) {
+        return divideHalfUp(roomsSold * 10_000L, availableRooms);
+    }
+
+    /** ALOS in hundredths of a night: room nights / reservations. */
+    public long alos(int roomNights, int reservations) {
+        return divideHalfUp(roomNights * 100L, reservations);
+    }
+
+    /**
+     * MPI in hundredths: hotel occupancy / market occupancy x 100. Both
+     * occupancies in hundredths of a percent.
+     */
+    public long mpi(long hotelOccupancy, long marketOccupancy) {
+        return divideHalfUp(Math.multiplyExact(hotelOccupancy, 10_000L), marketOccupancy);
+    }
+
+    /** RGI in hundredths: hotel RevPAR / market RevPAR x 100. Both in cents. */
+    public long rgi(long hotelRevParCents, long marketRevParCents) {
+        return divideHalfUp(Math.multiplyExact(hotelRevParCents, 10_000L), marketRevParCents);
+    }
+
+    /** ADR for each row into out. */
+    public void adr(long[] roomRevenueCents, int[] roomsSold, long[] out) {
+        divideAll(roomRevenueCents, roomsSold, out);
+    }
+
+    /** RevPAR for each row into out. */
+    public void revPar(long[] roomRevenueCents, int[] availableRooms, long[] out) {
+        divideAll(roomRevenueCents, availableRooms, out);
+    }
+
+    /** RevPOR for each row into out. */
+    public void revPor(long[] totalRevenueCents, int[] roomsSold, long[] out) {
+        divideAll(totalRevenueCents, roomsSold, out);
+    }
+
+    /** TRevPAR for each row into out. */
+    public void tRevPar(long[] totalPropertyRevenueCents, int[] availableRooms, long[] out) {
+        divideAll(totalPropertyRevenueCents, availableRooms, out);
+    }
+
+    /** Occupancy for each row into out. */
+    public void occupancyRate(int[] roomsSold, int[] availableRooms, long[] out) {
+        checkLengths(roomsSold.length, availableRooms.length, out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = divideHalfUp(roomsSold[i] * 10_000L, availableRooms[i]);
+        }
+    }
+
+    /** Cents for an amount with at most 2 decimal places; rejects anything finer. */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    /** A cents or hundredths result as a 2 decimal place BigDecimal. */
+    public static BigDecimal toDecimal(long hundredths) {
+        return BigDecimal.valueOf(hundredths, 2);
+    }
+
+    private static void divideAll(long[] numerators, int[] divisors, long[] out) {
+        checkLengths(numerators.length, divisors.length, out.length);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = divideHalfUp(numerators[i], divisors[i]);
+        }
+    }
+
+    private static void checkLengths(int first, int second, int out) {
+        if (first != out || second != out) {
+            throw new IllegalArgumentException("Input and output arrays must be the same length");
+        }
+    }
+
+    // Rounds half away from zero, like RoundingMode.HALF_UP
+    private static long divideHalfUp(long numerator, long divisor) {
+        if (divisor == 0) {
+            return 0;
+        }
+        long quotient = numerator / divisor;
+        long remainder = numerator % divisor;
+        if (remainder != 0 && Math.abs(remainder) >= Math.abs(divisor) - Math.abs(remainder)) {
+            quotient += (numerator ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,103 @@
+package com.hms.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Splits pending housekeeping tasks across staff so their loads even out and
+ * each person works through as few floors as possible.
+ *
+ * Tasks are ordered by floor and room, then cut into contiguous runs. The
+ * least-loaded staff member (a priority queue on load, ties by id) takes the
+ * next run, sized to bring them up to the average load after assignment, so
+ * nobody ends above it unless they started there. The floor is the room
+ * number without its last two digits (1204 is floor 12); rooms without
+ * digits count as floor 0.
+ */
+public final class HousekeepingAssigner {
+
+    /** A task waiting for staff and the room it is in. */
+    public record PendingTask(long taskId, String roomNumber) {
+    }
+
+    private static final Comparator<PendingTask> BY_FLOOR_AND_ROOM = Comparator
+            .comparingInt((PendingTask task) -> floorOf(task.roomNumber()))
+            .thenComparingLong(task -> roomOrdinal(task.roomNumber()))
+            .thenComparing(task -> task.roomNumber() != null ? task.roomNumber() : "")
+            .thenComparingLong(PendingTask::taskId);
+
+    private HousekeepingAssigner() {
+    }
+
+    /**
+     * Task ids for each staff member, in room order.
+     *
+     * @param openTasks staff id to the tasks they already have open; every
+     *                  staff member who can take work must be present
+     */
+    public static Map<Long, List<Long>> assign(List<PendingTask> tasks, Map<Long, Integer> openTasks) {
+        Map<Long, List<Long>> assignments = new LinkedHashMap<>();
+        if (tasks.isEmpty() || openTasks.isEmpty()) {
+            return assignments;
+        }
+        List<PendingTask> ordered = new ArrayList<>(tasks);
+        ordered.sort(BY_FLOOR_AND_ROOM);
+
+        long total = ordered.size();
+        PriorityQueue<long[]> byLoad = new PriorityQueue<>(openTasks.size(),
+                (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        for (Map.Entry<Long, Integer> staff : openTasks.entrySet()) {
+            long load = Math.max(0, staff.getValue());
+            byLoad.add(new long[] { load, staff.getKey() });
+            total += load;
+        }
+        long target = (total + openTasks.size() - 1) / openTasks.size();
+
+        int next = 0;
+        while (next < ordered.size()) {
+            long[] staff = byLoad.poll();
+            int take = (int) Math.min(Math.max(1, target - staff[0]), ordered.size() - next);
+            List<Long> run = assignments.computeIfAbsent(staff[1], id -> new ArrayList<>());
+            for (int i = next; i < next + take; i++) {
+                run.add(ordered.get(i).taskId());
+            }
+            next += take;
+            staff[0] += take;
+            byLoad.add(staff);
+        }
+        return assignments;
+    }
+
+    static int floorOf(String roomNumber) {
+        String digits = digitsOf(roomNumber);
+        if (digits.length() <= 2) {
+            return 0;
+        }
+        String floor = digits.substring(0, digits.length() - 2);
+        return floor.length() > 9 ? Integer.MAX_VALUE : Integer.parseInt(floor);
+    }
+
+    // Numeric order within a floor, so 1205 comes before 1210 whatever the prefix
+    private static long roomOrdinal(String roomNumber) {
+        String digits = digitsOf(roomNumber);
+        return digits.isEmpty() || digits.length() > 18 ? Long.MAX_VALUE : Long.parseLong(digits);
+    }
+
+    private static String digitsOf(String roomNumber) {
+        if (roomNumber == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(roomNumber.length());
+        for (int i = 0; i < roomNumber.length(); i++) {
+            char c = roomNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+}
@@ -0,0 +1,257 @@
+package com.hms.service;
+
+import com.hms.model.HousekeepingTask;
+import com.hms.model.MaintenanceLog;
+import com.hms.repository.HousekeepingTaskRepository;
+import com.hms.repository.MaintenanceLogRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The housekeeping board: one day's tasks grouped by staff and status, plus
+ * the open maintenance issues, read through the board indexes instead of
+ * the full history.
+ *
+ * Every committed change to a task or maintenance log gets the next number
+ * in an in-memory change log (see
+ * {@link com.hms.listener.HousekeepingBoardListener}). The board comes with
+ * a version, bootId:sequence like the live event ids, and a device polls
+ * {@link #getChangesSince} with it to get just the rows changed since, with
+ * the ids of deleted rows. A version from before a restart or older than
+ * the change log reaches back gets resync instead, and the device reloads
+ * the board.
+ */
+@Service
+public class HousekeepingBoardService {
+
+    public enum Kind {
+        TASK, MAINTENANCE
+    }
+
+    private static final List<MaintenanceLog.MaintenanceStatus> OPEN_ISSUES = List.of(
+            MaintenanceLog.MaintenanceStatus.PENDING, MaintenanceLog.MaintenanceStatus.IN_PROGRESS);
+
+    @Autowired
+    private HousekeepingTaskRepository taskRepository;
+
+    @Autowired
+    private MaintenanceLogRepository maintenanceRepository;
+
+    @Value("${hms.housekeeping.board.change-log-size:4096}")
+    private int changeLogSize = 4096;
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    // Guarded by this
+    private Kind[] changedKinds;
+    private long[] changedIds;
+    private long lastSequence;
+
+    @PostConstruct
+    public void start() {
+        changedKinds = new Kind[Math.max(changeLogSize, 1)];
+        changedIds = new long[changedKinds.length];
+    }
+
+    /** Records the changes once the current transaction commits, or now if there is none. */
+    public void recordAfterCommit(Kind kind, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> copy = List.copyOf(ids);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(kind, copy);
+                }
+            });
+        } else {
+            record(kind, ids);
+        }
+    }
+
+    public synchronized String getVersion() {
+        return bootId + ":" + lastSequence;
+    }
+
+    /**
+     * The board for a date, or just one staff member's queue when staffId is
+     * given. Tasks without staff are grouped under a null staffId.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBoard(LocalDate date, Long staffId) {
+        // Taken before reading, so a change made meanwhile is sent again on the next poll
+        String version = getVersion();
+        List<HousekeepingTask> tasks = staffId != null
+                ? taskRepository.findBoardTasksForStaff(date, staffId)
+                : taskRepository.findBoardTasks(date);
+
+        Map<Long, Map<String, Object>> byStaff = new LinkedHashMap<>();
+        for (HousekeepingTask task : tasks) {
+            Long id = task.getAssignedStaff() != null ? task.getAssignedStaff().getId() : null;
+            Map<String, Object> queue = byStaff.computeIfAbsent(id, key -> newQueue(task));
+            @SuppressWarnings("unchecked")
+            Map<String, List<Map<String, Object>>> byStatus = (Map<String, List<Map<String, Object>>>) queue
+                    .get("tasks");
+            byStatus.get(task.getStatus() != null ? task.getStatus().name()
+                    : HousekeepingTask.TaskStatus.PENDING.name()).add(summarize(task));
+        }
+        List<Map<String, Object>> queues = new ArrayList<>(byStaff.values());
+        queues.sort(Comparator.comparing((Map<String, Object> queue) -> queue.get("staffId") != null)
+                .thenComparing(queue -> String.valueOf(queue.get("staffName"))));
+        for (Map<String, Object> queue : queues) {
+            @SuppressWarnings("unchecked")
+            Map<String, List<Map<String, Object>>> byStatus = (Map<String, List<Map<String, Object>>>) queue
+                    .get("tasks");
+            Map<String, Object> counts = new LinkedHashMap<>();
+            byStatus.forEach((status, list) -> counts.put(status, list.size()));
+            queue.put("counts", counts);
+        }
+
+        List<Map<String, Object>> issues = new ArrayList<>();
+        for (MaintenanceLog log : maintenanceRepository.findBoardIssues(OPEN_ISSUES)) {
+            issues.add(summarize(log));
+        }
+
+        Map<String, Object> board = new HashMap<>();
+        board.put("version", version);
+        board.put("date", date.toString());
+        board.put("staff", queues);
+        board.put("maintenance", issues);
+        return board;
+    }
+
+    /**
+     * Rows changed since the version, in their current state, and the ids of
+     * those deleted. Devices filter them by date themselves; a task moved to
+     * another day or an issue resolved is sent as it now is.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getChangesSince(String version) {
+        Set<Long> taskIds = new LinkedHashSet<>();
+        Set<Long> issueIds = new LinkedHashSet<>();
+        String current;
+        synchronized (this) {
+            current = bootId + ":" + lastSequence;
+            long seen = parseSequence(version);
+            if (seen < 0) {
+                Map<String, Object> resync = new HashMap<>();
+                resync.put("version", current);
+                resync.put("resync", true);
+                return resync;
+            }
+            for (long sequence = seen + 1; sequence <= lastSequence; sequence++) {
+                int slot = (int) (sequence % changedKinds.length);
+                (changedKinds[slot] == Kind.TASK ? taskIds : issueIds).add(changedIds[slot]);
+            }
+        }
+
+        List<Map<String, Object>> tasks = new ArrayList<>();
+        if (!taskIds.isEmpty()) {
+            for (HousekeepingTask task : taskRepository.findWithRoomAndStaffByIdIn(taskIds)) {
+                tasks.add(summarize(task));
+                taskIds.remove(task.getId());
+            }
+        }
+        List<Map<String, Object>> issues = new ArrayList<>();
+        if (!issueIds.isEmpty()) {
+            for (MaintenanceLog log : maintenanceRepository.findWithRoomByIdIn(issueIds)) {
+                issues.add(summarize(log));
+                issueIds.remove(log.getId());
+            }
+        }
+
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("version", current);
+        changes.put("resync", false);
+        changes.put("tasks", tasks);
+        changes.put("maintenance", issues);
+        // What is left was not found, so it was deleted
+        changes.put("deletedTasks", new ArrayList<>(taskIds));
+        changes.put("deletedMaintenance", new ArrayList<>(issueIds));
+        return changes;
+    }
+
+    private synchronized void record(Kind kind, Collection<Long> ids) {
+        for (Long id : ids) {
+            if (id != null) {
+                lastSequence++;
+                int slot = (int) (lastSequence % changedKinds.length);
+                changedKinds[slot] = kind;
+                changedIds[slot] = id;
+            }
+        }
+    }
+
+    // -1 if the version is from another boot or older than the change log; guarded by this
+    private long parseSequence(String version) {
+        int separator = version != null ? version.indexOf(':') : -1;
+        if (separator < 0 || !version.substring(0, separator).equals(bootId)) {
+            return -1;
+        }
+        long seen;
+        try {
+            seen = Long.parseLong(version.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (seen < 0 || seen > lastSequence || lastSequence - seen > changedKinds.length) {
+            return -1;
+        }
+        return seen;
+    }
+
+    private static Map<String, Object> newQueue(HousekeepingTask task) {
+        Map<String, Object> queue = new LinkedHashMap<>();
+        queue.put("staffId", task.getAssignedStaff() != null ? task.getAssignedStaff().getId() : null);
+        queue.put("staffName", task.getAssignedStaff() != null ? task.getAssignedStaff().getName() : null);
+        Map<String, List<Map<String, Object>>> byStatus = new LinkedHashMap<>();
+        for (HousekeepingTask.TaskStatus status : HousekeepingTask.TaskStatus.values()) {
+            byStatus.put(status.name(), new ArrayList<>());
+        }
+        queue.put("tasks", byStatus);
+        return queue;
+    }
+
+    private static Map<String, Object> summarize(HousekeepingTask task) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", task.getId());
+        row.put("roomId", task.getRoom() != null ? task.getRoom().getId() : null);
+        row.put("roomNumber", task.getRoom() != null ? task.getRoom().getRoomNumber() : null);
+        row.put("staffId", task.getAssignedStaff() != null ? task.getAssignedStaff().getId() : null);
+        row.put("status", task.getStatus());
+        row.put("description", task.getDescription());
+        row.put("scheduledDate", task.getScheduledDate());
+        row.put("completedAt", task.getCompletedAt());
+        return row;
+    }
+
+    private static Map<String, Object> summarize(MaintenanceLog log) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", log.getId());
+        row.put("roomId", log.getRoom() != null ? log.getRoom().getId() : null);
+        row.put("roomNumber", log.getRoom() != null ? log.getRoom().getRoomNumber() : null);
+        row.put("issue", log.getIssue());
+        row.put("status", log.getStatus());
+        row.put("reportedAt", log.getReportedAt());
+        row.put("resolvedAt", log.getResolvedAt());
+        return row;
+    }
+}
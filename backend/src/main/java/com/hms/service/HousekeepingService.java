@@ -1,5 +1,7 @@
 package com.hms.service;
 
+import com.hms.config.RetryOnConflict;
+import com.hms.model.HotelEvent;
 import com.hms.model.HousekeepingTask;
 import com.hms.model.MaintenanceLog;
 import com.hms.model.Room;
@@ -9,9 +11,19 @@ import com.hms.repository.MaintenanceLogRepository;
 import com.hms.repository.RoomRepository;
 import com.hms.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class HousekeepingService {
@@ -28,11 +40,25 @@ public class HousekeepingService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HousekeepingBoardService boardService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     // Task Management
     public List<HousekeepingTask> getAllTasks() {
         return taskRepository.findAllByOrderByScheduledDateDesc();
     }
 
+    @RetryOnConflict
+    @Transactional
     public HousekeepingTask assignTask(HousekeepingTask task) {
         Room room = roomRepository.findById(task.getRoom().getId())
                 .orElseThrow(() -> new RuntimeException("Room not found"));
@@ -47,12 +73,13 @@ public class HousekeepingService {
         task.setStatus(HousekeepingTask.TaskStatus.PENDING);
 
         // Update room status to CLEANING if applicable
-        room.setStatus(Room.RoomStatus.CLEANING);
-        roomRepository.save(room);
+        changeRoomStatus(room, Room.RoomStatus.CLEANING);
 
         return taskRepository.save(task);
     }
 
+    @RetryOnConflict
+    @Transactional
     public HousekeepingTask updateTaskStatus(Long id, HousekeepingTask.TaskStatus status) {
         HousekeepingTask task = taskRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
@@ -61,9 +88,7 @@ public class HousekeepingService {
         if (status == HousekeepingTask.TaskStatus.COMPLETED) {
             task.setCompletedAt(LocalDateTime.now());
             // Set room back to AVAILABLE
-            Room room = task.getRoom();
-            room.setStatus(Room.RoomStatus.AVAILABLE);
-            roomRepository.save(room);
+            changeRoomStatus(task.getRoom(), Room.RoomStatus.AVAILABLE);
         }
         return taskRepository.save(task);
     }
@@ -91,22 +116,111 @@ public class HousekeepingService {
         taskRepository.deleteById(id);
     }
 
+    /**
+     * Assigns every pending unassigned task to on-shift housekeeping staff
+     * (see {@link HousekeepingAssigner}) in one batched update. Tasks
+     * assigned by hand in the meantime are left alone and counted as skipped.
+     */
+    @Transactional
+    public Map<String, Object> autoAssignPendingTasks() {
+        List<HousekeepingAssigner.PendingTask> tasks = new ArrayList<>();
+        for (Object[] row : taskRepository.findUnassignedTaskRooms(HousekeepingTask.TaskStatus.PENDING)) {
+            tasks.add(new HousekeepingAssigner.PendingTask(((Number) row[0]).longValue(), (String) row[1]));
+        }
+        Map<Long, Integer> openTasks = new LinkedHashMap<>();
+        for (Object[] row : taskRepository.findOnShiftStaffLoads(User.Role.HOUSEKEEPING,
+                List.of(HousekeepingTask.TaskStatus.PENDING, HousekeepingTask.TaskStatus.IN_PROGRESS))) {
+            openTasks.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        if (!tasks.isEmpty() && openTasks.isEmpty()) {
+            throw new RuntimeException("No housekeeping staff on shift");
+        }
+
+        Map<Long, List<Long>> assignments = HousekeepingAssigner.assign(tasks, openTasks);
+        List<Object[]> rows = new ArrayList<>(tasks.size());
+        for (Map.Entry<Long, List<Long>> staff : assignments.entrySet()) {
+            for (Long taskId : staff.getValue()) {
+                rows.add(new Object[] { staff.getKey(), taskId });
+            }
+        }
+        int[] counts = rows.isEmpty() ? new int[0]
+                : jdbcTemplate.batchUpdate("UPDATE housekeeping_tasks SET assigned_staff_id = ? "
+                        + "WHERE id = ? AND assigned_staff_id IS NULL AND status = 'PENDING'", rows);
+
+        int assigned = 0;
+        Map<Long, Integer> assignedByStaff = new HashMap<>();
+        List<Long> changed = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                assigned++;
+                assignedByStaff.merge((Long) rows.get(i)[0], 1, Integer::sum);
+                changed.add((Long) rows.get(i)[1]);
+            }
+        }
+        // The batch bypasses the entity listener
+        boardService.recordAfterCommit(HousekeepingBoardService.Kind.TASK, changed);
+        List<Map<String, Object>> staff = new ArrayList<>(openTasks.size());
+        for (Map.Entry<Long, Integer> entry : openTasks.entrySet()) {
+            int added = assignedByStaff.getOrDefault(entry.getKey(), 0);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("staffId", entry.getKey());
+            row.put("assigned", added);
+            row.put("openTasks", entry.getValue() + added);
+            staff.add(row);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("pending", tasks.size());
+        result.put("assigned", assigned);
+        result.put("skipped", tasks.size() - assigned);
+        result.put("staff", staff);
+        return result;
+    }
+
+    /**
+     * Runs {@link #autoAssignPendingTasks()} on hms.housekeeping.auto-assign-cron; off unless set. The call
+     * does not go through the proxy, so the batch gets its transaction from a template here.
+     */
+    @Scheduled(cron = "${hms.housekeeping.auto-assign-cron:-}")
+    public void autoAssignOnSchedule() {
+        try {
+            Map<String, Object> result = new TransactionTemplate(transactionManager)
+                    .execute(status -> autoAssignPendingTasks());
+            if (((Number) result.get("pending")).intValue() > 0) {
+                System.out.println("Auto-assigned " + result.get("assigned") + " of " + result.get("pending")
+                        + " housekeeping tasks");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to auto-assign housekeeping tasks: " + e.getMessage());
+        }
+    }
+
+    public User setOnShift(Long staffId, boolean onShift) {
+        User staff = userRepository.findById(staffId)
+                .orElseThrow(() -> new RuntimeException("Staff not found"));
+        staff.setOnShift(onShift);
+        return userRepository.save(staff);
+    }
+
     // Maintenance Management
     public List<MaintenanceLog> getAllMaintenanceLogs() {
         return maintenanceRepository.findAllByOrderByReportedAtDesc();
     }
 
+    @RetryOnConflict
+    @Transactional
     public MaintenanceLog reportIssue(MaintenanceLog log) {
         Room room = roomRepository.findById(log.getRoom().getId())
                 .orElseThrow(() -> new RuntimeException("Room not found"));
 
         log.setRoom(room);
-        room.setStatus(Room.RoomStatus.MAINTENANCE);
-        roomRepository.save(room);
+        changeRoomStatus(room, Room.RoomStatus.MAINTENANCE);
 
         return maintenanceRepository.save(log);
     }
 
+    @RetryOnConflict
+    @Transactional
     public MaintenanceLog resolveIssue(Long id) {
         MaintenanceLog log = maintenanceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Log not found"));
@@ -114,9 +228,7 @@ public class HousekeepingService {
         log.setStatus(MaintenanceLog.MaintenanceStatus.RESOLVED);
         log.setResolvedAt(LocalDateTime.now());
 
-        Room room = log.getRoom();
-        room.setStatus(Room.RoomStatus.AVAILABLE);
-        roomRepository.save(room);
+        changeRoomStatus(log.getRoom(), Room.RoomStatus.AVAILABLE);
 
         return maintenanceRepository.save(log);
     }
@@ -136,4 +248,13 @@ public class HousekeepingService {
         }
         maintenanceRepository.deleteById(id);
     }
+
+    private void changeRoomStatus(Room room, Room.RoomStatus status) {
+        Room.RoomStatus previous = room.getStatus();
+        room.setStatus(status);
+        roomRepository.save(room);
+        if (previous != status) {
+            eventPublisher.publishEvent(HotelEvent.roomStatusChanged(room, previous));
+        }
+    }
 }
@@ -0,0 +1,222 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.model.IdempotencyRecord;
+import com.hms.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the stored response when a POST is retried with the same
+ * Idempotency-Key header.
+ *
+ * Recent responses are kept in a bounded LRU in front of the
+ * idempotency_keys table. A duplicate that arrives while the first request is
+ * still running waits for it and gets the same response instead of running
+ * in parallel. Only successful (2xx) responses are stored, so a failed
+ * request can be retried with the same key.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${hms.idempotency.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${hms.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${hms.idempotency.wait-seconds:30}")
+    private long waitSeconds;
+
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    // Access-ordered LRU; guarded by its own monitor
+    private final LinkedHashMap<String, IdempotencyRecord> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    /**
+     * Runs the action once per key.
+     *
+     * @param key         value of the Idempotency-Key header, or null to run the
+     *                    action without deduplication
+     * @param endpoint    identifies the operation, so a key cannot replay a
+     *                    different endpoint's response
+     * @param requestBody request payload, compared on replay
+     */
+    public ResponseEntity<?> execute(String key, String endpoint, Object requestBody,
+            Supplier<ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > 200) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Idempotency-Key is too long"));
+        }
+
+        String scopedKey = currentUser() + ":" + endpoint + ":" + key;
+        String requestHash = hash(requestBody);
+
+        IdempotencyRecord stored = findStored(scopedKey);
+        if (stored != null) {
+            return replay(stored, requestHash);
+        }
+
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(scopedKey, mine);
+        if (running != null) {
+            return awaitInFlight(running, requestHash);
+        }
+
+        try {
+            // Another instance may have stored it since the first lookup
+            stored = findStored(scopedKey);
+            if (stored != null) {
+                mine.complete(stored);
+                return replay(stored, requestHash);
+            }
+
+            ResponseEntity<?> response = action.get();
+            IdempotencyRecord result = new IdempotencyRecord(scopedKey, requestHash, response.getStatusCode().value(),
+                    toJson(response.getBody()), LocalDateTime.now());
+            if (response.getStatusCode().is2xxSuccessful()) {
+                save(result);
+            }
+            mine.complete(result);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    /** Drops keys older than the retention window. */
+    @Scheduled(fixedDelayString = "${hms.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        synchronized (recent) {
+            recent.values().removeIf(record -> record.getCreatedAt().isBefore(cutoff));
+        }
+        try {
+            int removed = idempotencyRecordRepository.deleteOlderThan(cutoff);
+            if (removed > 0) {
+                System.out.println("Purged " + removed + " expired idempotency keys.");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Failed to purge idempotency keys: " + e.getMessage());
+        }
+    }
+
+    private IdempotencyRecord findStored(String scopedKey) {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        IdempotencyRecord record;
+        synchronized (recent) {
+            record = recent.get(scopedKey);
+        }
+        if (record == null) {
+            record = idempotencyRecordRepository.findById(scopedKey).orElse(null);
+            if (record != null) {
+                remember(record);
+            }
+        }
+        return record != null && record.getCreatedAt().isAfter(cutoff) ? record : null;
+    }
+
+    private void save(IdempotencyRecord record) {
+        remember(record);
+        try {
+            idempotencyRecordRepository.save(record);
+        } catch (RuntimeException e) {
+            // The in-memory copy still covers retries to this instance
+            System.err.println("Failed to store idempotency key: " + e.getMessage());
+        }
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (recent) {
+            recent.put(record.getKey(), record);
+        }
+    }
+
+    private ResponseEntity<?> awaitInFlight(CompletableFuture<IdempotencyRecord> running, String requestHash) {
+        try {
+            return replay(running.get(waitSeconds, TimeUnit.SECONDS), requestHash);
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "A request with this Idempotency-Key is still in progress"));
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "The original request with this Idempotency-Key failed; retry it"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                    .body(Map.of("error", "Idempotency-Key was already used for a different request"));
+        }
+        return ResponseEntity.status(record.getStatusCode())
+                .header("Idempotent-Replayed", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(record.getResponseBody());
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize response: " + e.getMessage());
+        }
+    }
+
+    private String hash(Object requestBody) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(toJson(requestBody).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+}
@@ -1,5 +1,7 @@
 package com.hms.service;
 
+import com.hms.config.RetryOnConflict;
+import com.hms.model.HotelEvent;
 import com.hms.model.InventoryItem;
 import com.hms.model.InventoryLog;
 import com.hms.model.User;
@@ -7,9 +9,11 @@ import com.hms.repository.InventoryItemRepository;
 import com.hms.repository.InventoryLogRepository;
 import com.hms.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,6 +29,9 @@ public class InventoryService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<InventoryItem> getAllItems() {
         return itemRepository.findAll();
     }
@@ -45,6 +52,8 @@ public class InventoryService {
         return itemRepository.save(item);
     }
 
+    @RetryOnConflict
+    @Transactional
     public InventoryItem updateStock(Long itemId, int quantityChange, InventoryLog.LogType type, String reason) {
         InventoryItem item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("Item not found"));
@@ -61,6 +70,12 @@ public class InventoryService {
         InventoryLog log = new InventoryLog(savedItem, type, quantityChange, reason, user);
         logRepository.save(log);
 
+        // Only announce the crossing, not every withdrawal while already low
+        int reorderLevel = savedItem.getReorderLevel() != null ? savedItem.getReorderLevel() : 0;
+        if (newQuantity <= reorderLevel && newQuantity - quantityChange > reorderLevel) {
+            eventPublisher.publishEvent(HotelEvent.lowStock(savedItem));
+        }
+
         return savedItem;
     }
 
@@ -73,9 +88,14 @@ public class InventoryService {
                 .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
     }
 
+    @RetryOnConflict
+    @Transactional
     public InventoryItem updateItem(Long id, InventoryItem updatedItem) {
         InventoryItem existingItem = itemRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Item not found with id: " + id));
+        if (updatedItem.getVersion() != null && !updatedItem.getVersion().equals(existingItem.getVersion())) {
+            throw new RuntimeException("Item was updated by someone else. Reload and try again.");
+        }
 
         existingItem.setName(updatedItem.getName());
         existingItem.setQuantity(updatedItem.getQuantity());
@@ -0,0 +1,175 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.Payment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders a one-page invoice PDF for a payment: guest and stay details, room
+ * charges, promo discount and the tax breakdown.
+ *
+ * Writes PDF 1.4 directly with the built-in Helvetica fonts, so no PDF
+ * library is needed. Nothing time-dependent goes into the file, so
+ * rendering an unchanged payment again gives the same bytes.
+ */
+@Component
+public class InvoicePdfRenderer {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("MMM d, yyyy");
+
+    @Value("${hms.invoices.hotel-name:Hotel Management System}")
+    private String hotelName = "Hotel Management System";
+
+    public byte[] render(Payment payment) {
+        Booking booking = payment.getBooking();
+        Page page = new Page();
+
+        page.text(50, 780, 20, true, hotelName);
+        page.text(50, 750, 14, true, "INVOICE " + nullToEmpty(payment.getInvoiceNumber()));
+        if (payment.getPaymentDate() != null) {
+            page.text(50, 732, 10, false, "Date: " + payment.getPaymentDate().toLocalDate().format(DATE));
+        }
+        page.text(50, 718, 10, false, "Payment method: " + (payment.getMethod() != null ? payment.getMethod() : "-"));
+
+        int y = 685;
+        if (booking != null) {
+            if (booking.getGuest() != null) {
+                page.text(50, y, 11, true, "Billed to");
+                page.text(50, y - 15, 10, false, nullToEmpty(booking.getGuest().getName()));
+                page.text(50, y - 28, 10, false, nullToEmpty(booking.getGuest().getEmail()));
+            }
+            page.text(320, y, 11, true, "Stay");
+            page.text(320, y - 15, 10, false, "Booking #" + booking.getId()
+                    + (booking.getRoom() != null ? ", room " + booking.getRoom().getRoomNumber() : ""));
+            if (booking.getCheckInDate() != null && booking.getCheckOutDate() != null) {
+                long nights = ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate());
+                page.text(320, y - 28, 10, false, booking.getCheckInDate().format(DATE) + " - "
+                        + booking.getCheckOutDate().format(DATE) + " (" + nights + (nights == 1 ? " night)" : " nights)"));
+            }
+            y -= 60;
+        }
+
+        page.rule(y);
+        y -= 20;
+        BigDecimal discount = orZero(payment.getDiscountAmount());
+        BigDecimal subtotal = orZero(payment.getSubtotal());
+        y = page.line(y, "Room charges", subtotal.add(discount), false);
+        if (discount.signum() != 0) {
+            String label = payment.getPromoCode() != null ? "Discount (" + payment.getPromoCode() + ")" : "Discount";
+            y = page.line(y, label, discount.negate(), false);
+        }
+        y = page.line(y, "Subtotal", subtotal, true);
+        y = page.line(y, "State sales tax", orZero(payment.getStateTax()), false);
+        y = page.line(y, "County occupancy tax", orZero(payment.getCountyTax()), false);
+        y = page.line(y, "City occupancy tax", orZero(payment.getCityTax()), false);
+        y = page.line(y, "Resort fee", orZero(payment.getResortFee()), false);
+        if (orZero(payment.getServiceCharge()).signum() != 0) {
+            y = page.line(y, "Service charge", payment.getServiceCharge(), false);
+        }
+        page.rule(y + 8);
+        y = page.line(y - 6, "Total", orZero(payment.getAmount()), true);
+        if (payment.getStatus() == Payment.PaymentStatus.REFUNDED) {
+            page.line(y, "Refunded", orZero(payment.getRefundAmount()).negate(), false);
+        }
+
+        return page.toPdf();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /** Accumulates one page's content stream and wraps it in a PDF file. */
+    private static final class Page {
+        private final StringBuilder content = new StringBuilder();
+
+        void text(int x, int y, int size, boolean bold, String text) {
+            content.append("BT /").append(bold ? "F2 " : "F1 ").append(size).append(" Tf ")
+                    .append(x).append(' ').append(y).append(" Td (").append(escape(text)).append(") Tj ET\n");
+        }
+
+        // Label on the left, amount right-aligned at x=545 (approximate Helvetica widths)
+        int line(int y, String label, BigDecimal amount, boolean bold) {
+            text(50, y, 11, bold, label);
+            String formatted = "$" + amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+            text(545 - formatted.length() * 6, y, 11, bold, formatted);
+            return y - 18;
+        }
+
+        void rule(int y) {
+            content.append("0.5 w 50 ").append(y).append(" m 545 ").append(y).append(" l S\n");
+        }
+
+        byte[] toPdf() {
+            byte[] stream = content.toString().getBytes(StandardCharsets.ISO_8859_1);
+            List<String> objects = new ArrayList<>();
+            objects.add("<< /Type /Catalog /Pages 2 0 R >>");
+            objects.add("<< /Type /Pages /Kids [3 0 R] /Count 1 >>");
+            objects.add("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 595 842] /Contents 4 0 R"
+                    + " /Resources << /Font << /F1 5 0 R /F2 6 0 R >> >> >>");
+            objects.add(null); // content stream, written separately
+            objects.add("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+            objects.add("<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>");
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(stream.length + 1024);
+            write(out, "%PDF-1.4\n");
+            long[] offsets = new long[objects.size()];
+            for (int i = 0; i < objects.size(); i++) {
+                offsets[i] = out.size();
+                write(out, (i + 1) + " 0 obj\n");
+                if (objects.get(i) == null) {
+                    write(out, "<< /Length " + stream.length + " >>\nstream\n");
+                    out.write(stream, 0, stream.length);
+                    write(out, "\nendstream");
+                } else {
+                    write(out, objects.get(i));
+                }
+                write(out, "\nendobj\n");
+            }
+            long xref = out.size();
+            StringBuilder trailer = new StringBuilder();
+            trailer.append("xref\n0 ").append(objects.size() + 1).append("\n0000000000 65535 f \n");
+            for (long offset : offsets) {
+                trailer.append(String.format("%010d 00000 n \n", offset));
+            }
+            trailer.append("trailer\n<< /Size ").append(objects.size() + 1).append(" /Root 1 0 R >>\nstartxref\n")
+                    .append(xref).append("\n%%EOF\n");
+            write(out, trailer.toString());
+            return out.toByteArray();
+        }
+
+        private static void write(ByteArrayOutputStream out, String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        // Latin-1 only; anything else would need an embedded font
+        private static String escape(String text) {
+            StringBuilder escaped = new StringBuilder(text.length());
+            for (char c : text.toCharArray()) {
+                if (c == '(' || c == ')' || c == '\\') {
+                    escaped.append('\\').append(c);
+                } else if (c < 32 || c > 255) {
+                    escaped.append('?');
+                } else {
+                    escaped.append(c);
+                }
+            }
+            return escaped.toString();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.hms.service;
+
+import com.hms.model.Payment;
+import com.hms.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders invoice PDFs in the background so checkout does not wait for them.
+ *
+ * A payment publishes an {@link InvoiceRequested} event; once its transaction
+ * commits, the payment id is queued for a small bounded pool of render
+ * workers. Each PDF is stored under the SHA-256 of its bytes
+ * (ab/abcdef....pdf), written to a temp file and moved into place, so a file
+ * at a given path is always complete and never changes. The path is then
+ * recorded on the payment. Jobs that were dropped because the queue was full
+ * or the server restarted are picked up by a periodic sweep.
+ */
+@Service
+public class InvoiceService {
+
+    /** Published when a payment's invoice needs (re)rendering. */
+    public static final class InvoiceRequested {
+        private final Long paymentId;
+
+        public InvoiceRequested(Long paymentId) {
+            this.paymentId = paymentId;
+        }
+
+        public Long getPaymentId() {
+            return paymentId;
+        }
+    }
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private InvoicePdfRenderer renderer;
+
+    @Value("${hms.invoices.dir:data/invoices}")
+    private String directory = "data/invoices";
+
+    @Value("${hms.invoices.render-threads:2}")
+    private int renderThreads = 2;
+
+    @Value("${hms.invoices.queue-size:1000}")
+    private int queueSize = 1000;
+
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger rendered = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private ThreadPoolExecutor workers;
+    private Path root;
+
+    @PostConstruct
+    public void start() {
+        root = Paths.get(directory).toAbsolutePath().normalize();
+        AtomicInteger count = new AtomicInteger();
+        workers = new ThreadPoolExecutor(renderThreads, renderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "hms-invoice-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvoiceRequested(InvoiceRequested event) {
+        enqueue(event.getPaymentId());
+    }
+
+    /** Queues payments that still have no invoice file. */
+    @Scheduled(fixedDelayString = "${hms.invoices.sweep-ms:300000}", initialDelayString = "${hms.invoices.sweep-ms:300000}")
+    public void sweepMissingInvoices() {
+        for (Payment payment : paymentRepository.findTop100ByInvoicePdfPathIsNullAndInvoiceNumberIsNotNullOrderByIdAsc()) {
+            enqueue(payment.getId());
+        }
+    }
+
+    /**
+     * The stored invoice file, or null if it has not been rendered yet (in
+     * which case rendering is queued).
+     */
+    public Path getInvoiceFile(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found"));
+        if (payment.getInvoicePdfPath() != null) {
+            Path file = resolve(payment.getInvoicePdfPath());
+            if (Files.isRegularFile(file)) {
+                return file;
+            }
+        }
+        enqueue(paymentId);
+        return null;
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "queued", queued.size(),
+                "rendered", rendered.get(),
+                "failed", failed.get());
+    }
+
+    private void enqueue(Long paymentId) {
+        if (paymentId == null || !queued.add(paymentId)) {
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                // Released before rendering, so a change made meanwhile queues a fresh render
+                queued.remove(paymentId);
+                try {
+                    render(paymentId);
+                    rendered.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    System.err.println("Failed to render invoice for payment " + paymentId + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full; the sweep picks it up later
+            queued.remove(paymentId);
+        }
+    }
+
+    private void render(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId).orElse(null);
+        if (payment == null) {
+            return;
+        }
+        byte[] pdf = renderer.render(payment);
+        String relativePath = store(pdf);
+        if (!relativePath.equals(payment.getInvoicePdfPath())) {
+            paymentRepository.updateInvoicePdfPath(paymentId, relativePath);
+        }
+    }
+
+    private String store(byte[] pdf) {
+        String hash = sha256(pdf);
+        String relativePath = hash.substring(0, 2) + "/" + hash + ".pdf";
+        Path target = resolve(relativePath);
+        if (Files.isRegularFile(target)) {
+            return relativePath;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+            try {
+                Files.write(temp, pdf);
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write invoice file: " + e.getMessage());
+        }
+        return relativePath;
+    }
+
+    private Path resolve(String relativePath) {
+        Path file = root.resolve(relativePath).normalize();
+        if (!file.startsWith(root)) {
+            throw new RuntimeException("Invalid invoice path");
+        }
+        return file;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
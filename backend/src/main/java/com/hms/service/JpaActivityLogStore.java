@@ -0,0 +1,42 @@
+package com.hms.service;
+
+import com.hms.model.ActivityEvent;
+import com.hms.model.ActivityLog;
+import com.hms.model.User;
+import com.hms.repository.ActivityLogRepository;
+import com.hms.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/** Keeps the audit trail in the activity_logs table. */
+@Component
+@ConditionalOnProperty(name = "hms.activity-log.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaActivityLogStore implements ActivityLogStore {
+
+    @Autowired
+    private ActivityLogRepository activityLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Override
+    public void append(String userEmail, String action, String details) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        activityLogRepository.save(new ActivityLog(user, action, details));
+    }
+
+    @Override
+    public List<ActivityEvent> find(LocalDateTime from, LocalDateTime to, int limit) {
+        return activityLogRepository.findByTimestampBetweenOrderByTimestampDesc(from, to, PageRequest.of(0, limit))
+                .stream()
+                .map(log -> new ActivityEvent(log.getTimestamp(),
+                        log.getUser() != null ? log.getUser().getEmail() : null, log.getAction(), log.getDetails()))
+                .toList();
+    }
+}
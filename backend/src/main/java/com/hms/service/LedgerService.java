@@ -0,0 +1,235 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.BookingBalance;
+import com.hms.model.LedgerEntry;
+import com.hms.model.LedgerEntry.EntryType;
+import com.hms.model.Payment;
+import com.hms.repository.BookingBalanceRepository;
+import com.hms.repository.BookingRepository;
+import com.hms.repository.LedgerEntryRepository;
+import com.hms.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The folio of each booking: an append-only list of {@link LedgerEntry}
+ * postings plus a {@link BookingBalance} holding their running totals.
+ *
+ * Every posting joins the caller's transaction and updates the balance row
+ * there too, so the entry, the balance and the booking or payment change
+ * that caused them commit together. Reading a balance is then one primary
+ * key lookup. Two postings to the same booking at once conflict on the
+ * balance's version and the loser is retried by {@code @RetryOnConflict} on
+ * the calling service method.
+ */
+@Service
+public class LedgerService {
+
+    @Autowired
+    private LedgerEntryRepository entryRepository;
+
+    @Autowired
+    private BookingBalanceRepository balanceRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Appends one entry and updates the booking's balance. Zero amounts are
+     * not posted and return null.
+     */
+    @Transactional
+    public LedgerEntry post(Long bookingId, Long paymentId, EntryType type, BigDecimal amount, String description) {
+        if (amount == null || amount.signum() == 0) {
+            return null;
+        }
+        BookingBalance balance = balanceRepository.findById(bookingId).orElseGet(() -> new BookingBalance(bookingId));
+        BigDecimal balanceAfter = balance.apply(type, amount);
+        balanceRepository.save(balance);
+        return entryRepository.save(new LedgerEntry(bookingId, paymentId, type, amount, balanceAfter, description));
+    }
+
+    /**
+     * Brings the booking's room charges to the given total: the first posting
+     * is a charge, later ones adjust by the difference.
+     */
+    @Transactional
+    public void setRoomCharges(Long bookingId, BigDecimal total, String description) {
+        BookingBalance balance = balanceRepository.findById(bookingId).orElse(null);
+        BigDecimal current = balance != null ? balance.getRoomCharges() : BigDecimal.ZERO;
+        EntryType type = balance == null || balance.getEntryCount() == 0 ? EntryType.CHARGE : EntryType.ADJUSTMENT;
+        post(bookingId, null, type, orZero(total).subtract(current), description);
+    }
+
+    /** Posts a new payment's discount and taxes and, if collected, the amount paid. */
+    @Transactional
+    public void postPayment(Payment payment) {
+        Long bookingId = payment.getBooking().getId();
+        String reference = reference(payment);
+        post(bookingId, payment.getId(), EntryType.DISCOUNT, orZero(payment.getDiscountAmount()).negate(),
+                payment.getPromoCode() != null ? "Promo " + payment.getPromoCode() : "Discount on " + reference);
+        post(bookingId, payment.getId(), EntryType.TAX, taxesOf(payment), "Taxes and fees on " + reference);
+        post(bookingId, payment.getId(), EntryType.PAYMENT, collected(payment).negate(), "Payment " + reference);
+    }
+
+    /** Posts a payment's refund. */
+    @Transactional
+    public void postRefund(Payment payment) {
+        post(payment.getBooking().getId(), payment.getId(), EntryType.REFUND, orZero(payment.getRefundAmount()),
+                "Refund on " + reference(payment)
+                        + (payment.getRefundReason() != null ? ": " + payment.getRefundReason() : ""));
+    }
+
+    /**
+     * Posts the change in what a payment collected after it was edited.
+     *
+     * @param previouslyCollected {@link #collected} before the edit
+     */
+    @Transactional
+    public void postPaymentCorrection(Payment payment, BigDecimal previouslyCollected) {
+        post(payment.getBooking().getId(), payment.getId(), EntryType.PAYMENT,
+                previouslyCollected.subtract(collected(payment)), "Correction to payment " + reference(payment));
+    }
+
+    /** Reverses everything posted for a payment that is being deleted or has failed. */
+    @Transactional
+    public void reversePayment(Payment payment) {
+        Map<EntryType, BigDecimal> totals = new EnumMap<>(EntryType.class);
+        for (LedgerEntry entry : entryRepository.findByPaymentId(payment.getId())) {
+            totals.merge(entry.getType(), entry.getAmount(), BigDecimal::add);
+        }
+        String description = "Reversal of payment " + reference(payment);
+        totals.forEach((type, total) -> post(payment.getBooking().getId(), payment.getId(), type, total.negate(),
+                description));
+    }
+
+    /** The booking's balance; all zero if nothing has been posted. */
+    public BookingBalance getBalance(Long bookingId) {
+        if (!bookingRepository.existsById(bookingId)) {
+            throw new RuntimeException("Booking not found");
+        }
+        return balanceRepository.findById(bookingId).orElseGet(() -> new BookingBalance(bookingId));
+    }
+
+    /**
+     * Room charges no payment has billed yet: the folio's room charges less
+     * the pre-discount subtotal of every payment on the booking that has not
+     * failed. A booking whose folio is not open yet counts from its total.
+     */
+    public BigDecimal getUnbilledRoomCharges(Booking booking) {
+        BookingBalance balance = balanceRepository.findById(booking.getId()).orElse(null);
+        BigDecimal unbilled = balance != null && balance.getEntryCount() > 0
+                ? balance.getRoomCharges()
+                : orZero(booking.getTotalAmount());
+        for (Payment payment : paymentRepository.findByBookingId(booking.getId())) {
+            if (payment.getStatus() != Payment.PaymentStatus.FAILED) {
+                // Payments from before the tax breakdown only have an amount
+                BigDecimal billed = payment.getSubtotal() != null
+                        ? payment.getSubtotal().add(orZero(payment.getDiscountAmount()))
+                        : orZero(payment.getAmount());
+                unbilled = unbilled.subtract(billed);
+            }
+        }
+        return unbilled;
+    }
+
+    /** The balance and every entry posted to the booking, oldest first. */
+    public Map<String, Object> getFolio(Long bookingId) {
+        BookingBalance balance = getBalance(bookingId);
+        List<LedgerEntry> entries = entryRepository.findByBookingIdOrderByIdAsc(bookingId);
+
+        Map<String, Object> folio = new HashMap<>();
+        folio.put("bookingId", bookingId);
+        folio.put("balance", balance);
+        folio.put("entries", entries);
+        return folio;
+    }
+
+    /**
+     * Opens a folio for every booking that predates the ledger, from its
+     * current booking total and payments. One transaction per booking, so a
+     * bad row does not stop the rest.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int opened = 0;
+        for (Long bookingId : balanceRepository.findBookingIdsWithoutBalance()) {
+            try {
+                Boolean done = transaction.execute(status -> openFolio(bookingId));
+                if (Boolean.TRUE.equals(done)) {
+                    opened++;
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Failed to open folio for booking " + bookingId + ": " + e.getMessage());
+            }
+        }
+        if (opened > 0) {
+            System.out.println("Opened ledger folios for " + opened + " existing bookings.");
+        }
+    }
+
+    private boolean openFolio(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId).orElse(null);
+        if (booking == null || balanceRepository.existsById(bookingId)) {
+            return false;
+        }
+        BigDecimal roomCharges = booking.getStatus() == Booking.BookingStatus.CANCELLED
+                ? BigDecimal.ZERO
+                : orZero(booking.getTotalAmount());
+        // Posted as a charge even when zero, so the balance row exists afterwards
+        BookingBalance balance = new BookingBalance(bookingId);
+        BigDecimal balanceAfter = balance.apply(EntryType.CHARGE, roomCharges);
+        balanceRepository.save(balance);
+        entryRepository.save(new LedgerEntry(bookingId, null, EntryType.CHARGE, roomCharges, balanceAfter,
+                "Opening room charges"));
+        for (Payment payment : paymentRepository.findByBookingId(bookingId)) {
+            postPayment(payment);
+            if (payment.getStatus() == Payment.PaymentStatus.REFUNDED) {
+                postRefund(payment);
+            }
+        }
+        return true;
+    }
+
+    /** What a payment has actually taken from the guest, refunds aside. */
+    public static BigDecimal collected(Payment payment) {
+        Payment.PaymentStatus status = payment.getStatus();
+        if (status == Payment.PaymentStatus.PAID || status == Payment.PaymentStatus.CAPTURED
+                || status == Payment.PaymentStatus.REFUNDED) {
+            return orZero(payment.getAmount());
+        }
+        return BigDecimal.ZERO;
+    }
+
+    private static BigDecimal taxesOf(Payment payment) {
+        return orZero(payment.getStateTax()).add(orZero(payment.getCountyTax())).add(orZero(payment.getCityTax()))
+                .add(orZero(payment.getResortFee())).add(orZero(payment.getServiceCharge()));
+    }
+
+    private static String reference(Payment payment) {
+        return payment.getInvoiceNumber() != null ? payment.getInvoiceNumber() : "#" + payment.getId();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,294 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.model.HotelEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans HotelEvents out to every connected Server-Sent Events client.
+ *
+ * Services publish events through Spring's ApplicationEventPublisher; they
+ * are picked up here once the publishing transaction commits, so rolled back
+ * or retried work never reaches a screen. A single dispatcher thread numbers
+ * each event, serializes it once and appends it to every client's own queue
+ * without blocking. A small writer pool drains those queues, so a slow or
+ * stalled browser only delays itself; one that falls too far behind is
+ * disconnected and catches up from the replay buffer when it reconnects.
+ */
+@Service
+public class LiveEventBroadcaster {
+
+    /** Sent when a client cannot be caught up and should refetch everything. */
+    public static final String RESYNC = "RESYNC";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${hms.events.replay-size:512}")
+    private int replaySize;
+
+    @Value("${hms.events.client-queue-size:256}")
+    private int clientQueueSize;
+
+    @Value("${hms.events.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${hms.events.writer-threads:4}")
+    private int writerThreads;
+
+    // Distinguishes event ids issued before a restart, when sequences start over
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final BlockingQueue<HotelEvent> inbound = new LinkedBlockingQueue<>(10_000);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Object replayLock = new Object();
+
+    // Guarded by replayLock
+    private Frame[] replay;
+    private long lastSequence;
+
+    private ExecutorService writers;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        replay = new Frame[Math.max(replaySize, 1)];
+        AtomicInteger threadCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(Math.max(writerThreads, 1), r -> {
+            Thread thread = new Thread(r, "hms-sse-writer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "hms-sse-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatcher.interrupt();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        writers.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotelEvent(HotelEvent event) {
+        publish(event);
+    }
+
+    /** Queues an event for broadcast; never blocks the caller. */
+    public void publish(HotelEvent event) {
+        if (!inbound.offer(event)) {
+            System.err.println("Live event queue is full; dropped " + event.getType());
+        }
+    }
+
+    /**
+     * Opens a stream for one client.
+     *
+     * @param lastEventId value of the Last-Event-ID header sent by a
+     *                    reconnecting browser, or null for a new connection
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        synchronized (replayLock) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<Frame> missed = missedSince(lastEventId);
+                if (missed == null) {
+                    subscriber.offer(new Frame(null, RESYNC, "{}"));
+                } else {
+                    missed.forEach(subscriber::offer);
+                }
+            }
+            // Added under the lock so no event lands between the replay and the live feed
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    public int getConnectedClients() {
+        return subscribers.size();
+    }
+
+    /** Keeps idle connections open through proxies that drop silent streams. */
+    @Scheduled(fixedDelayString = "${hms.events.heartbeat-ms:20000}")
+    public void sendHeartbeat() {
+        Frame heartbeat = new Frame(null, null, null);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(heartbeat);
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            HotelEvent event;
+            try {
+                event = inbound.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                dispatch(event);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to broadcast " + event.getType() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(HotelEvent event) {
+        synchronized (replayLock) {
+            event.setSequence(++lastSequence);
+            Frame frame = new Frame(bootId + ":" + lastSequence, event.getType().name(), toJson(event));
+            replay[(int) (lastSequence % replay.length)] = frame;
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+
+    /** @return frames after lastEventId, or null if they are no longer buffered */
+    private List<Frame> missedSince(String lastEventId) {
+        int separator = lastEventId.indexOf(':');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(bootId)) {
+            return null;
+        }
+        long seen;
+        try {
+            seen = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (seen > lastSequence || lastSequence - seen > replay.length) {
+            return null;
+        }
+        List<Frame> missed = new ArrayList<>();
+        for (long sequence = seen + 1; sequence <= lastSequence; sequence++) {
+            missed.add(replay[(int) (sequence % replay.length)]);
+        }
+        return missed;
+    }
+
+    private String toJson(HotelEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize event: " + e.getMessage());
+        }
+    }
+
+    /** An event already serialized for the wire; shared by every client. */
+    private record Frame(String id, String name, String json) {
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Frame> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Frame frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > clientQueueSize) {
+                // Too far behind; it will reconnect and replay or resync
+                close();
+                return;
+            }
+            pending.add(frame);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    close();
+                }
+            }
+        }
+
+        private void drain() {
+            Frame frame;
+            while (!closed.get() && (frame = pending.poll()) != null) {
+                pendingCount.decrementAndGet();
+                try {
+                    send(frame);
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                    return;
+                }
+            }
+            draining.set(false);
+            // An offer may have slipped in after the last poll
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void send(Frame frame) throws IOException {
+            if (frame.name() == null) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(frame.name())
+                    .data(frame.json(), MediaType.APPLICATION_JSON);
+            if (frame.id() != null) {
+                builder.id(frame.id());
+            }
+            emitter.send(builder);
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscribers.remove(this);
+                pending.clear();
+                try {
+                    emitter.complete();
+                } catch (RuntimeException e) {
+                    // Already completed by the container
+                }
+            }
+        }
+    }
+}
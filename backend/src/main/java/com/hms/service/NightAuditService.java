@@ -0,0 +1,277 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.HotelEvent;
+import com.hms.model.HousekeepingTask;
+import com.hms.model.NightAuditRun;
+import com.hms.model.Room;
+import com.hms.repository.BookingRepository;
+import com.hms.repository.HousekeepingTaskRepository;
+import com.hms.repository.NightAuditRunRepository;
+import com.hms.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Closes a business day: marks no-shows, checks out the day's departures
+ * (queueing a clean for each room), flags rooms for the next day's arrivals
+ * and snapshots the day's occupancy, ADR and RevPAR.
+ *
+ * Bookings are processed in fixed-size chunks using keyset pagination on id,
+ * one transaction per chunk. The run's checkpoint is written in the same
+ * transaction as the chunk, so a crash or failure loses at most the chunk in
+ * progress and rerunning the date picks up from there.
+ */
+@Service
+public class NightAuditService {
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private HousekeepingTaskRepository taskRepository;
+
+    @Autowired
+    private NightAuditRunRepository runRepository;
+
+    @Autowired
+    private HotelMetricsService hotelMetricsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${hms.night-audit.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${hms.night-audit.catch-up-days:7}")
+    private int catchUpDays;
+
+    private final ReentrantLock auditLock = new ReentrantLock();
+
+    /**
+     * Audits yesterday, plus any earlier days missed while the server was
+     * down (up to catch-up-days).
+     */
+    @Scheduled(cron = "${hms.night-audit.cron:0 0 2 * * *}")
+    public void runScheduledAudit() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate from = runRepository.findFirstByStatusOrderByBusinessDateDesc(NightAuditRun.RunStatus.COMPLETED)
+                .map(run -> run.getBusinessDate().plusDays(1))
+                .orElse(yesterday);
+        if (from.isBefore(yesterday.minusDays(catchUpDays - 1L))) {
+            from = yesterday.minusDays(catchUpDays - 1L);
+        }
+        for (LocalDate date = from; !date.isAfter(yesterday); date = date.plusDays(1)) {
+            try {
+                NightAuditRun run = runAudit(date);
+                if (run.getStatus() != NightAuditRun.RunStatus.COMPLETED) {
+                    // Later days depend on this one; the next run retries from here
+                    return;
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Night audit for " + date + " failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Runs (or resumes) the audit for a business date. A completed audit is
+     * returned as is.
+     */
+    public NightAuditRun runAudit(LocalDate businessDate) {
+        if (businessDate == null || businessDate.isAfter(LocalDate.now())) {
+            throw new RuntimeException("Night audit can only run for today or an earlier date");
+        }
+        if (!auditLock.tryLock()) {
+            throw new RuntimeException("A night audit is already running");
+        }
+        try {
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            NightAuditRun run = transaction.execute(status -> start(businessDate));
+            if (run.getStatus() == NightAuditRun.RunStatus.COMPLETED) {
+                return run;
+            }
+            long started = System.nanoTime();
+            try {
+                while (run.getPhase() != NightAuditRun.Phase.DONE) {
+                    Long runId = run.getId();
+                    run = processChunkWithRetry(transaction, runId);
+                }
+            } catch (RuntimeException e) {
+                Long runId = run.getId();
+                String message = e.getMessage();
+                return transaction.execute(status -> fail(runId, message));
+            }
+            System.out.println("Night audit for " + businessDate + " completed in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) + " ms: " + run.getNoShows()
+                    + " no-shows, " + run.getDepartures() + " departures, " + run.getArrivals() + " arrivals.");
+            return run;
+        } finally {
+            auditLock.unlock();
+        }
+    }
+
+    public NightAuditRun getRun(LocalDate businessDate) {
+        return runRepository.findByBusinessDate(businessDate)
+                .orElseThrow(() -> new RuntimeException("No night audit for " + businessDate));
+    }
+
+    public List<NightAuditRun> getRecentRuns() {
+        return runRepository.findTop30ByOrderByBusinessDateDesc();
+    }
+
+    private NightAuditRun start(LocalDate businessDate) {
+        NightAuditRun run = runRepository.findByBusinessDate(businessDate).orElse(null);
+        if (run == null) {
+            return runRepository.save(new NightAuditRun(businessDate));
+        }
+        if (run.getStatus() != NightAuditRun.RunStatus.COMPLETED) {
+            run.setStatus(NightAuditRun.RunStatus.RUNNING);
+            run.setErrorMessage(null);
+        }
+        return runRepository.save(run);
+    }
+
+    private NightAuditRun fail(Long runId, String message) {
+        NightAuditRun run = runRepository.findById(runId).orElseThrow();
+        run.setStatus(NightAuditRun.RunStatus.FAILED);
+        run.setErrorMessage(message != null && message.length() > 1000 ? message.substring(0, 1000) : message);
+        return runRepository.save(run);
+    }
+
+    // A front-desk edit to a room or booking in the chunk rolls the chunk back; redo it
+    private NightAuditRun processChunkWithRetry(TransactionTemplate transaction, Long runId) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return transaction.execute(status -> processChunk(runId));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private NightAuditRun processChunk(Long runId) {
+        NightAuditRun run = runRepository.findById(runId).orElseThrow();
+        LocalDate date = run.getBusinessDate();
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+
+        List<Booking> bookings;
+        switch (run.getPhase()) {
+            case NO_SHOWS:
+                // Arrivals for the day that never checked in
+                bookings = bookingRepository.findByStatusAndCheckInDateAndIdGreaterThanOrderByIdAsc(
+                        Booking.BookingStatus.CONFIRMED, date, run.getLastProcessedId(), chunk);
+                for (Booking booking : bookings) {
+                    booking.setStatus(Booking.BookingStatus.NO_SHOW);
+                    changeRoomStatus(booking.getRoom(), Room.RoomStatus.BOOKED, Room.RoomStatus.AVAILABLE);
+                }
+                run.setNoShows(run.getNoShows() + bookings.size());
+                break;
+            case DEPARTURES:
+                bookings = bookingRepository.findByStatusAndCheckOutDateAndIdGreaterThanOrderByIdAsc(
+                        Booking.BookingStatus.CHECKED_IN, date, run.getLastProcessedId(), chunk);
+                List<HousekeepingTask> tasks = new ArrayList<>();
+                for (Booking booking : bookings) {
+                    booking.setStatus(Booking.BookingStatus.CHECKED_OUT);
+                    changeRoomStatus(booking.getRoom(), null, Room.RoomStatus.CLEANING);
+                    tasks.add(new HousekeepingTask(booking.getRoom(), null,
+                            "Departure clean after booking #" + booking.getId(), date.plusDays(1)));
+                }
+                taskRepository.saveAll(tasks);
+                run.setDepartures(run.getDepartures() + bookings.size());
+                run.setHousekeepingTasks(run.getHousekeepingTasks() + tasks.size());
+                break;
+            case ARRIVALS:
+                // Hold tomorrow's arrival rooms so they are not sold as walk-ins
+                bookings = bookingRepository.findByStatusAndCheckInDateAndIdGreaterThanOrderByIdAsc(
+                        Booking.BookingStatus.CONFIRMED, date.plusDays(1), run.getLastProcessedId(), chunk);
+                for (Booking booking : bookings) {
+                    changeRoomStatus(booking.getRoom(), Room.RoomStatus.AVAILABLE, Room.RoomStatus.BOOKED);
+                }
+                run.setArrivals(run.getArrivals() + bookings.size());
+                break;
+            case KPIS:
+                snapshotKpis(run);
+                run.setPhase(NightAuditRun.Phase.DONE);
+                run.setStatus(NightAuditRun.RunStatus.COMPLETED);
+                run.setFinishedAt(LocalDateTime.now());
+                return runRepository.save(run);
+            default:
+                return run;
+        }
+
+        bookingRepository.saveAll(bookings);
+        if (bookings.size() < chunkSize) {
+            run.setPhase(NightAuditRun.Phase.values()[run.getPhase().ordinal() + 1]);
+            run.setLastProcessedId(0L);
+        } else {
+            run.setLastProcessedId(bookings.get(bookings.size() - 1).getId());
+        }
+        return runRepository.save(run);
+    }
+
+    /**
+     * @param from only change rooms currently in this status, or null for any
+     *             status other than MAINTENANCE
+     */
+    private void changeRoomStatus(Room room, Room.RoomStatus from, Room.RoomStatus to) {
+        Room.RoomStatus previous = room.getStatus();
+        if (previous == to || (from != null ? previous != from : previous == Room.RoomStatus.MAINTENANCE)) {
+            return;
+        }
+        room.setStatus(to);
+        roomRepository.save(room);
+        eventPublisher.publishEvent(HotelEvent.roomStatusChanged(room, previous));
+    }
+
+    private void snapshotKpis(NightAuditRun run) {
+        LocalDate date = run.getBusinessDate();
+        int roomsAvailable = (int) (roomRepository.count()
+                - roomRepository.findByStatus(Room.RoomStatus.MAINTENANCE).size());
+
+        BigDecimal roomRevenue = BigDecimal.ZERO;
+        int roomsSold = 0;
+        for (Booking stay : bookingRepository.findStaysOnNight(date)) {
+            long nights = ChronoUnit.DAYS.between(stay.getCheckInDate(), stay.getCheckOutDate());
+            if (nights > 0 && stay.getTotalAmount() != null) {
+                // Spread the stay total evenly across its nights
+                roomRevenue = roomRevenue.add(stay.getTotalAmount().divide(BigDecimal.valueOf(nights), 2,
+                        RoundingMode.HALF_UP));
+            }
+            roomsSold++;
+        }
+
+        run.setRoomsAvailable(roomsAvailable);
+        run.setRoomsSold(roomsSold);
+        run.setRoomRevenue(roomRevenue);
+        run.setOccupancyRate(hotelMetricsService.calculateOccupancyRate(roomsSold, roomsAvailable));
+        run.setAdr(hotelMetricsService.calculateADR(roomRevenue, roomsSold));
+        run.setRevpar(hotelMetricsService.calculateRevPAR(roomRevenue, roomsAvailable));
+    }
+}
@@ -0,0 +1,201 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.Room;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts occupied room nights per day and per room type over a date range.
+ *
+ * Each stay adds +1 at its first night in the range and -1 after its last, in
+ * a difference array indexed by day; one prefix sum then gives the rooms
+ * occupied every night. That is O(stays + days) however long the stays are,
+ * and stays that began before the range count only the nights inside it. A
+ * stay's total is spread over its nights the same way (in cents, with any
+ * remainder on the first nights), so room revenue is attributed to the
+ * nights it was earned.
+ */
+@Service
+public class OccupancyEngine {
+
+    private static final Room.RoomType[] TYPES = Room.RoomType.values();
+
+    /**
+     * @param stays       bookings that hold a room; nights outside the range
+     *                    are ignored
+     * @param roomsByType rooms in inventory, for available room nights
+     */
+    public Occupancy compute(LocalDate startDate, LocalDate endDate, Collection<Booking> stays,
+            Map<Room.RoomType, Integer> roomsByType) {
+        if (startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        long firstDay = startDate.toEpochDay();
+        int days = (int) (endDate.toEpochDay() - firstDay + 1);
+
+        int[][] occupiedDelta = new int[TYPES.length][days + 1];
+        long[] revenueDelta = new long[days + 1];
+
+        for (Booking stay : stays) {
+            if (stay.getCheckInDate() == null || stay.getCheckOutDate() == null) {
+                continue;
+            }
+            long checkIn = stay.getCheckInDate().toEpochDay();
+            long nights = stay.getCheckOutDate().toEpochDay() - checkIn;
+            int from = (int) Math.max(checkIn - firstDay, 0);
+            int to = (int) Math.min(checkIn + nights - firstDay, days);
+            if (nights <= 0 || from >= to) {
+                continue;
+            }
+
+            Room room = stay.getRoom();
+            if (room != null && room.getType() != null) {
+                int[] delta = occupiedDelta[room.getType().ordinal()];
+                delta[from]++;
+                delta[to]--;
+            }
+
+            if (stay.getTotalAmount() != null) {
+                long totalCents = stay.getTotalAmount().setScale(2, RoundingMode.HALF_UP).unscaledValue()
+                        .longValueExact();
+                long perNight = totalCents / nights;
+                long remainder = totalCents % nights;
+                revenueDelta[from] += perNight;
+                revenueDelta[to] -= perNight;
+                // The first `remainder` nights of the stay carry one extra cent each
+                int extraTo = (int) Math.min(checkIn + Math.abs(remainder) - firstDay, days);
+                if (from < extraTo) {
+                    revenueDelta[from] += Long.signum(remainder);
+                    revenueDelta[extraTo] -= Long.signum(remainder);
+                }
+            }
+        }
+
+        int[][] occupied = new int[TYPES.length][days];
+        for (int type = 0; type < TYPES.length; type++) {
+            int running = 0;
+            for (int day = 0; day < days; day++) {
+                running += occupiedDelta[type][day];
+                occupied[type][day] = running;
+            }
+        }
+        long[] revenueCents = new long[days];
+        long running = 0;
+        for (int day = 0; day < days; day++) {
+            running += revenueDelta[day];
+            revenueCents[day] = running;
+        }
+
+        int[] rooms = new int[TYPES.length];
+        if (roomsByType != null) {
+            roomsByType.forEach((type, count) -> rooms[type.ordinal()] = count != null ? count : 0);
+        }
+        return new Occupancy(startDate, days, occupied, revenueCents, rooms);
+    }
+
+    /** Nightly occupancy and room revenue for one date range. */
+    public static final class Occupancy {
+        private final LocalDate startDate;
+        private final int days;
+        private final int[][] occupied;
+        private final long[] revenueCents;
+        private final int[] rooms;
+
+        private Occupancy(LocalDate startDate, int days, int[][] occupied, long[] revenueCents, int[] rooms) {
+            this.startDate = startDate;
+            this.days = days;
+            this.occupied = occupied;
+            this.revenueCents = revenueCents;
+            this.rooms = rooms;
+        }
+
+        public int getDays() {
+            return days;
+        }
+
+        public int getTotalRooms() {
+            int total = 0;
+            for (int count : rooms) {
+                total += count;
+            }
+            return total;
+        }
+
+        /** Rooms occupied on the night of the given date. */
+        public int getOccupied(LocalDate date) {
+            int day = (int) (date.toEpochDay() - startDate.toEpochDay());
+            if (day < 0 || day >= days) {
+                return 0;
+            }
+            int total = 0;
+            for (int[] type : occupied) {
+                total += type[day];
+            }
+            return total;
+        }
+
+        public int getRoomNightsSold() {
+            int total = 0;
+            for (Room.RoomType type : TYPES) {
+                total += getRoomNightsSold(type);
+            }
+            return total;
+        }
+
+        public int getRoomNightsSold(Room.RoomType type) {
+            int total = 0;
+            for (int count : occupied[type.ordinal()]) {
+                total += count;
+            }
+            return total;
+        }
+
+        public int getRoomNightsAvailable() {
+            return getTotalRooms() * days;
+        }
+
+        public int getRoomNightsAvailable(Room.RoomType type) {
+            return rooms[type.ordinal()] * days;
+        }
+
+        /** Room revenue earned on nights inside the range. */
+        public BigDecimal getRoomRevenue() {
+            long total = 0;
+            for (long cents : revenueCents) {
+                total += cents;
+            }
+            return BigDecimal.valueOf(total, 2);
+        }
+
+        /** One entry per night: date, rooms occupied (total and by type) and room revenue. */
+        public List<Map<String, Object>> toDaily() {
+            List<Map<String, Object>> daily = new ArrayList<>(days);
+            for (int day = 0; day < days; day++) {
+                Map<String, Object> byType = new LinkedHashMap<>();
+                int total = 0;
+                for (Room.RoomType type : TYPES) {
+                    int count = occupied[type.ordinal()][day];
+                    byType.put(type.toString(), count);
+                    total += count;
+                }
+                Map<String, Object> night = new LinkedHashMap<>();
+                night.put("date", startDate.plusDays(day).toString());
+                night.put("occupied", total);
+                night.put("available", getTotalRooms());
+                night.put("roomRevenue", BigDecimal.valueOf(revenueCents[day], 2));
+                night.put("byRoomType", byType);
+                daily.add(night);
+            }
+            return daily;
+        }
+    }
+}
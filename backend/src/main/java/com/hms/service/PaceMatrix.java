@@ -0,0 +1,83 @@
+package com.hms.service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Room nights on the books, indexed by stay date and lead time (days between
+ * the booking date and the stay date).
+ *
+ * Each stay date keeps a Fenwick tree over lead time, so adding or removing a
+ * booked night and counting the nights booked within any lead-time window
+ * are both O(log maxLead). "On the books as of date D" for stay date S is the
+ * count with lead at least S - D. Leads beyond maxLead are counted at maxLead,
+ * and nights booked after the stay date at lead 0.
+ *
+ * Not thread-safe; callers guard it.
+ */
+public final class PaceMatrix {
+
+    private final int maxLead;
+    private final Map<Long, int[]> treesByStayDay = new HashMap<>();
+
+    public PaceMatrix(int maxLead) {
+        this.maxLead = maxLead;
+    }
+
+    public int getMaxLead() {
+        return maxLead;
+    }
+
+    public int getStayDates() {
+        return treesByStayDay.size();
+    }
+
+    /**
+     * Adds delta to every night of the stay from checkIn up to but excluding
+     * checkOut, limited to stay dates from first to last inclusive.
+     */
+    public void addStay(LocalDate checkIn, LocalDate checkOut, LocalDate bookedOn, int delta, LocalDate first,
+            LocalDate last) {
+        LocalDate night = checkIn.isBefore(first) ? first : checkIn;
+        LocalDate end = checkOut.isAfter(last.plusDays(1)) ? last.plusDays(1) : checkOut;
+        for (; night.isBefore(end); night = night.plusDays(1)) {
+            add(night, bookedOn, delta);
+        }
+    }
+
+    public void add(LocalDate stayDate, LocalDate bookedOn, int delta) {
+        long stayDay = stayDate.toEpochDay();
+        int[] tree = treesByStayDay.computeIfAbsent(stayDay, day -> new int[maxLead + 2]);
+        for (int i = clamp(stayDay - bookedOn.toEpochDay()) + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /** Nights of the stay date booked with lead time from fromLead to toLead inclusive. */
+    public int count(LocalDate stayDate, int fromLead, int toLead) {
+        int[] tree = treesByStayDay.get(stayDate.toEpochDay());
+        if (tree == null || fromLead > toLead || toLead < 0 || fromLead > maxLead) {
+            return 0;
+        }
+        return prefix(tree, clamp(toLead)) - (fromLead <= 0 ? 0 : prefix(tree, clamp(fromLead) - 1));
+    }
+
+    /** Nights of the stay date on the books as of the given date. */
+    public int onTheBooks(LocalDate stayDate, LocalDate asOf) {
+        return count(stayDate, (int) Math.max(0, stayDate.toEpochDay() - asOf.toEpochDay()), maxLead);
+    }
+
+    private int clamp(long lead) {
+        return (int) Math.max(0, Math.min(lead, maxLead));
+    }
+
+    // Sum of leads 0..lead
+    private static int prefix(int[] tree, int lead) {
+        int sum = 0;
+        for (int i = lead + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,170 @@
+package com.hms.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * An equi-join of two record streams that may be too large for memory (a
+ * grace hash join). Records are first spilled to files partitioned by a hash
+ * of their key; {@link #join} then loads one partition of each side at a
+ * time and groups it by key, so memory holds about 1/partitions of the input.
+ *
+ * A record is a key plus string fields. Not thread-safe.
+ */
+public final class PartitionedHashJoin implements Closeable {
+
+    /** Receives every key found on either side, with its records from each side. */
+    public interface Visitor {
+        void visit(String key, List<String[]> left, List<String[]> right) throws IOException;
+    }
+
+    private static final int BUFFER_SIZE = 32 * 1024;
+    // writeUTF is limited to 64KB; settlement fields are far shorter
+    private static final int MAX_FIELD_LENGTH = 4096;
+
+    private final Path directory;
+    private final int partitions;
+    private final DataOutputStream[] leftOut;
+    private final DataOutputStream[] rightOut;
+    private final int[] leftCounts;
+    private final int[] rightCounts;
+    private boolean spilled;
+
+    public PartitionedHashJoin(Path parent, int partitions) throws IOException {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be at least 1");
+        }
+        Files.createDirectories(parent);
+        this.directory = Files.createTempDirectory(parent, "join-");
+        this.partitions = partitions;
+        this.leftOut = new DataOutputStream[partitions];
+        this.rightOut = new DataOutputStream[partitions];
+        this.leftCounts = new int[partitions];
+        this.rightCounts = new int[partitions];
+    }
+
+    public void addLeft(String key, String... fields) throws IOException {
+        write(leftOut, leftCounts, "L", key, fields);
+    }
+
+    public void addRight(String key, String... fields) throws IOException {
+        write(rightOut, rightCounts, "R", key, fields);
+    }
+
+    /** Joins partition by partition; may only be called once. */
+    public void join(Visitor visitor) throws IOException {
+        if (spilled) {
+            throw new IllegalStateException("Already joined");
+        }
+        spilled = true;
+        closeAll();
+        for (int p = 0; p < partitions; p++) {
+            Map<String, List<String[]>> left = read("L", p, leftCounts[p]);
+            Map<String, List<String[]>> right = read("R", p, rightCounts[p]);
+            for (Map.Entry<String, List<String[]>> entry : left.entrySet()) {
+                List<String[]> matches = right.remove(entry.getKey());
+                visitor.visit(entry.getKey(), entry.getValue(), matches != null ? matches : Collections.emptyList());
+            }
+            for (Map.Entry<String, List<String[]>> entry : right.entrySet()) {
+                visitor.visit(entry.getKey(), Collections.emptyList(), entry.getValue());
+            }
+            Files.deleteIfExists(file("L", p));
+            Files.deleteIfExists(file("R", p));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeAll();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private void write(DataOutputStream[] out, int[] counts, String side, String key, String[] fields)
+            throws IOException {
+        if (spilled) {
+            throw new IllegalStateException("Already joined");
+        }
+        int p = partition(key);
+        if (out[p] == null) {
+            out[p] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file(side, p)), BUFFER_SIZE));
+        }
+        DataOutputStream stream = out[p];
+        stream.writeUTF(truncate(key));
+        stream.writeShort(fields.length);
+        for (String field : fields) {
+            stream.writeBoolean(field != null);
+            if (field != null) {
+                stream.writeUTF(truncate(field));
+            }
+        }
+        counts[p]++;
+    }
+
+    private Map<String, List<String[]>> read(String side, int p, int count) throws IOException {
+        Map<String, List<String[]>> grouped = new HashMap<>(Math.max(16, count * 4 / 3 + 1));
+        if (count == 0) {
+            return grouped;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file(side, p)), BUFFER_SIZE))) {
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                String[] fields = new String[in.readShort()];
+                for (int f = 0; f < fields.length; f++) {
+                    fields[f] = in.readBoolean() ? in.readUTF() : null;
+                }
+                grouped.computeIfAbsent(key, k -> new ArrayList<>(1)).add(fields);
+            }
+        }
+        return grouped;
+    }
+
+    private int partition(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), partitions);
+    }
+
+    private Path file(String side, int p) {
+        return directory.resolve(side + p + ".bin");
+    }
+
+    private void closeAll() throws IOException {
+        IOException failure = null;
+        for (DataOutputStream[] streams : new DataOutputStream[][] { leftOut, rightOut }) {
+            for (int p = 0; p < streams.length; p++) {
+                if (streams[p] != null) {
+                    try {
+                        streams[p].close();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                    streams[p] = null;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_FIELD_LENGTH ? value.substring(0, MAX_FIELD_LENGTH) : value;
+    }
+}
@@ -0,0 +1,203 @@
+package com.hms.service;
+
+import com.hms.model.LedgerEntry;
+import com.hms.model.Payment;
+import com.hms.repository.PaymentRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Captures AUTHORIZED payments through the {@link PaymentGateway} off the
+ * request path, so checkout only records the authorization.
+ *
+ * A scheduler picks up to batch-size payments that are due and hands them to
+ * a fixed pool of capture workers, which bounds the calls in flight to the
+ * gateway. Each payment moves AUTHORIZED to CAPTURED, or to FAILED when the
+ * gateway declines or max-attempts retryable failures have been reached;
+ * retries back off exponentially. Only a successful capture posts the
+ * payment to the booking's ledger; a failed one reverses the discount and
+ * taxes that checkout posted.
+ */
+@Service
+public class PaymentCaptureService {
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentGateway gateway;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private RevenueBreakdownService revenueBreakdownService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${hms.payments.capture.methods:CARD,ACH}")
+    private String captureMethods = "CARD,ACH";
+
+    @Value("${hms.payments.capture.threads:4}")
+    private int threads = 4;
+
+    @Value("${hms.payments.capture.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${hms.payments.capture.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${hms.payments.capture.backoff-ms:5000}")
+    private long backoffMs = 5000;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger captured = new AtomicInteger();
+    private final AtomicInteger retried = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private Set<Payment.PaymentMethod> gatewayMethods = EnumSet.of(Payment.PaymentMethod.CARD,
+            Payment.PaymentMethod.ACH);
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void start() {
+        gatewayMethods = EnumSet.noneOf(Payment.PaymentMethod.class);
+        for (String method : captureMethods.split(",")) {
+            if (!method.isBlank()) {
+                gatewayMethods.add(Payment.PaymentMethod.valueOf(method.trim()));
+            }
+        }
+        AtomicInteger count = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize), r -> {
+                    Thread thread = new Thread(r, "hms-capture-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // An interrupted capture stays AUTHORIZED and is retried with the same idempotency key
+        workers.shutdownNow();
+    }
+
+    /** Whether payments by this method are authorized at checkout and captured later. */
+    public boolean isCapturedLater(Payment.PaymentMethod method) {
+        return method != null && gatewayMethods.contains(method);
+    }
+
+    /** Hands due captures to the workers. */
+    @Scheduled(fixedDelayString = "${hms.payments.capture.interval-ms:2000}")
+    public void dispatchDueCaptures() {
+        int room = batchSize - workers.getQueue().size();
+        if (room <= 0) {
+            return;
+        }
+        for (Payment payment : paymentRepository.findDueCaptures(Payment.PaymentStatus.AUTHORIZED,
+                LocalDateTime.now(), PageRequest.of(0, room + inFlight.size()))) {
+            Long paymentId = payment.getId();
+            if (!inFlight.add(paymentId)) {
+                continue;
+            }
+            try {
+                workers.execute(() -> {
+                    try {
+                        capture(payment);
+                    } catch (RuntimeException e) {
+                        System.err.println("Capture of payment " + paymentId + " failed: " + e.getMessage());
+                    } finally {
+                        inFlight.remove(paymentId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Queue full; the next run picks it up
+                inFlight.remove(paymentId);
+                break;
+            }
+        }
+    }
+
+    /** Makes one capture attempt and records the outcome. */
+    public void capture(Payment payment) {
+        int attempts = (payment.getCaptureAttempts() != null ? payment.getCaptureAttempts() : 0) + 1;
+        BigDecimal amount = payment.getAmount() != null ? payment.getAmount() : BigDecimal.ZERO;
+        String reference;
+        try {
+            reference = gateway.capture(payment.getStripePaymentIntentId(), amount, "capture-" + payment.getId());
+        } catch (PaymentGateway.CaptureDeclinedException e) {
+            markFailed(payment, attempts, e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            if (attempts >= maxAttempts) {
+                markFailed(payment, attempts, e.getMessage());
+            } else {
+                paymentRepository.scheduleCaptureRetry(payment.getId(), attempts,
+                        LocalDateTime.now().plusNanos(backoff(attempts) * 1_000_000), e.getMessage(),
+                        Payment.PaymentStatus.AUTHORIZED);
+                retried.incrementAndGet();
+            }
+            return;
+        }
+
+        Boolean marked = new TransactionTemplate(transactionManager).execute(status -> {
+            int updated = paymentRepository.markCaptured(payment.getId(), reference, LocalDateTime.now(), attempts,
+                    Payment.PaymentStatus.CAPTURED, Payment.PaymentStatus.AUTHORIZED);
+            if (updated == 1) {
+                ledgerService.post(payment.getBooking().getId(), payment.getId(), LedgerEntry.EntryType.PAYMENT,
+                        amount.negate(), "Captured payment "
+                                + (payment.getInvoiceNumber() != null ? payment.getInvoiceNumber() : "#" + payment.getId()));
+            }
+            return updated == 1;
+        });
+        if (Boolean.TRUE.equals(marked) && payment.getPaymentDate() != null) {
+            // The bulk update skips the entity listener, and captured revenue now counts in the report
+            revenueBreakdownService.evict(payment.getPaymentDate().toLocalDate());
+        }
+        captured.incrementAndGet();
+    }
+
+    // A failed payment bills nothing, so its discount and taxes come off the folio and checkout can be retried
+    private void markFailed(Payment payment, int attempts, String error) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            int updated = paymentRepository.markCaptureFailed(payment.getId(), attempts, error,
+                    Payment.PaymentStatus.FAILED, Payment.PaymentStatus.AUTHORIZED);
+            if (updated == 1) {
+                ledgerService.reversePayment(payment);
+            }
+        });
+        failed.incrementAndGet();
+    }
+
+    /** Delay before the next attempt: backoff-ms doubled per failed attempt, capped at 64x. */
+    long backoff(int attempts) {
+        return backoffMs << Math.min(attempts - 1, 6);
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "inFlight", inFlight.size(),
+                "captured", captured.get(),
+                "retried", retried.get(),
+                "failed", failed.get());
+    }
+}
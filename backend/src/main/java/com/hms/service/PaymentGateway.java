@@ -0,0 +1,32 @@
+package com.hms.service;
+
+import java.math.BigDecimal;
+
+/**
+ * The card processor that captures authorized payments. Implementations are
+ * called from the capture workers, never on a request thread.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Captures an authorized amount and returns the gateway's id for the
+     * payment.
+     *
+     * The idempotency key is the same on every attempt for a payment, so
+     * retrying after a timeout must not capture twice.
+     *
+     * @param authorizationId the gateway's id from authorization, or null
+     * @throws CaptureDeclinedException if the capture can never succeed;
+     *                                  any other exception is retried
+     */
+    String capture(String authorizationId, BigDecimal amount, String idempotencyKey);
+
+    /** A permanent refusal, such as an expired or voided authorization. */
+    class CaptureDeclinedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CaptureDeclinedException(String message) {
+            super(message);
+        }
+    }
+}
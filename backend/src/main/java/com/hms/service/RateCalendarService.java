@@ -0,0 +1,310 @@
+package com.hms.service;
+
+import com.hms.model.RateCalendar;
+import com.hms.model.Room;
+import com.hms.repository.RateCalendarRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-date rate overrides and minimum-stay rules by room type.
+ *
+ * The table is mirrored in memory as one primitive array per room type,
+ * indexed by epoch day, so pricing a stay is a loop over a few array slots
+ * with no queries. Writes go to the database first and then replace the
+ * affected arrays (copy-on-write), so readers never need a lock.
+ */
+@Service
+public class RateCalendarService {
+
+    private static final long NO_OVERRIDE = -1;
+
+    @Autowired
+    private RateCalendarRepository rateCalendarRepository;
+
+    // Indexed by RoomType.ordinal(); null until first use
+    private volatile TypeCalendar[] calendars;
+
+    /** Immutable snapshot of the overrides for one room type. */
+    private static final class TypeCalendar {
+        final long firstDay;
+        final long[] priceCents;
+        final int[] minStayNights;
+
+        TypeCalendar(long firstDay, int length) {
+            this.firstDay = firstDay;
+            this.priceCents = new long[length];
+            this.minStayNights = new int[length];
+            java.util.Arrays.fill(priceCents, NO_OVERRIDE);
+        }
+
+        long lastDay() {
+            return firstDay + priceCents.length - 1;
+        }
+    }
+
+    /** Sum of the overridden nights in a stay, split by weekday and weekend. */
+    public static final class StayOverrides {
+        private final long priceCents;
+        private final int weekdayNights;
+        private final int weekendNights;
+
+        public StayOverrides(long priceCents, int weekdayNights, int weekendNights) {
+            this.priceCents = priceCents;
+            this.weekdayNights = weekdayNights;
+            this.weekendNights = weekendNights;
+        }
+
+        public long getPriceCents() {
+            return priceCents;
+        }
+
+        public int getWeekdayNights() {
+            return weekdayNights;
+        }
+
+        public int getWeekendNights() {
+            return weekendNights;
+        }
+    }
+
+    /**
+     * @return the overridden nights between checkIn and checkOut, or null when
+     *         every night uses the base rate
+     */
+    public StayOverrides findOverrides(Room.RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        if (type == null) {
+            return null;
+        }
+        TypeCalendar calendar = calendars()[type.ordinal()];
+        if (calendar == null) {
+            return null;
+        }
+        long from = Math.max(checkIn.toEpochDay(), calendar.firstDay);
+        long to = Math.min(checkOut.toEpochDay() - 1, calendar.lastDay());
+
+        long cents = 0;
+        int weekday = 0;
+        int weekend = 0;
+        for (long day = from; day <= to; day++) {
+            long price = calendar.priceCents[(int) (day - calendar.firstDay)];
+            if (price != NO_OVERRIDE) {
+                cents += price;
+                // Epoch day 0 was a Thursday, so Monday = 0 ... Friday = 4, Saturday = 5
+                long dayOfWeek = Math.floorMod(day + 3, 7);
+                if (dayOfWeek == 4 || dayOfWeek == 5) {
+                    weekend++;
+                } else {
+                    weekday++;
+                }
+            }
+        }
+        return weekday + weekend == 0 ? null : new StayOverrides(cents, weekday, weekend);
+    }
+
+    /**
+     * @return override price in cents for each night from checkIn up to
+     *         checkOut (-1 where the base rate applies), or null when no night
+     *         is overridden
+     */
+    public long[] getNightlyOverrides(Room.RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        if (type == null || !checkOut.isAfter(checkIn)) {
+            return null;
+        }
+        TypeCalendar calendar = calendars()[type.ordinal()];
+        if (calendar == null) {
+            return null;
+        }
+        long start = checkIn.toEpochDay();
+        long[] nightly = new long[(int) (checkOut.toEpochDay() - start)];
+        boolean any = false;
+        for (int i = 0; i < nightly.length; i++) {
+            long day = start + i;
+            nightly[i] = day < calendar.firstDay || day > calendar.lastDay() ? NO_OVERRIDE
+                    : calendar.priceCents[(int) (day - calendar.firstDay)];
+            any |= nightly[i] != NO_OVERRIDE;
+        }
+        return any ? nightly : null;
+    }
+
+    /**
+     * @return minimum nights for a stay of this room type arriving on the date,
+     *         or 0 when there is no rule
+     */
+    public int getMinimumStay(Room.RoomType type, LocalDate arrival) {
+        if (type == null) {
+            return 0;
+        }
+        TypeCalendar calendar = calendars()[type.ordinal()];
+        long day = arrival.toEpochDay();
+        if (calendar == null || day < calendar.firstDay || day > calendar.lastDay()) {
+            return 0;
+        }
+        return calendar.minStayNights[(int) (day - calendar.firstDay)];
+    }
+
+    public List<RateCalendar> getRates(Room.RoomType type, LocalDate startDate, LocalDate endDate) {
+        if (type == null) {
+            return rateCalendarRepository.findByStayDateBetweenOrderByStayDate(startDate, endDate);
+        }
+        return rateCalendarRepository.findByRoomTypeAndStayDateBetweenOrderByStayDate(type, startDate, endDate);
+    }
+
+    /**
+     * Sets the price and/or minimum stay for every date from startDate to
+     * endDate inclusive, e.g. a season or a single event day. Use
+     * deleteRates to return dates to the base rate.
+     */
+    public List<RateCalendar> upsertRates(Room.RoomType type, LocalDate startDate, LocalDate endDate,
+            BigDecimal price, Integer minStayNights, String label) {
+        validateRange(type, startDate, endDate);
+        if (price == null && minStayNights == null) {
+            throw new RuntimeException("Either price or minStayNights is required");
+        }
+        if (price != null && price.signum() < 0) {
+            throw new RuntimeException("Price cannot be negative");
+        }
+        if (minStayNights != null && minStayNights < 0) {
+            throw new RuntimeException("Minimum stay cannot be negative");
+        }
+
+        Map<LocalDate, RateCalendar> existing = new HashMap<>();
+        for (RateCalendar rate : rateCalendarRepository.findByRoomTypeAndStayDateBetweenOrderByStayDate(type,
+                startDate, endDate)) {
+            existing.put(rate.getStayDate(), rate);
+        }
+
+        List<RateCalendar> toSave = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            RateCalendar rate = existing.get(date);
+            if (rate == null) {
+                rate = new RateCalendar();
+                rate.setRoomType(type);
+                rate.setStayDate(date);
+            }
+            // Fields left out of the request keep their current value
+            if (price != null) {
+                rate.setPrice(price.setScale(2, RoundingMode.HALF_UP));
+            }
+            if (minStayNights != null) {
+                rate.setMinStayNights(minStayNights);
+            }
+            if (label != null) {
+                rate.setLabel(label);
+            }
+            toSave.add(rate);
+        }
+
+        List<RateCalendar> saved = rateCalendarRepository.saveAll(toSave);
+        applyRange(type, startDate, endDate, saved);
+        return saved;
+    }
+
+    public void deleteRates(Room.RoomType type, LocalDate startDate, LocalDate endDate) {
+        validateRange(type, startDate, endDate);
+        rateCalendarRepository.deleteAll(
+                rateCalendarRepository.findByRoomTypeAndStayDateBetweenOrderByStayDate(type, startDate, endDate));
+        applyRange(type, startDate, endDate, List.of());
+    }
+
+    /** Rebuilds the in-memory calendar from the database. */
+    public synchronized void reload() {
+        calendars = load();
+    }
+
+    private static void validateRange(Room.RoomType type, LocalDate startDate, LocalDate endDate) {
+        if (type == null || startDate == null || endDate == null) {
+            throw new RuntimeException("roomType, startDate and endDate are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("endDate must not be before startDate");
+        }
+        if (startDate.plusYears(5).isBefore(endDate)) {
+            throw new RuntimeException("Rate ranges are limited to 5 years");
+        }
+    }
+
+    private TypeCalendar[] calendars() {
+        TypeCalendar[] current = calendars;
+        if (current == null) {
+            synchronized (this) {
+                if (calendars == null) {
+                    calendars = load();
+                }
+                current = calendars;
+            }
+        }
+        return current;
+    }
+
+    private TypeCalendar[] load() {
+        Map<Room.RoomType, List<RateCalendar>> byType = new HashMap<>();
+        for (RateCalendar rate : rateCalendarRepository.findAll()) {
+            byType.computeIfAbsent(rate.getRoomType(), t -> new ArrayList<>()).add(rate);
+        }
+
+        TypeCalendar[] loaded = new TypeCalendar[Room.RoomType.values().length];
+        for (Map.Entry<Room.RoomType, List<RateCalendar>> entry : byType.entrySet()) {
+            long first = Long.MAX_VALUE;
+            long last = Long.MIN_VALUE;
+            for (RateCalendar rate : entry.getValue()) {
+                first = Math.min(first, rate.getStayDate().toEpochDay());
+                last = Math.max(last, rate.getStayDate().toEpochDay());
+            }
+            TypeCalendar calendar = new TypeCalendar(first, (int) (last - first + 1));
+            for (RateCalendar rate : entry.getValue()) {
+                set(calendar, rate);
+            }
+            loaded[entry.getKey().ordinal()] = calendar;
+        }
+        return loaded;
+    }
+
+    /**
+     * Replaces the days from startDate to endDate for one room type with the
+     * given rows, copying the array so readers keep a consistent snapshot.
+     */
+    private synchronized void applyRange(Room.RoomType type, LocalDate startDate, LocalDate endDate,
+            List<RateCalendar> rates) {
+        TypeCalendar[] current = calendars();
+        TypeCalendar old = current[type.ordinal()];
+
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+        long first = old == null ? start : Math.min(old.firstDay, start);
+        long last = old == null ? end : Math.max(old.lastDay(), end);
+
+        TypeCalendar updated = new TypeCalendar(first, (int) (last - first + 1));
+        if (old != null) {
+            int offset = (int) (old.firstDay - first);
+            System.arraycopy(old.priceCents, 0, updated.priceCents, offset, old.priceCents.length);
+            System.arraycopy(old.minStayNights, 0, updated.minStayNights, offset, old.minStayNights.length);
+        }
+        int from = (int) (start - first);
+        int to = (int) (end - first);
+        java.util.Arrays.fill(updated.priceCents, from, to + 1, NO_OVERRIDE);
+        java.util.Arrays.fill(updated.minStayNights, from, to + 1, 0);
+        for (RateCalendar rate : rates) {
+            set(updated, rate);
+        }
+
+        TypeCalendar[] next = current.clone();
+        next[type.ordinal()] = updated;
+        calendars = next;
+    }
+
+    private static void set(TypeCalendar calendar, RateCalendar rate) {
+        int index = (int) (rate.getStayDate().toEpochDay() - calendar.firstDay);
+        calendar.priceCents[index] = rate.getPrice() == null ? NO_OVERRIDE
+                : rate.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        calendar.minStayNights[index] = rate.getMinStayNights() == null ? 0 : rate.getMinStayNights();
+    }
+}
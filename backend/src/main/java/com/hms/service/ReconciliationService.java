@@ -0,0 +1,518 @@
+package com.hms.service;
+
+import com.hms.model.ReconciliationException;
+import com.hms.model.ReconciliationException.ExceptionType;
+import com.hms.model.ReconciliationRun;
+import com.hms.repository.ReconciliationExceptionRepository;
+import com.hms.repository.ReconciliationRunRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reconciles the gateway's daily settlement files against the payments table.
+ *
+ * Files named like settlement-2024-06-01.csv are dropped in the incoming
+ * directory. Each file and the payments captured or refunded on its date are
+ * joined on gateway reference with a {@link PartitionedHashJoin}: the file is
+ * read line by line and the payments through a forward-only cursor, both are
+ * spilled to partition files, and partitions are joined one at a time. Memory
+ * stays bounded however large the file is.
+ *
+ * Settled lines with no payment in the window (captured the day before, or
+ * identified only by invoice number) are looked up directly in batches.
+ * Whatever does not reconcile is written to reconciliation_exceptions.
+ * A capture made late in the day often settles in the next day's file, so
+ * when a later file settles a payment through that lookup, the NOT_SETTLED
+ * an earlier run raised for it is cleared and that run's count corrected.
+ * Processed files are moved to processed/, unreadable ones to failed/.
+ *
+ * The file needs a header row with an amount column and a reference or
+ * invoice_number column; type (CAPTURE or REFUND) is optional.
+ */
+@Service
+public class ReconciliationService {
+
+    private static final Pattern FILE_DATE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})");
+    private static final int BATCH_SIZE = 500;
+    private static final String CAPTURE = "CAPTURE";
+    private static final String REFUND = "REFUND";
+
+    @Autowired
+    private ReconciliationRunRepository runRepository;
+
+    @Autowired
+    private ReconciliationExceptionRepository exceptionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${hms.reconciliation.dir:data/settlements}")
+    private String directory = "data/settlements";
+
+    @Value("${hms.reconciliation.partitions:64}")
+    private int partitions = 64;
+
+    @Value("${hms.reconciliation.fetch-size:5000}")
+    private int fetchSize = 5000;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /** Reconciles every file waiting in the incoming directory, oldest name first. */
+    @Scheduled(cron = "${hms.reconciliation.cron:0 0 4 * * *}")
+    public List<ReconciliationRun> processIncoming() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("Reconciliation is already running");
+        }
+        try {
+            Path root = Paths.get(directory).toAbsolutePath().normalize();
+            Path incoming = root.resolve("incoming");
+            Files.createDirectories(incoming);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(incoming, "*.csv")) {
+                stream.forEach(files::add);
+            }
+            files.sort(null);
+
+            List<ReconciliationRun> runs = new ArrayList<>();
+            for (Path file : files) {
+                ReconciliationRun run = reconcile(file, root.resolve("tmp"));
+                Path target = root.resolve(run.getStatus() == ReconciliationRun.RunStatus.COMPLETED ? "processed" : "failed");
+                Files.createDirectories(target);
+                Files.move(file, target.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                runs.add(run);
+            }
+            return runs;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read settlement directory: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public List<ReconciliationRun> getRecentRuns() {
+        return runRepository.findTop30ByOrderByIdDesc();
+    }
+
+    public List<ReconciliationException> getExceptions(Long runId, int page, int size) {
+        if (!runRepository.existsById(runId)) {
+            throw new RuntimeException("Reconciliation run not found");
+        }
+        return exceptionRepository.findByRunIdOrderByIdAsc(runId, PageRequest.of(page, Math.min(size, 1000)));
+    }
+
+    ReconciliationRun reconcile(Path file, Path spillDirectory) {
+        String name = file.getFileName().toString();
+        Matcher matcher = FILE_DATE.matcher(name);
+        LocalDate date = matcher.find() ? LocalDate.parse(matcher.group(1)) : null;
+        ReconciliationRun run = runRepository.save(new ReconciliationRun(name, date));
+        Batches batches = new Batches(run.getId(), date);
+
+        try (PartitionedHashJoin join = new PartitionedHashJoin(spillDirectory, partitions)) {
+            if (date == null) {
+                throw new RuntimeException("No settlement date (yyyy-MM-dd) in file name");
+            }
+            run.setLines(spillSettlementFile(file, join, batches));
+            run.setPayments(spillPayments(date, join));
+            join.join((key, lines, payments) -> compare(key.substring(key.lastIndexOf('|') + 1), lines, payments,
+                    batches));
+            batches.flush();
+            run.setMatched(batches.matched);
+            run.setExceptions(batches.exceptions);
+            run.setStatus(ReconciliationRun.RunStatus.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            run.setStatus(ReconciliationRun.RunStatus.FAILED);
+            run.setError(e.getMessage());
+            run.setMatched(batches.matched);
+            run.setExceptions(batches.exceptions);
+            System.err.println("Reconciliation of " + name + " failed: " + e.getMessage());
+        }
+        run.setFinishedAt(LocalDateTime.now());
+        return runRepository.save(run);
+    }
+
+    // Left side: [line, reference, invoiceNumber, cents, type]
+    private long spillSettlementFile(Path file, PartitionedHashJoin join, Batches batches) throws IOException {
+        long lineNumber = 1;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return 0;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = parseCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            int amountColumn = columns.getOrDefault("amount", -1);
+            int referenceColumn = columns.getOrDefault("reference", -1);
+            int invoiceColumn = columns.getOrDefault("invoice_number", -1);
+            int typeColumn = columns.getOrDefault("type", -1);
+            if (amountColumn < 0 || (referenceColumn < 0 && invoiceColumn < 0)) {
+                throw new RuntimeException("Header must have amount and reference or invoice_number columns");
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = parseCsvLine(line);
+                String reference = blankToNull(field(fields, referenceColumn));
+                String invoice = blankToNull(field(fields, invoiceColumn));
+                String type = typeOf(field(fields, typeColumn));
+                Long cents = cents(field(fields, amountColumn));
+                if (cents == null || type == null || (reference == null && invoice == null)) {
+                    batches.exception(ExceptionType.INVALID_LINE, reference, invoice, null, lineNumber, null, null,
+                            cents == null ? "Invalid amount" : type == null ? "Unsupported type" : "No reference");
+                    continue;
+                }
+                String[] record = { Long.toString(lineNumber), reference, invoice, Long.toString(cents), type };
+                if (reference != null) {
+                    join.addLeft(reference + "|" + type, record);
+                } else {
+                    batches.lookUp(record);
+                }
+            }
+        }
+        return lineNumber - 1;
+    }
+
+    // Right side: [paymentId, invoiceNumber, cents]; one record per capture or refund in the window
+    private long spillPayments(LocalDate date, PartitionedHashJoin join) {
+        Timestamp from = Timestamp.valueOf(date.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(date.plusDays(1).atStartOfDay());
+        JdbcTemplate cursor = new JdbcTemplate(dataSource);
+        cursor.setFetchSize(fetchSize);
+        long[] count = new long[1];
+
+        // PostgreSQL only streams with a fetch size inside a transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> cursor.query(
+                "SELECT id, stripe_payment_intent_id, invoice_number, amount, refund_amount, status, "
+                        + "COALESCE(captured_at, payment_date) AS settled_at, refund_date FROM payments "
+                        + "WHERE stripe_payment_intent_id IS NOT NULL AND ("
+                        + "(status IN ('CAPTURED', 'PAID', 'REFUNDED') AND COALESCE(captured_at, payment_date) >= ? "
+                        + "AND COALESCE(captured_at, payment_date) < ?) "
+                        + "OR (refund_amount > 0 AND refund_date >= ? AND refund_date < ?))",
+                rs -> {
+                    String id = Long.toString(rs.getLong("id"));
+                    String reference = rs.getString("stripe_payment_intent_id");
+                    String invoice = rs.getString("invoice_number");
+                    Timestamp settledAt = rs.getTimestamp("settled_at");
+                    Timestamp refundedAt = rs.getTimestamp("refund_date");
+                    try {
+                        if (settledAt != null && !settledAt.before(from) && settledAt.before(to)
+                                && !"AUTHORIZED".equals(rs.getString("status"))) {
+                            join.addRight(reference + "|" + CAPTURE, id, invoice, Long.toString(cents(rs.getBigDecimal("amount"))));
+                            count[0]++;
+                        }
+                        if (refundedAt != null && !refundedAt.before(from) && refundedAt.before(to)) {
+                            join.addRight(reference + "|" + REFUND, id, invoice,
+                                    Long.toString(cents(rs.getBigDecimal("refund_amount"))));
+                            count[0]++;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, from, to, from, to));
+        return count[0];
+    }
+
+    private void compare(String type, List<String[]> lines, List<String[]> payments, Batches batches) {
+        if (payments.size() > 1) {
+            String[] first = payments.get(0);
+            batches.exception(ExceptionType.DUPLICATE_PAYMENT, null, first[1], Long.valueOf(first[0]), null, null,
+                    null, payments.size() + " payments share this reference");
+        }
+        for (int i = 1; i < lines.size(); i++) {
+            String[] line = lines.get(i);
+            batches.exception(ExceptionType.DUPLICATE_SETTLEMENT, line[1], line[2], null, Long.valueOf(line[0]), null,
+                    Long.valueOf(line[3]), "Settled more than once");
+        }
+        if (lines.isEmpty()) {
+            for (String[] payment : payments) {
+                batches.exception(ExceptionType.NOT_SETTLED, null, payment[1], Long.valueOf(payment[0]), null,
+                        Long.valueOf(payment[2]), null, notSettled(type));
+            }
+        } else if (payments.isEmpty()) {
+            batches.lookUp(lines.get(0));
+        } else {
+            String[] line = lines.get(0);
+            String[] payment = payments.get(0);
+            batches.match(line, Long.valueOf(payment[0]), payment[1], Long.parseLong(payment[2]));
+        }
+    }
+
+    private static String notSettled(String type) {
+        return type + " not in settlement file";
+    }
+
+    /** Buffers exception rows and fallback lookups, flushing every BATCH_SIZE. */
+    private final class Batches {
+        private final Long runId;
+        private final LocalDate date;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        private final List<String[]> lookups = new ArrayList<>(BATCH_SIZE);
+        private long matched;
+        private long exceptions;
+
+        Batches(Long runId, LocalDate date) {
+            this.runId = runId;
+            this.date = date;
+        }
+
+        boolean match(String[] line, Long paymentId, String invoice, long expectedCents) {
+            long settledCents = Long.parseLong(line[3]);
+            if (settledCents == expectedCents) {
+                matched++;
+                return true;
+            }
+            exception(ExceptionType.AMOUNT_MISMATCH, line[1], line[2] != null ? line[2] : invoice, paymentId,
+                    Long.valueOf(line[0]), expectedCents, settledCents, line[4] + " amount differs");
+            return false;
+        }
+
+        void exception(ExceptionType type, String reference, String invoice, Long paymentId, Long lineNumber,
+                Long expectedCents, Long settledCents, String detail) {
+            rows.add(new Object[] { runId, type.name(), limit(reference), limit(invoice), paymentId, lineNumber,
+                    toAmount(expectedCents), toAmount(settledCents), detail, Timestamp.valueOf(LocalDateTime.now()) });
+            exceptions++;
+            if (rows.size() >= BATCH_SIZE) {
+                writeExceptions();
+            }
+        }
+
+        void lookUp(String[] line) {
+            lookups.add(line);
+            if (lookups.size() >= BATCH_SIZE) {
+                resolveLookups();
+            }
+        }
+
+        void flush() {
+            resolveLookups();
+            writeExceptions();
+        }
+
+        // Settled lines that did not meet a payment in the window
+        private void resolveLookups() {
+            if (lookups.isEmpty()) {
+                return;
+            }
+            List<String> references = new ArrayList<>();
+            List<String> invoices = new ArrayList<>();
+            for (String[] line : lookups) {
+                if (line[1] != null) {
+                    references.add(line[1]);
+                } else {
+                    invoices.add(line[2]);
+                }
+            }
+            // IN () is not valid SQL, so an empty list becomes one value that matches nothing
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("references", references.isEmpty() ? List.of("") : references)
+                    .addValue("invoices", invoices.isEmpty() ? List.of("") : invoices);
+            Map<String, Object[]> byReference = new HashMap<>();
+            Map<String, Object[]> byInvoice = new HashMap<>();
+            namedJdbcTemplate.query("SELECT id, stripe_payment_intent_id, invoice_number, amount, refund_amount, status "
+                    + "FROM payments WHERE stripe_payment_intent_id IN (:references) OR invoice_number IN (:invoices)",
+                    params, rs -> {
+                        Object[] payment = { rs.getLong("id"), rs.getString("invoice_number"),
+                                rs.getBigDecimal("amount"), rs.getBigDecimal("refund_amount"), rs.getString("status") };
+                        if (rs.getString("stripe_payment_intent_id") != null) {
+                            byReference.put(rs.getString("stripe_payment_intent_id"), payment);
+                        }
+                        if (rs.getString("invoice_number") != null) {
+                            byInvoice.put(rs.getString("invoice_number"), payment);
+                        }
+                    });
+
+            List<Long> captures = new ArrayList<>();
+            List<Long> refunds = new ArrayList<>();
+            for (String[] line : lookups) {
+                Object[] payment = line[1] != null ? byReference.get(line[1]) : byInvoice.get(line[2]);
+                if (payment == null) {
+                    exception(ExceptionType.UNKNOWN_PAYMENT, line[1], line[2], null, Long.valueOf(line[0]), null,
+                            Long.valueOf(line[3]), "No payment with this " + (line[1] != null ? "reference" : "invoice number"));
+                    continue;
+                }
+                String status = (String) payment[4];
+                if (!"CAPTURED".equals(status) && !"PAID".equals(status) && !"REFUNDED".equals(status)) {
+                    exception(ExceptionType.STATUS_MISMATCH, line[1], line[2], (Long) payment[0],
+                            Long.valueOf(line[0]), null, Long.valueOf(line[3]), "Settled but payment is " + status);
+                    continue;
+                }
+                BigDecimal expected = (BigDecimal) (REFUND.equals(line[4]) ? payment[3] : payment[2]);
+                if (match(line, (Long) payment[0], (String) payment[1], cents(expected))) {
+                    (REFUND.equals(line[4]) ? refunds : captures).add((Long) payment[0]);
+                }
+            }
+            lookups.clear();
+            clearSettledLate(captures, refunds);
+        }
+
+        // Payments an earlier day's run reported NOT_SETTLED that this file has now settled
+        private void clearSettledLate(List<Long> captures, List<Long> refunds) {
+            if (captures.isEmpty() && refunds.isEmpty()) {
+                return;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("runId", runId)
+                    .addValue("date", date)
+                    .addValue("captures", captures.isEmpty() ? List.of(-1L) : captures)
+                    .addValue("refunds", refunds.isEmpty() ? List.of(-1L) : refunds)
+                    .addValue("captureDetail", notSettled(CAPTURE))
+                    .addValue("refundDetail", notSettled(REFUND));
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                List<Long> ids = new ArrayList<>();
+                Map<Long, Long> clearedByRun = new HashMap<>();
+                namedJdbcTemplate.query("SELECT e.id, e.run_id FROM reconciliation_exceptions e "
+                        + "JOIN reconciliation_runs r ON r.id = e.run_id "
+                        + "WHERE e.type = 'NOT_SETTLED' AND e.run_id <> :runId AND r.settlement_date < :date "
+                        + "AND ((e.payment_id IN (:captures) AND e.detail = :captureDetail) "
+                        + "OR (e.payment_id IN (:refunds) AND e.detail = :refundDetail))",
+                        params, rs -> {
+                            ids.add(rs.getLong("id"));
+                            clearedByRun.merge(rs.getLong("run_id"), 1L, Long::sum);
+                        });
+                if (ids.isEmpty()) {
+                    return;
+                }
+                namedJdbcTemplate.update("DELETE FROM reconciliation_exceptions WHERE id IN (:ids)",
+                        new MapSqlParameterSource("ids", ids));
+                clearedByRun.forEach((earlierRun, cleared) -> jdbcTemplate.update(
+                        "UPDATE reconciliation_runs SET exceptions = exceptions - ? WHERE id = ?", cleared, earlierRun));
+            });
+        }
+
+        private void writeExceptions() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO reconciliation_exceptions (run_id, type, reference, invoice_number, "
+                    + "payment_id, line_number, expected_amount, settled_amount, detail, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            rows.clear();
+        }
+    }
+
+    private static String typeOf(String value) {
+        if (value == null || value.isBlank()) {
+            return CAPTURE;
+        }
+        switch (value.trim().toUpperCase(Locale.ROOT)) {
+            case "CAPTURE", "CHARGE", "PAYMENT", "SALE":
+                return CAPTURE;
+            case "REFUND":
+                return REFUND;
+            default:
+                return null;
+        }
+    }
+
+    // Refund lines may be signed negative in the file; amounts are compared unsigned
+    private static Long cents(String amount) {
+        if (amount == null || amount.isBlank()) {
+            return null;
+        }
+        try {
+            return cents(new BigDecimal(amount.trim().replace("$", "")).abs());
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static BigDecimal toAmount(Long cents) {
+        return cents == null ? null : BigDecimal.valueOf(cents, 2);
+    }
+
+    private static String limit(String value) {
+        return value != null && value.length() > 255 ? value.substring(0, 255) : value;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index >= 0 && index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /** Splits one CSV line; handles quoted fields with commas and doubled quotes. */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
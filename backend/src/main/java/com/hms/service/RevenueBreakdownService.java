@@ -0,0 +1,257 @@
+package com.hms.service;
+
+import com.hms.model.Payment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revenue, refunds and net by payment method and day, week or month, with a
+ * subtotal per period, per method and overall.
+ *
+ * The period rows and their subtotals come from one GROUPING SETS query over
+ * payments (revenue on the payment date, refunds on the refund date). A
+ * period that ended before today is closed: it is cached with no expiry and
+ * only dropped if a payment or refund dated inside it changes (through the
+ * Payment entity listener, or by {@link PaymentCaptureService} for its bulk
+ * capture update). So a long range only queries the periods not already
+ * cached, normally just the open ones at the end. The method and overall
+ * totals are summed from the period rows, since they depend on the
+ * requested range.
+ */
+@Service
+public class RevenueBreakdownService {
+
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+
+    private static final int MAX_PERIODS = 1500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${hms.reports.revenue.cache-size:20000}")
+    private int maxCachedPeriods = 20000;
+
+    private final Map<String, Period> closedPeriods = new ConcurrentHashMap<>();
+    // Bumped by every eviction; results computed across one are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    public Map<String, Object> getBreakdown(LocalDate from, LocalDate to, Granularity granularity) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new RuntimeException("The to date must not be before the from date");
+        }
+        LocalDate first = periodStart(from, granularity);
+        LocalDate end = next(periodStart(to, granularity), granularity);
+        LocalDate today = LocalDate.now();
+
+        TreeMap<LocalDate, Period> periods = new TreeMap<>();
+        LocalDate missingFrom = null;
+        LocalDate missingTo = null;
+        for (LocalDate start = first; start.isBefore(end); start = next(start, granularity)) {
+            if (periods.size() >= MAX_PERIODS) {
+                throw new RuntimeException("At most " + MAX_PERIODS + " periods per request; use a coarser granularity");
+            }
+            Period cached = closedPeriods.get(key(granularity, start));
+            if (cached != null) {
+                periods.put(start, cached);
+            } else {
+                if (missingFrom == null) {
+                    missingFrom = start;
+                }
+                missingTo = next(start, granularity);
+            }
+        }
+
+        if (missingFrom != null) {
+            long generationBefore = generation.get();
+            Map<LocalDate, Period> loaded = query(missingFrom, missingTo, granularity);
+            for (LocalDate start = missingFrom; start.isBefore(missingTo); start = next(start, granularity)) {
+                Period period = loaded.getOrDefault(start, new Period());
+                periods.putIfAbsent(start, period);
+                if (!next(start, granularity).isAfter(today) && generation.get() == generationBefore) {
+                    if (closedPeriods.size() >= maxCachedPeriods) {
+                        closedPeriods.clear();
+                    }
+                    closedPeriods.put(key(granularity, start), period);
+                }
+            }
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(periods.size());
+        Map<String, Amounts> byMethod = new TreeMap<>();
+        Amounts total = new Amounts();
+        periods.forEach((start, period) -> {
+            List<Map<String, Object>> methods = new ArrayList<>();
+            period.methods.forEach((method, amounts) -> {
+                methods.add(amounts.toMap("method", method));
+                byMethod.computeIfAbsent(method, m -> new Amounts()).add(amounts);
+            });
+            total.add(period.subtotal);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("period", start.toString());
+            row.put("closed", !next(start, granularity).isAfter(today));
+            row.put("methods", methods);
+            row.put("subtotal", period.subtotal.toMap(null, null));
+            rows.add(row);
+        });
+
+        List<Map<String, Object>> methodTotals = new ArrayList<>();
+        byMethod.forEach((method, amounts) -> methodTotals.add(amounts.toMap("method", method)));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("from", first.toString());
+        result.put("to", end.minusDays(1).toString());
+        result.put("granularity", granularity.name());
+        result.put("periods", rows);
+        result.put("byMethod", methodTotals);
+        result.put("total", total.toMap(null, null));
+        return result;
+    }
+
+    /**
+     * Drops the cached periods containing the dates a changed payment was
+     * recorded on. Null dates are ignored.
+     */
+    public void evict(LocalDate... dates) {
+        generation.incrementAndGet();
+        for (LocalDate date : dates) {
+            if (date != null) {
+                for (Granularity granularity : Granularity.values()) {
+                    closedPeriods.remove(key(granularity, periodStart(date, granularity)));
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return Map.of("cachedPeriods", closedPeriods.size(), "evictions", generation.get());
+    }
+
+    private Map<LocalDate, Period> query(LocalDate from, LocalDate to, Granularity granularity) {
+        // The unit is spliced in from the enum: a bind parameter in date_trunc
+        // would not match the GROUP BY expression
+        String unit = granularity.name().toLowerCase();
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+        String sql = "SELECT t.period, t.method, GROUPING(t.method) AS rollup, SUM(t.payments) AS payments, "
+                + "SUM(t.refunds) AS refunds, SUM(t.revenue) AS revenue, SUM(t.refunded) AS refunded "
+                + "FROM ("
+                + "SELECT date_trunc('" + unit + "', p.payment_date) AS period, p.method, 1 AS payments, "
+                + "0 AS refunds, COALESCE(p.amount, 0) AS revenue, 0 AS refunded FROM payments p "
+                + "WHERE p.payment_date >= ? AND p.payment_date < ? AND p.status IN ('PAID', 'CAPTURED', 'REFUNDED') "
+                + "UNION ALL "
+                + "SELECT date_trunc('" + unit + "', p.refund_date), p.method, 0, 1, 0, p.refund_amount "
+                + "FROM payments p WHERE p.refund_date >= ? AND p.refund_date < ? AND p.refund_amount > 0"
+                + ") t GROUP BY GROUPING SETS ((t.period, t.method), (t.period))";
+
+        Map<LocalDate, Period> periods = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            LocalDate period = rs.getTimestamp("period").toLocalDateTime().toLocalDate();
+            Amounts amounts = new Amounts(rs.getLong("payments"), rs.getLong("refunds"),
+                    rs.getBigDecimal("revenue"), rs.getBigDecimal("refunded"));
+            Period target = periods.computeIfAbsent(period, p -> new Period());
+            if (rs.getInt("rollup") == 1) {
+                target.subtotal = amounts;
+            } else {
+                String method = rs.getString("method");
+                target.methods.put(method != null ? method : "UNKNOWN", amounts);
+            }
+        }, start, end, start, end);
+        return periods;
+    }
+
+    static LocalDate periodStart(LocalDate date, Granularity granularity) {
+        switch (granularity) {
+            case WEEK:
+                // date_trunc('week') starts weeks on Monday
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    private static LocalDate next(LocalDate periodStart, Granularity granularity) {
+        switch (granularity) {
+            case WEEK:
+                return periodStart.plusWeeks(1);
+            case MONTH:
+                return periodStart.plusMonths(1);
+            default:
+                return periodStart.plusDays(1);
+        }
+    }
+
+    private static String key(Granularity granularity, LocalDate start) {
+        return granularity.name() + ":" + start;
+    }
+
+    /** One period's rows; method order follows the enum. */
+    private static final class Period {
+        final Map<String, Amounts> methods = new TreeMap<>((a, b) -> Integer.compare(order(a), order(b)));
+        Amounts subtotal = new Amounts();
+
+        private static int order(String method) {
+            try {
+                return Payment.PaymentMethod.valueOf(method).ordinal();
+            } catch (IllegalArgumentException e) {
+                return Integer.MAX_VALUE;
+            }
+        }
+    }
+
+    private static final class Amounts {
+        long payments;
+        long refunds;
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal refunded = BigDecimal.ZERO;
+
+        Amounts() {
+        }
+
+        Amounts(long payments, long refunds, BigDecimal revenue, BigDecimal refunded) {
+            this.payments = payments;
+            this.refunds = refunds;
+            this.revenue = revenue != null ? revenue : BigDecimal.ZERO;
+            this.refunded = refunded != null ? refunded : BigDecimal.ZERO;
+        }
+
+        void add(Amounts other) {
+            payments += other.payments;
+            refunds += other.refunds;
+            revenue = revenue.add(other.revenue);
+            refunded = refunded.add(other.refunded);
+        }
+
+        Map<String, Object> toMap(String labelKey, String label) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            if (labelKey != null) {
+                map.put(labelKey, label);
+            }
+            map.put("payments", payments);
+            map.put("refunds", refunds);
+            map.put("revenue", revenue);
+            map.put("refunded", refunded);
+            map.put("net", revenue.subtract(refunded));
+            return map;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.hms.service;
+
+import com.hms.model.Room;
+import com.hms.model.RoomHold;
+import com.hms.repository.BookingRepository;
+import com.hms.repository.RoomHoldRepository;
+import com.hms.repository.RoomRepository;
+import com.hms.util.HashedTimingWheel;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived room holds between availability search and booking.
+ *
+ * Holds are kept in memory and expire through a hashed timing wheel, so
+ * thousands of concurrent holds cost one ticker thread rather than one
+ * scheduled task each. With hms.holds.mirror=true every hold is also
+ * written to the room_holds table and restored on startup.
+ */
+@Service
+public class RoomHoldService {
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomHoldRepository roomHoldRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${hms.holds.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${hms.holds.mirror:false}")
+    private boolean mirror;
+
+    private final HashedTimingWheel wheel = new HashedTimingWheel("room-hold-expiry", 100, TimeUnit.MILLISECONDS,
+            1024);
+
+    // Mirror writes for expired holds run here so they never block the wheel
+    private final ExecutorService mirrorExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "room-hold-mirror");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, RoomHold> holdsById = new ConcurrentHashMap<>();
+
+    // Per-room lists are replaced, never modified, so readers need no lock
+    private final Map<Long, List<RoomHold>> holdsByRoom = new ConcurrentHashMap<>();
+
+    /**
+     * Holds the room for the dates if it is available and not already held.
+     *
+     * @return the hold, whose holdId is passed to createBooking
+     */
+    public RoomHold placeHold(Long roomId, LocalDate checkIn, LocalDate checkOut, String heldBy) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            throw new RuntimeException("Check-out date must be after check-in date");
+        }
+        // Takes the same room lock as createBooking and keeps it until the hold is
+        // visible, so a booking either sees the hold or is committed before the check
+        RoomHold hold = new TransactionTemplate(transactionManager).execute(status -> {
+            Room room = roomRepository.findByIdForUpdate(roomId)
+                    .orElseThrow(() -> new RuntimeException("Room not found"));
+            if (room.getStatus() == Room.RoomStatus.MAINTENANCE) {
+                throw new RuntimeException("Room is under maintenance");
+            }
+            if (!bookingRepository.findBookingsInDateRange(roomId, checkIn, checkOut).isEmpty()) {
+                throw new RuntimeException("Room is already booked for the selected dates");
+            }
+            return addHold(roomId, checkIn, checkOut, heldBy);
+        });
+
+        if (mirror) {
+            try {
+                roomHoldRepository.save(hold);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to mirror room hold " + hold.getHoldId() + ": " + e.getMessage());
+            }
+        }
+        return hold;
+    }
+
+    public RoomHold getHold(String holdId) {
+        RoomHold hold = holdsById.get(holdId);
+        if (hold == null) {
+            throw new RuntimeException("Hold not found or expired");
+        }
+        return hold;
+    }
+
+    /** Releases a hold early, e.g. when the booking form is closed. */
+    public void releaseHold(String holdId) {
+        RoomHold hold = remove(holdId);
+        if (hold == null) {
+            throw new RuntimeException("Hold not found or expired");
+        }
+        hold.getExpiry().cancel();
+        deleteMirror(holdId);
+    }
+
+    /** Drops a hold once its booking is saved; a hold that just expired is ignored. */
+    public void redeemHold(String holdId) {
+        RoomHold hold = remove(holdId);
+        if (hold != null) {
+            hold.getExpiry().cancel();
+            deleteMirror(holdId);
+        }
+    }
+
+    /**
+     * Fails unless the room is free of holds for the dates, other than the
+     * caller's own hold.
+     *
+     * @param holdId the caller's hold, or null
+     */
+    public void checkNotHeld(Long roomId, LocalDate checkIn, LocalDate checkOut, String holdId) {
+        if (holdId != null) {
+            RoomHold own = getHold(holdId);
+            if (!own.getRoomId().equals(roomId) || checkIn.isBefore(own.getCheckInDate())
+                    || checkOut.isAfter(own.getCheckOutDate())) {
+                throw new RuntimeException("Hold does not cover this room and dates");
+            }
+        }
+        for (RoomHold hold : holdsByRoom.getOrDefault(roomId, List.of())) {
+            if (!hold.getHoldId().equals(holdId) && hold.overlaps(checkIn, checkOut)) {
+                throw new RuntimeException("Room is held by another booking in progress");
+            }
+        }
+    }
+
+    public boolean isHeld(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        for (RoomHold hold : holdsByRoom.getOrDefault(roomId, List.of())) {
+            if (hold.overlaps(checkIn, checkOut)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Rooms with a hold overlapping the dates, for checking many rooms at once. */
+    public Set<Long> getHeldRoomIds(LocalDate checkIn, LocalDate checkOut) {
+        Set<Long> held = new HashSet<>();
+        for (Map.Entry<Long, List<RoomHold>> entry : holdsByRoom.entrySet()) {
+            for (RoomHold hold : entry.getValue()) {
+                if (hold.overlaps(checkIn, checkOut)) {
+                    held.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return held;
+    }
+
+    public Collection<RoomHold> getActiveHolds() {
+        return holdsById.values();
+    }
+
+    public int getActiveHoldCount() {
+        return holdsById.size();
+    }
+
+    /** Restores unexpired holds from the mirror after a restart. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreMirroredHolds() {
+        if (!mirror) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            roomHoldRepository.deleteByExpiresAtBefore(now);
+            for (RoomHold hold : roomHoldRepository.findByExpiresAtAfter(now)) {
+                holdsByRoom.merge(hold.getRoomId(), List.of(hold), (a, b) -> {
+                    List<RoomHold> merged = new ArrayList<>(a);
+                    merged.addAll(b);
+                    return List.copyOf(merged);
+                });
+                holdsById.put(hold.getHoldId(), hold);
+                long remaining = Math.max(0, Duration.between(now, hold.getExpiresAt()).toMillis());
+                hold.setExpiry(wheel.schedule(() -> expire(hold.getHoldId()), remaining, TimeUnit.MILLISECONDS));
+            }
+            System.out.println("Restored " + holdsById.size() + " room holds from the database.");
+        } catch (RuntimeException e) {
+            System.err.println("Failed to restore room holds: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+        mirrorExecutor.shutdown();
+    }
+
+    // Runs on the timing wheel thread
+    private void expire(String holdId) {
+        if (remove(holdId) != null) {
+            deleteMirror(holdId);
+        }
+    }
+
+    private RoomHold addHold(Long roomId, LocalDate checkIn, LocalDate checkOut, String heldBy) {
+        RoomHold hold = new RoomHold(UUID.randomUUID().toString(), roomId, checkIn, checkOut, heldBy,
+                LocalDateTime.now().plusSeconds(ttlSeconds));
+
+        hold.setExpiry(wheel.schedule(() -> expire(hold.getHoldId()), ttlSeconds, TimeUnit.SECONDS));
+        holdsById.put(hold.getHoldId(), hold);
+
+        // Check and insert atomically for the room
+        try {
+            holdsByRoom.compute(roomId, (id, current) -> {
+                List<RoomHold> holds = current == null ? new ArrayList<>() : new ArrayList<>(current);
+                for (RoomHold existing : holds) {
+                    if (existing.overlaps(checkIn, checkOut)) {
+                        throw new RuntimeException("Room is held by another booking in progress");
+                    }
+                }
+                holds.add(hold);
+                return List.copyOf(holds);
+            });
+        } catch (RuntimeException e) {
+            holdsById.remove(hold.getHoldId());
+            hold.getExpiry().cancel();
+            throw e;
+        }
+        return hold;
+    }
+
+    private RoomHold remove(String holdId) {
+        RoomHold hold = holdsById.remove(holdId);
+        if (hold != null) {
+            holdsByRoom.computeIfPresent(hold.getRoomId(), (id, current) -> {
+                List<RoomHold> remaining = new ArrayList<>(current);
+                remaining.removeIf(h -> h.getHoldId().equals(holdId));
+                return remaining.isEmpty() ? null : List.copyOf(remaining);
+            });
+        }
+        return hold;
+    }
+
+    private void deleteMirror(String holdId) {
+        if (!mirror) {
+            return;
+        }
+        mirrorExecutor.execute(() -> {
+            try {
+                roomHoldRepository.deleteById(holdId);
+            } catch (RuntimeException e) {
+                System.err.println("Failed to delete mirrored room hold " + holdId + ": " + e.getMessage());
+            }
+        });
+    }
+}
@@ -1,10 +1,24 @@
 package com.hms.service;
 
+import com.hms.config.RetryOnConflict;
+import com.hms.model.HotelEvent;
 import com.hms.model.Room;
+import com.hms.model.TaxConfiguration;
 import com.hms.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class RoomService {
@@ -15,6 +29,21 @@ public class RoomService {
     @Autowired
     private com.hms.repository.BookingRepository bookingRepository;
 
+    @Autowired
+    private StayPricingEngine stayPricingEngine;
+
+    @Autowired
+    private RateCalendarService rateCalendarService;
+
+    @Autowired
+    private TaxCalculationService taxCalculationService;
+
+    @Autowired
+    private RoomHoldService roomHoldService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public List<Room> getAllRooms() {
         return roomRepository.findAll();
     }
@@ -30,14 +59,24 @@ public class RoomService {
         return roomRepository.save(room);
     }
 
+    @RetryOnConflict
+    @Transactional
     public Room updateRoom(Long id, Room roomDetails) {
         Room room = getRoomById(id);
+        if (roomDetails.getVersion() != null && !roomDetails.getVersion().equals(room.getVersion())) {
+            throw new RuntimeException("Room was updated by someone else. Reload and try again.");
+        }
+        Room.RoomStatus previousStatus = room.getStatus();
         room.setRoomNumber(roomDetails.getRoomNumber());
         room.setType(roomDetails.getType());
         room.setPrice(roomDetails.getPrice());
         room.setStatus(roomDetails.getStatus());
         room.setDescription(roomDetails.getDescription());
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        if (saved.getStatus() != previousStatus) {
+            eventPublisher.publishEvent(HotelEvent.roomStatusChanged(saved, previousStatus));
+        }
+        return saved;
     }
 
     public void deleteRoom(Long id) {
@@ -46,8 +85,8 @@ public class RoomService {
 
     /**
      * Finds available rooms for a given date range and optional room type.
-     * Checks if the room is currently available (status) and not booked during the
-     * requested dates.
+     * Checks if the room is currently available (status) and not booked or held
+     * during the requested dates.
      *
      * @param checkIn  Desired check-in date
      * @param checkOut Desired check-out date
@@ -70,11 +109,89 @@ public class RoomService {
                         return false;
                     }
 
-                    // 3. Check for booking conflicts
+                    // 3. Skip rooms held by a booking in progress
+                    if (roomHoldService.isHeld(room.getId(), checkIn, checkOut)) {
+                        return false;
+                    }
+
+                    // 4. Check for booking conflicts
                     List<com.hms.model.Booking> conflicts = bookingRepository.findBookingsInDateRange(room.getId(),
                             checkIn, checkOut);
                     return conflicts.isEmpty();
                 })
                 .collect(java.util.stream.Collectors.toList());
     }
+
+    /**
+     * Available rooms with the stay already priced, so the booking form needs
+     * a single request. Conflicts and holds are checked once for all rooms,
+     * the tax configuration is resolved once, and rooms sharing a type and
+     * rate reuse the same quote.
+     *
+     * @param stateCode Optional tax jurisdiction; taxes are zero when omitted
+     * @return One entry per room: room, nights, nightlyRates, subtotal,
+     *         averageNightlyRate, taxes and grandTotal
+     */
+    public List<Map<String, Object>> findAvailableRoomsPriced(LocalDate checkIn, LocalDate checkOut,
+            Room.RoomType type, String stateCode, String county, String city) {
+        if (!checkOut.isAfter(checkIn)) {
+            throw new RuntimeException("Check-out date must be after check-in date");
+        }
+
+        List<Room> candidates = type == null ? roomRepository.findAll() : roomRepository.findByType(type);
+        Set<Long> bookedRoomIds = new HashSet<>(bookingRepository.findBookedRoomIdsInDateRange(checkIn, checkOut));
+        bookedRoomIds.addAll(roomHoldService.getHeldRoomIds(checkIn, checkOut));
+        TaxConfiguration taxConfig = taxCalculationService.resolveConfiguration(stateCode, county, city);
+
+        Map<String, Map<String, Object>> quotes = new HashMap<>();
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Room room : candidates) {
+            if (room.getStatus() != Room.RoomStatus.AVAILABLE || bookedRoomIds.contains(room.getId())) {
+                continue;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("room", room);
+            if (room.getPrice() != null) {
+                result.putAll(quotes.computeIfAbsent(room.getType() + ":" + room.getPrice(),
+                        key -> quoteStay(room.getType(), room.getPrice(), checkIn, checkOut, taxConfig)));
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private Map<String, Object> quoteStay(Room.RoomType type, BigDecimal price, LocalDate checkIn,
+            LocalDate checkOut, TaxConfiguration taxConfig) {
+        long[] overrides = rateCalendarService.getNightlyOverrides(type, checkIn, checkOut);
+        BigDecimal weekendPrice = price.multiply(new BigDecimal("1.20"));
+
+        List<Map<String, Object>> nightlyRates = new ArrayList<>();
+        int night = 0;
+        for (LocalDate date = checkIn; date.isBefore(checkOut); date = date.plusDays(1), night++) {
+            boolean weekend = date.getDayOfWeek() == java.time.DayOfWeek.FRIDAY
+                    || date.getDayOfWeek() == java.time.DayOfWeek.SATURDAY;
+            boolean overridden = overrides != null && overrides[night] >= 0;
+
+            Map<String, Object> rate = new LinkedHashMap<>();
+            rate.put("date", date);
+            rate.put("amount", overridden ? BigDecimal.valueOf(overrides[night], 2) : weekend ? weekendPrice : price);
+            rate.put("weekend", weekend);
+            rate.put("override", overridden);
+            nightlyRates.add(rate);
+        }
+
+        BigDecimal subtotal = stayPricingEngine.calculateStayPrice(price, checkIn, checkOut,
+                rateCalendarService.findOverrides(type, checkIn, checkOut));
+        Map<String, BigDecimal> taxes = taxCalculationService.calculateTaxes(subtotal, taxConfig);
+
+        Map<String, Object> quote = new LinkedHashMap<>();
+        quote.put("nights", nightlyRates.size());
+        quote.put("nightlyRates", nightlyRates);
+        quote.put("subtotal", subtotal);
+        quote.put("averageNightlyRate", subtotal.divide(BigDecimal.valueOf(nightlyRates.size()), 2,
+                RoundingMode.HALF_UP));
+        quote.put("taxes", taxes);
+        quote.put("grandTotal", taxes.get("grandTotal"));
+        return quote;
+    }
 }
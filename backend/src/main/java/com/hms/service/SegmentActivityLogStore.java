@@ -0,0 +1,498 @@
+package com.hms.service;
+
+import com.hms.model.ActivityEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the audit trail in append-only segment files instead of a table, so
+ * logging an action costs a queue offer rather than a user lookup and an
+ * INSERT inside the caller's transaction.
+ *
+ * Callers encode the record and hand it to a single writer thread, which
+ * appends it to the active segment, a preallocated memory-mapped file
+ * (format in {@link ActivityLogSegments}), and forces it to disk every
+ * flush-ms. Inside a transaction the record is only queued once the caller
+ * commits, so a rolled-back action leaves no entry, just as the INSERT it
+ * replaces would have rolled back; the timestamp is still the time of the
+ * call. A full segment is sealed and a new one started. Timestamps never
+ * go backwards within the log, and each segment is named
+ * segment-&lt;sequence&gt;-&lt;first epoch millis&gt;, which is the time index a
+ * range query uses to pick segments. Sealed segments are gzipped once they
+ * have been cold for compress-after-minutes, and dropped after retention-days.
+ *
+ * With bulk-load enabled, sealed segments are also copied into activity_logs
+ * off peak, one transaction per segment; entries whose email matches no user
+ * are skipped, as they always were.
+ *
+ * On startup the last segment is scanned and writing resumes after its last
+ * intact record, so a crash loses at most the records not yet forced.
+ */
+@Component
+@ConditionalOnProperty(name = "hms.activity-log.store", havingValue = "segment")
+public class SegmentActivityLogStore implements ActivityLogStore {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{9})-(\\d+)\\.seg(\\.gz)?");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${hms.activity-log.dir:data/activity-log}")
+    private String directory = "data/activity-log";
+
+    @Value("${hms.activity-log.segment-bytes:16777216}")
+    private int segmentBytes = 16 * 1024 * 1024;
+
+    @Value("${hms.activity-log.queue-size:65536}")
+    private int queueSize = 65536;
+
+    @Value("${hms.activity-log.flush-ms:200}")
+    private long flushMs = 200;
+
+    @Value("${hms.activity-log.compress-after-minutes:60}")
+    private long compressAfterMinutes = 60;
+
+    @Value("${hms.activity-log.retention-days:400}")
+    private int retentionDays = 400;
+
+    @Value("${hms.activity-log.bulk-load:false}")
+    private boolean bulkLoad;
+
+    private BlockingQueue<byte[]> queue;
+    private Path root;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Writer thread only
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int sequence;
+    private long lastMillis;
+
+    /** The segment being written and how much of it readers may see. */
+    private record Active(Path path, int committed) {
+    }
+
+    private volatile Active active;
+
+    /** A segment file, from its name. */
+    record Segment(Path path, int sequence, long firstMillis, boolean compressed) {
+        String baseName() {
+            return String.format("segment-%09d-%d", sequence, firstMillis);
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        root = Paths.get(directory).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        queue = new ArrayBlockingQueue<>(queueSize);
+        recover();
+        running = true;
+        writer = new Thread(this::writeLoop, "hms-activity-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void append(String userEmail, String action, String details) {
+        byte[] body = ActivityLogSegments.encode(System.currentTimeMillis(), userEmail, action, details);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(body);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // The caller has already committed; losing the entry beats failing its request
+                try {
+                    enqueue(body);
+                } catch (RuntimeException e) {
+                    System.err.println("Dropped activity log entry for " + userEmail + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void enqueue(byte[] body) {
+        try {
+            if (!queue.offer(body, 100, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("Activity log queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while logging activity");
+        }
+    }
+
+    @Override
+    public List<ActivityEvent> find(LocalDateTime from, LocalDateTime to, int limit) {
+        long fromMillis = from.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long toMillis = to.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<Segment> segments = listSegments();
+        List<ActivityEvent> newestFirst = new ArrayList<>();
+
+        // A segment holds entries from its first millis up to the next segment's
+        long nextFirst = Long.MAX_VALUE;
+        for (int i = segments.size() - 1; i >= 0 && newestFirst.size() < limit; i--) {
+            Segment segment = segments.get(i);
+            long end = nextFirst;
+            nextFirst = segment.firstMillis();
+            if (segment.firstMillis() > toMillis) {
+                continue;
+            }
+            if (end < fromMillis) {
+                break;
+            }
+            int wanted = limit - newestFirst.size();
+            ArrayDeque<byte[]> latest = new ArrayDeque<>(Math.min(wanted, 1024));
+            scan(segment, body -> {
+                long millis = ActivityLogSegments.timestamp(body);
+                if (millis > toMillis) {
+                    return false;
+                }
+                if (millis >= fromMillis) {
+                    latest.addLast(body);
+                    if (latest.size() > wanted) {
+                        latest.pollFirst();
+                    }
+                }
+                return true;
+            });
+            for (Iterator<byte[]> it = latest.descendingIterator(); it.hasNext();) {
+                newestFirst.add(ActivityLogSegments.decode(it.next()));
+            }
+        }
+        return newestFirst;
+    }
+
+    /** Gzips sealed segments that have gone cold and drops expired ones. */
+    @Scheduled(fixedDelayString = "${hms.activity-log.compress-ms:60000}", initialDelayString = "${hms.activity-log.compress-ms:60000}")
+    public void compressSealedSegments() {
+        long coldBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(compressAfterMinutes);
+        long expiredBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        List<Segment> segments = sealedSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = segments.get(i);
+            try {
+                // Every entry is older than the next segment's first one
+                long newestPossible = i + 1 < segments.size() ? segments.get(i + 1).firstMillis()
+                        : Files.getLastModifiedTime(segment.path()).toMillis();
+                if (newestPossible < expiredBefore && (!bulkLoad || isLoaded(segment))) {
+                    Files.deleteIfExists(segment.path());
+                    Files.deleteIfExists(marker(segment));
+                } else if (!segment.compressed() && Files.getLastModifiedTime(segment.path()).toMillis() < coldBefore) {
+                    compress(segment);
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Failed to compact activity log segment " + segment.path().getFileName() + ": "
+                        + e.getMessage());
+            }
+        }
+    }
+
+    /** Copies sealed segments not yet loaded into activity_logs. */
+    @Scheduled(cron = "${hms.activity-log.bulk-load-cron:0 0 3 * * *}")
+    public void bulkLoadSealedSegments() {
+        if (!bulkLoad) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Segment segment : sealedSegments()) {
+            if (isLoaded(segment)) {
+                continue;
+            }
+            try {
+                Integer rows = transaction.execute(status -> load(segment));
+                Files.createFile(marker(segment));
+                System.out.println("Loaded " + rows + " activity log entries from " + segment.baseName());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Failed to load activity log segment " + segment.baseName() + ": " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private int load(Segment segment) {
+        List<Object[]> batch = new ArrayList<>(1000);
+        int[] rows = { 0 };
+        scan(segment, body -> {
+            ActivityEvent event = ActivityLogSegments.decode(body);
+            batch.add(new Object[] { event.action(), event.details(), Timestamp.valueOf(event.timestamp()),
+                    event.userEmail() });
+            if (batch.size() == 1000) {
+                rows[0] += insert(batch);
+            }
+            return true;
+        });
+        return rows[0] + insert(batch);
+    }
+
+    private int insert(List<Object[]> batch) {
+        int rows = 0;
+        if (!batch.isEmpty()) {
+            for (int count : jdbcTemplate.batchUpdate("INSERT INTO activity_logs (user_id, action, details, timestamp) "
+                    + "SELECT id, ?, ?, ? FROM users WHERE email = ?", batch)) {
+                rows += Math.max(count, 0);
+            }
+            batch.clear();
+        }
+        return rows;
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(1024);
+        long lastForce = System.currentTimeMillis();
+        boolean dirty = false;
+        while (running || !queue.isEmpty()) {
+            try {
+                byte[] first = queue.poll(flushMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, 1023);
+                    for (byte[] body : batch) {
+                        write(body);
+                    }
+                    batch.clear();
+                    active = new Active(active.path(), buffer.position());
+                    dirty = true;
+                }
+                long now = System.currentTimeMillis();
+                if (dirty && now - lastForce >= flushMs) {
+                    buffer.force();
+                    lastForce = now;
+                    dirty = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Activity log writer failed, dropped " + batch.size() + " entries: " + e.getMessage());
+                batch.clear();
+            }
+        }
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    private void write(byte[] body) throws IOException {
+        long millis = ActivityLogSegments.timestamp(body);
+        if (millis < lastMillis) {
+            millis = lastMillis;
+            ByteBuffer.wrap(body).putLong(0, millis);
+        }
+        if (buffer == null || buffer.remaining() < ActivityLogSegments.HEADER_BYTES + body.length) {
+            rotate(millis, ActivityLogSegments.HEADER_BYTES + body.length);
+        }
+        ActivityLogSegments.write(buffer, body);
+        lastMillis = millis;
+    }
+
+    private void rotate(long firstMillis, int minBytes) throws IOException {
+        if (buffer != null) {
+            active = new Active(active.path(), buffer.position());
+            buffer.force();
+            channel.close();
+        }
+        sequence++;
+        Path path = root.resolve(new Segment(null, sequence, firstMillis, false).baseName() + ".seg");
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(segmentBytes, minBytes));
+        active = new Active(path, 0);
+    }
+
+    // Reopens the last segment if it is uncompressed and resumes after its last intact record
+    private void recover() throws IOException {
+        List<Segment> segments = listSegments();
+        if (segments.isEmpty()) {
+            return;
+        }
+        Segment last = segments.get(segments.size() - 1);
+        sequence = last.sequence();
+        lastMillis = last.firstMillis();
+        if (last.compressed()) {
+            return;
+        }
+        channel = FileChannel.open(last.path(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        byte[] body;
+        while ((body = ActivityLogSegments.next(buffer, buffer.limit())) != null) {
+            lastMillis = ActivityLogSegments.timestamp(body);
+        }
+        // Clear whatever a torn write left behind
+        int end = buffer.position();
+        for (int i = end; i < buffer.limit(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+        active = new Active(last.path(), end);
+    }
+
+    /** Feeds each record in order to visitor until it returns false. */
+    private void scan(Segment segment, Predicate<byte[]> visitor) {
+        try {
+            if (segment.compressed()) {
+                scanCompressed(segment.path(), visitor);
+                return;
+            }
+            Active current = active;
+            try (FileChannel file = FileChannel.open(segment.path(), StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                int limit = current != null && current.path().equals(segment.path()) ? current.committed() : mapped.limit();
+                byte[] body;
+                while ((body = ActivityLogSegments.next(mapped, limit)) != null && visitor.test(body)) {
+                    // visited
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Compressed since it was listed
+            Path compressed = segment.path().resolveSibling(segment.baseName() + ".seg.gz");
+            if (!segment.compressed() && Files.exists(compressed)) {
+                scan(new Segment(compressed, segment.sequence(), segment.firstMillis(), true), visitor);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read activity log segment " + segment.baseName() + ": "
+                    + e.getMessage());
+        }
+    }
+
+    private static void scanCompressed(Path path, Predicate<byte[]> visitor) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path), 64 * 1024)))) {
+            byte[] body;
+            while ((body = ActivityLogSegments.next(in)) != null && visitor.test(body)) {
+                // visited
+            }
+        }
+    }
+
+    private void compress(Segment segment) throws IOException {
+        Path target = segment.path().resolveSibling(segment.baseName() + ".seg.gz");
+        Path temp = segment.path().resolveSibling(segment.baseName() + ".seg.gz.tmp");
+        try {
+            int end;
+            try (FileChannel file = FileChannel.open(segment.path(), StandardOpenOption.READ);
+                    OutputStream out = new GZIPOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(temp)), 64 * 1024)) {
+                MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                while (ActivityLogSegments.next(mapped, mapped.limit()) != null) {
+                    // skip to the end of the data
+                }
+                end = mapped.position();
+                byte[] chunk = new byte[64 * 1024];
+                mapped.position(0);
+                while (mapped.position() < end) {
+                    int length = Math.min(chunk.length, end - mapped.position());
+                    mapped.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.delete(segment.path());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private boolean isLoaded(Segment segment) {
+        return Files.exists(marker(segment));
+    }
+
+    private Path marker(Segment segment) {
+        return root.resolve(segment.baseName() + ".loaded");
+    }
+
+    // Every segment except the one being written
+    private List<Segment> sealedSegments() {
+        Active current = active;
+        List<Segment> sealed = new ArrayList<>();
+        for (Segment segment : listSegments()) {
+            if (current == null || !segment.path().equals(current.path())) {
+                sealed.add(segment);
+            }
+        }
+        return sealed;
+    }
+
+    // Ordered by sequence; a segment caught mid-compression is listed once, uncompressed
+    List<Segment> listSegments() {
+        List<Segment> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "segment-*")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(new Segment(file, Integer.parseInt(matcher.group(1)), Long.parseLong(matcher.group(2)),
+                            matcher.group(3) != null));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not list activity log segments: " + e.getMessage());
+        }
+        segments.sort((a, b) -> a.sequence() != b.sequence() ? Integer.compare(a.sequence(), b.sequence())
+                : Boolean.compare(a.compressed(), b.compressed()));
+        List<Segment> unique = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            if (unique.isEmpty() || unique.get(unique.size() - 1).sequence() != segment.sequence()) {
+                unique.add(segment);
+            }
+        }
+        return unique;
+    }
+}
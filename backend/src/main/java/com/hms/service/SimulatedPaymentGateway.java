@@ -0,0 +1,72 @@
+package com.hms.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A local stand-in for the card processor, used until a real gateway is
+ * configured and in tests. Each capture sleeps for the configured latency and
+ * then fails (retryably) or declines at the configured rates. Captures are
+ * remembered by idempotency key, like a real gateway's.
+ */
+@Component
+@ConditionalOnProperty(name = "hms.payments.gateway", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    @Value("${hms.payments.gateway.latency-ms:150}")
+    private long latencyMs = 150;
+
+    @Value("${hms.payments.gateway.failure-rate:0.02}")
+    private double failureRate = 0.02;
+
+    @Value("${hms.payments.gateway.decline-rate:0}")
+    private double declineRate = 0;
+
+    private final Map<String, String> captured = new ConcurrentHashMap<>();
+
+    public SimulatedPaymentGateway() {
+    }
+
+    public SimulatedPaymentGateway(long latencyMs, double failureRate, double declineRate) {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+    }
+
+    @Override
+    public String capture(String authorizationId, BigDecimal amount, String idempotencyKey) {
+        String previous = captured.get(idempotencyKey);
+        if (previous != null) {
+            return previous;
+        }
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted waiting for the gateway");
+            }
+        }
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < declineRate) {
+            throw new CaptureDeclinedException("Capture declined by issuer");
+        }
+        if (roll < declineRate + failureRate) {
+            throw new RuntimeException("Gateway timeout");
+        }
+        String id = authorizationId != null ? authorizationId : "sim_" + UUID.randomUUID().toString().replace("-", "");
+        String existing = captured.putIfAbsent(idempotencyKey, id);
+        return existing != null ? existing : id;
+    }
+
+    public int getCaptureCount() {
+        return captured.size();
+    }
+}
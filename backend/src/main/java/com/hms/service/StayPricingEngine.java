@@ -0,0 +1,109 @@
+package com.hms.service;
+
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Prices a stay in constant time. Weekend (Friday and Saturday) nights are
+ * counted arithmetically instead of walking the calendar, and the total is
+ * summed in long minor units of the nightly rate.
+ *
+ * Results are identical to summing each night as a BigDecimal, scale
+ * included, so existing callers see no difference.
+ */
+@Service
+public class StayPricingEngine {
+
+    /** Weekend surcharge as a percentage of the base rate (+20%). */
+    public static final long WEEKEND_RATE_PERCENT = 120;
+
+    private static final BigDecimal WEEKEND_MULTIPLIER = new BigDecimal("1.20");
+
+    /**
+     * @return total for the nights from checkIn up to but excluding checkOut
+     */
+    public BigDecimal calculateStayPrice(BigDecimal nightlyRate, LocalDate checkIn, LocalDate checkOut) {
+        long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+        if (nights <= 0) {
+            return BigDecimal.ZERO;
+        }
+
+        long weekendNights = countWeekendNights(checkIn.getDayOfWeek(), nights);
+        return priceNights(nightlyRate, nights - weekendNights, weekendNights);
+    }
+
+    /**
+     * Same as {@link #calculateStayPrice(BigDecimal, LocalDate, LocalDate)},
+     * except that nights covered by a rate calendar override are charged the
+     * override price (with no weekend surcharge) instead of the base rate.
+     */
+    public BigDecimal calculateStayPrice(BigDecimal nightlyRate, LocalDate checkIn, LocalDate checkOut,
+            RateCalendarService.StayOverrides overrides) {
+        if (overrides == null) {
+            return calculateStayPrice(nightlyRate, checkIn, checkOut);
+        }
+        long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+        long weekendNights = countWeekendNights(checkIn.getDayOfWeek(), nights) - overrides.getWeekendNights();
+        long weekdayNights = nights - overrides.getWeekendNights() - overrides.getWeekdayNights() - weekendNights;
+
+        BigDecimal base = weekdayNights + weekendNights == 0 ? BigDecimal.ZERO
+                : priceNights(nightlyRate, weekdayNights, weekendNights);
+        return base.add(BigDecimal.valueOf(overrides.getPriceCents(), 2));
+    }
+
+    private static BigDecimal priceNights(BigDecimal nightlyRate, long weekdayNights, long weekendNights) {
+        if (nightlyRate.scale() >= 0 && nightlyRate.unscaledValue().bitLength() < Long.SIZE) {
+            try {
+                return priceInMinorUnits(nightlyRate.unscaledValue().longValue(), nightlyRate.scale(), weekdayNights,
+                        weekendNights);
+            } catch (ArithmeticException overflow) {
+                // Fall through to BigDecimal
+            }
+        }
+        return priceAsBigDecimal(nightlyRate, weekdayNights, weekendNights);
+    }
+
+    /**
+     * Number of Friday and Saturday nights in a stay of the given length
+     * starting on the given day.
+     */
+    public static long countWeekendNights(DayOfWeek firstNight, long nights) {
+        long weekendNights = (nights / 7) * 2;
+        int remaining = (int) (nights % 7);
+        // Monday = 0 ... Sunday = 6, so Friday = 4 and Saturday = 5
+        int day = firstNight.getValue() - 1;
+        for (int i = 0; i < remaining; i++) {
+            int d = (day + i) % 7;
+            if (d == 4 || d == 5) {
+                weekendNights++;
+            }
+        }
+        return weekendNights;
+    }
+
+    private static BigDecimal priceInMinorUnits(long unscaledRate, int scale, long weekdayNights, long weekendNights) {
+        if (weekendNights == 0) {
+            return BigDecimal.valueOf(Math.multiplyExact(unscaledRate, weekdayNights), scale);
+        }
+        // Weekend nights carry two extra decimal places from the 1.20 multiplier
+        long weekday = Math.multiplyExact(Math.multiplyExact(unscaledRate, 100L), weekdayNights);
+        long weekend = Math.multiplyExact(Math.multiplyExact(unscaledRate, WEEKEND_RATE_PERCENT), weekendNights);
+        return BigDecimal.valueOf(Math.addExact(weekday, weekend), Math.addExact(scale, 2));
+    }
+
+    private static BigDecimal priceAsBigDecimal(BigDecimal nightlyRate, long weekdayNights, long weekendNights) {
+        BigDecimal total = BigDecimal.ZERO;
+        if (weekdayNights > 0) {
+            total = total.add(nightlyRate.multiply(BigDecimal.valueOf(weekdayNights)));
+        }
+        if (weekendNights > 0) {
+            total = total.add(nightlyRate.multiply(WEEKEND_MULTIPLIER)
+                    .multiply(BigDecimal.valueOf(weekendNights)));
+        }
+        return total;
+    }
+}
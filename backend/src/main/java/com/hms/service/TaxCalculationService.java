@@ -1,13 +1,18 @@
 package com.hms.service;
 
 import com.hms.model.TaxConfiguration;
+import com.hms.model.TaxQuote;
+import com.hms.model.TaxQuoteRequest;
 import com.hms.repository.TaxConfigurationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -16,6 +21,9 @@ public class TaxCalculationService {
     @Autowired
     private TaxConfigurationRepository taxConfigRepository;
 
+    @Value("${hms.tax.quote-batch-max:1000}")
+    private int maxBatchSize = 1000;
+
     /**
      * Calculate all applicable U.S. taxes for a hotel stay
      * 
@@ -30,50 +38,88 @@ public class TaxCalculationService {
             String stateCode,
             String county,
             String city) {
+        return calculateTaxes(subtotal, resolveConfiguration(stateCode, county, city));
+    }
 
-        Map<String, BigDecimal> taxes = new HashMap<>();
+    /**
+     * Looks up the tax configuration in effect today for a jurisdiction, so
+     * callers pricing many amounts can resolve it once
+     * 
+     * @return the active configuration, or a zero-rate default if none matches
+     */
+    public TaxConfiguration resolveConfiguration(String stateCode, String county, String city) {
+        return resolveConfiguration(stateCode, county, city, LocalDate.now());
+    }
 
-        TaxConfiguration config = taxConfigRepository
-                .findActiveConfiguration(stateCode, county, city, LocalDate.now())
+    /**
+     * Looks up the tax configuration in effect on the given date
+     */
+    public TaxConfiguration resolveConfiguration(String stateCode, String county, String city, LocalDate date) {
+        if (stateCode == null) {
+            return getDefaultConfiguration();
+        }
+        return taxConfigRepository
+                .findActiveConfiguration(stateCode, county, city, date)
                 .orElse(getDefaultConfiguration());
+    }
 
-        // State Sales Tax
-        BigDecimal stateTax = subtotal
-                .multiply(config.getStateSalesTaxRate())
-                .setScale(2, RoundingMode.HALF_UP);
-
-        // County Occupancy Tax (Hotel/Motel Tax)
-        BigDecimal countyTax = subtotal
-                .multiply(config.getCountyOccupancyTaxRate())
-                .setScale(2, RoundingMode.HALF_UP);
-
-        // City Occupancy Tax
-        BigDecimal cityTax = subtotal
-                .multiply(config.getCityOccupancyTaxRate())
-                .setScale(2, RoundingMode.HALF_UP);
-
-        // Resort Fee (flat percentage)
-        BigDecimal resortFee = subtotal
-                .multiply(config.getResortFeeRate())
-                .setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Quote many stays at once. Each distinct jurisdiction and date is looked
+     * up once however many stays share it; quotes come back in request order.
+     */
+    public List<TaxQuote> quoteBatch(List<TaxQuoteRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new RuntimeException("At most " + maxBatchSize + " quotes per request");
+        }
+        LocalDate today = LocalDate.now();
+        Map<JurisdictionKey, TaxConfiguration> configurations = new HashMap<>();
+        List<TaxQuote> quotes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TaxQuoteRequest request = requests.get(i);
+            if (request == null || request.subtotal() == null) {
+                throw new RuntimeException("Quote " + i + " has no subtotal");
+            }
+            LocalDate date = request.date() != null ? request.date() : today;
+            TaxConfiguration config = configurations.computeIfAbsent(
+                    new JurisdictionKey(request.stateCode(), request.county(), request.city(), date),
+                    key -> resolveConfiguration(key.stateCode(), key.county(), key.city(), key.date()));
+            quotes.add(quote(request.subtotal(), config));
+        }
+        return quotes;
+    }
 
-        // Calculate total tax
+    /**
+     * State, county and city taxes plus the resort fee, each rounded to cents
+     */
+    public TaxQuote quote(BigDecimal subtotal, TaxConfiguration config) {
+        // County tax is the hotel/motel occupancy tax; the resort fee is a flat percentage
+        BigDecimal stateTax = subtotal.multiply(config.getStateSalesTaxRate()).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal countyTax = subtotal.multiply(config.getCountyOccupancyTaxRate()).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal cityTax = subtotal.multiply(config.getCityOccupancyTaxRate()).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal resortFee = subtotal.multiply(config.getResortFeeRate()).setScale(2, RoundingMode.HALF_UP);
         BigDecimal totalTax = stateTax.add(countyTax).add(cityTax).add(resortFee);
+        return new TaxQuote(subtotal, stateTax, countyTax, cityTax, resortFee, totalTax, subtotal.add(totalTax),
+                config.getId());
+    }
 
-        // Calculate grand total
-        BigDecimal grandTotal = subtotal.add(totalTax);
+    /**
+     * Calculate all applicable taxes using an already resolved configuration
+     */
+    public Map<String, BigDecimal> calculateTaxes(BigDecimal subtotal, TaxConfiguration config) {
+        Map<String, BigDecimal> taxes = new HashMap<>();
+        TaxQuote quote = quote(subtotal, config);
 
         taxes.put("subtotal", subtotal);
-        taxes.put("stateTax", stateTax);
+        taxes.put("stateTax", quote.stateTax());
         taxes.put("stateTaxRate", config.getStateSalesTaxRate().multiply(new BigDecimal("100")));
-        taxes.put("countyTax", countyTax);
+        taxes.put("countyTax", quote.countyTax());
         taxes.put("countyTaxRate", config.getCountyOccupancyTaxRate().multiply(new BigDecimal("100")));
-        taxes.put("cityTax", cityTax);
+        taxes.put("cityTax", quote.cityTax());
         taxes.put("cityTaxRate", config.getCityOccupancyTaxRate().multiply(new BigDecimal("100")));
-        taxes.put("resortFee", resortFee);
+        taxes.put("resortFee", quote.resortFee());
         taxes.put("resortFeeRate", config.getResortFeeRate().multiply(new BigDecimal("100")));
-        taxes.put("totalTax", totalTax);
-        taxes.put("grandTotal", grandTotal);
+        taxes.put("totalTax", quote.totalTax());
+        taxes.put("grandTotal", quote.grandTotal());
 
         return taxes;
     }
@@ -97,4 +143,7 @@ public class TaxCalculationService {
     public BigDecimal calculateServiceCharge(BigDecimal amount, BigDecimal rate) {
         return amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
     }
+
+    private record JurisdictionKey(String stateCode, String county, String city, LocalDate date) {
+    }
 }
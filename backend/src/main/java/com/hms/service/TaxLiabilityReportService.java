@@ -0,0 +1,190 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.model.TaxLiabilityRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Occupancy and sales tax collected per jurisdiction and month, for filing.
+ *
+ * One GROUP BY over payments: each collected payment adds its taxes to the
+ * month it was captured, and each refund subtracts the same share of those
+ * taxes (refund / amount) in the month it was issued. Rows are read through a
+ * cursor and written to the response as they arrive, so a multi-year range
+ * never has to be held in memory.
+ */
+@Service
+public class TaxLiabilityReportService {
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private static final String QUERY = "SELECT t.tax_configuration_id, c.state_code, c.county, c.city, t.month, "
+            + "COUNT(*) FILTER (WHERE t.refund = FALSE) AS payments, "
+            + "COUNT(*) FILTER (WHERE t.refund = TRUE) AS refunds, "
+            + "ROUND(SUM(t.taxable), 2) AS taxable, ROUND(SUM(t.state_tax), 2) AS state_tax, "
+            + "ROUND(SUM(t.county_tax), 2) AS county_tax, ROUND(SUM(t.city_tax), 2) AS city_tax, "
+            + "ROUND(SUM(t.resort_fee), 2) AS resort_fee "
+            + "FROM ("
+            + "SELECT p.tax_configuration_id, date_trunc('month', COALESCE(p.captured_at, p.payment_date)) AS month, "
+            + "FALSE AS refund, COALESCE(p.subtotal, 0) AS taxable, COALESCE(p.state_tax, 0) AS state_tax, "
+            + "COALESCE(p.county_tax, 0) AS county_tax, COALESCE(p.city_tax, 0) AS city_tax, "
+            + "COALESCE(p.resort_fee, 0) AS resort_fee "
+            + "FROM payments p WHERE p.status IN ('PAID', 'CAPTURED', 'REFUNDED') "
+            + "AND COALESCE(p.captured_at, p.payment_date) >= ? AND COALESCE(p.captured_at, p.payment_date) < ? "
+            + "UNION ALL "
+            + "SELECT p.tax_configuration_id, date_trunc('month', p.refund_date), TRUE, "
+            + "-COALESCE(p.subtotal, 0) * r.share, -COALESCE(p.state_tax, 0) * r.share, "
+            + "-COALESCE(p.county_tax, 0) * r.share, -COALESCE(p.city_tax, 0) * r.share, "
+            + "-COALESCE(p.resort_fee, 0) * r.share "
+            + "FROM payments p CROSS JOIN LATERAL "
+            + "(SELECT COALESCE(LEAST(p.refund_amount / NULLIF(p.amount, 0), 1), 0) AS share) r "
+            + "WHERE p.refund_amount > 0 AND p.refund_date >= ? AND p.refund_date < ?"
+            + ") t LEFT JOIN tax_configurations c ON c.id = t.tax_configuration_id "
+            + "GROUP BY t.tax_configuration_id, c.state_code, c.county, c.city, t.month "
+            + "ORDER BY t.month, c.state_code, c.county, c.city";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${hms.reports.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new RuntimeException("The to date must not be before the from date");
+        }
+    }
+
+    /** Passes each row to the consumer as it is read, ordered by month then jurisdiction. */
+    public void forEachRow(LocalDate from, LocalDate to, Consumer<TaxLiabilityRow> consumer) {
+        validateRange(from, to);
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        JdbcTemplate cursor = new JdbcTemplate(dataSource);
+        cursor.setFetchSize(fetchSize);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> cursor.query(QUERY, rs -> {
+            BigDecimal stateTax = rs.getBigDecimal("state_tax");
+            BigDecimal countyTax = rs.getBigDecimal("county_tax");
+            BigDecimal cityTax = rs.getBigDecimal("city_tax");
+            BigDecimal resortFee = rs.getBigDecimal("resort_fee");
+            long configurationId = rs.getLong("tax_configuration_id");
+            consumer.accept(new TaxLiabilityRow(
+                    rs.wasNull() ? null : configurationId,
+                    rs.getString("state_code"),
+                    rs.getString("county"),
+                    rs.getString("city"),
+                    rs.getTimestamp("month").toLocalDateTime().format(MONTH),
+                    rs.getLong("payments"),
+                    rs.getLong("refunds"),
+                    rs.getBigDecimal("taxable"),
+                    stateTax, countyTax, cityTax, resortFee,
+                    stateTax.add(countyTax).add(cityTax).add(resortFee)));
+        }, start, end, start, end));
+    }
+
+    /** The report as a JSON object with a rows array and grand totals. */
+    public void writeJson(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        Totals totals = new Totals();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("from", from.toString());
+            json.writeStringField("to", to.toString());
+            json.writeArrayFieldStart("rows");
+            forEachRow(from, to, row -> {
+                try {
+                    json.writeObject(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                totals.add(row);
+            });
+            json.writeEndArray();
+            json.writeObjectFieldStart("totals");
+            json.writeNumberField("taxableAmount", totals.taxable);
+            json.writeNumberField("stateTax", totals.stateTax);
+            json.writeNumberField("countyTax", totals.countyTax);
+            json.writeNumberField("cityTax", totals.cityTax);
+            json.writeNumberField("resortFee", totals.resortFee);
+            json.writeNumberField("totalTax", totals.totalTax);
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+    }
+
+    /** The report as CSV with one line per jurisdiction and month. */
+    public void writeCsv(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("month,tax_configuration_id,state,county,city,payments,refunds,taxable_amount,"
+                + "state_tax,county_tax,city_tax,resort_fee,total_tax\n");
+        forEachRow(from, to, row -> {
+            try {
+                writer.write(row.month() + "," + (row.taxConfigurationId() != null ? row.taxConfigurationId() : "")
+                        + "," + csv(row.stateCode()) + "," + csv(row.county()) + "," + csv(row.city())
+                        + "," + row.payments() + "," + row.refunds() + "," + row.taxableAmount().toPlainString()
+                        + "," + row.stateTax().toPlainString() + "," + row.countyTax().toPlainString()
+                        + "," + row.cityTax().toPlainString() + "," + row.resortFee().toPlainString()
+                        + "," + row.totalTax().toPlainString() + "\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static final class Totals {
+        BigDecimal taxable = BigDecimal.ZERO;
+        BigDecimal stateTax = BigDecimal.ZERO;
+        BigDecimal countyTax = BigDecimal.ZERO;
+        BigDecimal cityTax = BigDecimal.ZERO;
+        BigDecimal resortFee = BigDecimal.ZERO;
+        BigDecimal totalTax = BigDecimal.ZERO;
+
+        void add(TaxLiabilityRow row) {
+            taxable = taxable.add(row.taxableAmount());
+            stateTax = stateTax.add(row.stateTax());
+            countyTax = countyTax.add(row.countyTax());
+            cityTax = cityTax.add(row.cityTax());
+            resortFee = resortFee.add(row.resortFee());
+            totalTax = totalTax.add(row.totalTax());
+        }
+    }
+}
@@ -39,6 +39,9 @@ public class UserService {
         user.setName(userDetails.getName());
         user.setEmail(userDetails.getEmail());
         user.setRole(userDetails.getRole());
+        if (userDetails.getOnShift() != null) {
+            user.setOnShift(userDetails.getOnShift());
+        }
 
         // Only update password if provided and not empty
         if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
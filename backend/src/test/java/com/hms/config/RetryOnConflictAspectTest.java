@@ -0,0 +1,76 @@
+package com.hms.config;
+
+import jakarta.persistence.OptimisticLockException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class RetryOnConflictAspectTest {
+
+    private final RetryOnConflictAspect aspect = new RetryOnConflictAspect();
+    private final ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+
+    @RetryOnConflict
+    void defaults() {
+    }
+
+    @RetryOnConflict(maxAttempts = 4, backoffMillis = 40, maxBackoffMillis = 80)
+    void slow() {
+    }
+
+    @Test
+    void testRetry_SucceedsAfterConflicts() throws Throwable {
+        when(joinPoint.proceed())
+                .thenThrow(new OptimisticLockingFailureException("Booking was updated"))
+                .thenThrow(new OptimisticLockException("Room was updated"))
+                .thenReturn("saved");
+
+        assertEquals("saved", aspect.retry(joinPoint, annotation("defaults")));
+        verify(joinPoint, times(3)).proceed();
+    }
+
+    @Test
+    void testRetry_RethrowsOnceAttemptsAreExhausted() throws Throwable {
+        OptimisticLockingFailureException last = new OptimisticLockingFailureException("Still conflicting");
+        when(joinPoint.proceed())
+                .thenThrow(new OptimisticLockingFailureException("Conflict"))
+                .thenThrow(new OptimisticLockingFailureException("Conflict"))
+                .thenThrow(new OptimisticLockingFailureException("Conflict"))
+                .thenThrow(last);
+
+        Throwable thrown = assertThrows(OptimisticLockingFailureException.class,
+                () -> aspect.retry(joinPoint, annotation("defaults")));
+
+        assertSame(last, thrown);
+        verify(joinPoint, times(4)).proceed();
+    }
+
+    @Test
+    void testRetry_BacksOffExponentiallyUpToTheCap() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new OptimisticLockingFailureException("Conflict"));
+        long start = System.nanoTime();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> aspect.retry(joinPoint, annotation("slow")));
+
+        // Three waits of 20-40, 40-80 and 40-80 ms (capped, not 80-160)
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis >= 100, "waited " + elapsedMillis + " ms");
+        assertTrue(elapsedMillis < 400, "waited " + elapsedMillis + " ms");
+        verify(joinPoint, times(4)).proceed();
+    }
+
+    @Test
+    void testRetry_OtherFailuresAreNotRetried() throws Throwable {
+        when(joinPoint.proceed()).thenThrow(new RuntimeException("Booking not found"));
+
+        assertThrows(RuntimeException.class, () -> aspect.retry(joinPoint, annotation("defaults")));
+        verify(joinPoint, times(1)).proceed();
+    }
+
+    private static RetryOnConflict annotation(String method) throws NoSuchMethodException {
+        return RetryOnConflictAspectTest.class.getDeclaredMethod(method).getAnnotation(RetryOnConflict.class);
+    }
+}
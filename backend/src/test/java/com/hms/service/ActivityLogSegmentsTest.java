@@ -0,0 +1,70 @@
+package com.hms.service;
+
+import com.hms.model.ActivityEvent;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActivityLogSegmentsTest {
+
+    @Test
+    void testRecords_RoundTripFromBufferAndStream() throws IOException {
+        ByteBuffer segment = ByteBuffer.allocate(4096);
+        ActivityLogSegments.write(segment, ActivityLogSegments.encode(1_700_000_000_000L, "admin@hotel.com",
+                "CREATE_USER", "Created user: caf\u00e9@hotel.com"));
+        ActivityLogSegments.write(segment, ActivityLogSegments.encode(1_700_000_000_001L, "admin@hotel.com",
+                "DELETE_USER", null));
+        int end = segment.position();
+
+        segment.position(0);
+        byte[] first = ActivityLogSegments.next(segment, segment.limit());
+        byte[] second = ActivityLogSegments.next(segment, segment.limit());
+        assertNull(ActivityLogSegments.next(segment, segment.limit()));
+        assertEquals(end, segment.position());
+
+        ActivityEvent event = ActivityLogSegments.decode(first);
+        assertEquals("admin@hotel.com", event.userEmail());
+        assertEquals("CREATE_USER", event.action());
+        assertEquals("Created user: caf\u00e9@hotel.com", event.details());
+        assertEquals(1_700_000_000_001L, ActivityLogSegments.timestamp(second));
+        assertEquals("", ActivityLogSegments.decode(second).details());
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(Arrays.copyOf(segment.array(), end)));
+        assertEquals("CREATE_USER", ActivityLogSegments.decode(ActivityLogSegments.next(in)).action());
+        assertEquals("DELETE_USER", ActivityLogSegments.decode(ActivityLogSegments.next(in)).action());
+        assertNull(ActivityLogSegments.next(in));
+    }
+
+    @Test
+    void testNext_StopsAtTornOrUncommittedRecord() {
+        ByteBuffer segment = ByteBuffer.allocate(4096);
+        ActivityLogSegments.write(segment, ActivityLogSegments.encode(1L, "a@hotel.com", "A", "one"));
+        int intact = segment.position();
+        ActivityLogSegments.write(segment, ActivityLogSegments.encode(2L, "a@hotel.com", "B", "two"));
+        int committed = segment.position();
+        // Damage the second record's body, as a crash mid-write would
+        segment.put(committed - 1, (byte) (segment.get(committed - 1) ^ 0x55));
+
+        segment.position(0);
+        assertNotNull(ActivityLogSegments.next(segment, segment.limit()));
+        assertNull(ActivityLogSegments.next(segment, segment.limit()));
+        assertEquals(intact, segment.position());
+
+        // A reader limited to what the writer has published sees nothing past it
+        segment.position(0);
+        assertNull(ActivityLogSegments.next(segment, 4));
+    }
+
+    @Test
+    void testEncode_CutsOversizedDetails() {
+        String details = "\u00e9".repeat(ActivityLogSegments.MAX_DETAILS_BYTES);
+        ActivityEvent event = ActivityLogSegments.decode(ActivityLogSegments.encode(1L, "a", "A", details));
+        assertEquals(ActivityLogSegments.MAX_DETAILS_BYTES / 2, event.details().length());
+    }
+}
@@ -0,0 +1,52 @@
+package com.hms.service;
+
+import com.hms.model.ActivityEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivityLogServiceTest {
+
+    @Mock
+    private ActivityLogStore activityLogStore;
+
+    @InjectMocks
+    private ActivityLogService activityLogService;
+
+    @Test
+    void testGetAllLogs_ReadsTheConfiguredStore() {
+        ActivityEvent event = new ActivityEvent(LocalDateTime.now(), "admin@hotel.com", "UPDATE_ROOM", "Room 101");
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(activityLogStore.find(from.capture(), to.capture(), eq(1000))).thenReturn(List.of(event));
+
+        assertEquals(List.of(event), activityLogService.getAllLogs());
+        assertTrue(from.getValue().getYear() <= 1970);
+        assertFalse(to.getValue().isBefore(event.timestamp()));
+    }
+
+    @Test
+    void testGetLogs_RejectsBadRangeAndLimit() {
+        LocalDateTime now = LocalDateTime.now();
+
+        RuntimeException reversed = assertThrows(RuntimeException.class,
+                () -> activityLogService.getLogs(now, now.minusHours(1), 10));
+        RuntimeException tooMany = assertThrows(RuntimeException.class,
+                () -> activityLogService.getLogs(now.minusHours(1), now, 1001));
+
+        assertEquals("From must not be after to", reversed.getMessage());
+        assertEquals("Limit must be between 1 and 1000", tooMany.getMessage());
+        verifyNoInteractions(activityLogStore);
+    }
+}
@@ -0,0 +1,93 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyticsCacheTest {
+
+    private final AnalyticsCache cache = new AnalyticsCache();
+    private final LocalDate january = LocalDate.of(2024, 1, 1);
+    private final LocalDate endOfJanuary = LocalDate.of(2024, 1, 31);
+
+    @Test
+    void testInvalidate_OnlyEvictsCoveringRanges() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("analytics", "jan", january, endOfJanuary, loads::incrementAndGet);
+        cache.get("analytics", "jan", january, endOfJanuary, loads::incrementAndGet);
+        assertEquals(1, loads.get());
+
+        cache.invalidate(LocalDate.of(2024, 3, 15));
+        cache.get("analytics", "jan", january, endOfJanuary, loads::incrementAndGet);
+        assertEquals(1, loads.get(), "A March change should not evict January");
+
+        cache.invalidate(LocalDate.of(2024, 1, 31));
+        cache.get("analytics", "jan", january, endOfJanuary, loads::incrementAndGet);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_AlwaysEvictsUnboundedEntries() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("room-performance", "all", null, null, loads::incrementAndGet);
+        cache.invalidate(LocalDate.of(2030, 6, 1));
+        cache.get("room-performance", "all", null, null, loads::incrementAndGet);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_ConcurrentRequestsShareOneComputation() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> cache.get("analytics", "jan",
+                january, endOfJanuary, () -> {
+                    started.countDown();
+                    await(release);
+                    return loads.incrementAndGet();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> cache.get("analytics", "jan",
+                january, endOfJanuary, loads::incrementAndGet));
+
+        // Give the second request time to join the running computation
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_DoesNotStoreResultInvalidatedWhileComputing() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("analytics", "jan", january, endOfJanuary, () -> {
+            cache.invalidate(LocalDate.of(2024, 1, 10));
+            return loads.incrementAndGet();
+        });
+        cache.get("analytics", "jan", january, endOfJanuary, loads::incrementAndGet);
+        assertEquals(2, loads.get());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> endpoint = (Map<String, Object>) ((Map<String, Object>) cache.getStats().get("endpoints"))
+                .get("analytics");
+        assertEquals(2L, endpoint.get("misses"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
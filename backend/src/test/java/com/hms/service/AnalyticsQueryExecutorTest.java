@@ -0,0 +1,172 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalyticsQueryExecutorTest {
+
+    private final AnalyticsQueryExecutor executor = new AnalyticsQueryExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testJoin_ReturnsEveryResult() {
+        CountDownLatch release = new CountDownLatch(1);
+        try (AnalyticsQueryExecutor.Scope scope = executor.open()) {
+            Supplier<Integer> occupancy = scope.fork(() -> {
+                release.await(1, TimeUnit.SECONDS);
+                return 82;
+            });
+            Supplier<String> topRoom = scope.fork(() -> "SUITE");
+
+            assertThrows(IllegalStateException.class, occupancy::get);
+            release.countDown();
+            scope.join();
+
+            assertEquals(82, occupancy.get());
+            assertEquals("SUITE", topRoom.get());
+        }
+    }
+
+    @Test
+    void testJoin_DeadlineCancelsRemainingForks() throws InterruptedException {
+        ReflectionTestUtils.setField(executor, "deadlineMillis", 100L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        try (AnalyticsQueryExecutor.Scope scope = executor.open()) {
+            scope.fork(() -> 1);
+            scope.fork(() -> sleepUntilInterrupted(started, interrupted));
+            // On a pool thread, not run inline by join
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+
+            RuntimeException exception = assertThrows(RuntimeException.class, scope::join);
+            assertEquals("Analytics query exceeded the 100 ms deadline", exception.getMessage());
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testJoin_FailedForkCancelsSlowerSiblings() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        try (AnalyticsQueryExecutor.Scope scope = executor.open()) {
+            // Forked first, so a join in fork order would wait on it
+            scope.fork(() -> sleepUntilInterrupted(started, interrupted));
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            scope.fork(() -> {
+                throw new RuntimeException("Revenue query failed");
+            });
+
+            RuntimeException exception = assertThrows(RuntimeException.class, scope::join);
+            assertEquals("Revenue query failed", exception.getMessage());
+        }
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+    }
+
+    @Test
+    void testJoin_NestedScopesOnAFullPoolRunInline() throws InterruptedException {
+        ReflectionTestUtils.setField(executor, "threads", 1);
+        ReflectionTestUtils.setField(executor, "deadlineMillis", 2000L);
+        List<String> ranOn = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+
+        try (AnalyticsQueryExecutor.Scope outer = executor.open()) {
+            // Holds the only pool thread while its own scope waits on two more queries
+            Supplier<Integer> comparison = outer.fork(() -> {
+                started.countDown();
+                try (AnalyticsQueryExecutor.Scope inner = executor.open()) {
+                    Supplier<Integer> thisMonth = inner.fork(() -> {
+                        ranOn.add(Thread.currentThread().getName());
+                        return 120;
+                    });
+                    Supplier<Integer> lastMonth = inner.fork(() -> {
+                        ranOn.add(Thread.currentThread().getName());
+                        return 100;
+                    });
+                    inner.join();
+                    return thisMonth.get() - lastMonth.get();
+                }
+            });
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            outer.join();
+
+            assertEquals(20, comparison.get());
+            assertEquals(List.of("hms-analytics-1", "hms-analytics-1"), ranOn);
+        }
+    }
+
+    @Test
+    void testJoin_SaturatedPoolStartsNoInlineQueryAfterTheDeadline() throws InterruptedException {
+        ReflectionTestUtils.setField(executor, "deadlineMillis", 100L);
+        // One busy thread and no queue, so every fork is rejected and left to join
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>());
+        CountDownLatch release = new CountDownLatch(1);
+        saturated.execute(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ReflectionTestUtils.setField(executor, "pool", saturated);
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        try (AnalyticsQueryExecutor.Scope scope = executor.open()) {
+            scope.fork(() -> {
+                ran.add("occupancy");
+                Thread.sleep(200);
+                return 1;
+            });
+            scope.fork(() -> ran.add("revenue"));
+
+            RuntimeException exception = assertThrows(RuntimeException.class, scope::join);
+            assertEquals("Analytics query exceeded the 100 ms deadline", exception.getMessage());
+        } finally {
+            release.countDown();
+        }
+        assertEquals(List.of("occupancy"), ran);
+    }
+
+    @Test
+    void testJoin_SequentialModeRunsInForkOrder() {
+        ReflectionTestUtils.setField(executor, "parallel", false);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        try (AnalyticsQueryExecutor.Scope scope = executor.open()) {
+            scope.fork(() -> order.add("occupancy"));
+            scope.fork(() -> order.add("revenue"));
+            scope.join();
+        }
+
+        assertEquals(List.of("occupancy", "revenue"), order);
+        assertNull(ReflectionTestUtils.getField(executor, "pool"));
+    }
+
+    private static Integer sleepUntilInterrupted(CountDownLatch started, CountDownLatch interrupted) {
+        started.countDown();
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return 0;
+    }
+}
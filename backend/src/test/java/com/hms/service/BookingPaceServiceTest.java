@@ -0,0 +1,102 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingPaceServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private BookingPaceService paceService;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        // Default window: 400 days back, 730 ahead
+        LocalDate stayDate = today.plusDays(10);
+        LocalDate lastYearStay = stayDate.minusDays(364);
+        when(bookingRepository.findStaysOverlapping(any(LocalDate.class), any(LocalDate.class))).thenReturn(List.of(
+                stay(stayDate, 2, today.minusDays(5)),
+                stay(lastYearStay, 1, lastYearStay.minusDays(20)),
+                stay(today.minusDays(36), 1, today.minusDays(40))));
+    }
+
+    @Test
+    void testGetPaceReport_ComparesWithTheSameWeekdayLastYear() {
+        Map<String, Object> report = paceService.getPaceReport(today, today.plusDays(10), 2, 7);
+
+        List<Map<String, Object>> dates = dates(report);
+        assertEquals(1, dates.get(0).get("onTheBooks"));
+        assertEquals(1, dates.get(0).get("sameTimeLastYear"));
+        assertEquals(0, dates.get(0).get("variance"));
+        assertEquals(1, dates.get(1).get("onTheBooks"));
+        assertEquals(0, dates.get(1).get("sameTimeLastYear"));
+        assertEquals(1, dates.get(1).get("variance"));
+
+        Map<String, Object> totals = totals(report);
+        assertEquals(2L, totals.get("onTheBooks"));
+        assertEquals(1L, totals.get("sameTimeLastYear"));
+        assertEquals(1L, totals.get("variance"));
+        assertEquals(2, totals.get("comparableDays"));
+    }
+
+    @Test
+    void testGetPaceReport_NoComparisonBeforeTheRetainedWindow() {
+        // The first date's last-year date is 401 days back, one before the window starts
+        Map<String, Object> report = paceService.getPaceReport(today, today.minusDays(37), 2, 7);
+
+        List<Map<String, Object>> dates = dates(report);
+        assertNull(dates.get(0).get("sameTimeLastYear"));
+        assertNull(dates.get(0).get("variance"));
+        assertEquals(0, dates.get(1).get("sameTimeLastYear"));
+        assertEquals(1, dates.get(1).get("variance"));
+
+        Map<String, Object> totals = totals(report);
+        assertEquals(1L, totals.get("onTheBooks"));
+        assertEquals(0L, totals.get("sameTimeLastYear"));
+        assertEquals(1L, totals.get("variance"));
+        assertEquals(1, totals.get("comparableDays"));
+
+        Map<String, Object> uncomparable = totals(paceService.getPaceReport(today, today.minusDays(50), 5, 7));
+        assertNull(uncomparable.get("sameTimeLastYear"));
+        assertNull(uncomparable.get("variance"));
+        assertEquals(0, uncomparable.get("comparableDays"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> dates(Map<String, Object> report) {
+        return (List<Map<String, Object>>) report.get("dates");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> totals(Map<String, Object> report) {
+        return (Map<String, Object>) report.get("totals");
+    }
+
+    private static Booking stay(LocalDate checkIn, int nights, LocalDate bookedOn) {
+        Booking booking = new Booking();
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkIn.plusDays(nights));
+        booking.setCreatedAt(bookedOn.atStartOfDay());
+        return booking;
+    }
+}
@@ -2,6 +2,7 @@ package com.hms.service;
 
 import com.hms.model.Booking;
 import com.hms.model.Guest;
+import com.hms.model.HotelEvent;
 import com.hms.model.Room;
 import com.hms.repository.BookingRepository;
 import com.hms.repository.GuestRepository;
@@ -11,7 +12,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -20,6 +23,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +41,21 @@ public class BookingServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Spy
+    private StayPricingEngine stayPricingEngine;
+
+    @Mock
+    private RateCalendarService rateCalendarService;
+
+    @Mock
+    private RoomHoldService roomHoldService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private LedgerService ledgerService;
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -87,7 +106,7 @@ public class BookingServiceTest {
         booking.setCheckInDate(LocalDate.now().plusDays(1));
         booking.setCheckOutDate(LocalDate.now().plusDays(2));
 
-        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+        when(roomRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(room));
         when(bookingRepository.findBookingsInDateRange(any(), any(), any())).thenReturn(Collections.emptyList());
         when(guestRepository.findById(1L)).thenReturn(Optional.of(guest));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -97,6 +116,8 @@ public class BookingServiceTest {
         assertNotNull(created);
         assertEquals(Booking.BookingStatus.CONFIRMED, created.getStatus());
         verify(emailService, times(1)).sendBookingConfirmation(anyString(), anyString(), any());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof HotelEvent
+                && ((HotelEvent) event).getType() == HotelEvent.EventType.BOOKING_CREATED));
     }
 
     @Test
@@ -106,7 +127,7 @@ public class BookingServiceTest {
         booking.setCheckInDate(LocalDate.now());
         booking.setCheckOutDate(LocalDate.now().plusDays(1));
 
-        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+        when(roomRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(room));
         when(bookingRepository.findBookingsInDateRange(any(), any(), any()))
                 .thenReturn(Collections.singletonList(new Booking()));
 
@@ -0,0 +1,192 @@
+package com.hms.service;
+
+import com.hms.config.RetryOnConflictAspect;
+import com.hms.model.Booking;
+import com.hms.model.Payment;
+import com.hms.model.TaxConfiguration;
+import com.hms.repository.BookingRepository;
+import com.hms.repository.PaymentRepository;
+import com.hms.repository.PromoCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs processPaymentWithTaxes through the real retry aspect and transaction
+ * interceptor, with a transaction manager whose first commit hits a version
+ * conflict, to check the retried attempt is the only one whose ledger
+ * postings and invoice event survive.
+ */
+@SpringJUnitConfig(EnhancedPaymentServiceRetryTest.Config.class)
+public class EnhancedPaymentServiceRetryTest {
+
+    @Autowired
+    private EnhancedPaymentService enhancedPaymentService;
+
+    @Autowired
+    private ConflictOnFirstCommit transactionManager;
+
+    @Autowired
+    private InvoiceEvents invoiceEvents;
+
+    @Autowired
+    private Ledger ledger;
+
+    @MockBean
+    private LedgerService ledgerService;
+
+    @MockBean
+    private BookingRepository bookingRepository;
+
+    @MockBean
+    private PaymentRepository paymentRepository;
+
+    @MockBean
+    private TaxCalculationService taxCalculationService;
+
+    @MockBean
+    private PromoCodeRepository promoCodeRepository;
+
+    @MockBean
+    private PaymentCaptureService paymentCaptureService;
+
+    @BeforeEach
+    void setUp() {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(ledgerService.getUnbilledRoomCharges(booking)).thenReturn(new BigDecimal("200.00"));
+        doAnswer(invocation -> {
+            ledger.post(((Payment) invocation.getArgument(0)).getId());
+            return null;
+        }).when(ledgerService).postPayment(any(Payment.class));
+        AtomicLong ids = new AtomicLong();
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(ids.incrementAndGet());
+            return payment;
+        });
+        when(taxCalculationService.resolveConfiguration("CA", null, null)).thenReturn(new TaxConfiguration());
+        when(taxCalculationService.calculateTaxes(any(BigDecimal.class), any(TaxConfiguration.class)))
+                .thenReturn(Map.of("stateTax", new BigDecimal("14.50"), "countyTax", BigDecimal.ZERO,
+                        "cityTax", BigDecimal.ZERO, "resortFee", BigDecimal.ZERO,
+                        "grandTotal", new BigDecimal("214.50")));
+    }
+
+    @Test
+    void testProcessPaymentWithTaxes_RetriedConflictPostsOnce() {
+        Payment payment = enhancedPaymentService.processPaymentWithTaxes(1L, null, "CA", null, null, "CASH");
+
+        assertEquals(2, transactionManager.attempts.get());
+        assertEquals(1, transactionManager.rollbacks.get());
+        assertEquals(List.of(payment.getId()), ledger.committed);
+        assertEquals(List.of(payment.getId()), invoiceEvents.paymentIds);
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true)
+    @EnableTransactionManagement(proxyTargetClass = true)
+    static class Config {
+
+        @Bean
+        RetryOnConflictAspect retryOnConflictAspect() {
+            return new RetryOnConflictAspect();
+        }
+
+        @Bean
+        ConflictOnFirstCommit transactionManager() {
+            return new ConflictOnFirstCommit();
+        }
+
+        @Bean
+        EnhancedPaymentService enhancedPaymentService() {
+            return new EnhancedPaymentService();
+        }
+
+        @Bean
+        Ledger ledger() {
+            return new Ledger();
+        }
+
+        @Bean
+        InvoiceEvents invoiceEvents() {
+            return new InvoiceEvents();
+        }
+    }
+
+    /** Stands in for the ledger table: postings only count once their transaction commits. */
+    static class Ledger {
+        final List<Long> committed = new ArrayList<>();
+
+        void post(Long paymentId) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committed.add(paymentId);
+                }
+            });
+        }
+    }
+
+    static class InvoiceEvents {
+        final List<Long> paymentIds = new ArrayList<>();
+
+        @TransactionalEventListener
+        public void onInvoiceRequested(InvoiceService.InvoiceRequested event) {
+            paymentIds.add(event.getPaymentId());
+        }
+    }
+
+    /** Fails the first commit the way a stale @Version does at flush. */
+    static class ConflictOnFirstCommit extends AbstractPlatformTransactionManager {
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            attempts.incrementAndGet();
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            if (attempts.get() == 1) {
+                throw new OptimisticLockingFailureException("Booking was updated by another transaction");
+            }
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.BookingBalance;
+import com.hms.model.LedgerEntry;
+import com.hms.model.Payment;
+import com.hms.model.TaxConfiguration;
+import com.hms.repository.BookingBalanceRepository;
+import com.hms.repository.BookingRepository;
+import com.hms.repository.LedgerEntryRepository;
+import com.hms.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives payment edits through a real LedgerService over in-memory
+ * repositories, so the folio balance can be checked across checkouts.
+ */
+@ExtendWith(MockitoExtension.class)
+public class EnhancedPaymentServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private TaxCalculationService taxCalculationService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PaymentCaptureService paymentCaptureService;
+
+    @Mock
+    private LedgerEntryRepository entryRepository;
+
+    @Mock
+    private BookingBalanceRepository balanceRepository;
+
+    @InjectMocks
+    private EnhancedPaymentService enhancedPaymentService;
+
+    private LedgerService ledgerService;
+
+    private final List<Payment> payments = new ArrayList<>();
+    private final List<LedgerEntry> entries = new ArrayList<>();
+    private final BookingBalance[] balance = new BookingBalance[1];
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = new LedgerService();
+        ReflectionTestUtils.setField(ledgerService, "entryRepository", entryRepository);
+        ReflectionTestUtils.setField(ledgerService, "balanceRepository", balanceRepository);
+        ReflectionTestUtils.setField(ledgerService, "bookingRepository", bookingRepository);
+        ReflectionTestUtils.setField(ledgerService, "paymentRepository", paymentRepository);
+        ReflectionTestUtils.setField(enhancedPaymentService, "ledgerService", ledgerService);
+
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setTotalAmount(new BigDecimal("200.00"));
+        lenient().when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+
+        lenient().when(balanceRepository.findById(1L)).thenAnswer(invocation -> Optional.ofNullable(balance[0]));
+        lenient().when(balanceRepository.save(any(BookingBalance.class))).thenAnswer(invocation -> {
+            balance[0] = invocation.getArgument(0);
+            return balance[0];
+        });
+        lenient().when(entryRepository.save(any(LedgerEntry.class))).thenAnswer(invocation -> {
+            entries.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        lenient().when(entryRepository.findByPaymentId(anyLong())).thenAnswer(invocation -> entries.stream()
+                .filter(entry -> invocation.getArgument(0).equals(entry.getPaymentId())).toList());
+
+        lenient().when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            if (payment.getId() == null) {
+                payment.setId((long) payments.size() + 1);
+                payments.add(payment);
+            }
+            return payment;
+        });
+        lenient().when(paymentRepository.findById(anyLong())).thenAnswer(invocation -> payments.stream()
+                .filter(payment -> payment.getId().equals(invocation.getArgument(0))).findFirst());
+        lenient().when(paymentRepository.findByBookingId(1L)).thenAnswer(invocation -> List.copyOf(payments));
+
+        // 10% state tax on whatever is billed
+        TaxConfiguration configuration = new TaxConfiguration();
+        lenient().when(taxCalculationService.resolveConfiguration("CA", null, null)).thenReturn(configuration);
+        lenient().when(taxCalculationService.calculateTaxes(any(BigDecimal.class), any(TaxConfiguration.class)))
+                .thenAnswer(invocation -> {
+                    BigDecimal subtotal = invocation.getArgument(0);
+                    BigDecimal stateTax = subtotal.multiply(new BigDecimal("0.10")).setScale(2, RoundingMode.HALF_UP);
+                    return Map.of("stateTax", stateTax, "countyTax", BigDecimal.ZERO, "cityTax", BigDecimal.ZERO,
+                            "resortFee", BigDecimal.ZERO, "grandTotal", subtotal.add(stateTax));
+                });
+
+        ledgerService.setRoomCharges(1L, new BigDecimal("200.00"), "Room charges, 2 nights");
+    }
+
+    @Test
+    void testUpdatePayment_FailingATaxedPaymentLetsCheckoutBillOnce() {
+        Payment first = enhancedPaymentService.processPaymentWithTaxes(1L, null, "CA", null, null, "CASH");
+        assertEquals(new BigDecimal("220.00"), first.getAmount());
+        assertEquals(0, balance[0].getBalanceDue().signum());
+
+        enhancedPaymentService.updatePayment(first.getId(), details(first, Payment.PaymentStatus.FAILED));
+
+        // Only the room charges are left: the failed payment's taxes are reversed with its payment
+        assertEquals(0, balance[0].getTaxes().signum());
+        assertEquals(0, balance[0].getPayments().signum());
+        assertEquals(new BigDecimal("200.00"), balance[0].getBalanceDue());
+
+        Payment second = enhancedPaymentService.processPaymentWithTaxes(1L, null, "CA", null, null, "CASH");
+
+        assertEquals(new BigDecimal("200.00"), second.getSubtotal());
+        assertEquals(new BigDecimal("20.00"), balance[0].getTaxes());
+        assertEquals(new BigDecimal("220.00"), balance[0].getPayments());
+        assertEquals(0, balance[0].getBalanceDue().signum());
+    }
+
+    @Test
+    void testUpdatePayment_RestoringAFailedPaymentPostsItAgain() {
+        Payment payment = enhancedPaymentService.processPaymentWithTaxes(1L, null, "CA", null, null, "CASH");
+        enhancedPaymentService.updatePayment(payment.getId(), details(payment, Payment.PaymentStatus.FAILED));
+
+        enhancedPaymentService.updatePayment(payment.getId(), details(payment, Payment.PaymentStatus.PAID));
+
+        assertEquals(new BigDecimal("20.00"), balance[0].getTaxes());
+        assertEquals(new BigDecimal("220.00"), balance[0].getPayments());
+        assertEquals(0, balance[0].getBalanceDue().signum());
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> enhancedPaymentService.processPaymentWithTaxes(1L, null, "CA", null, null, "CASH"));
+        assertEquals("Nothing is due on this booking", error.getMessage());
+    }
+
+    @Test
+    void testUpdatePayment_AmountChangePostsOnlyTheDifference() {
+        Payment payment = enhancedPaymentService.processPaymentWithTaxes(1L, null, "CA", null, null, "CASH");
+        Payment details = details(payment, Payment.PaymentStatus.PAID);
+        details.setAmount(new BigDecimal("200.00"));
+
+        enhancedPaymentService.updatePayment(payment.getId(), details);
+
+        assertEquals(new BigDecimal("20.00"), balance[0].getTaxes());
+        assertEquals(new BigDecimal("200.00"), balance[0].getPayments());
+        assertEquals(new BigDecimal("20.00"), balance[0].getBalanceDue());
+    }
+
+    private static Payment details(Payment payment, Payment.PaymentStatus status) {
+        Payment details = new Payment();
+        details.setAmount(payment.getAmount());
+        details.setMethod(payment.getMethod());
+        details.setStatus(status);
+        return details;
+    }
+}
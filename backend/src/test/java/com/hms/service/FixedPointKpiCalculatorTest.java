@@ -0,0 +1,67 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FixedPointKpiCalculatorTest {
+
+    private final FixedPointKpiCalculator calculator = new FixedPointKpiCalculator();
+    private final HotelMetricsService metricsService = new HotelMetricsService();
+
+    @Test
+    void testMatchesBigDecimalMetrics() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            long revenueCents = random.nextInt(50_000_000) - (i % 10 == 0 ? 10_000_000 : 0);
+            int rooms = random.nextInt(4_000);
+            int sold = rooms == 0 ? 0 : random.nextInt(rooms + 1);
+            BigDecimal revenue = BigDecimal.valueOf(revenueCents, 2);
+
+            assertSame(metricsService.calculateADR(revenue, sold), calculator.adr(revenueCents, sold));
+            assertSame(metricsService.calculateRevPAR(revenue, rooms), calculator.revPar(revenueCents, rooms));
+            assertSame(metricsService.calculateRevPOR(revenue, sold), calculator.revPor(revenueCents, sold));
+            assertSame(metricsService.calculateGOPPAR(revenue, rooms), calculator.gopPar(revenueCents, rooms));
+            assertSame(metricsService.calculateTRevPAR(revenue, rooms), calculator.tRevPar(revenueCents, rooms));
+            assertSame(metricsService.calculateOccupancyRate(sold, rooms), calculator.occupancyRate(sold, rooms));
+            assertSame(metricsService.calculateALOS(rooms, sold), calculator.alos(rooms, sold));
+
+            long hotel = random.nextInt(10_001);
+            long market = random.nextInt(10_001);
+            assertSame(metricsService.calculateMPI(BigDecimal.valueOf(hotel, 2), BigDecimal.valueOf(market, 2)),
+                    calculator.mpi(hotel, market));
+            assertSame(metricsService.calculateRGI(BigDecimal.valueOf(hotel * 3, 2), BigDecimal.valueOf(market, 2)),
+                    calculator.rgi(hotel * 3, market));
+        }
+    }
+
+    @Test
+    void testRoundsHalfUpAwayFromZero() {
+        // 0.05 / 2 = 0.025 and -0.05 / 2 = -0.025
+        assertEquals(3, calculator.adr(5, 2));
+        assertEquals(-3, calculator.adr(-5, 2));
+        assertEquals(2, calculator.adr(5, 3));
+        assertEquals(0, calculator.adr(12_345, 0));
+    }
+
+    @Test
+    void testBatchMatchesSingleValues() {
+        long[] revenue = { 412_875_50L, 0, 99_99L };
+        int[] rooms = { 2750, 0, 7 };
+        long[] out = new long[3];
+
+        calculator.adr(revenue, rooms, out);
+        for (int i = 0; i < out.length; i++) {
+            assertEquals(calculator.adr(revenue[i], rooms[i]), out[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> calculator.adr(revenue, rooms, new long[2]));
+    }
+
+    private static void assertSame(BigDecimal expected, long hundredths) {
+        assertEquals(0, expected.compareTo(FixedPointKpiCalculator.toDecimal(hundredths)),
+                () -> expected + " != " + FixedPointKpiCalculator.toDecimal(hundredths));
+    }
+}
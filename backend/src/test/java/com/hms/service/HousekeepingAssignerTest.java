@@ -0,0 +1,111 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HousekeepingAssignerTest {
+
+    @Test
+    void testAssign_EvensOutLoadsAndKeepsFloorsTogether() {
+        List<HousekeepingAssigner.PendingTask> tasks = new ArrayList<>();
+        long id = 1;
+        // 3 floors of 10 rooms, listed out of order
+        for (int room = 10; room >= 1; room--) {
+            for (int floor = 3; floor >= 1; floor--) {
+                tasks.add(new HousekeepingAssigner.PendingTask(id++, Integer.toString(floor * 100 + room)));
+            }
+        }
+        Map<Long, Integer> openTasks = new LinkedHashMap<>();
+        openTasks.put(7L, 0);
+        openTasks.put(8L, 0);
+        openTasks.put(9L, 0);
+
+        Map<Long, List<Long>> assignments = HousekeepingAssigner.assign(tasks, openTasks);
+
+        assertEquals(3, assignments.size());
+        Set<Long> seen = new HashSet<>();
+        for (List<Long> run : assignments.values()) {
+            assertEquals(10, run.size());
+            Set<Integer> floors = new HashSet<>();
+            for (Long taskId : run) {
+                assertTrue(seen.add(taskId));
+                floors.add(HousekeepingAssigner.floorOf(tasks.get((int) (taskId - 1)).roomNumber()));
+            }
+            assertEquals(1, floors.size());
+        }
+    }
+
+    @Test
+    void testAssign_GivesMoreToLessLoadedStaff() {
+        List<HousekeepingAssigner.PendingTask> tasks = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            tasks.add(new HousekeepingAssigner.PendingTask(id, "20" + id));
+        }
+        Map<Long, Integer> openTasks = new LinkedHashMap<>();
+        openTasks.put(1L, 5);
+        openTasks.put(2L, 1);
+
+        Map<Long, List<Long>> assignments = HousekeepingAssigner.assign(tasks, openTasks);
+
+        // Six open afterwards each
+        assertEquals(1, assignments.get(1L).size());
+        assertEquals(5, assignments.get(2L).size());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), assignments.get(2L));
+    }
+
+    @Test
+    void testAssign_StaffAlreadyOverloadedGetsNothing() {
+        List<HousekeepingAssigner.PendingTask> tasks = List.of(
+                new HousekeepingAssigner.PendingTask(1, "101"),
+                new HousekeepingAssigner.PendingTask(2, "102"));
+        Map<Long, Integer> openTasks = new LinkedHashMap<>();
+        openTasks.put(1L, 10);
+        openTasks.put(2L, 0);
+
+        Map<Long, List<Long>> assignments = HousekeepingAssigner.assign(tasks, openTasks);
+
+        assertNull(assignments.get(1L));
+        assertEquals(List.of(1L, 2L), assignments.get(2L));
+    }
+
+    @Test
+    void testFloorOf_UsesDigitsBeforeTheLastTwo() {
+        assertEquals(12, HousekeepingAssigner.floorOf("1204"));
+        assertEquals(3, HousekeepingAssigner.floorOf("A-305"));
+        assertEquals(0, HousekeepingAssigner.floorOf("12"));
+        assertEquals(0, HousekeepingAssigner.floorOf("Penthouse"));
+        assertEquals(0, HousekeepingAssigner.floorOf(null));
+    }
+
+    @Test
+    void testAssign_FiveHundredTasksQuickly() {
+        List<HousekeepingAssigner.PendingTask> tasks = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            tasks.add(new HousekeepingAssigner.PendingTask(id, Long.toString(100 * (1 + id % 20) + id % 50)));
+        }
+        Map<Long, Integer> openTasks = new LinkedHashMap<>();
+        for (long staff = 1; staff <= 25; staff++) {
+            openTasks.put(staff, (int) (staff % 4));
+        }
+
+        long start = System.nanoTime();
+        Map<Long, List<Long>> assignments = HousekeepingAssigner.assign(tasks, openTasks);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        int total = 0;
+        for (Map.Entry<Long, List<Long>> staff : assignments.entrySet()) {
+            total += staff.getValue().size();
+            assertTrue(openTasks.get(staff.getKey()) + staff.getValue().size() <= 22);
+        }
+        assertEquals(500, total);
+        assertTrue(elapsedMs < 200, "took " + elapsedMs + " ms");
+    }
+}
@@ -0,0 +1,113 @@
+package com.hms.service;
+
+import com.hms.model.HousekeepingTask;
+import com.hms.model.Room;
+import com.hms.model.User;
+import com.hms.repository.HousekeepingTaskRepository;
+import com.hms.repository.MaintenanceLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HousekeepingBoardServiceTest {
+
+    @Mock
+    private HousekeepingTaskRepository taskRepository;
+
+    @Mock
+    private MaintenanceLogRepository maintenanceRepository;
+
+    @InjectMocks
+    private HousekeepingBoardService boardService;
+
+    @BeforeEach
+    void setUp() {
+        boardService.start();
+    }
+
+    @Test
+    void testGetBoard_GroupsTasksByStaffAndStatus() {
+        LocalDate today = LocalDate.of(2024, 5, 1);
+        User maria = staff(7L, "Maria");
+        when(taskRepository.findBoardTasks(today)).thenReturn(List.of(
+                task(1L, "101", maria, HousekeepingTask.TaskStatus.PENDING),
+                task(2L, "102", maria, HousekeepingTask.TaskStatus.COMPLETED),
+                task(3L, "201", null, HousekeepingTask.TaskStatus.PENDING)));
+        when(maintenanceRepository.findBoardIssues(any())).thenReturn(List.of());
+
+        Map<String, Object> board = boardService.getBoard(today, null);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> queues = (List<Map<String, Object>>) board.get("staff");
+        assertEquals(2, queues.size());
+        assertNull(queues.get(0).get("staffId"));
+        assertEquals(7L, queues.get(1).get("staffId"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> counts = (Map<String, Object>) queues.get(1).get("counts");
+        assertEquals(1, counts.get("PENDING"));
+        assertEquals(0, counts.get("IN_PROGRESS"));
+        assertEquals(1, counts.get("COMPLETED"));
+        assertEquals(boardService.getVersion(), board.get("version"));
+    }
+
+    @Test
+    void testGetChangesSince_ReturnsChangedRowsAndDeletedIds() {
+        String version = boardService.getVersion();
+        boardService.recordAfterCommit(HousekeepingBoardService.Kind.TASK, List.of(1L, 2L, 1L));
+        when(taskRepository.findWithRoomAndStaffByIdIn(Set.of(1L, 2L)))
+                .thenReturn(List.of(task(1L, "101", null, HousekeepingTask.TaskStatus.IN_PROGRESS)));
+
+        Map<String, Object> changes = boardService.getChangesSince(version);
+
+        assertEquals(false, changes.get("resync"));
+        assertEquals(1, ((List<?>) changes.get("tasks")).size());
+        assertEquals(List.of(2L), changes.get("deletedTasks"));
+        assertEquals(boardService.getVersion(), changes.get("version"));
+        verifyNoInteractions(maintenanceRepository);
+    }
+
+    @Test
+    void testGetChangesSince_UpToDateVersionSkipsTheDatabase() {
+        boardService.recordAfterCommit(HousekeepingBoardService.Kind.MAINTENANCE, List.of(4L));
+
+        Map<String, Object> changes = boardService.getChangesSince(boardService.getVersion());
+
+        assertEquals(List.of(), changes.get("maintenance"));
+        verifyNoInteractions(taskRepository, maintenanceRepository);
+    }
+
+    @Test
+    void testGetChangesSince_UnknownVersionAsksForResync() {
+        assertEquals(true, boardService.getChangesSince("oldboot:3").get("resync"));
+        assertEquals(true, boardService.getChangesSince("garbage").get("resync"));
+    }
+
+    private static User staff(Long id, String name) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        return user;
+    }
+
+    private static HousekeepingTask task(Long id, String roomNumber, User staff, HousekeepingTask.TaskStatus status) {
+        Room room = new Room();
+        room.setRoomNumber(roomNumber);
+        HousekeepingTask task = new HousekeepingTask(room, staff, "Clean", LocalDate.of(2024, 5, 1));
+        task.setId(id);
+        task.setStatus(status);
+        return task;
+    }
+}
@@ -0,0 +1,79 @@
+package com.hms.service;
+
+import com.hms.model.HousekeepingTask;
+import com.hms.model.User;
+import com.hms.repository.HousekeepingTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HousekeepingServiceTest {
+
+    @Mock
+    private HousekeepingTaskRepository taskRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private HousekeepingBoardService boardService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transaction;
+
+    @InjectMocks
+    private HousekeepingService housekeepingService;
+
+    @BeforeEach
+    void setUp() {
+        when(taskRepository.findUnassignedTaskRooms(HousekeepingTask.TaskStatus.PENDING))
+                .thenReturn(List.<Object[]>of(new Object[] { 5L, "101" }, new Object[] { 6L, "102" }));
+        when(taskRepository.findOnShiftStaffLoads(any(User.Role.class), anyList()))
+                .thenReturn(List.<Object[]>of(new Object[] { 20L, 0 }));
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+    }
+
+    @Test
+    void testAutoAssignOnSchedule_RunsTheBatchInOneTransaction() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] { 1, 1 });
+
+        housekeepingService.autoAssignOnSchedule();
+
+        InOrder order = inOrder(transactionManager, jdbcTemplate, boardService);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        order.verify(boardService).recordAfterCommit(HousekeepingBoardService.Kind.TASK, List.of(5L, 6L));
+        order.verify(transactionManager).commit(transaction);
+    }
+
+    @Test
+    void testAutoAssignOnSchedule_RollsBackAFailedBatch() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("staff deleted"));
+
+        housekeepingService.autoAssignOnSchedule();
+
+        verify(transactionManager).rollback(transaction);
+        verify(transactionManager, never()).commit(any());
+        verifyNoInteractions(boardService);
+    }
+}
@@ -0,0 +1,162 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.model.IdempotencyRecord;
+import com.hms.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "retentionHours", 24L);
+        ReflectionTestUtils.setField(idempotencyService, "cacheSize", 100);
+        ReflectionTestUtils.setField(idempotencyService, "waitSeconds", 5L);
+        lenient().when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void testExecute_ReplaysStoredResponse() {
+        ResponseEntity<?> first = idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 101),
+                this::created);
+        ResponseEntity<?> second = idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 101),
+                this::created);
+
+        assertEquals(1, runs.get());
+        assertEquals(Map.of("bookingId", 1), first.getBody());
+        assertEquals(200, second.getStatusCode().value());
+        assertEquals("{\"bookingId\":1}", second.getBody());
+        assertEquals("true", second.getHeaders().getFirst("Idempotent-Replayed"));
+        verify(idempotencyRecordRepository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    void testExecute_ReplaysFromTableAfterRestart() {
+        IdempotencyRecord stored = new IdempotencyRecord("anonymous:createBooking:key-1",
+                hashOf(Map.of("roomId", 101)), 200, "{\"bookingId\":7}", LocalDateTime.now().minusHours(1));
+        when(idempotencyRecordRepository.findById("anonymous:createBooking:key-1")).thenReturn(Optional.of(stored));
+
+        ResponseEntity<?> response = idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 101),
+                this::created);
+
+        assertEquals(0, runs.get());
+        assertEquals("{\"bookingId\":7}", response.getBody());
+    }
+
+    @Test
+    void testExecute_DifferentRequestWithSameKeyIsRejected() {
+        idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 101), this::created);
+
+        ResponseEntity<?> response = idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 102),
+                this::created);
+
+        assertEquals(1, runs.get());
+        assertEquals(422, response.getStatusCode().value());
+        assertEquals(Map.of("error", "Idempotency-Key was already used for a different request"),
+                response.getBody());
+    }
+
+    @Test
+    void testExecute_FailedResponseCanBeRetried() {
+        idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 101), () -> {
+            runs.incrementAndGet();
+            return ResponseEntity.badRequest().body(Map.of("error", "Room is not available"));
+        });
+
+        ResponseEntity<?> retried = idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 101),
+                this::created);
+
+        assertEquals(2, runs.get());
+        assertEquals(Map.of("bookingId", 2), retried.getBody());
+    }
+
+    @Test
+    void testExecute_DuplicateInFlightWaitsForTheFirst() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() -> idempotencyService.execute(
+                "key-1", "createBooking", Map.of("roomId", 101), () -> {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return created();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ResponseEntity<?>> duplicate = CompletableFuture.supplyAsync(() -> idempotencyService
+                .execute("key-1", "createBooking", Map.of("roomId", 101), this::created));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals(Map.of("bookingId", 1), first.get(5, TimeUnit.SECONDS).getBody());
+        ResponseEntity<?> replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals("{\"bookingId\":1}", replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testPurgeExpired_DropsOldKeys() {
+        idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 101), this::created);
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(idempotencyRecordRepository).save(saved.capture());
+        saved.getValue().setCreatedAt(LocalDateTime.now().minusHours(25));
+
+        idempotencyService.purgeExpired();
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(idempotencyRecordRepository).deleteOlderThan(cutoff.capture());
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+        assertTrue(cutoff.getValue().isAfter(LocalDateTime.now().minusHours(25)));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(idempotencyService, "recent")).isEmpty());
+
+        idempotencyService.execute("key-1", "createBooking", Map.of("roomId", 101), this::created);
+        assertEquals(2, runs.get());
+    }
+
+    private ResponseEntity<?> created() {
+        return ResponseEntity.ok(Map.of("bookingId", runs.incrementAndGet()));
+    }
+
+    private String hashOf(Object body) {
+        return ReflectionTestUtils.invokeMethod(idempotencyService, "hash", body);
+    }
+}
@@ -0,0 +1,82 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.Guest;
+import com.hms.model.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvoicePdfRendererTest {
+
+    private final InvoicePdfRenderer renderer = new InvoicePdfRenderer();
+
+    @Test
+    void testRender_SamePaymentGivesSameBytes() throws InterruptedException {
+        byte[] first = renderer.render(payment());
+        Thread.sleep(5);
+        byte[] second = renderer.render(payment());
+
+        assertArrayEquals(first, second);
+        String pdf = new String(first, StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-1.4\n"));
+        assertTrue(pdf.endsWith("%%EOF\n"));
+        assertTrue(pdf.contains("(INVOICE INV-20240601-AB12) Tj"));
+        assertTrue(pdf.contains("(Discount \\(SUMMER10\\)) Tj"));
+        assertTrue(pdf.contains("(Jun 1, 2024 - Jun 3, 2024 \\(2 nights\\)) Tj"));
+    }
+
+    @Test
+    void testRender_ChangedPaymentGivesDifferentBytes() {
+        Payment refunded = payment();
+        refunded.setStatus(Payment.PaymentStatus.REFUNDED);
+        refunded.setRefundAmount(new BigDecimal("50.00"));
+
+        assertFalse(Arrays.equals(renderer.render(payment()), renderer.render(refunded)));
+        assertTrue(new String(renderer.render(refunded), StandardCharsets.ISO_8859_1).contains("($-50.00) Tj"));
+    }
+
+    @Test
+    void testRender_ReplacesCharactersOutsideLatin1() {
+        Payment payment = payment();
+        payment.getBooking().getGuest().setName("Zo\u00eb \u674e");
+
+        String pdf = new String(renderer.render(payment), StandardCharsets.ISO_8859_1);
+
+        assertTrue(pdf.contains("(Zo\u00eb ?) Tj"));
+    }
+
+    private static Payment payment() {
+        Guest guest = new Guest();
+        guest.setName("Ada Lovelace");
+        guest.setEmail("ada@example.com");
+        Booking booking = new Booking();
+        booking.setId(42L);
+        booking.setGuest(guest);
+        booking.setCheckInDate(LocalDate.of(2024, 6, 1));
+        booking.setCheckOutDate(LocalDate.of(2024, 6, 3));
+
+        Payment payment = new Payment();
+        payment.setId(7L);
+        payment.setBooking(booking);
+        payment.setInvoiceNumber("INV-20240601-AB12");
+        payment.setPaymentDate(LocalDateTime.of(2024, 6, 3, 11, 15));
+        payment.setMethod(Payment.PaymentMethod.CARD);
+        payment.setStatus(Payment.PaymentStatus.PAID);
+        payment.setPromoCode("SUMMER10");
+        payment.setDiscountAmount(new BigDecimal("20.00"));
+        payment.setSubtotal(new BigDecimal("180.00"));
+        payment.setStateTax(new BigDecimal("13.05"));
+        payment.setCountyTax(BigDecimal.ZERO);
+        payment.setCityTax(BigDecimal.ZERO);
+        payment.setResortFee(BigDecimal.ZERO);
+        payment.setAmount(new BigDecimal("193.05"));
+        return payment;
+    }
+}
@@ -0,0 +1,121 @@
+package com.hms.service;
+
+import com.hms.model.Payment;
+import com.hms.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class InvoiceServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Spy
+    private InvoicePdfRenderer renderer = new InvoicePdfRenderer();
+
+    @InjectMocks
+    private InvoiceService invoiceService;
+
+    @TempDir
+    Path dir;
+
+    private final Payment payment = new Payment();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(invoiceService, "directory", dir.toString());
+        ReflectionTestUtils.setField(invoiceService, "renderThreads", 1);
+        invoiceService.start();
+        payment.setId(7L);
+        payment.setInvoiceNumber("INV-20240601-AB12");
+        payment.setAmount(new BigDecimal("193.05"));
+        when(paymentRepository.findById(7L)).thenReturn(Optional.of(payment));
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceService.shutdown();
+    }
+
+    @Test
+    void testRender_StoresUnderTheHashOfTheBytes() throws Exception {
+        byte[] expected = new InvoicePdfRenderer().render(payment);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(expected));
+        String path = hash.substring(0, 2) + "/" + hash + ".pdf";
+
+        invoiceService.onInvoiceRequested(new InvoiceService.InvoiceRequested(7L));
+
+        verify(paymentRepository, timeout(2000)).updateInvoicePdfPath(7L, path);
+        assertArrayEquals(expected, Files.readAllBytes(dir.resolve(path)));
+    }
+
+    @Test
+    void testRender_UnchangedPaymentIsStoredOnce() throws Exception {
+        invoiceService.onInvoiceRequested(new InvoiceService.InvoiceRequested(7L));
+        verify(paymentRepository, timeout(2000)).updateInvoicePdfPath(eq(7L), anyString());
+        payment.setInvoicePdfPath(storedFiles().get(0));
+
+        invoiceService.onInvoiceRequested(new InvoiceService.InvoiceRequested(7L));
+        awaitRendered(2);
+
+        assertEquals(1, storedFiles().size());
+        verify(paymentRepository, times(1)).updateInvoicePdfPath(anyLong(), anyString());
+        assertEquals(0, invoiceService.getStats().get("failed"));
+    }
+
+    @Test
+    void testGetInvoiceFile_QueuesRenderAndReturnsNullUntilStored() throws Exception {
+        assertNull(invoiceService.getInvoiceFile(7L));
+
+        verify(paymentRepository, timeout(2000)).updateInvoicePdfPath(eq(7L), anyString());
+        payment.setInvoicePdfPath(storedFiles().get(0));
+        assertEquals(dir.resolve(storedFiles().get(0)), invoiceService.getInvoiceFile(7L));
+    }
+
+    @Test
+    void testGetInvoiceFile_RejectsPathOutsideTheDirectory() {
+        payment.setInvoicePdfPath("../../etc/passwd");
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> invoiceService.getInvoiceFile(7L));
+
+        assertEquals("Invalid invoice path", exception.getMessage());
+    }
+
+    // Paths relative to the invoice directory, temp files included
+    private List<String> storedFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).map(file -> dir.relativize(file).toString()).toList();
+        }
+    }
+
+    private void awaitRendered(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while ((int) invoiceService.getStats().get("rendered") < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, invoiceService.getStats().get("rendered"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.BookingBalance;
+import com.hms.model.LedgerEntry;
+import com.hms.model.Payment;
+import com.hms.repository.BookingBalanceRepository;
+import com.hms.repository.LedgerEntryRepository;
+import com.hms.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LedgerServiceTest {
+
+    @Mock
+    private LedgerEntryRepository entryRepository;
+
+    @Mock
+    private BookingBalanceRepository balanceRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    private final BookingBalance[] stored = new BookingBalance[1];
+
+    @BeforeEach
+    void setUp() {
+        when(balanceRepository.findById(1L)).thenAnswer(invocation -> Optional.ofNullable(stored[0]));
+        when(balanceRepository.save(any(BookingBalance.class))).thenAnswer(invocation -> {
+            stored[0] = invocation.getArgument(0);
+            return stored[0];
+        });
+        when(entryRepository.save(any(LedgerEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void testPaymentWithDiscountAndTaxes_SettlesBalance() {
+        ledgerService.setRoomCharges(1L, new BigDecimal("500.00"), "Room charges, 2 nights");
+        ledgerService.postPayment(payment(new BigDecimal("450.00"), new BigDecimal("50.00"),
+                new BigDecimal("18.00"), new BigDecimal("499.50")));
+
+        BookingBalance balance = stored[0];
+        assertEquals(new BigDecimal("500.00"), balance.getRoomCharges());
+        assertEquals(new BigDecimal("50.00"), balance.getDiscounts());
+        assertEquals(new BigDecimal("49.50"), balance.getTaxes());
+        assertEquals(new BigDecimal("499.50"), balance.getPayments());
+        assertEquals(0, balance.getBalanceDue().signum());
+        assertEquals(4, balance.getEntryCount());
+
+        ArgumentCaptor<LedgerEntry> entries = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(entryRepository, times(4)).save(entries.capture());
+        List<LedgerEntry> posted = entries.getAllValues();
+        assertEquals(LedgerEntry.EntryType.CHARGE, posted.get(0).getType());
+        assertEquals(new BigDecimal("450.00"), posted.get(1).getBalanceAfter());
+        assertEquals(LedgerEntry.EntryType.PAYMENT, posted.get(3).getType());
+        assertEquals(new BigDecimal("-499.50"), posted.get(3).getAmount());
+    }
+
+    @Test
+    void testCancelAndPaymentCorrection_PostOffsettingEntries() {
+        ledgerService.setRoomCharges(1L, new BigDecimal("300.00"), "Room charges, 1 night");
+        Payment payment = payment(new BigDecimal("300.00"), BigDecimal.ZERO, BigDecimal.ZERO,
+                new BigDecimal("300.00"));
+        payment.setCountyTax(BigDecimal.ZERO);
+        payment.setCityTax(BigDecimal.ZERO);
+        payment.setResortFee(BigDecimal.ZERO);
+        ledgerService.postPayment(payment);
+
+        BigDecimal previouslyCollected = LedgerService.collected(payment);
+        payment.setStatus(Payment.PaymentStatus.FAILED);
+        ledgerService.postPaymentCorrection(payment, previouslyCollected);
+        ledgerService.setRoomCharges(1L, BigDecimal.ZERO, "Booking cancelled");
+
+        BookingBalance balance = stored[0];
+        assertEquals(0, balance.getRoomCharges().signum());
+        assertEquals(0, balance.getPayments().signum());
+        assertEquals(0, balance.getBalanceDue().signum());
+        // Nothing is edited: charge, payment, correction and cancellation are all kept
+        assertEquals(4, balance.getEntryCount());
+    }
+
+    @Test
+    void testTwoPaymentsOnOneBooking_BillOnlyWhatIsLeft() {
+        ledgerService.setRoomCharges(1L, new BigDecimal("400.00"), "Room charges, 2 nights");
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setTotalAmount(new BigDecimal("400.00"));
+
+        Payment deposit = payment(new BigDecimal("150.00"), BigDecimal.ZERO, new BigDecimal("15.00"),
+                new BigDecimal("165.00"));
+        stateTaxOnly(deposit);
+        when(paymentRepository.findByBookingId(1L)).thenReturn(List.of(deposit));
+        assertEquals(new BigDecimal("250.00"), ledgerService.getUnbilledRoomCharges(booking));
+        ledgerService.postPayment(deposit);
+
+        Payment rest = payment(new BigDecimal("225.00"), new BigDecimal("25.00"), new BigDecimal("22.50"),
+                new BigDecimal("247.50"));
+        rest.setId(10L);
+        stateTaxOnly(rest);
+        ledgerService.postPayment(rest);
+        when(paymentRepository.findByBookingId(1L)).thenReturn(List.of(deposit, rest));
+
+        // A repeated checkout finds nothing left to bill
+        assertEquals(0, ledgerService.getUnbilledRoomCharges(booking).signum());
+        BookingBalance balance = stored[0];
+        assertEquals(new BigDecimal("37.50"), balance.getTaxes());
+        assertEquals(new BigDecimal("25.00"), balance.getDiscounts());
+        assertEquals(new BigDecimal("412.50"), balance.getPayments());
+        assertEquals(0, balance.getBalanceDue().signum());
+
+        // A failed payment's room charges are billable again
+        rest.setStatus(Payment.PaymentStatus.FAILED);
+        assertEquals(new BigDecimal("250.00"), ledgerService.getUnbilledRoomCharges(booking));
+    }
+
+    private static void stateTaxOnly(Payment payment) {
+        payment.setCountyTax(BigDecimal.ZERO);
+        payment.setCityTax(BigDecimal.ZERO);
+        payment.setResortFee(BigDecimal.ZERO);
+    }
+
+    private Payment payment(BigDecimal subtotal, BigDecimal discount, BigDecimal stateTax, BigDecimal amount) {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        Payment payment = new Payment();
+        payment.setId(9L);
+        payment.setBooking(booking);
+        payment.setSubtotal(subtotal);
+        payment.setDiscountAmount(discount);
+        payment.setStateTax(stateTax);
+        payment.setCountyTax(new BigDecimal("13.50"));
+        payment.setCityTax(new BigDecimal("9.00"));
+        payment.setResortFee(new BigDecimal("9.00"));
+        payment.setAmount(amount);
+        payment.setStatus(Payment.PaymentStatus.PAID);
+        return payment;
+    }
+}
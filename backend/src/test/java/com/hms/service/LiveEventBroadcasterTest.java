@@ -0,0 +1,248 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.model.HotelEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LiveEventBroadcasterTest {
+
+    private LiveEventBroadcaster broadcaster;
+
+    @AfterEach
+    void tearDown() {
+        if (broadcaster != null) {
+            broadcaster.stop();
+        }
+    }
+
+    @Test
+    void testSubscribe_ReplaysEventsAfterLastEventId() throws InterruptedException {
+        broadcaster = start(4, 256);
+        SseEmitter live = broadcaster.subscribe(null);
+        publish(3);
+        await(() -> frames(live).size() == 3);
+        String bootId = bootId();
+
+        SseEmitter reconnected = broadcaster.subscribe(bootId + ":1");
+        SseEmitter upToDate = broadcaster.subscribe(bootId + ":3");
+        await(() -> frames(reconnected).size() == 2);
+
+        assertEquals(List.of(bootId + ":1", bootId + ":2", bootId + ":3"), ids(live));
+        assertEquals(List.of(bootId + ":2", bootId + ":3"), ids(reconnected));
+        assertEquals("BOOKING_CREATED", frames(reconnected).get(0).get("event"));
+        assertTrue(frames(upToDate).isEmpty());
+
+        publish(1);
+        await(() -> frames(reconnected).size() == 3 && frames(upToDate).size() == 1);
+        assertEquals(List.of(bootId + ":4"), ids(upToDate));
+    }
+
+    @Test
+    void testSubscribe_ResyncOnceTheRingHasWrapped() throws InterruptedException {
+        broadcaster = start(4, 256);
+        SseEmitter live = broadcaster.subscribe(null);
+        publish(6);
+        await(() -> frames(live).size() == 6);
+        String bootId = bootId();
+
+        SseEmitter oldest = broadcaster.subscribe(bootId + ":2");
+        SseEmitter wrapped = broadcaster.subscribe(bootId + ":1");
+        SseEmitter restarted = broadcaster.subscribe("previous-boot:5");
+        await(() -> frames(oldest).size() == 4 && frames(wrapped).size() == 1 && frames(restarted).size() == 1);
+
+        assertEquals(List.of(bootId + ":3", bootId + ":4", bootId + ":5", bootId + ":6"), ids(oldest));
+        assertEquals(LiveEventBroadcaster.RESYNC, frames(wrapped).get(0).get("event"));
+        assertNull(frames(wrapped).get(0).get("id"));
+        assertEquals(LiveEventBroadcaster.RESYNC, frames(restarted).get(0).get("event"));
+    }
+
+    @Test
+    void testSlowClient_IsDisconnectedWhenItsQueueIsFull() throws InterruptedException {
+        broadcaster = start(16, 3);
+        // Park the only writer so nothing drains
+        ((ExecutorService) ReflectionTestUtils.getField(broadcaster, "writers")).shutdownNow();
+        ExecutorService stalled = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        stalled.execute(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ReflectionTestUtils.setField(broadcaster, "writers", stalled);
+        SseEmitter slow = broadcaster.subscribe(null);
+        assertEquals(1, broadcaster.getConnectedClients());
+
+        publish(4);
+
+        await(() -> broadcaster.getConnectedClients() == 0);
+        await(() -> Boolean.TRUE.equals(ReflectionTestUtils.getField(slow, "complete")));
+        release.countDown();
+
+        // Reconnecting catches up from the replay buffer
+        SseEmitter caughtUp = broadcaster.subscribe(bootId() + ":1");
+        await(() -> frames(caughtUp).size() == 3);
+        assertTrue(frames(slow).isEmpty());
+    }
+
+    @Test
+    void testOnHotelEvent_DeliveredOnlyAfterCommit() throws InterruptedException {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Config.class)) {
+            LiveEventBroadcaster liveEvents = context.getBean(LiveEventBroadcaster.class);
+            TransactionTemplate transaction = new TransactionTemplate(
+                    context.getBean(PlatformTransactionManager.class));
+            SseEmitter client = liveEvents.subscribe(null);
+
+            transaction.executeWithoutResult(status -> {
+                context.publishEvent(event(1L));
+                sleep(100);
+                assertTrue(frames(client).isEmpty());
+            });
+            await(() -> frames(client).size() == 1);
+
+            transaction.executeWithoutResult(status -> {
+                context.publishEvent(event(2L));
+                status.setRollbackOnly();
+            });
+            context.publishEvent(event(3L));
+            await(() -> frames(client).size() == 2);
+
+            assertEquals(List.of("1", "3"), frames(client).stream()
+                    .map(frame -> frame.get("data").replaceAll(".*\"entityId\":(\\d+).*", "$1")).toList());
+        }
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class Config {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper().findAndRegisterModules();
+        }
+
+        @Bean
+        LiveEventBroadcaster liveEventBroadcaster() {
+            return new LiveEventBroadcaster();
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new AbstractPlatformTransactionManager() {
+                @Override
+                protected Object doGetTransaction() {
+                    return new Object();
+                }
+
+                @Override
+                protected void doBegin(Object transaction, TransactionDefinition definition) {
+                }
+
+                @Override
+                protected void doCommit(DefaultTransactionStatus status) {
+                }
+
+                @Override
+                protected void doRollback(DefaultTransactionStatus status) {
+                }
+            };
+        }
+    }
+
+    private static LiveEventBroadcaster start(int replaySize, int clientQueueSize) {
+        LiveEventBroadcaster started = new LiveEventBroadcaster();
+        ReflectionTestUtils.setField(started, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(started, "replaySize", replaySize);
+        ReflectionTestUtils.setField(started, "clientQueueSize", clientQueueSize);
+        ReflectionTestUtils.setField(started, "timeoutMinutes", 1L);
+        ReflectionTestUtils.setField(started, "writerThreads", 1);
+        started.start();
+        return started;
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            broadcaster.publish(event((long) i));
+        }
+    }
+
+    private String bootId() {
+        return (String) ReflectionTestUtils.getField(broadcaster, "bootId");
+    }
+
+    private static HotelEvent event(Long bookingId) {
+        return new HotelEvent(HotelEvent.EventType.BOOKING_CREATED, bookingId, Map.of("status", "CONFIRMED"));
+    }
+
+    private static List<String> ids(SseEmitter emitter) {
+        return frames(emitter).stream().map(frame -> frame.get("id")).toList();
+    }
+
+    /** What the emitter has buffered for the wire, one map of field to value per event; heartbeats skipped. */
+    private static List<Map<String, String>> frames(SseEmitter emitter) {
+        StringBuilder wire = new StringBuilder();
+        synchronized (emitter) {
+            Set<?> sent = (Set<?>) ReflectionTestUtils.getField(emitter, "earlySendAttempts");
+            for (Object data : sent) {
+                wire.append(((ResponseBodyEmitter.DataWithMediaType) data).getData());
+            }
+        }
+        List<Map<String, String>> frames = new ArrayList<>();
+        for (String block : wire.toString().split("\n\n")) {
+            Map<String, String> frame = new HashMap<>();
+            for (String line : block.split("\n")) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    frame.put(line.substring(0, colon), line.substring(colon + 1));
+                }
+            }
+            if (frame.containsKey("event")) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.NightAuditRun;
+import com.hms.model.Room;
+import com.hms.repository.BookingRepository;
+import com.hms.repository.HousekeepingTaskRepository;
+import com.hms.repository.NightAuditRunRepository;
+import com.hms.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NightAuditServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private HousekeepingTaskRepository taskRepository;
+
+    @Mock
+    private NightAuditRunRepository runRepository;
+
+    @Spy
+    private HotelMetricsService hotelMetricsService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private NightAuditService nightAuditService;
+
+    private final LocalDate businessDate = LocalDate.of(2024, 3, 10);
+    private NightAuditRun stored;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(nightAuditService, "chunkSize", 2);
+        when(runRepository.save(any(NightAuditRun.class))).thenAnswer(invocation -> {
+            NightAuditRun run = invocation.getArgument(0);
+            if (run.getId() == null) {
+                run.setId(1L);
+            }
+            stored = run;
+            return run;
+        });
+    }
+
+    @Test
+    void testRunAudit_MarksNoShowsAcrossChunks() {
+        Booking first = booking(1L, Room.RoomStatus.BOOKED);
+        Booking second = booking(2L, Room.RoomStatus.BOOKED);
+        Booking third = booking(3L, Room.RoomStatus.AVAILABLE);
+
+        when(runRepository.findByBusinessDate(businessDate)).thenReturn(Optional.empty());
+        when(runRepository.findById(1L)).thenAnswer(invocation -> Optional.of(stored));
+        when(bookingRepository.findByStatusAndCheckInDateAndIdGreaterThanOrderByIdAsc(
+                eq(Booking.BookingStatus.CONFIRMED), eq(businessDate), eq(0L), any()))
+                .thenReturn(List.of(first, second));
+        when(bookingRepository.findByStatusAndCheckInDateAndIdGreaterThanOrderByIdAsc(
+                eq(Booking.BookingStatus.CONFIRMED), eq(businessDate), eq(2L), any()))
+                .thenReturn(List.of(third));
+        when(bookingRepository.findByStatusAndCheckInDateAndIdGreaterThanOrderByIdAsc(
+                eq(Booking.BookingStatus.CONFIRMED), eq(businessDate.plusDays(1)), eq(0L), any()))
+                .thenReturn(Collections.emptyList());
+
+        NightAuditRun run = nightAuditService.runAudit(businessDate);
+
+        assertEquals(NightAuditRun.RunStatus.COMPLETED, run.getStatus());
+        assertEquals(NightAuditRun.Phase.DONE, run.getPhase());
+        assertEquals(3, run.getNoShows());
+        assertEquals(Booking.BookingStatus.NO_SHOW, third.getStatus());
+        assertEquals(Room.RoomStatus.AVAILABLE, first.getRoom().getStatus());
+        // Only the rooms that were actually flipped are announced
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testRunAudit_ResumesFromCheckpoint() {
+        NightAuditRun interrupted = new NightAuditRun(businessDate);
+        interrupted.setId(1L);
+        interrupted.setStatus(NightAuditRun.RunStatus.FAILED);
+        interrupted.setPhase(NightAuditRun.Phase.ARRIVALS);
+        interrupted.setLastProcessedId(40L);
+        interrupted.setNoShows(5);
+
+        when(runRepository.findByBusinessDate(businessDate)).thenReturn(Optional.of(interrupted));
+        when(runRepository.findById(1L)).thenAnswer(invocation -> Optional.of(stored));
+        when(bookingRepository.findByStatusAndCheckInDateAndIdGreaterThanOrderByIdAsc(
+                eq(Booking.BookingStatus.CONFIRMED), eq(businessDate.plusDays(1)), eq(40L), any()))
+                .thenReturn(List.of(booking(41L, Room.RoomStatus.AVAILABLE)));
+
+        NightAuditRun run = nightAuditService.runAudit(businessDate);
+
+        assertEquals(NightAuditRun.RunStatus.COMPLETED, run.getStatus());
+        assertEquals(5, run.getNoShows());
+        assertEquals(1, run.getArrivals());
+        verify(bookingRepository, never()).findByStatusAndCheckInDateAndIdGreaterThanOrderByIdAsc(
+                eq(Booking.BookingStatus.CONFIRMED), eq(businessDate), anyLong(), any());
+    }
+
+    private Booking booking(Long id, Room.RoomStatus roomStatus) {
+        Room room = new Room(id, String.valueOf(100 + id), Room.RoomType.SINGLE, new BigDecimal("100.00"),
+                roomStatus, "Room");
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setRoom(room);
+        booking.setCheckInDate(businessDate);
+        booking.setCheckOutDate(businessDate.plusDays(2));
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        return booking;
+    }
+}
@@ -0,0 +1,68 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OccupancyEngineTest {
+
+    private final OccupancyEngine engine = new OccupancyEngine();
+    private final LocalDate march1 = LocalDate.of(2024, 3, 1);
+    private final LocalDate march10 = LocalDate.of(2024, 3, 10);
+
+    @Test
+    void testCompute_CountsEveryNightInsideTheRange() {
+        List<Booking> stays = List.of(
+                // Began before the range: only Mar 1-2 count
+                stay(Room.RoomType.SINGLE, LocalDate.of(2024, 2, 27), LocalDate.of(2024, 3, 3), "500.00"),
+                // Wholly inside: Mar 4-7
+                stay(Room.RoomType.DOUBLE, LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 8), "400.00"),
+                // Runs past the range: only Mar 9-10 count
+                stay(Room.RoomType.SUITE, LocalDate.of(2024, 3, 9), LocalDate.of(2024, 3, 14), "1000.00"));
+
+        OccupancyEngine.Occupancy occupancy = engine.compute(march1, march10, stays,
+                Map.of(Room.RoomType.SINGLE, 2, Room.RoomType.DOUBLE, 2, Room.RoomType.SUITE, 1));
+
+        assertEquals(8, occupancy.getRoomNightsSold());
+        assertEquals(2, occupancy.getRoomNightsSold(Room.RoomType.SINGLE));
+        assertEquals(4, occupancy.getRoomNightsSold(Room.RoomType.DOUBLE));
+        assertEquals(2, occupancy.getRoomNightsSold(Room.RoomType.SUITE));
+        assertEquals(50, occupancy.getRoomNightsAvailable());
+        assertEquals(1, occupancy.getOccupied(LocalDate.of(2024, 3, 2)));
+        assertEquals(0, occupancy.getOccupied(LocalDate.of(2024, 3, 3)));
+        assertEquals(0, occupancy.getOccupied(LocalDate.of(2024, 3, 8)));
+        // 2 x 100.00 + 4 x 100.00 + 2 x 200.00
+        assertEquals(new BigDecimal("1000.00"), occupancy.getRoomRevenue());
+    }
+
+    @Test
+    void testCompute_SpreadsRemainderCentsOverFirstNights() {
+        // 100.00 over 3 nights: 33.34, 33.33, 33.33
+        Booking stay = stay(Room.RoomType.SINGLE, march1, march1.plusDays(3), "100.00");
+
+        OccupancyEngine.Occupancy whole = engine.compute(march1, march10, List.of(stay), Map.of());
+        OccupancyEngine.Occupancy lastNights = engine.compute(march1.plusDays(1), march10, List.of(stay), Map.of());
+
+        assertEquals(new BigDecimal("100.00"), whole.getRoomRevenue());
+        assertEquals(new BigDecimal("66.66"), lastNights.getRoomRevenue());
+        assertEquals(new BigDecimal("33.34"), whole.toDaily().get(0).get("roomRevenue"));
+    }
+
+    private Booking stay(Room.RoomType type, LocalDate checkIn, LocalDate checkOut, String total) {
+        Room room = new Room(null, "101", type, new BigDecimal("100.00"), Room.RoomStatus.BOOKED, "Room");
+        Booking booking = new Booking();
+        booking.setRoom(room);
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        booking.setTotalAmount(new BigDecimal(total));
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        return booking;
+    }
+}
@@ -0,0 +1,49 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaceMatrixTest {
+
+    private final PaceMatrix matrix = new PaceMatrix(365);
+    private final LocalDate stayDate = LocalDate.of(2024, 7, 10);
+
+    @Test
+    void testOnTheBooks_OnlyCountsNightsBookedByTheAsOfDate() {
+        matrix.add(stayDate, stayDate.minusDays(60), 1);
+        matrix.add(stayDate, stayDate.minusDays(20), 1);
+        matrix.add(stayDate, stayDate.minusDays(3), 1);
+
+        assertEquals(1, matrix.onTheBooks(stayDate, stayDate.minusDays(30)));
+        assertEquals(2, matrix.onTheBooks(stayDate, stayDate.minusDays(20)));
+        assertEquals(3, matrix.onTheBooks(stayDate, stayDate));
+        assertEquals(1, matrix.count(stayDate, 15, 30));
+    }
+
+    @Test
+    void testAddStay_CoversEachNightAndCanBeReversed() {
+        LocalDate bookedOn = stayDate.minusDays(10);
+        matrix.addStay(stayDate, stayDate.plusDays(3), bookedOn, 1, stayDate.minusDays(100), stayDate.plusDays(100));
+
+        assertEquals(1, matrix.count(stayDate, 10, 10));
+        assertEquals(1, matrix.count(stayDate.plusDays(2), 12, 12));
+        assertEquals(0, matrix.onTheBooks(stayDate.plusDays(3), stayDate));
+
+        // A cancellation takes the same nights back off
+        matrix.addStay(stayDate, stayDate.plusDays(3), bookedOn, -1, stayDate.minusDays(100), stayDate.plusDays(100));
+        assertEquals(0, matrix.onTheBooks(stayDate.plusDays(1), stayDate));
+    }
+
+    @Test
+    void testAdd_ClampsLeadTimeToTheMaximum() {
+        matrix.add(stayDate, stayDate.minusDays(500), 1);
+        matrix.add(stayDate, stayDate.plusDays(2), 1);
+
+        assertEquals(1, matrix.count(stayDate, 365, 365));
+        assertEquals(1, matrix.count(stayDate, 0, 0));
+        assertEquals(2, matrix.onTheBooks(stayDate, stayDate));
+    }
+}
@@ -0,0 +1,69 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedHashJoinTest {
+
+    private final Path parent;
+
+    public PartitionedHashJoinTest() throws IOException {
+        parent = Files.createTempDirectory("join-test");
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        Files.deleteIfExists(parent);
+    }
+
+    @Test
+    void testJoin_VisitsEveryKeyOnceWithBothSides() throws IOException {
+        Map<String, int[]> sizes = new HashMap<>();
+        try (PartitionedHashJoin join = new PartitionedHashJoin(parent, 8)) {
+            for (int i = 0; i < 10_000; i++) {
+                join.addLeft("k" + i, Integer.toString(i), null);
+            }
+            for (int i = 5_000; i < 15_000; i++) {
+                join.addRight("k" + i, Integer.toString(i));
+            }
+            join.addLeft("k1", "duplicate", "x");
+
+            join.join((key, left, right) -> {
+                assertNull(sizes.put(key, new int[] { left.size(), right.size() }), "visited twice: " + key);
+                for (String[] record : right) {
+                    assertEquals(key, "k" + record[0]);
+                }
+            });
+        }
+
+        assertEquals(15_000, sizes.size());
+        assertArrayEquals(new int[] { 2, 0 }, sizes.get("k1"));
+        assertArrayEquals(new int[] { 1, 0 }, sizes.get("k4999"));
+        assertArrayEquals(new int[] { 1, 1 }, sizes.get("k5000"));
+        assertArrayEquals(new int[] { 0, 1 }, sizes.get("k14999"));
+        try (var remaining = Files.list(parent)) {
+            assertEquals(0, remaining.count(), "spill files left behind");
+        }
+    }
+
+    @Test
+    void testJoin_KeepsNullFieldsAndRejectsWritesAfterJoin() throws IOException {
+        try (PartitionedHashJoin join = new PartitionedHashJoin(parent, 4)) {
+            join.addLeft("a", "1", null, "3");
+            join.join((key, left, right) -> {
+                List<String[]> records = left;
+                assertArrayEquals(new String[] { "1", null, "3" }, records.get(0));
+            });
+            assertThrows(IllegalStateException.class, () -> join.addRight("b", "2"));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.LedgerEntry;
+import com.hms.model.Payment;
+import com.hms.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentCaptureServiceTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private PaymentGateway gateway;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private RevenueBreakdownService revenueBreakdownService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private PaymentCaptureService paymentCaptureService;
+
+    @Test
+    void testCapture_SuccessMarksCapturedAndPostsPayment() {
+        Payment payment = authorizedPayment(0);
+        payment.setPaymentDate(LocalDateTime.of(2024, 3, 31, 23, 50));
+        when(gateway.capture(null, new BigDecimal("250.00"), "capture-9")).thenReturn("sim_1");
+        when(paymentRepository.markCaptured(eq(9L), eq("sim_1"), any(), eq(1), eq(Payment.PaymentStatus.CAPTURED),
+                eq(Payment.PaymentStatus.AUTHORIZED))).thenReturn(1);
+
+        paymentCaptureService.capture(payment);
+
+        verify(ledgerService).post(eq(1L), eq(9L), eq(LedgerEntry.EntryType.PAYMENT), eq(new BigDecimal("-250.00")),
+                anyString());
+        // Dropped from the revenue report's closed-period cache
+        verify(revenueBreakdownService).evict(LocalDate.of(2024, 3, 31));
+        assertEquals(1, paymentCaptureService.getStats().get("captured"));
+    }
+
+    @Test
+    void testCapture_TransientFailureSchedulesRetryWithBackoff() {
+        Payment payment = authorizedPayment(1);
+        when(gateway.capture(any(), any(), anyString())).thenThrow(new RuntimeException("Gateway timeout"));
+
+        paymentCaptureService.capture(payment);
+
+        verify(paymentRepository).scheduleCaptureRetry(eq(9L), eq(2), any(), eq("Gateway timeout"),
+                eq(Payment.PaymentStatus.AUTHORIZED));
+        verify(paymentRepository, never()).markCaptureFailed(any(), anyInt(), any(), any(), any());
+        verifyNoInteractions(ledgerService);
+        assertEquals(5000L, paymentCaptureService.backoff(1));
+        assertEquals(20000L, paymentCaptureService.backoff(3));
+    }
+
+    @Test
+    void testCapture_DeclineOrLastAttemptFailsPayment() {
+        when(gateway.capture(any(), any(), anyString()))
+                .thenThrow(new PaymentGateway.CaptureDeclinedException("Capture declined by issuer"))
+                .thenThrow(new RuntimeException("Gateway timeout"));
+
+        paymentCaptureService.capture(authorizedPayment(0));
+        paymentCaptureService.capture(authorizedPayment(4));
+
+        verify(paymentRepository).markCaptureFailed(9L, 1, "Capture declined by issuer",
+                Payment.PaymentStatus.FAILED, Payment.PaymentStatus.AUTHORIZED);
+        verify(paymentRepository).markCaptureFailed(9L, 5, "Gateway timeout",
+                Payment.PaymentStatus.FAILED, Payment.PaymentStatus.AUTHORIZED);
+        verify(paymentRepository, never()).scheduleCaptureRetry(any(), anyInt(), any(), any(), any());
+        verifyNoInteractions(ledgerService);
+    }
+
+    @Test
+    void testCapture_DeclineReversesCheckoutPostings() {
+        Payment payment = authorizedPayment(0);
+        when(gateway.capture(any(), any(), anyString()))
+                .thenThrow(new PaymentGateway.CaptureDeclinedException("Capture declined by issuer"));
+        when(paymentRepository.markCaptureFailed(9L, 1, "Capture declined by issuer",
+                Payment.PaymentStatus.FAILED, Payment.PaymentStatus.AUTHORIZED)).thenReturn(1);
+
+        paymentCaptureService.capture(payment);
+
+        verify(ledgerService).reversePayment(payment);
+        assertEquals(1, paymentCaptureService.getStats().get("failed"));
+    }
+
+    private Payment authorizedPayment(int attempts) {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        Payment payment = new Payment();
+        payment.setId(9L);
+        payment.setBooking(booking);
+        payment.setAmount(new BigDecimal("250.00"));
+        payment.setMethod(Payment.PaymentMethod.CARD);
+        payment.setStatus(Payment.PaymentStatus.AUTHORIZED);
+        payment.setCaptureAttempts(attempts);
+        return payment;
+    }
+}
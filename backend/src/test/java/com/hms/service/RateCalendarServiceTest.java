@@ -0,0 +1,159 @@
+package com.hms.service;
+
+import com.hms.model.RateCalendar;
+import com.hms.model.Room;
+import com.hms.repository.RateCalendarRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateCalendarServiceTest {
+
+    @Mock
+    private RateCalendarRepository rateCalendarRepository;
+
+    @InjectMocks
+    private RateCalendarService rateCalendarService;
+
+    // Thursday 6 June 2024 to Sunday 9 June 2024
+    private static final LocalDate THURSDAY = LocalDate.of(2024, 6, 6);
+
+    private final List<RateCalendar> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        stored.add(rate(THURSDAY, "120.00", null));
+        stored.add(rate(THURSDAY.plusDays(1), "150.00", null));
+        stored.add(rate(THURSDAY.plusDays(2), "150.00", 2));
+        stored.add(rate(THURSDAY.plusDays(3), null, 3));
+        lenient().when(rateCalendarRepository.findAll()).thenReturn(stored);
+    }
+
+    @Test
+    void testFindOverrides_SplitsWeekdayAndWeekendNights() {
+        RateCalendarService.StayOverrides overrides = rateCalendarService.findOverrides(Room.RoomType.DOUBLE,
+                THURSDAY.minusDays(1), THURSDAY.plusDays(4));
+
+        // Friday and Saturday nights are weekend nights; Sunday only carries a minimum stay
+        assertEquals(42000, overrides.getPriceCents());
+        assertEquals(1, overrides.getWeekdayNights());
+        assertEquals(2, overrides.getWeekendNights());
+
+        RateCalendarService.StayOverrides thursdayOnly = rateCalendarService.findOverrides(Room.RoomType.DOUBLE,
+                THURSDAY, THURSDAY.plusDays(1));
+        assertEquals(12000, thursdayOnly.getPriceCents());
+        assertEquals(1, thursdayOnly.getWeekdayNights());
+
+        assertNull(rateCalendarService.findOverrides(Room.RoomType.DOUBLE, THURSDAY.minusDays(5), THURSDAY));
+        assertNull(rateCalendarService.findOverrides(Room.RoomType.DOUBLE, THURSDAY.plusDays(3),
+                THURSDAY.plusDays(6)));
+        assertNull(rateCalendarService.findOverrides(Room.RoomType.SUITE, THURSDAY, THURSDAY.plusDays(3)));
+        assertNull(rateCalendarService.findOverrides(null, THURSDAY, THURSDAY.plusDays(3)));
+        verify(rateCalendarRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testGetMinimumStay_ZeroWithoutARule() {
+        assertEquals(3, rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY.plusDays(3)));
+        assertEquals(2, rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY.plusDays(2)));
+        assertEquals(0, rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY));
+        assertEquals(0, rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY.minusDays(1)));
+        assertEquals(0, rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY.plusDays(4)));
+        assertEquals(0, rateCalendarService.getMinimumStay(Room.RoomType.SINGLE, THURSDAY.plusDays(3)));
+        assertEquals(0, rateCalendarService.getMinimumStay(null, THURSDAY));
+    }
+
+    @Test
+    void testUpsertRates_ReplacesTheSnapshotWithoutTouchingTheOldOne() {
+        Object[] before = calendars();
+        Object oldDouble = before[Room.RoomType.DOUBLE.ordinal()];
+        long[] oldPrices = ((long[]) ReflectionTestUtils.getField(oldDouble, "priceCents")).clone();
+
+        RateCalendar saturday = stored.get(2);
+        RateCalendar sunday = stored.get(3);
+        when(rateCalendarRepository.findByRoomTypeAndStayDateBetweenOrderByStayDate(Room.RoomType.DOUBLE,
+                THURSDAY.plusDays(2), THURSDAY.plusDays(6))).thenReturn(List.of(saturday, sunday));
+        when(rateCalendarRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<RateCalendar> saved = rateCalendarService.upsertRates(Room.RoomType.DOUBLE, THURSDAY.plusDays(2),
+                THURSDAY.plusDays(6), new BigDecimal("200"), null, "Festival");
+
+        assertEquals(5, saved.size());
+        assertSame(saturday, saved.get(0));
+        assertSame(sunday, saved.get(1));
+        assertEquals(3, sunday.getMinStayNights());
+        assertEquals("Festival", saved.get(4).getLabel());
+
+        // Readers holding the previous snapshot still see the old prices
+        assertSame(oldDouble, before[Room.RoomType.DOUBLE.ordinal()]);
+        assertArrayEquals(oldPrices, (long[]) ReflectionTestUtils.getField(oldDouble, "priceCents"));
+
+        Object[] after = calendars();
+        assertNotSame(before, after);
+        assertNotSame(oldDouble, after[Room.RoomType.DOUBLE.ordinal()]);
+        assertSame(before[Room.RoomType.SUITE.ordinal()], after[Room.RoomType.SUITE.ordinal()]);
+
+        assertArrayEquals(new long[] { 12000, 15000, 20000, 20000, 20000, 20000, 20000, -1 },
+                rateCalendarService.getNightlyOverrides(Room.RoomType.DOUBLE, THURSDAY, THURSDAY.plusDays(8)));
+        assertEquals(2, rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY.plusDays(2)));
+        assertEquals(3, rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY.plusDays(3)));
+        assertEquals(0, rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY.plusDays(4)));
+    }
+
+    @Test
+    void testDeleteRates_ReturnsDatesToTheBaseRate() {
+        List<RateCalendar> friday = List.of(stored.get(1));
+        when(rateCalendarRepository.findByRoomTypeAndStayDateBetweenOrderByStayDate(Room.RoomType.DOUBLE,
+                THURSDAY.plusDays(1), THURSDAY.plusDays(1))).thenReturn(friday);
+
+        rateCalendarService.deleteRates(Room.RoomType.DOUBLE, THURSDAY.plusDays(1), THURSDAY.plusDays(1));
+
+        verify(rateCalendarRepository).deleteAll(friday);
+        assertArrayEquals(new long[] { 12000, -1, 15000 },
+                rateCalendarService.getNightlyOverrides(Room.RoomType.DOUBLE, THURSDAY, THURSDAY.plusDays(3)));
+        assertNull(rateCalendarService.getNightlyOverrides(Room.RoomType.DOUBLE, THURSDAY.plusDays(1),
+                THURSDAY.plusDays(2)));
+    }
+
+    @Test
+    void testUpsertRates_RequiresPriceOrMinimumStay() {
+        RuntimeException error = assertThrows(RuntimeException.class, () -> rateCalendarService.upsertRates(
+                Room.RoomType.DOUBLE, THURSDAY, THURSDAY.plusDays(1), null, null, "Empty"));
+        assertEquals("Either price or minStayNights is required", error.getMessage());
+
+        error = assertThrows(RuntimeException.class, () -> rateCalendarService.upsertRates(
+                Room.RoomType.DOUBLE, THURSDAY.plusDays(1), THURSDAY, new BigDecimal("100"), null, null));
+        assertEquals("endDate must not be before startDate", error.getMessage());
+        verify(rateCalendarRepository, never()).saveAll(any());
+    }
+
+    private Object[] calendars() {
+        // Loads the calendar on first use
+        rateCalendarService.getMinimumStay(Room.RoomType.DOUBLE, THURSDAY);
+        return (Object[]) ReflectionTestUtils.getField(rateCalendarService, "calendars");
+    }
+
+    private static RateCalendar rate(LocalDate date, String price, Integer minStayNights) {
+        RateCalendar rate = new RateCalendar();
+        rate.setRoomType(Room.RoomType.DOUBLE);
+        rate.setStayDate(date);
+        rate.setPrice(price == null ? null : new BigDecimal(price));
+        rate.setMinStayNights(minStayNights);
+        return rate;
+    }
+}
@@ -0,0 +1,269 @@
+package com.hms.service;
+
+import com.hms.model.ReconciliationRun;
+import com.hms.repository.ReconciliationExceptionRepository;
+import com.hms.repository.ReconciliationRunRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReconciliationServiceTest {
+
+    @Mock
+    private ReconciliationRunRepository runRepository;
+
+    @Mock
+    private ReconciliationExceptionRepository exceptionRepository;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @InjectMocks
+    private ReconciliationService reconciliationService;
+
+    @TempDir
+    Path dir;
+
+    // Exception rows as batch-inserted: [run_id, type, reference, invoice, payment_id, line, expected, settled, detail, created_at]
+    private final List<Object[]> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reconciliationService, "partitions", 4);
+        lenient().when(runRepository.save(any(ReconciliationRun.class))).thenAnswer(invocation -> {
+            ReconciliationRun run = invocation.getArgument(0);
+            if (run.getId() == null) {
+                ReflectionTestUtils.setField(run, "id", 10L);
+            }
+            return run;
+        });
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            written.addAll(rows);
+            return new int[rows.size()];
+        });
+    }
+
+    @Test
+    void testParseCsvLine_QuotedFields() {
+        assertEquals(List.of("a", "b,c", "say \"hi\"", ""),
+                ReconciliationService.parseCsvLine("a,\"b,c\",\"say \"\"hi\"\"\","));
+        assertEquals(List.of(""), ReconciliationService.parseCsvLine(""));
+        assertEquals(List.of("pi_1", "", "10.00"), ReconciliationService.parseCsvLine("\"pi_1\",,10.00"));
+    }
+
+    @Test
+    void testReconcile_ClassifiesExceptions() throws Exception {
+        paymentsInWindow(
+                payment(1L, "pi_1", "INV-1", "100.00", null, "CAPTURED", "2024-06-01 10:00:00", null),
+                payment(2L, "pi_2", null, "55.00", null, "CAPTURED", "2024-06-01 11:00:00", null),
+                payment(3L, "pi_3", null, "20.00", null, "PAID", "2024-06-01 12:00:00", null),
+                payment(4L, "pi_4", null, "80.00", "10.00", "REFUNDED", "2024-05-30 09:00:00", "2024-06-01 13:00:00"),
+                payment(5L, "pi_8", null, "30.00", null, "CAPTURED", "2024-06-01 23:50:00", null));
+        Path file = settlementFile("settlement-2024-06-01.csv",
+                "\uFEFFReference,Invoice_Number,Amount,Type",
+                "pi_1,INV-1,100.00,CAPTURE",
+                "pi_2,,50.00,capture",
+                "pi_3,,20.00,",
+                "pi_3,,20.00,SALE",
+                "pi_4,,-10.00,REFUND",
+                "",
+                "pi_5,,abc,CAPTURE",
+                "pi_6,,5.00,CHARGEBACK",
+                ",,7.00,CAPTURE");
+
+        ReconciliationRun run = reconciliationService.reconcile(file, dir.resolve("tmp"));
+
+        assertEquals(ReconciliationRun.RunStatus.COMPLETED, run.getStatus());
+        assertEquals(9, run.getLines());
+        assertEquals(5, run.getPayments());
+        assertEquals(3, run.getMatched());
+        assertEquals(6, run.getExceptions());
+        Map<String, List<Object[]>> byType = byType();
+        assertEquals(Long.valueOf(2L), byType.get("AMOUNT_MISMATCH").get(0)[4]);
+        assertEquals(new BigDecimal("55.00"), byType.get("AMOUNT_MISMATCH").get(0)[6]);
+        assertEquals(new BigDecimal("50.00"), byType.get("AMOUNT_MISMATCH").get(0)[7]);
+        assertEquals(Long.valueOf(5L), byType.get("DUPLICATE_SETTLEMENT").get(0)[5]);
+        assertEquals(3, byType.get("INVALID_LINE").size());
+        assertEquals(Long.valueOf(5L), byType.get("NOT_SETTLED").get(0)[4]);
+        assertEquals("CAPTURE not in settlement file", byType.get("NOT_SETTLED").get(0)[8]);
+        verifyNoInteractions(namedJdbcTemplate);
+    }
+
+    @Test
+    void testReconcile_LooksUpLinesOutsideTheWindow() throws Exception {
+        paymentsInWindow();
+        lookUp(payment(5L, "pi_8", null, "30.00", null, "CAPTURED", "2024-06-01 23:50:00", null),
+                payment(9L, "pi_9", "INV-9", "25.00", null, "PAID", "2024-05-20 10:00:00", null),
+                payment(10L, "pi_a", null, "40.00", null, "AUTHORIZED", null, null));
+        Path file = settlementFile("settlement-2024-06-02.csv",
+                "reference,invoice_number,amount,type",
+                "pi_8,,30.00,CAPTURE",
+                ",INV-9,25.00,",
+                "pi_x,,12.00,CAPTURE",
+                "pi_a,,40.00,CAPTURE");
+
+        ReconciliationRun run = reconciliationService.reconcile(file, dir.resolve("tmp"));
+
+        assertEquals(ReconciliationRun.RunStatus.COMPLETED, run.getStatus());
+        assertEquals(2, run.getMatched());
+        assertEquals(2, run.getExceptions());
+        Map<String, List<Object[]>> byType = byType();
+        assertEquals("pi_x", byType.get("UNKNOWN_PAYMENT").get(0)[2]);
+        assertEquals(Long.valueOf(10L), byType.get("STATUS_MISMATCH").get(0)[4]);
+        assertEquals("Settled but payment is AUTHORIZED", byType.get("STATUS_MISMATCH").get(0)[8]);
+    }
+
+    @Test
+    void testReconcile_LateSettlementClearsEarlierNotSettled() throws Exception {
+        paymentsInWindow();
+        lookUp(payment(5L, "pi_8", null, "30.00", null, "CAPTURED", "2024-06-01 23:50:00", null));
+        List<SqlParameterSource> clearParams = new ArrayList<>();
+        doAnswer(invocation -> {
+            clearParams.add(invocation.getArgument(1));
+            feed(invocation.getArgument(2), row("id", 77L, "run_id", 3L));
+            return null;
+        }).when(namedJdbcTemplate).query(startsWith("SELECT e.id"), any(SqlParameterSource.class),
+                any(RowCallbackHandler.class));
+        Path file = settlementFile("settlement-2024-06-02.csv",
+                "reference,amount",
+                "pi_8,30.00");
+
+        ReconciliationRun run = reconciliationService.reconcile(file, dir.resolve("tmp"));
+
+        assertEquals(1, run.getMatched());
+        assertEquals(0, run.getExceptions());
+        assertEquals(List.of(5L), clearParams.get(0).getValue("captures"));
+        assertEquals("CAPTURE not in settlement file", clearParams.get(0).getValue("captureDetail"));
+        verify(namedJdbcTemplate).update(startsWith("DELETE FROM reconciliation_exceptions"),
+                any(SqlParameterSource.class));
+        verify(jdbcTemplate).update(startsWith("UPDATE reconciliation_runs"), eq(1L), eq(3L));
+    }
+
+    @Test
+    void testReconcile_FailsWithoutRequiredColumns() throws Exception {
+        Path file = settlementFile("settlement-2024-06-01.csv", "reference,type", "pi_1,CAPTURE");
+
+        ReconciliationRun run = reconciliationService.reconcile(file, dir.resolve("tmp"));
+
+        assertEquals(ReconciliationRun.RunStatus.FAILED, run.getStatus());
+        assertEquals("Header must have amount and reference or invoice_number columns", run.getError());
+    }
+
+    private Path settlementFile(String name, String... lines) throws IOException {
+        return Files.write(dir.resolve(name), List.of(lines));
+    }
+
+    private Map<String, List<Object[]>> byType() {
+        Map<String, List<Object[]>> byType = new HashMap<>();
+        for (Object[] row : written) {
+            byType.computeIfAbsent((String) row[1], type -> new ArrayList<>()).add(row);
+        }
+        return byType;
+    }
+
+    @SafeVarargs
+    private void paymentsInWindow(Map<String, Object>... rows) throws SQLException {
+        ResultSet resultSet = resultSet(List.of(rows));
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+    }
+
+    @SafeVarargs
+    private void lookUp(Map<String, Object>... rows) {
+        lenient().doAnswer(invocation -> {
+            feed(invocation.getArgument(2), rows);
+            return null;
+        }).when(namedJdbcTemplate).query(startsWith("SELECT id, stripe_payment_intent_id"),
+                any(SqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+
+    @SafeVarargs
+    private static void feed(RowCallbackHandler handler, Map<String, Object>... rows) throws SQLException {
+        ResultSet resultSet = resultSet(List.of(rows));
+        while (resultSet.next()) {
+            handler.processRow(resultSet);
+        }
+    }
+
+    private static Map<String, Object> payment(Long id, String reference, String invoice, String amount,
+            String refund, String status, String settledAt, String refundDate) {
+        return row("id", id, "stripe_payment_intent_id", reference, "invoice_number", invoice,
+                "amount", new BigDecimal(amount), "refund_amount", refund == null ? null : new BigDecimal(refund),
+                "status", status, "settled_at", settledAt == null ? null : Timestamp.valueOf(settledAt),
+                "refund_date", refundDate == null ? null : Timestamp.valueOf(refundDate));
+    }
+
+    private static Map<String, Object> row(Object... columnsAndValues) {
+        Map<String, Object> row = new HashMap<>();
+        for (int i = 0; i < columnsAndValues.length; i += 2) {
+            row.put((String) columnsAndValues[i], columnsAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        int[] index = { -1 };
+        lenient().when(resultSet.next()).thenAnswer(invocation -> ++index[0] < rows.size());
+        lenient().when(resultSet.getLong(anyString()))
+                .thenAnswer(invocation -> ((Number) rows.get(index[0]).get(invocation.getArgument(0))).longValue());
+        lenient().when(resultSet.getString(anyString()))
+                .thenAnswer(invocation -> rows.get(index[0]).get(invocation.getArgument(0)));
+        lenient().when(resultSet.getBigDecimal(anyString()))
+                .thenAnswer(invocation -> rows.get(index[0]).get(invocation.getArgument(0)));
+        lenient().when(resultSet.getTimestamp(anyString()))
+                .thenAnswer(invocation -> rows.get(index[0]).get(invocation.getArgument(0)));
+        return resultSet;
+    }
+}
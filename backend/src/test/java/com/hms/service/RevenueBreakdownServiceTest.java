@@ -0,0 +1,131 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RevenueBreakdownServiceTest {
+
+    private static final LocalDate JAN_2 = LocalDate.of(2024, 1, 2);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RevenueBreakdownService revenueBreakdownService;
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    @Test
+    void testClosedPeriods_AreQueriedOnce() throws Exception {
+        returnRows();
+        rows.add(row(JAN_2, "CARD", 0, 2, "300.00"));
+        rows.add(row(JAN_2, null, 1, 2, "300.00"));
+
+        Map<String, Object> first = revenueBreakdownService.getBreakdown(LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 1, 3), RevenueBreakdownService.Granularity.DAY);
+        Map<String, Object> second = revenueBreakdownService.getBreakdown(LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 1, 3), RevenueBreakdownService.Granularity.DAY);
+
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), any(), any(), any(), any());
+        assertEquals(new BigDecimal("300.00"), revenue(first));
+        assertEquals(new BigDecimal("300.00"), revenue(second));
+        assertEquals(3, revenueBreakdownService.getCacheStats().get("cachedPeriods"));
+    }
+
+    @Test
+    void testOpenPeriod_IsQueriedEveryTimeAndAlone() throws Exception {
+        returnRows();
+        LocalDate today = LocalDate.now();
+
+        revenueBreakdownService.getBreakdown(today.minusDays(2), today, RevenueBreakdownService.Granularity.DAY);
+        revenueBreakdownService.getBreakdown(today.minusDays(2), today, RevenueBreakdownService.Granularity.DAY);
+
+        Timestamp todayStart = Timestamp.valueOf(today.atStartOfDay());
+        Timestamp tomorrowStart = Timestamp.valueOf(today.plusDays(1).atStartOfDay());
+        // Second call only asks for today; the two closed days come from the cache
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowCallbackHandler.class), eq(todayStart),
+                eq(tomorrowStart), eq(todayStart), eq(tomorrowStart));
+        assertEquals(2, revenueBreakdownService.getCacheStats().get("cachedPeriods"));
+    }
+
+    @Test
+    void testEvict_DropsEveryGranularityContainingTheDate() throws Exception {
+        returnRows();
+        for (RevenueBreakdownService.Granularity granularity : RevenueBreakdownService.Granularity.values()) {
+            revenueBreakdownService.getBreakdown(JAN_2, JAN_2, granularity);
+        }
+        assertEquals(3, revenueBreakdownService.getCacheStats().get("cachedPeriods"));
+
+        revenueBreakdownService.evict(JAN_2, null);
+
+        assertEquals(0, revenueBreakdownService.getCacheStats().get("cachedPeriods"));
+        assertEquals(1L, revenueBreakdownService.getCacheStats().get("evictions"));
+        revenueBreakdownService.getBreakdown(JAN_2, JAN_2, RevenueBreakdownService.Granularity.DAY);
+        verify(jdbcTemplate, times(4)).query(anyString(), any(RowCallbackHandler.class), any(), any(), any(), any());
+    }
+
+    @Test
+    void testEvictionDuringQuery_ResultIsNotCached() throws Exception {
+        doAnswer(invocation -> {
+            // A payment changes while the report is being read
+            revenueBreakdownService.evict(JAN_2);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any(), any(), any());
+
+        revenueBreakdownService.getBreakdown(JAN_2, JAN_2, RevenueBreakdownService.Granularity.DAY);
+        revenueBreakdownService.getBreakdown(JAN_2, JAN_2, RevenueBreakdownService.Granularity.DAY);
+
+        assertEquals(0, revenueBreakdownService.getCacheStats().get("cachedPeriods"));
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class), any(), any(), any(), any());
+    }
+
+    // Feeds the rows list to the query's row handler
+    private void returnRows() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        int[] current = { 0 };
+        lenient().when(rs.getTimestamp("period")).thenAnswer(i -> rows.get(current[0])[0]);
+        lenient().when(rs.getString("method")).thenAnswer(i -> rows.get(current[0])[1]);
+        lenient().when(rs.getInt("rollup")).thenAnswer(i -> rows.get(current[0])[2]);
+        lenient().when(rs.getLong("payments")).thenAnswer(i -> rows.get(current[0])[3]);
+        lenient().when(rs.getLong("refunds")).thenReturn(0L);
+        lenient().when(rs.getBigDecimal("revenue")).thenAnswer(i -> rows.get(current[0])[4]);
+        lenient().when(rs.getBigDecimal("refunded")).thenReturn(BigDecimal.ZERO);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (current[0] = 0; current[0] < rows.size(); current[0]++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any(), any(), any());
+    }
+
+    private static Object[] row(LocalDate period, String method, int rollup, long payments, String revenue) {
+        return new Object[] { Timestamp.valueOf(period.atStartOfDay()), method, rollup, payments,
+                new BigDecimal(revenue) };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BigDecimal revenue(Map<String, Object> breakdown) {
+        return (BigDecimal) ((Map<String, Object>) breakdown.get("total")).get("revenue");
+    }
+}
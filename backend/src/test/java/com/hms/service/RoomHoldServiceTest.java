@@ -0,0 +1,188 @@
+package com.hms.service;
+
+import com.hms.model.Booking;
+import com.hms.model.Room;
+import com.hms.model.RoomHold;
+import com.hms.repository.BookingRepository;
+import com.hms.repository.RoomHoldRepository;
+import com.hms.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RoomHoldServiceTest {
+
+    private static final LocalDate JUN_1 = LocalDate.of(2030, 6, 1);
+
+    @Mock
+    private RoomRepository roomRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private RoomHoldRepository roomHoldRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private RoomHoldService roomHoldService;
+
+    @AfterEach
+    void tearDown() {
+        roomHoldService.shutdown();
+    }
+
+    @Test
+    void testPlaceHold_RejectsOverlappingHold() {
+        availableRoom();
+        ReflectionTestUtils.setField(roomHoldService, "ttlSeconds", 600L);
+        RoomHold first = roomHoldService.placeHold(101L, JUN_1, JUN_1.plusDays(3), "alice@hotel.com");
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> roomHoldService.placeHold(101L, JUN_1.plusDays(2), JUN_1.plusDays(4), "bob@hotel.com"));
+        RoomHold adjacent = roomHoldService.placeHold(101L, JUN_1.plusDays(3), JUN_1.plusDays(5), "bob@hotel.com");
+
+        assertEquals("Room is held by another booking in progress", exception.getMessage());
+        assertEquals(2, roomHoldService.getActiveHoldCount());
+        assertTrue(roomHoldService.isHeld(101L, JUN_1.plusDays(2), JUN_1.plusDays(3)));
+        assertDoesNotThrow(() -> roomHoldService.checkNotHeld(101L, JUN_1, JUN_1.plusDays(2), first.getHoldId()));
+        assertThrows(RuntimeException.class,
+                () -> roomHoldService.checkNotHeld(101L, JUN_1, JUN_1.plusDays(4), first.getHoldId()));
+        assertThrows(RuntimeException.class,
+                () -> roomHoldService.checkNotHeld(101L, JUN_1.plusDays(3), JUN_1.plusDays(4), first.getHoldId()));
+        assertNotEquals(first.getHoldId(), adjacent.getHoldId());
+    }
+
+    @Test
+    void testPlaceHold_KeepsTheRoomLockedUntilTheHoldIsVisible() {
+        availableRoom();
+        ReflectionTestUtils.setField(roomHoldService, "ttlSeconds", 600L);
+        TransactionStatus transaction = mock(TransactionStatus.class);
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+        doAnswer(invocation -> {
+            // A booking waiting on the room lock runs its hold check only after this
+            assertTrue(roomHoldService.isHeld(101L, JUN_1, JUN_1.plusDays(2)));
+            return null;
+        }).when(transactionManager).commit(transaction);
+
+        roomHoldService.placeHold(101L, JUN_1, JUN_1.plusDays(2), "alice@hotel.com");
+
+        InOrder order = inOrder(transactionManager, roomRepository, bookingRepository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(roomRepository).findByIdForUpdate(101L);
+        order.verify(bookingRepository).findBookingsInDateRange(101L, JUN_1, JUN_1.plusDays(2));
+        order.verify(transactionManager).commit(transaction);
+    }
+
+    @Test
+    void testPlaceHold_RollsBackWhenTheRoomIsBooked() {
+        Room room = new Room();
+        room.setStatus(Room.RoomStatus.AVAILABLE);
+        when(roomRepository.findByIdForUpdate(101L)).thenReturn(Optional.of(room));
+        when(bookingRepository.findBookingsInDateRange(101L, JUN_1, JUN_1.plusDays(2)))
+                .thenReturn(List.of(new Booking()));
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> roomHoldService.placeHold(101L, JUN_1, JUN_1.plusDays(2), "alice@hotel.com"));
+
+        assertEquals("Room is already booked for the selected dates", exception.getMessage());
+        verify(transactionManager).rollback(any());
+        assertEquals(0, roomHoldService.getActiveHoldCount());
+    }
+
+    @Test
+    void testReleaseHold_CancelsItBeforeExpiry() {
+        availableRoom();
+        ReflectionTestUtils.setField(roomHoldService, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(roomHoldService, "mirror", true);
+        RoomHold hold = roomHoldService.placeHold(101L, JUN_1, JUN_1.plusDays(2), "alice@hotel.com");
+
+        roomHoldService.releaseHold(hold.getHoldId());
+
+        assertTrue(hold.getExpiry().isCancelled());
+        assertFalse(roomHoldService.isHeld(101L, JUN_1, JUN_1.plusDays(2)));
+        assertEquals(0, roomHoldService.getActiveHoldCount());
+        assertThrows(RuntimeException.class, () -> roomHoldService.releaseHold(hold.getHoldId()));
+        verify(roomHoldRepository).save(hold);
+        verify(roomHoldRepository, timeout(1000)).deleteById(hold.getHoldId());
+    }
+
+    @Test
+    void testExpiredHold_CannotBeRedeemed() throws InterruptedException {
+        availableRoom();
+        ReflectionTestUtils.setField(roomHoldService, "ttlSeconds", 1L);
+        RoomHold hold = roomHoldService.placeHold(101L, JUN_1, JUN_1.plusDays(2), "alice@hotel.com");
+
+        await(() -> roomHoldService.getActiveHoldCount() == 0);
+
+        assertTrue(hold.getExpiry().isExpired());
+        assertFalse(roomHoldService.isHeld(101L, JUN_1, JUN_1.plusDays(2)));
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> roomHoldService.checkNotHeld(101L, JUN_1, JUN_1.plusDays(2), hold.getHoldId()));
+        assertEquals("Hold not found or expired", exception.getMessage());
+        assertDoesNotThrow(() -> roomHoldService.redeemHold(hold.getHoldId()));
+    }
+
+    @Test
+    void testRestoreMirroredHolds_ReschedulesRemainingTime() throws InterruptedException {
+        ReflectionTestUtils.setField(roomHoldService, "mirror", true);
+        LocalDateTime now = LocalDateTime.now();
+        RoomHold longHold = new RoomHold("hold-1", 101L, JUN_1, JUN_1.plusDays(2), "alice@hotel.com",
+                now.plusMinutes(10));
+        RoomHold shortHold = new RoomHold("hold-2", 102L, JUN_1, JUN_1.plusDays(2), "bob@hotel.com",
+                now.plusNanos(200_000_000));
+        when(roomHoldRepository.findByExpiresAtAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(longHold, shortHold));
+
+        roomHoldService.restoreMirroredHolds();
+
+        verify(roomHoldRepository).deleteByExpiresAtBefore(any(LocalDateTime.class));
+        assertEquals(2, roomHoldService.getActiveHoldCount());
+        assertEquals(Set.of(101L, 102L), roomHoldService.getHeldRoomIds(JUN_1, JUN_1.plusDays(1)));
+
+        await(() -> roomHoldService.getActiveHoldCount() == 1);
+
+        assertTrue(roomHoldService.isHeld(101L, JUN_1, JUN_1.plusDays(1)));
+        assertFalse(roomHoldService.isHeld(102L, JUN_1, JUN_1.plusDays(1)));
+        assertThrows(RuntimeException.class, () -> roomHoldService.checkNotHeld(101L, JUN_1, JUN_1.plusDays(1), null));
+        verify(roomHoldRepository, timeout(1000)).deleteById("hold-2");
+    }
+
+    private void availableRoom() {
+        Room room = new Room();
+        room.setStatus(Room.RoomStatus.AVAILABLE);
+        when(roomRepository.findByIdForUpdate(101L)).thenReturn(Optional.of(room));
+        when(bookingRepository.findBookingsInDateRange(anyLong(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
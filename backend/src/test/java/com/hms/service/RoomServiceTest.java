@@ -2,6 +2,7 @@ package com.hms.service;
 
 import com.hms.model.Booking;
 import com.hms.model.Room;
+import com.hms.model.TaxConfiguration;
 import com.hms.repository.BookingRepository;
 import com.hms.repository.RoomRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,16 +10,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class RoomServiceTest {
@@ -29,6 +34,21 @@ public class RoomServiceTest {
     @Mock
     private BookingRepository bookingRepository;
 
+    @Spy
+    private StayPricingEngine stayPricingEngine;
+
+    @Mock
+    private RateCalendarService rateCalendarService;
+
+    @Mock
+    private TaxCalculationService taxCalculationService;
+
+    @Mock
+    private RoomHoldService roomHoldService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RoomService roomService;
 
@@ -93,4 +113,32 @@ public class RoomServiceTest {
         // Assert
         assertTrue(result.isEmpty(), "Should be empty because room1 is SINGLE and we asked for DOUBLE");
     }
+
+    @Test
+    void testFindAvailableRoomsPriced_SingleConflictQueryAndSharedQuotes() {
+        LocalDate checkIn = LocalDate.of(2023, 10, 2); // Monday
+        LocalDate checkOut = LocalDate.of(2023, 10, 4); // Wednesday
+        Room room3 = new Room(3L, "103", Room.RoomType.SINGLE, new BigDecimal("100.00"), Room.RoomStatus.AVAILABLE,
+                "Single Room");
+        Room room4 = new Room(4L, "104", Room.RoomType.SINGLE, new BigDecimal("100.00"), Room.RoomStatus.AVAILABLE,
+                "Single Room");
+        TaxConfiguration config = new TaxConfiguration();
+
+        when(roomRepository.findAll()).thenReturn(Arrays.asList(room1, room2, room3, room4));
+        when(bookingRepository.findBookedRoomIdsInDateRange(checkIn, checkOut)).thenReturn(List.of(4L));
+        when(taxCalculationService.resolveConfiguration("NY", "New York", "New York")).thenReturn(config);
+        when(taxCalculationService.calculateTaxes(any(BigDecimal.class), eq(config)))
+                .thenReturn(Map.of("grandTotal", new BigDecimal("230.00")));
+
+        List<Map<String, Object>> result = roomService.findAvailableRoomsPriced(checkIn, checkOut, null, "NY",
+                "New York", "New York");
+
+        // room2 is in maintenance and room4 is booked
+        assertEquals(2, result.size());
+        assertEquals(new BigDecimal("200.00"), result.get(0).get("subtotal"));
+        assertEquals(2, result.get(1).get("nights"));
+        verify(bookingRepository, never()).findBookingsInDateRange(any(), any(), any());
+        // room1 and room3 share a type and rate, so the stay is priced once
+        verify(taxCalculationService, times(1)).calculateTaxes(any(BigDecimal.class), eq(config));
+    }
 }
@@ -0,0 +1,209 @@
+package com.hms.service;
+
+import com.hms.model.ActivityEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SegmentActivityLogStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private SegmentActivityLogStore store;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (store != null) {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void testAppend_RotatesAtSegmentBytes() throws Exception {
+        store = start(1024, 60, 400);
+        appendAll(0, 40);
+        List<ActivityEvent> events = awaitEntries(40);
+
+        assertTrue(store.listSegments().size() > 3);
+        for (SegmentActivityLogStore.Segment segment : store.listSegments()) {
+            assertEquals(1024, segment.path().toFile().length());
+        }
+        assertEquals("entry-39", events.get(0).details());
+        assertEquals("entry-0", events.get(39).details());
+    }
+
+    @Test
+    void testStart_ResumesAfterLastIntactRecord() throws Exception {
+        store = start(4096, 60, 400);
+        appendAll(0, 10);
+        awaitEntries(10);
+        store.shutdown();
+
+        // A crash mid-write: a record header and body whose CRC does not match
+        SegmentActivityLogStore.Segment last = store.listSegments().get(0);
+        try (FileChannel file = FileChannel.open(last.path(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = file.map(FileChannel.MapMode.READ_WRITE, 0, file.size());
+            while (ActivityLogSegments.next(mapped, mapped.limit()) != null) {
+                // skip to the end of the data
+            }
+            byte[] torn = ActivityLogSegments.encode(System.currentTimeMillis(), "admin@hotel.com", "TORN",
+                    "x".repeat(300));
+            ActivityLogSegments.write(mapped, torn);
+            mapped.put(mapped.position() - 1, (byte) (torn[torn.length - 1] ^ 1));
+            mapped.force();
+        }
+
+        store = start(4096, 60, 400);
+        appendAll(10, 12);
+        List<ActivityEvent> events = awaitEntries(12);
+
+        assertEquals(12, events.size());
+        assertEquals(1, store.listSegments().size());
+        assertEquals("entry-11", events.get(0).details());
+        assertEquals("entry-0", events.get(11).details());
+        assertTrue(events.stream().noneMatch(event -> event.action().equals("TORN")));
+
+        store.shutdown();
+        store = start(4096, 60, 400);
+        assertEquals(12, findAll(100).size());
+    }
+
+    @Test
+    void testFind_AcrossCompressedSealedAndActiveSegments() throws Exception {
+        store = start(1024, 0, 400);
+        appendAll(0, 20);
+        awaitEntries(20);
+        store.compressSealedSegments();
+        appendAll(20, 40);
+        awaitEntries(40);
+
+        List<SegmentActivityLogStore.Segment> segments = store.listSegments();
+        assertTrue(segments.get(0).compressed());
+        assertTrue(segments.stream().filter(segment -> !segment.compressed()).count() > 1);
+
+        List<ActivityEvent> newest = findAll(25);
+        assertEquals(25, newest.size());
+        for (int i = 0; i < 25; i++) {
+            assertEquals("entry-" + (39 - i), newest.get(i).details());
+        }
+        List<ActivityEvent> all = findAll(100);
+        assertEquals(40, all.size());
+        assertEquals("entry-0", all.get(39).details());
+        assertTrue(store.find(LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1), 100).isEmpty());
+    }
+
+    @Test
+    void testCompress_GzipsColdSegmentsButNotTheActiveOne() throws Exception {
+        store = start(1024, 0, 400);
+        appendAll(0, 20);
+        awaitEntries(20);
+        int count = store.listSegments().size();
+
+        store.compressSealedSegments();
+
+        List<SegmentActivityLogStore.Segment> segments = store.listSegments();
+        assertEquals(count, segments.size());
+        for (int i = 0; i < segments.size() - 1; i++) {
+            assertTrue(segments.get(i).path().toString().endsWith(".seg.gz"));
+        }
+        assertFalse(segments.get(segments.size() - 1).compressed());
+        assertEquals(20, findAll(100).size());
+    }
+
+    @Test
+    void testCompress_DropsExpiredSegments() throws Exception {
+        store = start(1024, 60, 0);
+        appendAll(0, 20);
+        awaitEntries(20);
+        Thread.sleep(10);
+
+        store.compressSealedSegments();
+
+        List<SegmentActivityLogStore.Segment> segments = store.listSegments();
+        assertEquals(1, segments.size());
+        assertFalse(segments.get(0).compressed());
+        List<ActivityEvent> kept = findAll(100);
+        assertFalse(kept.isEmpty());
+        assertTrue(kept.size() < 20);
+        assertEquals("entry-19", kept.get(0).details());
+    }
+
+    @Test
+    void testAppend_InTransactionWaitsForCommit() throws Exception {
+        store = start(4096, 60, 400);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.append("admin@hotel.com", "ROLLED_BACK", "entry-0");
+            List<TransactionSynchronization> rolledBack = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            rolledBack.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            TransactionSynchronizationManager.initSynchronization();
+            store.append("admin@hotel.com", "COMMITTED", "entry-1");
+            Thread.sleep(300);
+            assertTrue(findAll(100).isEmpty());
+
+            List<TransactionSynchronization> committed = TransactionSynchronizationManager.getSynchronizations();
+            committed.forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        List<ActivityEvent> events = awaitEntries(1);
+        Thread.sleep(300);
+        assertEquals(1, findAll(100).size());
+        assertEquals("COMMITTED", events.get(0).action());
+    }
+
+    private SegmentActivityLogStore start(int segmentBytes, long compressAfterMinutes, int retentionDays)
+            throws IOException {
+        SegmentActivityLogStore started = new SegmentActivityLogStore();
+        ReflectionTestUtils.setField(started, "directory", dir.toString());
+        ReflectionTestUtils.setField(started, "segmentBytes", segmentBytes);
+        ReflectionTestUtils.setField(started, "flushMs", 20L);
+        ReflectionTestUtils.setField(started, "compressAfterMinutes", compressAfterMinutes);
+        ReflectionTestUtils.setField(started, "retentionDays", retentionDays);
+        started.start();
+        return started;
+    }
+
+    private void appendAll(int from, int to) {
+        for (int i = from; i < to; i++) {
+            store.append("admin@hotel.com", "UPDATE_ROOM", "entry-" + i + " " + "-".repeat(100));
+        }
+    }
+
+    private List<ActivityEvent> findAll(int limit) {
+        List<ActivityEvent> events = store.find(LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1),
+                limit);
+        return events.stream()
+                .map(event -> new ActivityEvent(event.timestamp(), event.userEmail(), event.action(),
+                        event.details().split(" ")[0]))
+                .toList();
+    }
+
+    private List<ActivityEvent> awaitEntries(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        List<ActivityEvent> events = findAll(1000);
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            events = findAll(1000);
+        }
+        assertEquals(count, events.size());
+        return events;
+    }
+}
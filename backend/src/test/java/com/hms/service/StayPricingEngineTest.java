@@ -0,0 +1,89 @@
+package com.hms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StayPricingEngineTest {
+
+    private final StayPricingEngine engine = new StayPricingEngine();
+
+    /** The original night-by-night loop from BookingService.calculateDynamicPrice. */
+    private static BigDecimal legacyPrice(BigDecimal basePrice, LocalDate checkIn, LocalDate checkOut) {
+        BigDecimal total = BigDecimal.ZERO;
+        LocalDate current = checkIn;
+        while (current.isBefore(checkOut)) {
+            BigDecimal dailyPrice = basePrice;
+            DayOfWeek dayOfWeek = current.getDayOfWeek();
+            if (dayOfWeek == DayOfWeek.FRIDAY || dayOfWeek == DayOfWeek.SATURDAY) {
+                dailyPrice = dailyPrice.multiply(new BigDecimal("1.20"));
+            }
+            total = total.add(dailyPrice);
+            current = current.plusDays(1);
+        }
+        return total;
+    }
+
+    @Test
+    void testMatchesLegacyPricingForRandomStays() {
+        Random random = new Random(20240601L);
+        LocalDate epoch = LocalDate.of(2000, 1, 1);
+
+        for (int i = 0; i < 20_000; i++) {
+            LocalDate checkIn = epoch.plusDays(random.nextInt(365 * 40));
+            // Mostly short stays, with some long and some empty or reversed ranges
+            int nights = random.nextInt(10) == 0 ? random.nextInt(800) - 30 : random.nextInt(15);
+            LocalDate checkOut = checkIn.plusDays(nights);
+            // Scales 0-4 and unscaled values up to 10^9 minor units
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(1_000_000_000), random.nextInt(5));
+
+            BigDecimal expected = legacyPrice(price, checkIn, checkOut);
+            BigDecimal actual = engine.calculateStayPrice(price, checkIn, checkOut);
+
+            // equals, not compareTo: the scale must match too
+            assertEquals(expected, actual, () -> price + " from " + checkIn + " to " + checkOut);
+        }
+    }
+
+    @Test
+    void testFallsBackToBigDecimalOnOverflow() {
+        BigDecimal price = new BigDecimal("92233720368547758.07");
+        LocalDate checkIn = LocalDate.of(2025, 1, 1);
+        LocalDate checkOut = checkIn.plusDays(30);
+
+        assertEquals(legacyPrice(price, checkIn, checkOut), engine.calculateStayPrice(price, checkIn, checkOut));
+    }
+
+    @Test
+    void testOverriddenNightsUseOverridePrice() {
+        BigDecimal price = new BigDecimal("100.00");
+        // Wed to Mon: Wed, Thu, Fri, Sat, Sun
+        LocalDate checkIn = LocalDate.of(2025, 1, 1);
+        LocalDate checkOut = LocalDate.of(2025, 1, 6);
+        // Thursday at 80.00 and Saturday at 250.00
+        RateCalendarService.StayOverrides overrides = new RateCalendarService.StayOverrides(33000, 1, 1);
+
+        BigDecimal total = engine.calculateStayPrice(price, checkIn, checkOut, overrides);
+
+        // Wed 100 + Sun 100 + Fri 120 + overrides 330
+        assertEquals(0, total.compareTo(new BigDecimal("650.00")));
+        assertEquals(legacyPrice(price, checkIn, checkOut),
+                engine.calculateStayPrice(price, checkIn, checkOut, null));
+    }
+
+    @Test
+    void testCountWeekendNights() {
+        // Fri + Sat
+        assertEquals(2, StayPricingEngine.countWeekendNights(DayOfWeek.FRIDAY, 2));
+        // Sun to Thu
+        assertEquals(0, StayPricingEngine.countWeekendNights(DayOfWeek.SUNDAY, 5));
+        // Saturday, then a full week
+        assertEquals(3, StayPricingEngine.countWeekendNights(DayOfWeek.SATURDAY, 8));
+        assertEquals(104, StayPricingEngine.countWeekendNights(DayOfWeek.MONDAY, 364));
+    }
+}
@@ -0,0 +1,77 @@
+package com.hms.service;
+
+import com.hms.model.TaxConfiguration;
+import com.hms.model.TaxQuote;
+import com.hms.model.TaxQuoteRequest;
+import com.hms.repository.TaxConfigurationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaxCalculationServiceTest {
+
+    @Mock
+    private TaxConfigurationRepository taxConfigRepository;
+
+    @InjectMocks
+    private TaxCalculationService taxCalculationService;
+
+    @Test
+    void testQuoteBatch_ResolvesEachJurisdictionOnce() {
+        LocalDate date = LocalDate.of(2024, 6, 1);
+        when(taxConfigRepository.findActiveConfiguration("NY", "New York", "New York", date))
+                .thenReturn(Optional.of(nycConfiguration()));
+        when(taxConfigRepository.findActiveConfiguration("TX", "Travis", "Austin", date))
+                .thenReturn(Optional.empty());
+
+        List<TaxQuote> quotes = taxCalculationService.quoteBatch(List.of(
+                new TaxQuoteRequest(new BigDecimal("450.00"), "NY", "New York", "New York", date),
+                new TaxQuoteRequest(new BigDecimal("129.99"), "TX", "Travis", "Austin", date),
+                new TaxQuoteRequest(new BigDecimal("89.00"), "NY", "New York", "New York", date)));
+
+        assertEquals(3, quotes.size());
+        assertEquals(new BigDecimal("129.99"), quotes.get(1).grandTotal());
+        assertNull(quotes.get(1).taxConfigurationId());
+        assertEquals(7L, quotes.get(2).taxConfigurationId());
+        verify(taxConfigRepository, times(2)).findActiveConfiguration(any(), any(), any(), eq(date));
+    }
+
+    @Test
+    void testQuote_MatchesCalculateTaxes() {
+        TaxConfiguration config = nycConfiguration();
+        BigDecimal subtotal = new BigDecimal("1249.99");
+
+        TaxQuote quote = taxCalculationService.quote(subtotal, config);
+        Map<String, BigDecimal> taxes = taxCalculationService.calculateTaxes(subtotal, config);
+
+        assertEquals(taxes.get("stateTax"), quote.stateTax());
+        assertEquals(taxes.get("countyTax"), quote.countyTax());
+        assertEquals(taxes.get("cityTax"), quote.cityTax());
+        assertEquals(taxes.get("resortFee"), quote.resortFee());
+        assertEquals(taxes.get("grandTotal"), quote.grandTotal());
+    }
+
+    private TaxConfiguration nycConfiguration() {
+        TaxConfiguration config = new TaxConfiguration("NY", "New York", "New York");
+        config.setId(7L);
+        config.setStateSalesTaxRate(new BigDecimal("0.04"));
+        config.setCountyOccupancyTaxRate(new BigDecimal("0.05875"));
+        config.setCityOccupancyTaxRate(new BigDecimal("0.05875"));
+        config.setResortFeeRate(new BigDecimal("0.02"));
+        return config;
+    }
+}
@@ -0,0 +1,212 @@
+package com.hms.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hms.model.TaxLiabilityRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TaxLiabilityReportServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private TaxLiabilityReportService reportService;
+
+    private static final LocalDate FROM = LocalDate.of(2024, 5, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 6, 30);
+
+    @Test
+    void testForEachRow_BindsTheRangeAndSumsTotalTax() throws Exception {
+        rows(row(7L, "TX", "Travis", "Austin", "2024-05-01 00:00:00", 3, 0,
+                "300.00", "18.75", "6.00", "3.00", "15.00"));
+
+        List<TaxLiabilityRow> read = new ArrayList<>();
+        reportService.forEachRow(FROM, TO, read::add);
+
+        assertEquals(1, read.size());
+        TaxLiabilityRow row = read.get(0);
+        assertEquals(7L, row.taxConfigurationId());
+        assertEquals("2024-05", row.month());
+        assertEquals(new BigDecimal("42.75"), row.totalTax());
+
+        // Captures and refunds each bind [from, to + 1 day)
+        ArgumentCaptor<Object> bound = ArgumentCaptor.forClass(Object.class);
+        verify(statement, times(4)).setObject(anyInt(), bound.capture());
+        Timestamp start = Timestamp.valueOf("2024-05-01 00:00:00");
+        Timestamp end = Timestamp.valueOf("2024-07-01 00:00:00");
+        assertEquals(List.of(start, end, start, end), bound.getAllValues());
+        verify(statement).setFetchSize(1000);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testWriteCsv_OneLinePerRowWithEscapedNames() throws Exception {
+        rows(row(7L, "TX", "Travis", "Austin", "2024-05-01 00:00:00", 3, 1,
+                        "275.00", "17.19", "5.50", "2.75", "13.75"),
+                row(null, null, null, null, "2024-06-01 00:00:00", 1, 0,
+                        "40.00", "0.00", "0.00", "0.00", "0.00"),
+                row(9L, "NY", "Kings", "New York, \"NYC\"", "2024-06-01 00:00:00", 2, 0,
+                        "1E+2", "4.00", "4.50", "5.88", "0"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writeCsv(FROM, TO, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("month,tax_configuration_id,state,county,city,payments,refunds,taxable_amount,"
+                + "state_tax,county_tax,city_tax,resort_fee,total_tax", lines[0]);
+        assertEquals("2024-05,7,TX,Travis,Austin,3,1,275.00,17.19,5.50,2.75,13.75,39.19", lines[1]);
+        assertEquals("2024-06,,,,,1,0,40.00,0.00,0.00,0.00,0.00,0.00", lines[2]);
+        assertEquals("2024-06,9,NY,Kings,\"New York, \"\"NYC\"\"\",2,0,100,4.00,4.50,5.88,0,14.38", lines[3]);
+    }
+
+    @Test
+    void testWriteJson_RefundsNetAgainstCapturesInTheTotals() throws Exception {
+        // May: 200.00 captured with 10% state tax. June: a quarter refunded, so a quarter of each tax comes back
+        BigDecimal share = new BigDecimal("50.00").divide(new BigDecimal("200.00"));
+        rows(row(7L, "TX", "Travis", "Austin", "2024-05-01 00:00:00", 1, 0,
+                        "200.00", "20.00", "4.00", "2.00", "10.00"),
+                row(7L, "TX", "Travis", "Austin", "2024-06-01 00:00:00", 0, 1,
+                        refund("200.00", share), refund("20.00", share), refund("4.00", share),
+                        refund("2.00", share), refund("10.00", share)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reportService.writeJson(FROM, TO, out);
+
+        JsonNode report = new ObjectMapper().readTree(out.toByteArray());
+        assertEquals("2024-05-01", report.get("from").asText());
+        assertEquals("2024-06-30", report.get("to").asText());
+        assertEquals(2, report.get("rows").size());
+        JsonNode june = report.get("rows").get(1);
+        assertEquals("2024-06", june.get("month").asText());
+        assertEquals(1, june.get("refunds").asLong());
+        assertAmount("-9.00", june.get("totalTax"));
+
+        JsonNode totals = report.get("totals");
+        assertAmount("150.00", totals.get("taxableAmount"));
+        assertAmount("15.00", totals.get("stateTax"));
+        assertAmount("3.00", totals.get("countyTax"));
+        assertAmount("1.50", totals.get("cityTax"));
+        assertAmount("7.50", totals.get("resortFee"));
+        assertAmount("27.00", totals.get("totalTax"));
+    }
+
+    @Test
+    void testQuery_RefundShareIsCappedAndGuardsZeroAmounts() {
+        String query = (String) ReflectionTestUtils.getField(TaxLiabilityReportService.class, "QUERY");
+
+        // A refund larger than the payment never returns more than the tax collected, and a zero amount no share
+        assertTrue(query.contains("COALESCE(LEAST(p.refund_amount / NULLIF(p.amount, 0), 1), 0) AS share"));
+        for (String column : List.of("subtotal", "state_tax", "county_tax", "city_tax", "resort_fee")) {
+            assertTrue(query.contains("-COALESCE(p." + column + ", 0) * r.share"), column);
+        }
+        assertTrue(query.contains("date_trunc('month', p.refund_date)"));
+    }
+
+    @Test
+    void testValidateRange_RejectsReversedRange() {
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> reportService.forEachRow(TO, FROM, row -> fail("no rows expected")));
+        assertEquals("The to date must not be before the from date", error.getMessage());
+        verifyNoInteractions(dataSource);
+    }
+
+    private static void assertAmount(String expected, JsonNode actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual.decimalValue()), expected + " != " + actual);
+    }
+
+    /** The rounded value the query returns for a refunded tax column. */
+    private static String refund(String collected, BigDecimal share) {
+        return new BigDecimal(collected).multiply(share).negate()
+                .setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    @SafeVarargs
+    private void rows(Map<String, Object>... rows) throws SQLException {
+        ResultSet resultSet = resultSet(List.of(rows));
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+    }
+
+    private static Map<String, Object> row(Long configurationId, String state, String county, String city,
+            String month, long payments, long refunds, String taxable, String stateTax, String countyTax,
+            String cityTax, String resortFee) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("tax_configuration_id", configurationId);
+        row.put("state_code", state);
+        row.put("county", county);
+        row.put("city", city);
+        row.put("month", Timestamp.valueOf(month));
+        row.put("payments", payments);
+        row.put("refunds", refunds);
+        row.put("taxable", new BigDecimal(taxable));
+        row.put("state_tax", new BigDecimal(stateTax));
+        row.put("county_tax", new BigDecimal(countyTax));
+        row.put("city_tax", new BigDecimal(cityTax));
+        row.put("resort_fee", new BigDecimal(resortFee));
+        return row;
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        int[] index = { -1 };
+        boolean[] wasNull = { false };
+        lenient().when(resultSet.next()).thenAnswer(invocation -> ++index[0] < rows.size());
+        lenient().when(resultSet.getLong(anyString())).thenAnswer(invocation -> {
+            Object value = rows.get(index[0]).get(invocation.getArgument(0));
+            wasNull[0] = value == null;
+            return value == null ? 0L : ((Number) value).longValue();
+        });
+        lenient().when(resultSet.wasNull()).thenAnswer(invocation -> wasNull[0]);
+        lenient().when(resultSet.getString(anyString()))
+                .thenAnswer(invocation -> rows.get(index[0]).get(invocation.getArgument(0)));
+        lenient().when(resultSet.getBigDecimal(anyString()))
+                .thenAnswer(invocation -> rows.get(index[0]).get(invocation.getArgument(0)));
+        lenient().when(resultSet.getTimestamp(anyString()))
+                .thenAnswer(invocation -> rows.get(index[0]).get(invocation.getArgument(0)));
+        return resultSet;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hms.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedTimingWheelTest {
+
+    // 8 buckets of 10 ms: one turn of the wheel is 80 ms
+    private final HashedTimingWheel wheel = new HashedTimingWheel("test-wheel", 10, TimeUnit.MILLISECONDS, 8);
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    void testSchedule_RunsOnceTheDelayHasPassed() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicLong firedAt = new AtomicLong();
+        long start = System.nanoTime();
+
+        HashedTimingWheel.Timeout timeout = wheel.schedule(() -> {
+            firedAt.set(System.nanoTime());
+            fired.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, wheel.pendingTimeouts());
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(firedAt.get() - start) >= 40);
+        assertTrue(timeout.isExpired());
+        assertEquals(0, wheel.pendingTimeouts());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    void testSchedule_DeadlineBeyondOneTurnWaitsExtraRounds() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        wheel.schedule(fired::countDown, 250, TimeUnit.MILLISECONDS);
+
+        // Its bucket comes round at 10, 90 and 170 ms before the deadline
+        assertFalse(fired.await(200, TimeUnit.MILLISECONDS));
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 240);
+    }
+
+    @Test
+    void testCancel_BeforeExpiryNeverRuns() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        HashedTimingWheel.Timeout cancelled = wheel.schedule(fired::countDown, 50, TimeUnit.MILLISECONDS);
+        CountDownLatch other = new CountDownLatch(1);
+        wheel.schedule(other::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+
+        assertTrue(other.await(1, TimeUnit.SECONDS));
+        assertFalse(fired.await(100, TimeUnit.MILLISECONDS));
+        assertTrue(cancelled.isCancelled());
+        assertFalse(cancelled.isExpired());
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+
+    @Test
+    void testSchedule_AfterCloseFails() {
+        wheel.close();
+
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, 10, TimeUnit.MILLISECONDS));
+    }
+}
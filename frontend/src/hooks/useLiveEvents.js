@@ -0,0 +1,49 @@
+import { useEffect, useRef } from 'react';
+import { EventStreamService } from '../services/api';
+
+export const EVENT_TYPES = ['ROOM_STATUS_CHANGED', 'BOOKING_CREATED', 'BOOKING_CANCELLED', 'LOW_STOCK', 'RESYNC'];
+
+// One connection per tab, shared by every mounted page
+let source = null;
+const listeners = new Set();
+
+const connect = () => {
+    source = EventStreamService.open();
+    EVENT_TYPES.forEach(type => {
+        source.addEventListener(type, (message) => {
+            const event = type === 'RESYNC' ? { type } : JSON.parse(message.data);
+            listeners.forEach(listener => listener(event));
+        });
+    });
+    // The browser reconnects on its own (resuming from the last event id)
+    // unless the server rejected the stream outright
+    source.onerror = () => {
+        if (source && source.readyState === EventSource.CLOSED && listeners.size > 0) {
+            source = null;
+            setTimeout(() => { if (!source && listeners.size > 0) connect(); }, 5000);
+        }
+    };
+};
+
+/**
+ * Calls onEvent for each live event from /api/events/stream. A RESYNC event
+ * means some events were missed and the page should refetch its data.
+ */
+export const useLiveEvents = (onEvent) => {
+    const handler = useRef(onEvent);
+    handler.current = onEvent;
+
+    useEffect(() => {
+        if (!localStorage.getItem('token')) return undefined;
+        const listener = (event) => handler.current(event);
+        listeners.add(listener);
+        if (!source) connect();
+        return () => {
+            listeners.delete(listener);
+            if (listeners.size === 0 && source) {
+                source.close();
+                source = null;
+            }
+        };
+    }, []);
+};
@@ -1,12 +1,21 @@
 import React, { useEffect, useState } from 'react';
 import { BookingService, RoomService, GuestService } from '../services/api';
-import { Plus, Calendar, CheckCircle, XCircle, Clock, X, Search, Filter, Trash2, Edit2 } from 'lucide-react';
+import { Plus, Calendar, CheckCircle, XCircle, Clock, X, Search, Filter, Trash2, Edit2, LogIn, LogOut } from 'lucide-react';
 import { motion, AnimatePresence } from 'framer-motion';
 
+// Same default jurisdiction as the payment checkout
+const DEFAULT_TAX_LOCATION = { stateCode: 'NY', county: 'New York', city: 'New York' };
+
 const Bookings = () => {
     const [bookings, setBookings] = useState([]);
     const [rooms, setRooms] = useState([]);
     const [guests, setGuests] = useState([]);
+    // Stay quotes from the priced availability search, keyed by room id
+    const [quotes, setQuotes] = useState({});
+    // Hold on the selected room while the form is open
+    const [holdId, setHoldId] = useState(null);
+    // One key per new-booking form, so a resubmit after a timeout cannot double book
+    const [idempotencyKey, setIdempotencyKey] = useState(null);
     const [loading, setLoading] = useState(true);
     const [showModal, setShowModal] = useState(false);
     const [isEditing, setIsEditing] = useState(false);
@@ -77,6 +86,16 @@ const Bookings = () => {
         }
     };
 
+    const handleStayAction = async (action, id, label) => {
+        try {
+            await action(id);
+            fetchBookings();
+        } catch (error) {
+            console.error(`Failed to ${label}`, error);
+            alert(`Failed to ${label}. ` + (error.response?.data || 'Please try again.'));
+        }
+    };
+
     const openAddModal = () => {
         setFormData({
             roomId: '',
@@ -89,6 +108,7 @@ const Bookings = () => {
         });
         setIsEditing(false);
         setCurrentBookingId(null);
+        setIdempotencyKey(crypto.randomUUID());
         setShowModal(true);
     };
 
@@ -110,7 +130,8 @@ const Bookings = () => {
             if (isEditing) {
                 await BookingService.updateBooking(currentBookingId, bookingData);
             } else {
-                await BookingService.createBooking(bookingData);
+                await BookingService.createBooking(bookingData, holdId || undefined, idempotencyKey);
+                setHoldId(null);
             }
 
             setShowModal(false);
@@ -128,20 +149,37 @@ const Bookings = () => {
         });
     };
 
+    const releaseHold = () => {
+        if (holdId) {
+            RoomService.releaseHold(holdId).catch(() => { /* already expired */ });
+            setHoldId(null);
+        }
+    };
+
+    const closeModal = () => {
+        releaseHold();
+        setShowModal(false);
+    };
+
     const handleDateChange = async (e) => {
+        releaseHold();
         const { name, value } = e.target;
         const updatedFormData = { ...formData, [name]: value };
         setFormData(updatedFormData);
 
         if (updatedFormData.checkInDate && updatedFormData.checkOutDate) {
             try {
-                const response = await RoomService.getAvailableRooms(
+                const response = await RoomService.getAvailableRoomsPriced(
                     updatedFormData.checkInDate,
-                    updatedFormData.checkOutDate
+                    updatedFormData.checkOutDate,
+                    undefined,
+                    DEFAULT_TAX_LOCATION
                 );
-                setRooms(response.data);
+                const availableRooms = response.data.map(quote => quote.room);
+                setRooms(availableRooms);
+                setQuotes(Object.fromEntries(response.data.map(quote => [quote.room.id, quote])));
 
-                if (updatedFormData.roomId && !response.data.find(r => r.id === parseInt(updatedFormData.roomId))) {
+                if (updatedFormData.roomId && !availableRooms.find(r => r.id === parseInt(updatedFormData.roomId))) {
                     // If editing, keep the current room even if technically "booked" (by this booking)
                     // But for simplicity, we might force re-selection or handle this better in backend
                     // For now, let's just warn or reset if it's a new booking
@@ -159,8 +197,19 @@ const Bookings = () => {
         const roomId = e.target.value;
         const selectedRoom = rooms.find(r => r.id === parseInt(roomId));
 
+        releaseHold();
+        if (selectedRoom && !isEditing && formData.checkInDate && formData.checkOutDate) {
+            RoomService.holdRoom(selectedRoom.id, formData.checkInDate, formData.checkOutDate)
+                .then(response => setHoldId(response.data.holdId))
+                .catch(error => alert('Room could not be held: ' + (error.response?.data || 'Please pick another room.')));
+        }
+
         if (selectedRoom && formData.checkInDate && formData.checkOutDate) {
-            const price = calculateEstimatedPrice(selectedRoom, formData.checkInDate, formData.checkOutDate);
+            // Prefer the server quote, which includes rate calendar overrides
+            const quote = quotes[selectedRoom.id];
+            const price = quote && quote.subtotal != null
+                ? Number(quote.subtotal)
+                : calculateEstimatedPrice(selectedRoom, formData.checkInDate, formData.checkOutDate);
             setFormData({
                 ...formData,
                 roomId: roomId,
@@ -203,7 +252,10 @@ const Bookings = () => {
         switch (status) {
             case 'CONFIRMED': return 'bg-emerald-100 text-emerald-700';
             case 'PENDING': return 'bg-amber-100 text-amber-700';
+            case 'CHECKED_IN': return 'bg-sky-100 text-sky-700';
+            case 'CHECKED_OUT': return 'bg-slate-100 text-slate-700';
             case 'CANCELLED': return 'bg-rose-100 text-rose-700';
+            case 'NO_SHOW': return 'bg-orange-100 text-orange-700';
             default: return 'bg-gray-100 text-gray-700';
         }
     };
@@ -306,6 +358,24 @@ const Bookings = () => {
                                 </td>
                                 <td className="px-6 py-4 whitespace-nowrap text-sm font-medium">
                                     <div className="flex gap-2">
+                                        {booking.status === 'CONFIRMED' && (
+                                            <button
+                                                onClick={() => handleStayAction(BookingService.checkIn, booking.id, 'check in')}
+                                                className="p-2 text-gray-400 hover:text-sky-600 hover:bg-sky-50 rounded-lg transition-all"
+                                                title="Check In"
+                                            >
+                                                <LogIn size={18} />
+                                            </button>
+                                        )}
+                                        {booking.status === 'CHECKED_IN' && (
+                                            <button
+                                                onClick={() => handleStayAction(BookingService.checkOut, booking.id, 'check out')}
+                                                className="p-2 text-gray-400 hover:text-slate-600 hover:bg-slate-50 rounded-lg transition-all"
+                                                title="Check Out"
+                                            >
+                                                <LogOut size={18} />
+                                            </button>
+                                        )}
                                         <button
                                             onClick={() => handleEdit(booking)}
                                             className="p-2 text-gray-400 hover:text-indigo-600 hover:bg-indigo-50 rounded-lg transition-all"
@@ -335,7 +405,7 @@ const Bookings = () => {
                             initial={{ opacity: 0 }}
                             animate={{ opacity: 1 }}
                             exit={{ opacity: 0 }}
-                            onClick={() => setShowModal(false)}
+                            onClick={closeModal}
                             className="absolute inset-0 bg-black/40 backdrop-blur-sm"
                         />
                         <motion.div
@@ -349,7 +419,7 @@ const Bookings = () => {
                                     {isEditing ? 'Edit Booking' : 'New Booking'}
                                 </h2>
                                 <button
-                                    onClick={() => setShowModal(false)}
+                                    onClick={closeModal}
                                     className="p-2 hover:bg-gray-200 rounded-full transition-colors text-gray-500"
                                 >
                                     <X size={20} />
@@ -446,6 +516,11 @@ const Bookings = () => {
                                         </span>
                                     </div>
                                     <p className="text-xs text-gray-400 mt-1">Includes 20% weekend surcharge</p>
+                                    {quotes[parseInt(formData.roomId)]?.grandTotal != null && (
+                                        <p className="text-xs text-gray-500 mt-1">
+                                            ${Number(quotes[parseInt(formData.roomId)].grandTotal).toFixed(2)} with estimated taxes
+                                        </p>
+                                    )}
                                 </div>
 
                                 <div>
@@ -458,14 +533,17 @@ const Bookings = () => {
                                     >
                                         <option value="PENDING">Pending</option>
                                         <option value="CONFIRMED">Confirmed</option>
+                                        <option value="CHECKED_IN">Checked In</option>
+                                        <option value="CHECKED_OUT">Checked Out</option>
                                         <option value="CANCELLED">Cancelled</option>
+                                        <option value="NO_SHOW">No Show</option>
                                     </select>
                                 </div>
 
                                 <div className="flex gap-3 pt-4">
                                     <button
                                         type="button"
-                                        onClick={() => setShowModal(false)}
+                                        onClick={closeModal}
                                         className="flex-1 px-4 py-2 border border-gray-200 text-gray-700 rounded-xl hover:bg-gray-50 transition font-medium"
                                     >
                                         Cancel
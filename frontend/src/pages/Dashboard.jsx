@@ -1,5 +1,6 @@
-import React, { useEffect, useState } from 'react';
+import React, { useCallback, useEffect, useRef, useState } from 'react';
 import { AnalyticsService } from '../services/api';
+import { useLiveEvents } from '../hooks/useLiveEvents';
 import { BarChart, Users, BedDouble, DollarSign, Calendar } from 'lucide-react';
 
 const StatCard = ({ title, value, icon: Icon, color }) => (
@@ -17,17 +18,28 @@ const StatCard = ({ title, value, icon: Icon, color }) => (
 const Dashboard = () => {
     const [stats, setStats] = useState(null);
 
+    const refreshTimer = useRef(null);
+
+    const fetchStats = useCallback(async () => {
+        try {
+            const response = await AnalyticsService.getSummary();
+            setStats(response.data);
+        } catch (error) {
+            console.error('Failed to fetch stats', error);
+        }
+    }, []);
+
     useEffect(() => {
-        const fetchStats = async () => {
-            try {
-                const response = await AnalyticsService.getSummary();
-                setStats(response.data);
-            } catch (error) {
-                console.error('Failed to fetch stats', error);
-            }
-        };
         fetchStats();
-    }, []);
+        return () => clearTimeout(refreshTimer.current);
+    }, [fetchStats]);
+
+    // Coalesce bursts of changes into one summary refresh
+    useLiveEvents((event) => {
+        if (event.type === 'LOW_STOCK') return;
+        clearTimeout(refreshTimer.current);
+        refreshTimer.current = setTimeout(fetchStats, 1000);
+    });
 
     if (!stats) return <div className="text-center mt-10">Loading dashboard...</div>;
 
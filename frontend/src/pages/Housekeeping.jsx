@@ -1,5 +1,6 @@
 import React, { useEffect, useState } from 'react';
 import { HousekeepingService, RoomService, UserService } from '../services/api';
+import { useLiveEvents } from '../hooks/useLiveEvents';
 import { Plus, CheckCircle, Clock, AlertTriangle, Search, Filter, User, Calendar, Wrench } from 'lucide-react';
 import { motion, AnimatePresence } from 'framer-motion';
 
@@ -30,6 +31,15 @@ const Housekeeping = () => {
         fetchData();
     }, []);
 
+    // Patch statuses in place instead of refetching the whole list
+    useLiveEvents((event) => {
+        if (event.type === 'ROOM_STATUS_CHANGED') {
+            setRooms(prev => prev.map(room => room.id === event.entityId ? { ...room, status: event.data.status } : room));
+        } else if (event.type === 'RESYNC') {
+            fetchData();
+        }
+    });
+
     const fetchData = async () => {
         try {
             const [tasksRes, maintenanceRes, roomsRes, usersRes] = await Promise.all([
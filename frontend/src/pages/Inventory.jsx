@@ -1,5 +1,6 @@
 import React, { useEffect, useState } from 'react';
 import { InventoryService } from '../services/api';
+import { useLiveEvents } from '../hooks/useLiveEvents';
 import { Package, Plus, TrendingDown, AlertTriangle, Edit2, Trash2, X, Save } from 'lucide-react';
 import { motion, AnimatePresence } from 'framer-motion';
 
@@ -20,6 +21,12 @@ const Inventory = () => {
         fetchItems();
     }, []);
 
+    useLiveEvents((event) => {
+        if (event.type === 'LOW_STOCK' || event.type === 'RESYNC') {
+            fetchItems();
+        }
+    });
+
     const fetchItems = async () => {
         try {
             const response = await InventoryService.getAllItems();
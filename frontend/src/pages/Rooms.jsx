@@ -1,6 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import { RoomService } from '../services/api';
 import RoomCard from '../components/RoomCard';
+import { useLiveEvents } from '../hooks/useLiveEvents';
 import { Plus, X, Search, Filter } from 'lucide-react';
 import { motion, AnimatePresence } from 'framer-motion';
 
@@ -24,6 +25,15 @@ const Rooms = () => {
         fetchRooms();
     }, []);
 
+    // Patch statuses in place instead of refetching the whole list
+    useLiveEvents((event) => {
+        if (event.type === 'ROOM_STATUS_CHANGED') {
+            setRooms(prev => prev.map(room => room.id === event.entityId ? { ...room, status: event.data.status } : room));
+        } else if (event.type === 'RESYNC') {
+            fetchRooms();
+        }
+    });
+
     const fetchRooms = async () => {
         try {
             const response = await RoomService.getAllRooms();
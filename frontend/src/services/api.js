@@ -35,10 +35,14 @@ export const AuthService = {
 export const RoomService = {
     getAllRooms: () => api.get('/rooms'),
     getAvailableRooms: (checkIn, checkOut, type) => api.get('/rooms/available', { params: { checkIn, checkOut, type } }),
+    getAvailableRoomsPriced: (checkIn, checkOut, type, location = {}) =>
+        api.get('/rooms/available/priced', { params: { checkIn, checkOut, type, ...location } }),
     getRoomById: (id) => api.get(`/rooms/${id}`),
     addRoom: (room) => api.post('/rooms', room),
     updateRoom: (id, room) => api.put(`/rooms/${id}`, room),
     deleteRoom: (id) => api.delete(`/rooms/${id}`),
+    holdRoom: (id, checkIn, checkOut) => api.post(`/rooms/${id}/hold`, { checkIn, checkOut }),
+    releaseHold: (holdId) => api.delete(`/rooms/holds/${holdId}`),
 };
 
 export const GuestService = {
@@ -50,10 +54,16 @@ export const GuestService = {
 
 export const BookingService = {
     getAllBookings: () => api.get('/bookings'),
-    createBooking: (booking) => api.post('/bookings', booking),
+    // Reuse the same idempotencyKey when retrying so the booking is only created once
+    createBooking: (booking, holdId, idempotencyKey) => api.post('/bookings', booking, {
+        params: { holdId },
+        headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {},
+    }),
     updateBooking: (id, booking) => api.put(`/bookings/${id}`, booking),
     deleteBooking: (id) => api.delete(`/bookings/${id}`),
     cancelBooking: (id) => api.post(`/bookings/${id}/cancel`),
+    checkIn: (id) => api.post(`/bookings/${id}/check-in`),
+    checkOut: (id) => api.post(`/bookings/${id}/check-out`),
 };
 
 export const PaymentService = {
@@ -86,6 +96,8 @@ export const HousekeepingService = {
     updateMaintenanceLog: (id, log) => api.put(`/housekeeping/maintenance/${id}`, log),
     deleteMaintenanceLog: (id) => api.delete(`/housekeeping/maintenance/${id}`),
     resolveIssue: (id) => api.put(`/housekeeping/maintenance/${id}/resolve`),
+    getBoard: (date, staffId) => api.get('/housekeeping/board', { params: { date, staffId } }),
+    getBoardChanges: (since) => api.get('/housekeeping/board/changes', { params: { since } }),
 };
 
 export const AnalyticsService = {
@@ -96,6 +108,11 @@ export const AnalyticsService = {
     getMonthlyComparison: (year, month) => api.get('/analytics/monthly-comparison', { params: { year, month } }),
 };
 
+export const ReportService = {
+    getRevenueByMethod: (from, to, granularity = 'DAY') => api.get('/reports/revenue-by-method', { params: { from, to, granularity } }),
+    getTaxLiability: (from, to) => api.get('/reports/tax-liability', { params: { from, to } }),
+};
+
 export const InventoryService = {
     getAllItems: () => api.get('/inventory/items'),
     getItemById: (id) => api.get(`/inventory/items/${id}`),
@@ -107,6 +124,11 @@ export const InventoryService = {
     getAllLogs: () => api.get('/inventory/logs'),
 };
 
+export const EventStreamService = {
+    // EventSource cannot send an Authorization header, so the token goes in the query string
+    open: () => new EventSource(`${api.defaults.baseURL}/events/stream?access_token=${encodeURIComponent(localStorage.getItem('token') || '')}`),
+};
+
 export default api;
 
 